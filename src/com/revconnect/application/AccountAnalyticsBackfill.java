@@ -0,0 +1,26 @@
+package com.revconnect.application;
+
+import com.revconnect.repository.PostRepository;
+import com.revconnect.util.DBConnectionUtil;
+
+/**
+ * One-off job that builds the account dashboard tables from existing
+ * posts, analytics and follows. Safe to re-run: totals, top posts and
+ * followers gained per day are recomputed from the base tables.
+ */
+public class AccountAnalyticsBackfill {
+
+    public static void main(String[] args) {
+        PostRepository postRepository = new PostRepository();
+
+        try {
+            int rows = postRepository.rebuildAccountAnalytics();
+            System.out.println("Account analytics backfill complete (" + rows + " row(s) written).");
+
+        } catch (Exception e) {
+            System.out.println("Account analytics backfill failed: " + e.getMessage());
+        } finally {
+            DBConnectionUtil.closeDataSource();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.revconnect.application;
+
+import com.revconnect.repository.MessageRepository;
+import com.revconnect.util.DBConnectionUtil;
+
+/**
+ * One-off job that builds the conversations summary rows from existing
+ * messages. Safe to re-run: every row is recomputed from the messages
+ * table.
+ */
+public class ConversationSummaryBackfill {
+
+    public static void main(String[] args) {
+        MessageRepository messageRepository = new MessageRepository();
+
+        try {
+            int rows = messageRepository.rebuildConversations();
+            System.out.println("Conversation summary backfill complete (" + rows + " row(s) written).");
+
+        } catch (Exception e) {
+            System.out.println("Conversation summary backfill failed: " + e.getMessage());
+        } finally {
+            DBConnectionUtil.closeDataSource();
+        }
+    }
+}
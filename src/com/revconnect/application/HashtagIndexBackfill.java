@@ -0,0 +1,38 @@
+package com.revconnect.application;
+
+import com.revconnect.repository.PostRepository;
+import com.revconnect.util.DBConnectionUtil;
+
+/**
+ * One-off job that indexes the hashtags of posts created before the
+ * post_hashtags table existed. Safe to re-run: already indexed tags are
+ * skipped. Pass a post id to resume after an interrupted run.
+ */
+public class HashtagIndexBackfill {
+
+    private static final int BATCH_SIZE = 500;
+
+    public static void main(String[] args) {
+        int lastPostId = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        int batches = 0;
+
+        PostRepository postRepository = new PostRepository();
+
+        try {
+            int next;
+            while ((next = postRepository.backfillHashtags(lastPostId, BATCH_SIZE)) > 0) {
+                lastPostId = next;
+                batches++;
+                System.out.println("Indexed hashtags up to post ID " + lastPostId);
+            }
+
+            System.out.println("Hashtag backfill complete (" + batches + " batch(es)).");
+
+        } catch (Exception e) {
+            System.out.println("Hashtag backfill stopped after post ID " + lastPostId
+                    + ": " + e.getMessage());
+        } finally {
+            DBConnectionUtil.closeDataSource();
+        }
+    }
+}
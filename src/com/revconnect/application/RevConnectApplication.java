@@ -1,19 +1,61 @@
 package com.revconnect.application;
 
+import com.revconnect.exception.DatabaseException;
+import com.revconnect.repository.AccountAnalytics;
+import com.revconnect.repository.DAOFactory;
+import com.revconnect.repository.EngagementHistory;
+import com.revconnect.repository.PostAnalyticsBuffer;
+import com.revconnect.repository.PostViewTracker;
+import com.revconnect.schema.SchemaMigrator;
+import com.revconnect.serviceimplementation.NewPostNotifier;
+import com.revconnect.serviceimplementation.NotificationDispatcher;
+import com.revconnect.serviceimplementation.NotificationPurger;
+import com.revconnect.serviceimplementation.ScheduledPostPublisher;
 import com.revconnect.ui.LoginUI;
+import com.revconnect.util.DBConnectionUtil;
 
 public class RevConnectApplication {
 
+    // Runs against an empty in-process store instead of MySQL; nothing survives exit
+    private static final String IN_MEMORY_FLAG = "--in-memory";
+
     public static void main(String[] args) {
+        for (String arg : args) {
+            if (IN_MEMORY_FLAG.equals(arg)) {
+                DAOFactory.use(DAOFactory.Backend.MEMORY);
+            }
+        }
+        boolean inMemory = DAOFactory.isInMemory();
+
     	System.out.println("=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+");
     	System.out.println("       WELCOME TO REVCONNECT ");
     	System.out.println("  Connect  Share  Grow Together");
     	System.out.println("=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+");
         System.out.println();
         
-        
-        LoginUI loginUI = new LoginUI();
-        loginUI.start();
+        if (inMemory) {
+            System.out.println("Running with in-memory storage; data is discarded on exit.");
+            System.out.println();
+        } else {
+            try {
+                SchemaMigrator.migrate();
+            } catch (DatabaseException e) {
+                System.out.println("Database schema check failed: " + e.getMessage());
+                DBConnectionUtil.closeDataSource();
+                return;
+            }
+        }
+
+        ScheduledPostPublisher.getInstance().start();
+        NewPostNotifier.getInstance().start();
+        NotificationPurger.getInstance().start();
+
+        try {
+            LoginUI loginUI = new LoginUI();
+            loginUI.start();
+        } finally {
+            shutdown(inMemory);
+        }
         
         System.out.println();
         System.out.println("\n~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~");
@@ -22,4 +64,33 @@ public class RevConnectApplication {
         System.out.println("~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~");
 
     }
+
+    /*
+     * Each step runs even if an earlier one failed: the write-behind
+     * buffers hold like, comment, share and view counts that exist
+     * nowhere else.
+     */
+    private static void shutdown(boolean inMemory) {
+        stop("scheduled post publisher", () -> ScheduledPostPublisher.getInstance().shutdown());
+        stop("post notifier", () -> NewPostNotifier.getInstance().shutdown());
+        stop("notification purger", () -> NotificationPurger.getInstance().shutdown());
+        stop("notification dispatcher", () -> NotificationDispatcher.getInstance().shutdown());
+
+        // The in-memory DAOs apply analytics directly and never open a connection
+        if (!inMemory) {
+            stop("post analytics", PostAnalyticsBuffer::shutdown);
+            stop("post views", PostViewTracker::shutdown);
+            stop("engagement history", EngagementHistory::shutdown);
+            stop("account analytics", AccountAnalytics::shutdown);
+            stop("connection pool", DBConnectionUtil::closeDataSource);
+        }
+    }
+
+    private static void stop(String name, Runnable step) {
+        try {
+            step.run();
+        } catch (RuntimeException e) {
+            System.err.println("Failed to shut down " + name + ": " + e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -13,6 +13,57 @@ public class AppConfig {
     public static final int MIN_PASSWORD_LENGTH = 8;
     public static final int MIN_USERNAME_LENGTH = 3;
     public static final int MAX_USERNAME_LENGTH = 20;
+    public static final int FEED_SIZE = 100;
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int TIMELINE_BACKFILL_LIMIT = 100;
+    public static final int TIMELINE_FANOUT_THRESHOLD = 5000;
+    public static final int NOTIFICATION_QUEUE_CAPACITY = 10000;
+    public static final int NOTIFICATION_BATCH_SIZE = 200;
+    public static final long NOTIFICATION_FLUSH_INTERVAL = 200;
+    public static final long NOTIFICATION_ENQUEUE_TIMEOUT = 50;
+    public static final int NOTIFICATION_WRITE_ATTEMPTS = 5;
+    public static final long NOTIFICATION_RETRY_BACKOFF = 500;
+    public static final long NOTIFICATION_COALESCE_WINDOW = 60000;
+    public static final int NOTIFICATION_COALESCE_MAX_GROUPS = 10000;
+    public static final int NOTIFICATION_SAMPLE_ACTORS = 3;
+    public static final int NOTIFICATION_FANOUT_CHUNK_SIZE = 500;
+    public static final long NOTIFICATION_FANOUT_CHUNK_DELAY = 50;
+    public static final int NOTIFICATION_RETENTION_PER_USER = 500;
+    public static final int NOTIFICATION_READ_RETENTION_DAYS = 30;
+    public static final int NOTIFICATION_PURGE_BATCH_SIZE = 1000;
+    public static final int NOTIFICATION_PURGE_USER_BATCH_SIZE = 1000;
+    public static final long NOTIFICATION_PURGE_BATCH_DELAY = 100;
+    public static final long NOTIFICATION_PURGE_INTERVAL = 6L * 60 * 60 * 1000;
+    public static final long SHUTDOWN_FLUSH_TIMEOUT = 10000;
+    public static final long ANALYTICS_FLUSH_INTERVAL = 5000;
+    public static final int ANALYTICS_FLUSH_THRESHOLD = 1000;
+    public static final long ANALYTICS_VIEW_FLUSH_INTERVAL = 60000;
+    public static final int ANALYTICS_VIEW_FLUSH_THRESHOLD = 5000;
+    public static final long ANALYTICS_COMPACTION_INTERVAL = 60L * 60 * 1000;
+    public static final int ANALYTICS_HOURLY_RETENTION_DAYS = 7;
+    public static final int ANALYTICS_MAX_TIMELINE_DAYS = 365;
+    public static final int DASHBOARD_TOP_POSTS = 5;
+    public static final int DASHBOARD_TRACKED_POSTS = 20;
+    public static final int DASHBOARD_GROWTH_DAYS = 30;
+    public static final int TRENDING_SIZE = 20;
+    public static final int TRENDING_MAX_TRACKED = 10000;
+    public static final long TRENDING_HALF_LIFE = 6L * 60 * 60 * 1000;
+    public static final long TRENDING_WINDOW = 7L * 24 * 60 * 60 * 1000;
+    public static final long TRENDING_SNAPSHOT_INTERVAL = 30000;
+    public static final long SCHEDULER_POLL_INTERVAL = 30000;
+    public static final long SCHEDULER_CATCH_UP_DELAY = 1000;
+    public static final int SCHEDULER_BATCH_SIZE = 100;
+    public static final int SCHEDULER_QUEUE_CAPACITY = 1000;
+    public static final int USER_CACHE_SIZE = 10000;
+    public static final long USER_CACHE_TTL = 300000;
+    public static final int PROFILE_CACHE_SIZE = 10000;
+    public static final long PROFILE_CACHE_TTL = 300000;
+    public static final int PREFERENCE_CACHE_SIZE = 50000;
+    public static final long PREFERENCE_CACHE_TTL = 3600000;
+    public static final int CONVERSATION_PREVIEW_LENGTH = 100;
+    public static final long UNREAD_RECONCILE_INTERVAL = 300000;
+    public static final long UNREAD_COUNTER_IDLE_TIMEOUT = 1800000;
     
     private AppConfig() {
     }
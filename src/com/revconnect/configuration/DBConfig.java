@@ -2,7 +2,7 @@ package com.revconnect.configuration;
 
 public class DBConfig {
     
-    public static final String DB_URL = "jdbc:mysql://localhost:3306/revconnect_db";
+    public static final String DB_URL = "jdbc:mysql://localhost:3306/revconnect_db?rewriteBatchedStatements=true";
     public static final String DB_USERNAME = "root";
     public static final String DB_PASSWORD = "Pujari@9";
     
@@ -11,6 +11,8 @@ public class DBConfig {
     public static final long CONNECTION_TIMEOUT = 30000;
     public static final long IDLE_TIMEOUT = 600000;
     public static final long MAX_LIFETIME = 1800000;
+    public static final long VALIDATION_TIMEOUT = 5000;
+    public static final long HOUSEKEEPING_INTERVAL = 30000;
     
     private DBConfig() {
     }
@@ -1,10 +1,13 @@
 package com.revconnect.dao;
 
 import com.revconnect.model.Comment;
+import com.revconnect.model.Page;
 import java.util.List;
 
 public interface CommentDAO {
     boolean addComment(int postId, int userId, String text);
+    Comment findById(int commentId);
     List<Comment> findByPostId(int postId);
+    Page<Comment> findByPostIdPage(int postId, String pageToken, int pageSize);
     boolean deleteComment(int commentId, int userId);
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ public interface ConnectionDAO {
     boolean sendRequest(int senderId, int receiverId);
     boolean acceptRequest(int requestId);
     boolean rejectRequest(int requestId);
+    ConnectionRequest findById(int requestId);
     List<ConnectionRequest> findPendingRequests(int userId);
     List<User> findConnections(int userId);
     boolean removeConnection(int userId, int connectionId);
@@ -1,12 +1,17 @@
 package com.revconnect.dao;
 
+import com.revconnect.model.Conversation;
 import com.revconnect.model.Message;
+import com.revconnect.model.Page;
 import java.util.List;
 
 public interface MessageDAO {
     boolean sendMessage(Message message);
     List<Message> getConversation(int userId, int otherUserId);
+    Page<Message> getConversationPage(int userId, int otherUserId, String pageToken, int pageSize);
     boolean markAsRead(int userId, int otherUserId);
     boolean deleteConversation(int userId, int otherUserId);
     int getUnreadCount(int userId);
+    Page<Conversation> getInbox(int userId, String pageToken, int pageSize);
+    int rebuildConversations();
 }
\ No newline at end of file
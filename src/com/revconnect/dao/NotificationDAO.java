@@ -1,15 +1,34 @@
 package com.revconnect.dao;
 
 import com.revconnect.model.Notification;
+import com.revconnect.model.NotificationFanOutJob;
 import com.revconnect.model.NotificationPreference;
+import com.revconnect.model.Page;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface NotificationDAO {
     boolean saveNotification(Notification notification);
+    int saveNotifications(List<Notification> notifications);
+    int foldNotifications(List<Notification> notifications);
+    boolean createFanOutJob(int postId, int authorId);
+    List<NotificationFanOutJob> findPendingFanOutJobs();
+    int saveFanOutChunk(int postId, List<Notification> notifications, int lastRecipientId);
+    boolean deleteFanOutJob(int postId);
+    List<Integer> findReadNotificationIds(LocalDateTime readBefore, int afterId, int limit);
+    int deleteReadNotifications(int fromId, int toId, LocalDateTime readBefore);
+    int findLastNotifiedUserId();
+    List<Integer> findUsersOverNotificationLimit(int keep, int fromUserId, int toUserId);
+    int deleteOldestNotifications(int userId, int keep, int limit);
     List<Notification> findByUserId(int userId);
+    Page<Notification> findByUserIdPage(int userId, String pageToken, int pageSize);
     int countUnread(int userId);
     boolean markAsRead(int notificationId);
     boolean markAllAsRead(int userId);
     NotificationPreference getPreferences(int userId);
+    int getPreferenceMask(int userId);
+    Map<Integer, Integer> getPreferenceMasks(Collection<Integer> userIds);
     boolean updatePreferences(NotificationPreference preferences);
 }
\ No newline at end of file
@@ -1,7 +1,11 @@
 package com.revconnect.dao;
 
+import com.revconnect.model.CreatorDashboard;
+import com.revconnect.model.EngagementBucket;
+import com.revconnect.model.Page;
 import com.revconnect.model.Post;
 import com.revconnect.model.PostAnalytics;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface PostDAO {
@@ -10,12 +14,22 @@ public interface PostDAO {
     boolean deletePost(int postId);
     Post findById(int postId);
     List<Post> findByUserId(int userId);
+    Page<Post> findByUserIdPage(int userId, String pageToken, int pageSize);
     List<Post> getFeed(int userId);
+    Page<Post> getFeedPage(int userId, String pageToken, int pageSize);
     List<Post> getTrendingPosts();
     List<Post> searchByHashtag(String hashtag);
+    Page<Post> searchByHashtagPage(String hashtag, String pageToken, int pageSize);
+    int backfillHashtags(int afterPostId, int batchSize);
     List<Post> getFilteredFeed(int userId, String postType, String userType);
     boolean schedulePost(Post post);
+    List<Post> findDueScheduledPosts(LocalDateTime dueBefore, int limit);
+    boolean markScheduledPostPublished(int postId);
     boolean pinPost(int postId, int userId);
     boolean unpinPost(int postId, int userId);
     PostAnalytics getAnalytics(int postId);
+    void recordViews(int viewerId, List<Post> posts);
+    List<EngagementBucket> getEngagementBuckets(int postId, LocalDateTime from, String granularity);
+    CreatorDashboard getCreatorDashboard(int userId, int growthDays, int topPostCount);
+    int rebuildAccountAnalytics();
 }
\ No newline at end of file
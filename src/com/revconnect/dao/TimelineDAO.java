@@ -0,0 +1,14 @@
+package com.revconnect.dao;
+
+import com.revconnect.model.Post;
+import java.util.List;
+
+public interface TimelineDAO {
+    boolean fanOutPost(Post post);
+    boolean removePost(int postId);
+    boolean backfillAuthor(int userId, int authorId);
+    boolean pruneAuthor(int userId, int authorId);
+    boolean rebuildTimeline(int userId);
+    boolean ensureMaterialized(int userId);
+    List<Integer> findAudience(int authorId, int afterUserId, int limit);
+}
@@ -0,0 +1,113 @@
+package com.revconnect.model;
+
+import java.time.LocalDateTime;
+
+public class Conversation {
+
+    private int userId;
+    private int otherUserId;
+    private String otherUsername;
+    private int lastMessageId;
+    private int lastSenderId;
+    private String lastMessageText;
+    private LocalDateTime lastActivityAt;
+    private int messageCount;
+    private int unreadCount;
+    private int lastReadMessageId;
+
+    public Conversation() {
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public int getOtherUserId() {
+        return otherUserId;
+    }
+
+    public void setOtherUserId(int otherUserId) {
+        this.otherUserId = otherUserId;
+    }
+
+    public String getOtherUsername() {
+        return otherUsername;
+    }
+
+    public void setOtherUsername(String otherUsername) {
+        this.otherUsername = otherUsername;
+    }
+
+    public int getLastMessageId() {
+        return lastMessageId;
+    }
+
+    public void setLastMessageId(int lastMessageId) {
+        this.lastMessageId = lastMessageId;
+    }
+
+    public int getLastSenderId() {
+        return lastSenderId;
+    }
+
+    public void setLastSenderId(int lastSenderId) {
+        this.lastSenderId = lastSenderId;
+    }
+
+    public String getLastMessageText() {
+        return lastMessageText;
+    }
+
+    public void setLastMessageText(String lastMessageText) {
+        this.lastMessageText = lastMessageText;
+    }
+
+    public LocalDateTime getLastActivityAt() {
+        return lastActivityAt;
+    }
+
+    public void setLastActivityAt(LocalDateTime lastActivityAt) {
+        this.lastActivityAt = lastActivityAt;
+    }
+
+    public int getMessageCount() {
+        return messageCount;
+    }
+
+    public void setMessageCount(int messageCount) {
+        this.messageCount = messageCount;
+    }
+
+    public int getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(int unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+
+    public int getLastReadMessageId() {
+        return lastReadMessageId;
+    }
+
+    public void setLastReadMessageId(int lastReadMessageId) {
+        this.lastReadMessageId = lastReadMessageId;
+    }
+
+    @Override
+    public String toString() {
+        return "Conversation{" +
+                "userId=" + userId +
+                ", otherUserId=" + otherUserId +
+                ", lastMessageId=" + lastMessageId +
+                ", lastActivityAt=" + lastActivityAt +
+                ", messageCount=" + messageCount +
+                ", unreadCount=" + unreadCount +
+                ", lastReadMessageId=" + lastReadMessageId +
+                '}';
+    }
+}
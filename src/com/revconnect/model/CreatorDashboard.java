@@ -0,0 +1,150 @@
+package com.revconnect.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CreatorDashboard {
+
+    private int userId;
+    private int totalPosts;
+    private int totalLikes;
+    private int totalComments;
+    private int totalShares;
+    private int totalViews;
+    private int followerCount;
+    private int followersGained;
+    private int followersLost;
+    private int growthDays;
+    private List<PostAnalytics> topPosts = new ArrayList<>();
+    private LocalDateTime lastUpdated;
+
+    public CreatorDashboard() {
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public void setUserId(int userId) {
+        this.userId = userId;
+    }
+
+    public int getTotalPosts() {
+        return totalPosts;
+    }
+
+    public void setTotalPosts(int totalPosts) {
+        this.totalPosts = totalPosts;
+    }
+
+    public int getTotalLikes() {
+        return totalLikes;
+    }
+
+    public void setTotalLikes(int totalLikes) {
+        this.totalLikes = totalLikes;
+    }
+
+    public int getTotalComments() {
+        return totalComments;
+    }
+
+    public void setTotalComments(int totalComments) {
+        this.totalComments = totalComments;
+    }
+
+    public int getTotalShares() {
+        return totalShares;
+    }
+
+    public void setTotalShares(int totalShares) {
+        this.totalShares = totalShares;
+    }
+
+    public int getTotalViews() {
+        return totalViews;
+    }
+
+    public void setTotalViews(int totalViews) {
+        this.totalViews = totalViews;
+    }
+
+    public int getTotalEngagements() {
+        return totalLikes + totalComments + totalShares;
+    }
+
+    // Engagements per hundred views
+    public double getEngagementRate() {
+        return totalViews == 0 ? 0.0 : 100.0 * getTotalEngagements() / totalViews;
+    }
+
+    public int getFollowerCount() {
+        return followerCount;
+    }
+
+    public void setFollowerCount(int followerCount) {
+        this.followerCount = followerCount;
+    }
+
+    public int getFollowersGained() {
+        return followersGained;
+    }
+
+    public void setFollowersGained(int followersGained) {
+        this.followersGained = followersGained;
+    }
+
+    public int getFollowersLost() {
+        return followersLost;
+    }
+
+    public void setFollowersLost(int followersLost) {
+        this.followersLost = followersLost;
+    }
+
+    public int getFollowerGrowth() {
+        return followersGained - followersLost;
+    }
+
+    public int getGrowthDays() {
+        return growthDays;
+    }
+
+    public void setGrowthDays(int growthDays) {
+        this.growthDays = growthDays;
+    }
+
+    public List<PostAnalytics> getTopPosts() {
+        return topPosts;
+    }
+
+    public void setTopPosts(List<PostAnalytics> topPosts) {
+        this.topPosts = topPosts;
+    }
+
+    public LocalDateTime getLastUpdated() {
+        return lastUpdated;
+    }
+
+    public void setLastUpdated(LocalDateTime lastUpdated) {
+        this.lastUpdated = lastUpdated;
+    }
+
+    @Override
+    public String toString() {
+        return "CreatorDashboard{" +
+                "userId=" + userId +
+                ", totalPosts=" + totalPosts +
+                ", totalLikes=" + totalLikes +
+                ", totalComments=" + totalComments +
+                ", totalShares=" + totalShares +
+                ", totalViews=" + totalViews +
+                ", followerCount=" + followerCount +
+                ", followersGained=" + followersGained +
+                ", followersLost=" + followersLost +
+                ", topPosts=" + topPosts.size() +
+                ", lastUpdated=" + lastUpdated +
+                '}';
+    }
+}
@@ -0,0 +1,95 @@
+package com.revconnect.model;
+
+import java.time.LocalDateTime;
+
+public class EngagementBucket {
+
+    public static final String HOUR = "HOUR";
+    public static final String DAY = "DAY";
+
+    private int postId;
+    private String granularity;
+    private LocalDateTime bucketStart;
+    private int likes;
+    private int comments;
+    private int shares;
+    private int views;
+
+    public EngagementBucket() {
+    }
+
+    public EngagementBucket(int postId, String granularity, LocalDateTime bucketStart) {
+        this.postId = postId;
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+    }
+
+    public int getPostId() {
+        return postId;
+    }
+
+    public void setPostId(int postId) {
+        this.postId = postId;
+    }
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public int getLikes() {
+        return likes;
+    }
+
+    public void setLikes(int likes) {
+        this.likes = likes;
+    }
+
+    public int getComments() {
+        return comments;
+    }
+
+    public void setComments(int comments) {
+        this.comments = comments;
+    }
+
+    public int getShares() {
+        return shares;
+    }
+
+    public void setShares(int shares) {
+        this.shares = shares;
+    }
+
+    public int getViews() {
+        return views;
+    }
+
+    public void setViews(int views) {
+        this.views = views;
+    }
+
+    @Override
+    public String toString() {
+        return "EngagementBucket{" +
+                "postId=" + postId +
+                ", granularity='" + granularity + '\'' +
+                ", bucketStart=" + bucketStart +
+                ", likes=" + likes +
+                ", comments=" + comments +
+                ", shares=" + shares +
+                ", views=" + views +
+                '}';
+    }
+}
@@ -1,6 +1,8 @@
 package com.revconnect.model;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Notification {
     
@@ -12,6 +14,8 @@ public class Notification {
     private int relatedUserId;
     private int relatedPostId;
     private LocalDateTime createdAt;
+    private int actorCount = 1;
+    private List<Integer> sampleActorIds = new ArrayList<>();
     
     public Notification() {}
     
@@ -79,6 +83,22 @@ public class Notification {
         this.createdAt = createdAt;
     }
     
+    public int getActorCount() {
+        return actorCount;
+    }
+    
+    public void setActorCount(int actorCount) {
+        this.actorCount = actorCount;
+    }
+    
+    public List<Integer> getSampleActorIds() {
+        return sampleActorIds;
+    }
+    
+    public void setSampleActorIds(List<Integer> sampleActorIds) {
+        this.sampleActorIds = sampleActorIds;
+    }
+    
     @Override
     public String toString() {
         return "Notification{" +
@@ -90,6 +110,7 @@ public class Notification {
                 ", relatedUserId=" + relatedUserId +
                 ", relatedPostId=" + relatedPostId +
                 ", createdAt=" + createdAt +
+                ", actorCount=" + actorCount +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.revconnect.model;
+
+import java.time.LocalDateTime;
+
+public class NotificationFanOutJob {
+
+    private int postId;
+    private int authorId;
+    private int lastRecipientId;
+    private LocalDateTime createdAt;
+
+    public NotificationFanOutJob() {
+    }
+
+    public NotificationFanOutJob(int postId, int authorId, int lastRecipientId,
+                                 LocalDateTime createdAt) {
+        this.postId = postId;
+        this.authorId = authorId;
+        this.lastRecipientId = lastRecipientId;
+        this.createdAt = createdAt;
+    }
+
+    public int getPostId() {
+        return postId;
+    }
+
+    public void setPostId(int postId) {
+        this.postId = postId;
+    }
+
+    public int getAuthorId() {
+        return authorId;
+    }
+
+    public void setAuthorId(int authorId) {
+        this.authorId = authorId;
+    }
+
+    public int getLastRecipientId() {
+        return lastRecipientId;
+    }
+
+    public void setLastRecipientId(int lastRecipientId) {
+        this.lastRecipientId = lastRecipientId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "NotificationFanOutJob{" +
+                "postId=" + postId +
+                ", authorId=" + authorId +
+                ", lastRecipientId=" + lastRecipientId +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
@@ -6,6 +6,15 @@ import java.time.LocalDateTime;
 
 public class NotificationPreference {
     
+    // One bit per flag, as cached by NotificationRepository
+    public static final int CONNECTION_REQUESTS = 1;
+    public static final int NEW_FOLLOWERS = 1 << 1;
+    public static final int LIKES = 1 << 2;
+    public static final int COMMENTS = 1 << 3;
+    public static final int SHARES = 1 << 4;
+    public static final int NEW_POSTS = 1 << 5;
+    public static final int ALL = (1 << 6) - 1;
+    
     private int preferenceId;
     private int userId;
     private boolean connectionRequests;
@@ -116,6 +125,27 @@ public class NotificationPreference {
         this.updatedAt = updatedAt;
     }
     
+    public int toMask() {
+        return (connectionRequests ? CONNECTION_REQUESTS : 0)
+                | (newFollowers ? NEW_FOLLOWERS : 0)
+                | (likes ? LIKES : 0)
+                | (comments ? COMMENTS : 0)
+                | (shares ? SHARES : 0)
+                | (newPosts ? NEW_POSTS : 0);
+    }
+    
+    public static NotificationPreference fromMask(int userId, int mask) {
+        NotificationPreference preference = new NotificationPreference();
+        preference.setUserId(userId);
+        preference.setConnectionRequests((mask & CONNECTION_REQUESTS) != 0);
+        preference.setNewFollowers((mask & NEW_FOLLOWERS) != 0);
+        preference.setLikes((mask & LIKES) != 0);
+        preference.setComments((mask & COMMENTS) != 0);
+        preference.setShares((mask & SHARES) != 0);
+        preference.setNewPosts((mask & NEW_POSTS) != 0);
+        return preference;
+    }
+    
     @Override
     public String toString() {
         return "NotificationPreference{" +
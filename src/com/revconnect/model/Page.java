@@ -0,0 +1,34 @@
+package com.revconnect.model;
+
+import java.util.List;
+
+public class Page<T> {
+
+    private final List<T> items;
+    private final String nextPageToken;
+
+    public Page(List<T> items, String nextPageToken) {
+        this.items = items;
+        this.nextPageToken = nextPageToken;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public boolean hasNext() {
+        return nextPageToken != null;
+    }
+
+    @Override
+    public String toString() {
+        return "Page{" +
+                "items=" + items.size() +
+                ", nextPageToken='" + nextPageToken + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,415 @@
+package com.revconnect.repository;
+
+import com.revconnect.model.PostAnalytics;
+import com.revconnect.configuration.AppConfig;
+import com.revconnect.util.DBConnectionUtil;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind maintenance of the per-account dashboard tables.
+ *
+ * account_analytics holds an account's running totals: posts, likes,
+ * comments, shares, views and followers. account_follower_daily holds
+ * followers gained and lost per day. account_top_posts keeps the
+ * account's DASHBOARD_TRACKED_POSTS most engaged posts. Engagement and
+ * view deltas arrive per post, and the owning account is resolved with a
+ * join on posts when they are flushed. Post and follower deltas arrive
+ * per account. Everything pending is written in one transaction every
+ * ANALYTICS_FLUSH_INTERVAL, so reading a dashboard never has to scan an
+ * account's posts.
+ *
+ * The top-posts list is re-ranked whenever one of its posts changes. A
+ * post that falls out of the tracked set is only ranked again the next
+ * time it gains engagement. That is why more posts are tracked than the
+ * dashboard shows.
+ */
+public class AccountAnalytics {
+
+    // Per post: likes, comments, shares, views
+    private static final int LIKES = 0;
+    private static final int COMMENTS = 1;
+    private static final int SHARES = 2;
+    private static final int VIEWS = 3;
+
+    // Per account and day: posts, likes, comments, shares, followers gained, followers lost
+    private static final int POSTS = 0;
+    private static final int ACCOUNT_LIKES = 1;
+    private static final int ACCOUNT_COMMENTS = 2;
+    private static final int ACCOUNT_SHARES = 3;
+    private static final int FOLLOWERS_GAINED = 4;
+    private static final int FOLLOWERS_LOST = 5;
+
+    private static final ConcurrentHashMap<Integer, long[]> POST_DELTAS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<AccountDay, long[]> ACCOUNT_DELTAS =
+            new ConcurrentHashMap<>();
+    private static final Set<Integer> REMOVED_POSTS = ConcurrentHashMap.newKeySet();
+    private static final Object FLUSH_LOCK = new Object();
+
+    private static final ScheduledExecutorService FLUSHER =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "revconnect-account-analytics");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        FLUSHER.scheduleWithFixedDelay(AccountAnalytics::flushQuietly,
+                AppConfig.ANALYTICS_FLUSH_INTERVAL,
+                AppConfig.ANALYTICS_FLUSH_INTERVAL,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public static void recordEngagement(int postId, int likes, int comments, int shares) {
+        POST_DELTAS.merge(postId, new long[] {likes, comments, shares, 0}, AccountAnalytics::sum);
+    }
+
+    public static void recordView(int postId) {
+        POST_DELTAS.merge(postId, new long[] {0, 0, 0, 1}, AccountAnalytics::sum);
+    }
+
+    public static void recordPost(int userId) {
+        recordAccount(userId, new long[] {1, 0, 0, 0, 0, 0});
+    }
+
+    public static void recordFollower(int userId, int delta) {
+        recordAccount(userId, delta > 0
+                ? new long[] {0, 0, 0, 0, delta, 0}
+                : new long[] {0, 0, 0, 0, 0, -delta});
+    }
+
+    /*
+     * Takes a deleted post's engagement back out of its account's totals.
+     * totals is what the post had accumulated, including deltas still
+     * buffered. The part of it that has not reached account_analytics yet
+     * is simply discarded. A scheduled post that was never published was
+     * never counted, so published is false for it.
+     */
+    public static void removePost(int userId, PostAnalytics totals, boolean published) {
+        synchronized (FLUSH_LOCK) {
+            long[] unflushed = POST_DELTAS.remove(totals.getPostId());
+            if (unflushed == null) {
+                unflushed = new long[4];
+            }
+
+            recordAccount(userId, new long[] {
+                    published ? -1 : 0,
+                    -(totals.getTotalLikes() - unflushed[LIKES]),
+                    -(totals.getTotalComments() - unflushed[COMMENTS]),
+                    -(totals.getTotalShares() - unflushed[SHARES]),
+                    0, 0});
+
+            REMOVED_POSTS.add(totals.getPostId());
+        }
+    }
+
+    public static void flush() throws SQLException {
+        // Top posts are ranked from post_analytics, so bring it up to date first
+        PostAnalyticsBuffer.flush();
+
+        synchronized (FLUSH_LOCK) {
+            List<Integer> postIds = new ArrayList<>();
+            List<long[]> postDeltas = new ArrayList<>();
+            for (Integer postId : POST_DELTAS.keySet()) {
+                long[] taken = POST_DELTAS.remove(postId);
+                if (taken != null) {
+                    postIds.add(postId);
+                    postDeltas.add(taken);
+                }
+            }
+
+            List<AccountDay> accounts = new ArrayList<>();
+            List<long[]> accountDeltas = new ArrayList<>();
+            for (AccountDay key : ACCOUNT_DELTAS.keySet()) {
+                long[] taken = ACCOUNT_DELTAS.remove(key);
+                if (taken != null) {
+                    accounts.add(key);
+                    accountDeltas.add(taken);
+                }
+            }
+
+            List<Integer> removedPostIds = new ArrayList<>(REMOVED_POSTS);
+            REMOVED_POSTS.removeAll(removedPostIds);
+
+            if (postIds.isEmpty() && accounts.isEmpty() && removedPostIds.isEmpty()) {
+                return;
+            }
+
+            try {
+                write(postIds, postDeltas, accounts, accountDeltas, removedPostIds);
+            } catch (SQLException e) {
+                for (int i = 0; i < postIds.size(); i++) {
+                    POST_DELTAS.merge(postIds.get(i), postDeltas.get(i), AccountAnalytics::sum);
+                }
+                for (int i = 0; i < accounts.size(); i++) {
+                    ACCOUNT_DELTAS.merge(accounts.get(i), accountDeltas.get(i), AccountAnalytics::sum);
+                }
+                REMOVED_POSTS.addAll(removedPostIds);
+                throw e;
+            }
+        }
+    }
+
+    public static void shutdown() {
+        FLUSHER.shutdown();
+        flushQuietly();
+    }
+
+    private static void recordAccount(int userId, long[] delta) {
+        ACCOUNT_DELTAS.merge(new AccountDay(userId, LocalDate.now()), delta, AccountAnalytics::sum);
+    }
+
+    private static long[] sum(long[] current, long[] delta) {
+        for (int i = 0; i < current.length; i++) {
+            current[i] += delta[i];
+        }
+        return current;
+    }
+
+    private static void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException | RuntimeException e) {
+            // deltas stay pending and are retried on the next flush
+            System.err.println("Failed to flush account analytics: " + e.getMessage());
+        }
+    }
+
+    private static void write(List<Integer> postIds, List<long[]> postDeltas,
+                              List<AccountDay> accounts, List<long[]> accountDeltas,
+                              List<Integer> removedPostIds) throws SQLException {
+        String postDeltaSql =
+                "INSERT INTO account_analytics (user_id, total_likes, total_comments, " +
+                "total_shares, total_views, last_updated) " +
+                "SELECT user_id, ?, ?, ?, ?, ? FROM posts WHERE post_id = ? " +
+                "ON DUPLICATE KEY UPDATE total_likes = total_likes + VALUES(total_likes), " +
+                "total_comments = total_comments + VALUES(total_comments), " +
+                "total_shares = total_shares + VALUES(total_shares), " +
+                "total_views = total_views + VALUES(total_views), " +
+                "last_updated = VALUES(last_updated)";
+
+        String accountDeltaSql =
+                "INSERT INTO account_analytics (user_id, total_posts, total_likes, " +
+                "total_comments, total_shares, follower_count, last_updated) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE total_posts = total_posts + VALUES(total_posts), " +
+                "total_likes = total_likes + VALUES(total_likes), " +
+                "total_comments = total_comments + VALUES(total_comments), " +
+                "total_shares = total_shares + VALUES(total_shares), " +
+                "follower_count = follower_count + VALUES(follower_count), " +
+                "last_updated = VALUES(last_updated)";
+
+        String followerDailySql =
+                "INSERT INTO account_follower_daily (user_id, day, followers_gained, followers_lost) " +
+                "VALUES (?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE followers_gained = followers_gained + VALUES(followers_gained), " +
+                "followers_lost = followers_lost + VALUES(followers_lost)";
+
+        String rankSql =
+                "INSERT INTO account_top_posts (user_id, post_id, engagement) " +
+                "SELECT p.user_id, p.post_id, " +
+                "pa.total_likes + pa.total_comments + pa.total_shares " +
+                "FROM posts p JOIN post_analytics pa ON pa.post_id = p.post_id " +
+                "WHERE p.post_id = ? " +
+                "ON DUPLICATE KEY UPDATE engagement = VALUES(engagement)";
+
+        String unrankSql = "DELETE FROM account_top_posts WHERE post_id = ?";
+
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Integer> rankedPostIds = new ArrayList<>();
+
+            try (PreparedStatement pstmt = conn.prepareStatement(postDeltaSql)) {
+                for (int i = 0; i < postIds.size(); i++) {
+                    long[] delta = postDeltas.get(i);
+                    pstmt.setLong(1, delta[LIKES]);
+                    pstmt.setLong(2, delta[COMMENTS]);
+                    pstmt.setLong(3, delta[SHARES]);
+                    pstmt.setLong(4, delta[VIEWS]);
+                    pstmt.setTimestamp(5, now);
+                    pstmt.setInt(6, postIds.get(i));
+                    pstmt.addBatch();
+
+                    if (delta[LIKES] != 0 || delta[COMMENTS] != 0 || delta[SHARES] != 0) {
+                        rankedPostIds.add(postIds.get(i));
+                    }
+                }
+                pstmt.executeBatch();
+            }
+
+            try (PreparedStatement totals = conn.prepareStatement(accountDeltaSql);
+                 PreparedStatement daily = conn.prepareStatement(followerDailySql)) {
+
+                for (int i = 0; i < accounts.size(); i++) {
+                    AccountDay account = accounts.get(i);
+                    long[] delta = accountDeltas.get(i);
+
+                    totals.setInt(1, account.userId);
+                    totals.setLong(2, delta[POSTS]);
+                    totals.setLong(3, delta[ACCOUNT_LIKES]);
+                    totals.setLong(4, delta[ACCOUNT_COMMENTS]);
+                    totals.setLong(5, delta[ACCOUNT_SHARES]);
+                    totals.setLong(6, delta[FOLLOWERS_GAINED] - delta[FOLLOWERS_LOST]);
+                    totals.setTimestamp(7, now);
+                    totals.addBatch();
+
+                    if (delta[FOLLOWERS_GAINED] != 0 || delta[FOLLOWERS_LOST] != 0) {
+                        daily.setInt(1, account.userId);
+                        daily.setDate(2, Date.valueOf(account.day));
+                        daily.setLong(3, delta[FOLLOWERS_GAINED]);
+                        daily.setLong(4, delta[FOLLOWERS_LOST]);
+                        daily.addBatch();
+                    }
+                }
+
+                totals.executeBatch();
+                daily.executeBatch();
+            }
+
+            try (PreparedStatement rank = conn.prepareStatement(rankSql);
+                 PreparedStatement unrank = conn.prepareStatement(unrankSql)) {
+
+                for (Integer postId : rankedPostIds) {
+                    rank.setInt(1, postId);
+                    rank.addBatch();
+                }
+                for (Integer postId : removedPostIds) {
+                    unrank.setInt(1, postId);
+                    unrank.addBatch();
+                }
+
+                rank.executeBatch();
+                unrank.executeBatch();
+            }
+
+            trimTopPosts(conn, rankedPostIds);
+
+            conn.commit();
+
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    // ignore
+                }
+            }
+            throw e;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    private static void trimTopPosts(Connection conn, List<Integer> rankedPostIds)
+            throws SQLException {
+        if (rankedPostIds.isEmpty()) {
+            return;
+        }
+
+        StringBuilder ownersSql = new StringBuilder(
+                "SELECT DISTINCT user_id FROM account_top_posts WHERE post_id IN (");
+        for (int i = 0; i < rankedPostIds.size(); i++) {
+            ownersSql.append(i == 0 ? "?" : ", ?");
+        }
+        ownersSql.append(")");
+
+        String thresholdSql =
+                "SELECT engagement, post_id FROM account_top_posts WHERE user_id = ? " +
+                "ORDER BY engagement DESC, post_id DESC LIMIT 1 OFFSET ?";
+
+        String trimSql =
+                "DELETE FROM account_top_posts WHERE user_id = ? " +
+                "AND (engagement < ? OR (engagement = ? AND post_id < ?))";
+
+        Set<Integer> owners = new HashSet<>();
+
+        try (PreparedStatement pstmt = conn.prepareStatement(ownersSql.toString())) {
+            int index = 1;
+            for (Integer postId : rankedPostIds) {
+                pstmt.setInt(index++, postId);
+            }
+
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                owners.add(rs.getInt("user_id"));
+            }
+        }
+
+        try (PreparedStatement threshold = conn.prepareStatement(thresholdSql);
+             PreparedStatement trim = conn.prepareStatement(trimSql)) {
+
+            for (Integer userId : owners) {
+                threshold.setInt(1, userId);
+                threshold.setInt(2, AppConfig.DASHBOARD_TRACKED_POSTS - 1);
+
+                try (ResultSet rs = threshold.executeQuery()) {
+                    if (!rs.next()) {
+                        continue;
+                    }
+
+                    // Delete everything ranked below the last post that is kept
+                    trim.setInt(1, userId);
+                    trim.setLong(2, rs.getLong("engagement"));
+                    trim.setLong(3, rs.getLong("engagement"));
+                    trim.setInt(4, rs.getInt("post_id"));
+                    trim.addBatch();
+                }
+            }
+
+            trim.executeBatch();
+        }
+    }
+
+    private static final class AccountDay {
+
+        private final int userId;
+        private final LocalDate day;
+
+        private AccountDay(int userId, LocalDate day) {
+            this.userId = userId;
+            this.day = day;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof AccountDay)) {
+                return false;
+            }
+            AccountDay other = (AccountDay) o;
+            return userId == other.userId && day.equals(other.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, day);
+        }
+    }
+
+    private AccountAnalytics() {
+    }
+}
@@ -3,6 +3,7 @@ package com.revconnect.repository;
 import com.revconnect.dao.BlockedUserDAO;
 import com.revconnect.model.User;
 import com.revconnect.util.DBConnectionUtil;
+import com.revconnect.util.UnitOfWork;
 import com.revconnect.exception.DatabaseException;
 
 import java.sql.*;
@@ -12,13 +13,14 @@ import java.util.List;
 
 public class BlockedUserRepository implements BlockedUserDAO {
 
+    /*
+     * One statement: the unique key on (blocker_id, blocked_id) turns a
+     * repeat block into a no-op. The key is
+     * uk_blocked_users_blocker_blocked from schema migration V2.
+     */
     @Override
     public boolean blockUser(int blockerId, int blockedId) {
-        if (isBlocked(blockerId, blockedId)) {
-            return false;
-        }
-
-        String sql = "INSERT INTO blocked_users (blocker_id, blocked_id, created_at) VALUES (?, ?, ?)";
+        String sql = "INSERT IGNORE INTO blocked_users (blocker_id, blocked_id, created_at) VALUES (?, ?, ?)";
 
         try (Connection conn = DBConnectionUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -30,6 +32,7 @@ public class BlockedUserRepository implements BlockedUserDAO {
             int rowsAffected = pstmt.executeUpdate();
 
             if (rowsAffected > 0) {
+                UnitOfWork.afterCommit(() -> SocialGraph.getInstance().block(blockerId, blockedId));
                 return true;
             }
 
@@ -53,6 +56,7 @@ public class BlockedUserRepository implements BlockedUserDAO {
             int rowsAffected = pstmt.executeUpdate();
 
             if (rowsAffected > 0) {
+                UnitOfWork.afterCommit(() -> SocialGraph.getInstance().unblock(blockerId, blockedId));
                 return true;
             }
 
@@ -65,6 +69,11 @@ public class BlockedUserRepository implements BlockedUserDAO {
 
     @Override
     public boolean isBlocked(int blockerId, int blockedId) {
+        SocialGraph graph = SocialGraph.getInstance();
+        if (graph.isReady()) {
+            return graph.isBlocked(blockerId, blockedId);
+        }
+
         String sql = "SELECT COUNT(*) as count FROM blocked_users WHERE blocker_id = ? AND blocked_id = ?";
 
         try (Connection conn = DBConnectionUtil.getConnection();
@@ -0,0 +1,74 @@
+package com.revconnect.repository;
+
+import com.revconnect.dao.ProfileDAO;
+import com.revconnect.model.Profile;
+import com.revconnect.configuration.AppConfig;
+import com.revconnect.util.LruCache;
+
+/**
+ * Read-through cache in front of ProfileDAO, keyed by user id.
+ * createProfile and updateProfile drop the cached entry after writing.
+ */
+public class CachingProfileDAO implements ProfileDAO {
+
+    private static final LruCache<Integer, Profile> PROFILES_BY_USER_ID =
+            new LruCache<>(AppConfig.PROFILE_CACHE_SIZE, AppConfig.PROFILE_CACHE_TTL);
+
+    private final ProfileDAO delegate;
+
+    public CachingProfileDAO(ProfileDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    public static LruCache<Integer, Profile> getProfileCache() {
+        return PROFILES_BY_USER_ID;
+    }
+
+    @Override
+    public boolean createProfile(Profile profile) {
+        try {
+            return delegate.createProfile(profile);
+        } finally {
+            PROFILES_BY_USER_ID.remove(profile.getUserId());
+        }
+    }
+
+    @Override
+    public Profile findByUserId(int userId) {
+        Profile cached = PROFILES_BY_USER_ID.get(userId);
+        if (cached != null) {
+            return copy(cached);
+        }
+
+        long stamp = PROFILES_BY_USER_ID.stamp();
+        Profile profile = delegate.findByUserId(userId);
+
+        if (profile != null) {
+            PROFILES_BY_USER_ID.putIfUnchanged(userId, copy(profile), stamp);
+        }
+
+        return profile;
+    }
+
+    @Override
+    public boolean updateProfile(Profile profile) {
+        try {
+            return delegate.updateProfile(profile);
+        } finally {
+            // The UPDATE is keyed by profile_id, so a profile without a user id clears everything
+            if (profile.getUserId() > 0) {
+                PROFILES_BY_USER_ID.remove(profile.getUserId());
+            } else {
+                PROFILES_BY_USER_ID.clear();
+            }
+        }
+    }
+
+    private static Profile copy(Profile profile) {
+        return new Profile(profile.getProfileId(), profile.getUserId(), profile.getName(),
+                profile.getBio(), profile.getProfilePicPath(), profile.getLocation(),
+                profile.getWebsite(), profile.getCategory(), profile.getBusinessAddress(),
+                profile.getContactInfo(), profile.getBusinessHours(),
+                profile.getCreatedAt(), profile.getUpdatedAt());
+    }
+}
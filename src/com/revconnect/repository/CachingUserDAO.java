@@ -0,0 +1,125 @@
+package com.revconnect.repository;
+
+import com.revconnect.dao.UserDAO;
+import com.revconnect.model.User;
+import com.revconnect.configuration.AppConfig;
+import com.revconnect.util.LruCache;
+
+import java.util.List;
+
+/**
+ * Read-through cache in front of UserDAO.
+ *
+ * Users are cached by id; username and email lookups resolve to an id
+ * first, since neither can change after registration. Writes go straight
+ * to the delegate and then drop the cached user. Callers always receive a
+ * copy, so mutating a returned User never alters the cached one.
+ */
+public class CachingUserDAO implements UserDAO {
+
+    private static final LruCache<Integer, User> USERS_BY_ID =
+            new LruCache<>(AppConfig.USER_CACHE_SIZE, AppConfig.USER_CACHE_TTL);
+    private static final LruCache<String, Integer> IDS_BY_USERNAME =
+            new LruCache<>(AppConfig.USER_CACHE_SIZE, AppConfig.USER_CACHE_TTL);
+    private static final LruCache<String, Integer> IDS_BY_EMAIL =
+            new LruCache<>(AppConfig.USER_CACHE_SIZE, AppConfig.USER_CACHE_TTL);
+
+    private final UserDAO delegate;
+
+    public CachingUserDAO(UserDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    public static LruCache<Integer, User> getUserCache() {
+        return USERS_BY_ID;
+    }
+
+    @Override
+    public boolean registerUser(User user) {
+        return delegate.registerUser(user);
+    }
+
+    @Override
+    public User findByEmail(String email) {
+        String key = email.toLowerCase();
+
+        User cached = cachedById(IDS_BY_EMAIL.get(key));
+        if (cached != null) {
+            return copy(cached);
+        }
+
+        long stamp = USERS_BY_ID.stamp();
+        User user = delegate.findByEmail(email);
+        return remember(user, stamp);
+    }
+
+    @Override
+    public User findByUsername(String username) {
+        User cached = cachedById(IDS_BY_USERNAME.get(username));
+        if (cached != null) {
+            return copy(cached);
+        }
+
+        long stamp = USERS_BY_ID.stamp();
+        User user = delegate.findByUsername(username);
+        return remember(user, stamp);
+    }
+
+    @Override
+    public User findById(int userId) {
+        User cached = USERS_BY_ID.get(userId);
+        if (cached != null) {
+            return copy(cached);
+        }
+
+        long stamp = USERS_BY_ID.stamp();
+        User user = delegate.findById(userId);
+        return remember(user, stamp);
+    }
+
+    @Override
+    public boolean updatePassword(int userId, String newPasswordHash) {
+        try {
+            return delegate.updatePassword(userId, newPasswordHash);
+        } finally {
+            USERS_BY_ID.remove(userId);
+        }
+    }
+
+    @Override
+    public List<User> searchUsers(String keyword) {
+        return delegate.searchUsers(keyword);
+    }
+
+    @Override
+    public boolean updatePrivacy(int userId, boolean isPrivate) {
+        try {
+            return delegate.updatePrivacy(userId, isPrivate);
+        } finally {
+            USERS_BY_ID.remove(userId);
+        }
+    }
+
+    private User cachedById(Integer userId) {
+        return userId == null ? null : USERS_BY_ID.get(userId);
+    }
+
+    private User remember(User user, long stamp) {
+        if (user == null) {
+            return null;
+        }
+
+        if (USERS_BY_ID.putIfUnchanged(user.getUserId(), copy(user), stamp)) {
+            IDS_BY_USERNAME.put(user.getUsername(), user.getUserId());
+            IDS_BY_EMAIL.put(user.getEmail().toLowerCase(), user.getUserId());
+        }
+
+        return user;
+    }
+
+    private static User copy(User user) {
+        return new User(user.getUserId(), user.getEmail(), user.getUsername(),
+                user.getPassword(), user.getPasswordHint(), user.getUserType(),
+                user.isPrivate(), user.getCreatedAt(), user.getUpdatedAt());
+    }
+}
@@ -2,7 +2,10 @@ package com.revconnect.repository;
 
 import com.revconnect.dao.CommentDAO;
 import com.revconnect.model.Comment;
+import com.revconnect.model.Page;
 import com.revconnect.util.DBConnectionUtil;
+import com.revconnect.util.UnitOfWork;
+import com.revconnect.util.PageToken;
 import com.revconnect.exception.DatabaseException;
 
 import java.sql.*;
@@ -31,18 +34,8 @@ public class CommentRepository implements CommentDAO {
                 int rowsAffected = pstmt.executeUpdate();
 
                 if (rowsAffected > 0) {
-                    String updateAnalyticsSql =
-                            "UPDATE post_analytics SET total_comments = total_comments + 1, " +
-                            "last_updated = ? WHERE post_id = ?";
-
-                    try (PreparedStatement analyticsPstmt =
-                                 conn.prepareStatement(updateAnalyticsSql)) {
-                        analyticsPstmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
-                        analyticsPstmt.setInt(2, postId);
-                        analyticsPstmt.executeUpdate();
-                    }
-
                     conn.commit();
+                    UnitOfWork.afterCommit(() -> PostAnalyticsBuffer.recordComment(postId, 1));
                     return true;
                 }
             }
@@ -72,6 +65,32 @@ public class CommentRepository implements CommentDAO {
         }
     }
 
+    @Override
+    public Comment findById(int commentId) {
+        String sql =
+                "SELECT c.*, u.username, p.name as profile_name " +
+                "FROM comments c " +
+                "JOIN users u ON c.user_id = u.user_id " +
+                "LEFT JOIN profiles p ON c.user_id = p.user_id " +
+                "WHERE c.comment_id = ?";
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, commentId);
+            ResultSet rs = pstmt.executeQuery();
+
+            if (rs.next()) {
+                return mapResultSetToComment(rs);
+            }
+
+            return null;
+
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to find comment: " + e.getMessage());
+        }
+    }
+
     @Override
     public List<Comment> findByPostId(int postId) {
         String sql =
@@ -91,14 +110,7 @@ public class CommentRepository implements CommentDAO {
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
-                Comment comment = new Comment();
-                comment.setCommentId(rs.getInt("comment_id"));
-                comment.setPostId(rs.getInt("post_id"));
-                comment.setUserId(rs.getInt("user_id"));
-                comment.setCommentText(rs.getString("comment_text"));
-                comment.setCreatedAt(
-                        rs.getTimestamp("created_at").toLocalDateTime());
-                comments.add(comment);
+                comments.add(mapResultSetToComment(rs));
             }
 
             return comments;
@@ -108,6 +120,57 @@ public class CommentRepository implements CommentDAO {
         }
     }
 
+    @Override
+    public Page<Comment> findByPostIdPage(int postId, String pageToken, int pageSize) {
+        PageToken cursor = PageToken.decode(pageToken);
+
+        String sql =
+                "SELECT c.*, u.username, p.name as profile_name " +
+                "FROM comments c " +
+                "JOIN users u ON c.user_id = u.user_id " +
+                "LEFT JOIN profiles p ON c.user_id = p.user_id " +
+                "WHERE c.post_id = ? " +
+                (cursor != null
+                        ? "AND (c.created_at > ? OR (c.created_at = ? AND c.comment_id > ?)) "
+                        : "") +
+                "ORDER BY c.created_at ASC, c.comment_id ASC LIMIT ?";
+
+        List<Comment> comments = new ArrayList<>();
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+            pstmt.setInt(index++, postId);
+            if (cursor != null) {
+                Timestamp createdAt = Timestamp.valueOf(cursor.getCreatedAt());
+                pstmt.setTimestamp(index++, createdAt);
+                pstmt.setTimestamp(index++, createdAt);
+                pstmt.setInt(index++, cursor.getId());
+            }
+            pstmt.setInt(index, pageSize + 1);
+
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                comments.add(mapResultSetToComment(rs));
+            }
+
+            String nextPageToken = null;
+
+            if (comments.size() > pageSize) {
+                comments.remove(pageSize);
+                Comment last = comments.get(pageSize - 1);
+                nextPageToken = new PageToken(last.getCreatedAt(), last.getCommentId()).encode();
+            }
+
+            return new Page<>(comments, nextPageToken);
+
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to find comments: " + e.getMessage());
+        }
+    }
+
     @Override
     public boolean deleteComment(int commentId, int userId) {
         Connection conn = null;
@@ -142,18 +205,9 @@ public class CommentRepository implements CommentDAO {
                 int rowsAffected = pstmt.executeUpdate();
 
                 if (rowsAffected > 0) {
-                    String updateAnalyticsSql =
-                            "UPDATE post_analytics SET total_comments = total_comments - 1, " +
-                            "last_updated = ? WHERE post_id = ?";
-
-                    try (PreparedStatement analyticsPstmt =
-                                 conn.prepareStatement(updateAnalyticsSql)) {
-                        analyticsPstmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
-                        analyticsPstmt.setInt(2, postId);
-                        analyticsPstmt.executeUpdate();
-                    }
-
                     conn.commit();
+                    int commentedPostId = postId;
+                    UnitOfWork.afterCommit(() -> PostAnalyticsBuffer.recordComment(commentedPostId, -1));
                     return true;
                 }
             }
@@ -182,4 +236,15 @@ public class CommentRepository implements CommentDAO {
             }
         }
     }
+
+    private Comment mapResultSetToComment(ResultSet rs) throws SQLException {
+        Comment comment = new Comment();
+        comment.setCommentId(rs.getInt("comment_id"));
+        comment.setPostId(rs.getInt("post_id"));
+        comment.setUserId(rs.getInt("user_id"));
+        comment.setCommentText(rs.getString("comment_text"));
+        comment.setCreatedAt(
+                rs.getTimestamp("created_at").toLocalDateTime());
+        return comment;
+    }
 }
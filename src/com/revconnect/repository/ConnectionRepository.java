@@ -4,6 +4,7 @@ import com.revconnect.dao.ConnectionDAO;
 import com.revconnect.model.ConnectionRequest;
 import com.revconnect.model.User;
 import com.revconnect.util.DBConnectionUtil;
+import com.revconnect.util.UnitOfWork;
 import com.revconnect.exception.DatabaseException;
 
 import java.sql.*;
@@ -13,29 +14,49 @@ import java.util.List;
 
 public class ConnectionRepository implements ConnectionDAO {
 
+    /*
+     * The unique key on (sender_id, receiver_id) makes a repeat request a
+     * no-op, and the NOT EXISTS guard skips pairs the receiver already
+     * connected from their side. A new request is one statement. Only
+     * re-sending a rejected request takes a second one, which reopens it.
+     * The key is uk_connection_requests_sender_receiver from schema
+     * migration V2.
+     */
     @Override
     public boolean sendRequest(int senderId, int receiverId) {
-        if (areConnected(senderId, receiverId)) {
-            return false;
-        }
+        String insertSql =
+                "INSERT IGNORE INTO connection_requests (sender_id, receiver_id, status, created_at) " +
+                "SELECT ?, ?, 'PENDING', ? FROM DUAL WHERE NOT EXISTS (" +
+                "SELECT 1 FROM connection_requests WHERE sender_id = ? AND receiver_id = ? " +
+                "AND status = 'ACCEPTED')";
 
-        String sql = "INSERT INTO connection_requests (sender_id, receiver_id, status, created_at) " +
-                     "VALUES (?, ?, 'PENDING', ?)";
+        String reopenSql =
+                "UPDATE connection_requests SET status = 'PENDING', created_at = ? " +
+                "WHERE sender_id = ? AND receiver_id = ? AND status = 'REJECTED'";
 
-        try (Connection conn = DBConnectionUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
 
-            pstmt.setInt(1, senderId);
-            pstmt.setInt(2, receiverId);
-            pstmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+        try (Connection conn = DBConnectionUtil.getConnection()) {
 
-            int rowsAffected = pstmt.executeUpdate();
+            try (PreparedStatement pstmt = conn.prepareStatement(insertSql)) {
+                pstmt.setInt(1, senderId);
+                pstmt.setInt(2, receiverId);
+                pstmt.setTimestamp(3, now);
+                pstmt.setInt(4, receiverId);
+                pstmt.setInt(5, senderId);
 
-            if (rowsAffected > 0) {
-                return true;
+                if (pstmt.executeUpdate() > 0) {
+                    return true;
+                }
             }
 
-            return false;
+            try (PreparedStatement pstmt = conn.prepareStatement(reopenSql)) {
+                pstmt.setTimestamp(1, now);
+                pstmt.setInt(2, senderId);
+                pstmt.setInt(3, receiverId);
+
+                return pstmt.executeUpdate() > 0;
+            }
 
         } catch (SQLException e) {
             throw new DatabaseException("Failed to send connection request: " + e.getMessage());
@@ -55,6 +76,11 @@ public class ConnectionRepository implements ConnectionDAO {
             int rowsAffected = pstmt.executeUpdate();
 
             if (rowsAffected > 0) {
+                ConnectionRequest request = findById(requestId);
+                if (request != null) {
+                    UnitOfWork.afterCommit(() -> SocialGraph.getInstance().connect(
+                            request.getSenderId(), request.getReceiverId()));
+                }
                 return true;
             }
 
@@ -88,6 +114,33 @@ public class ConnectionRepository implements ConnectionDAO {
         }
     }
 
+    @Override
+    public ConnectionRequest findById(int requestId) {
+        String sql = "SELECT * FROM connection_requests WHERE request_id = ?";
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, requestId);
+            ResultSet rs = pstmt.executeQuery();
+
+            if (rs.next()) {
+                ConnectionRequest request = new ConnectionRequest();
+                request.setRequestId(rs.getInt("request_id"));
+                request.setSenderId(rs.getInt("sender_id"));
+                request.setReceiverId(rs.getInt("receiver_id"));
+                request.setStatus(rs.getString("status"));
+                request.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                return request;
+            }
+
+            return null;
+
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to find connection request: " + e.getMessage());
+        }
+    }
+
     @Override
     public List<ConnectionRequest> findPendingRequests(int userId) {
         String sql = "SELECT cr.*, u.username as sender_username, p.name as sender_name " +
@@ -187,6 +240,7 @@ public class ConnectionRepository implements ConnectionDAO {
             int rowsAffected = pstmt.executeUpdate();
 
             if (rowsAffected > 0) {
+                UnitOfWork.afterCommit(() -> SocialGraph.getInstance().disconnect(userId, connectionId));
                 return true;
             }
 
@@ -199,6 +253,11 @@ public class ConnectionRepository implements ConnectionDAO {
 
     @Override
     public boolean areConnected(int userId1, int userId2) {
+        SocialGraph graph = SocialGraph.getInstance();
+        if (graph.isReady()) {
+            return graph.areConnected(userId1, userId2);
+        }
+
         String sql = "SELECT COUNT(*) as count FROM connection_requests WHERE " +
                      "((sender_id = ? AND receiver_id = ?) OR (sender_id = ? AND receiver_id = ?)) " +
                      "AND status = 'ACCEPTED'";
@@ -0,0 +1,166 @@
+package com.revconnect.repository;
+
+import com.revconnect.dao.BlockedUserDAO;
+import com.revconnect.dao.CommentDAO;
+import com.revconnect.dao.ConnectionDAO;
+import com.revconnect.dao.FollowDAO;
+import com.revconnect.dao.LikeDAO;
+import com.revconnect.dao.MessageDAO;
+import com.revconnect.dao.NotificationDAO;
+import com.revconnect.dao.PostDAO;
+import com.revconnect.dao.ProfileDAO;
+import com.revconnect.dao.SecurityQuestionDAO;
+import com.revconnect.dao.ShareDAO;
+import com.revconnect.dao.TimelineDAO;
+import com.revconnect.dao.UserDAO;
+import com.revconnect.repository.memory.InMemoryBlockedUserDAO;
+import com.revconnect.repository.memory.InMemoryCommentDAO;
+import com.revconnect.repository.memory.InMemoryConnectionDAO;
+import com.revconnect.repository.memory.InMemoryFollowDAO;
+import com.revconnect.repository.memory.InMemoryLikeDAO;
+import com.revconnect.repository.memory.InMemoryMessageDAO;
+import com.revconnect.repository.memory.InMemoryNotificationDAO;
+import com.revconnect.repository.memory.InMemoryPostDAO;
+import com.revconnect.repository.memory.InMemoryProfileDAO;
+import com.revconnect.repository.memory.InMemorySecurityQuestionDAO;
+import com.revconnect.repository.memory.InMemoryShareDAO;
+import com.revconnect.repository.memory.InMemoryStore;
+import com.revconnect.repository.memory.InMemoryTimelineDAO;
+import com.revconnect.repository.memory.InMemoryUserDAO;
+import com.revconnect.schema.SchemaMigrator;
+
+/**
+ * Chooses the storage behind the services and workers.
+ *
+ * MYSQL, the default, hands out the JDBC repositories. MEMORY hands out
+ * the DAOs in repository.memory, all over one process-wide
+ * InMemoryStore, so the services run without a database: for load tests
+ * and microbenchmarks of the service layer. The backend is read from the
+ * revconnect.backend system property ("mysql" or "memory"); use() can
+ * override it, but only before the first DAO has been created. The
+ * first MySQL repository handed out runs the schema migrations if
+ * startup has not already done so.
+ *
+ * The one-off backfills and the query-plan check always use MySQL.
+ */
+public final class DAOFactory {
+
+    public enum Backend {
+        MYSQL,
+        MEMORY
+    }
+
+    public static final String BACKEND_PROPERTY = "revconnect.backend";
+
+    private static volatile Backend backend = fromProperty(System.getProperty(BACKEND_PROPERTY));
+    private static volatile InMemoryStore store;
+
+    private DAOFactory() {
+    }
+
+    public static void use(Backend selected) {
+        backend = selected;
+    }
+
+    public static Backend getBackend() {
+        return backend;
+    }
+
+    public static boolean isInMemory() {
+        return backend == Backend.MEMORY;
+    }
+
+    public static InMemoryStore getInMemoryStore() {
+        InMemoryStore current = store;
+        if (current == null) {
+            synchronized (DAOFactory.class) {
+                current = store;
+                if (current == null) {
+                    current = new InMemoryStore();
+                    store = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public static UserDAO userDAO() {
+        return useMemory() ? new InMemoryUserDAO(getInMemoryStore()) : new UserRepository();
+    }
+
+    public static ProfileDAO profileDAO() {
+        return useMemory() ? new InMemoryProfileDAO(getInMemoryStore()) : new ProfileRepository();
+    }
+
+    public static SecurityQuestionDAO securityQuestionDAO() {
+        return useMemory()
+                ? new InMemorySecurityQuestionDAO(getInMemoryStore())
+                : new SecurityQuestionRepository();
+    }
+
+    public static PostDAO postDAO() {
+        return useMemory() ? new InMemoryPostDAO(getInMemoryStore()) : new PostRepository();
+    }
+
+    public static CommentDAO commentDAO() {
+        return useMemory() ? new InMemoryCommentDAO(getInMemoryStore()) : new CommentRepository();
+    }
+
+    public static LikeDAO likeDAO() {
+        return useMemory() ? new InMemoryLikeDAO(getInMemoryStore()) : new LikeRepository();
+    }
+
+    public static ShareDAO shareDAO() {
+        return useMemory() ? new InMemoryShareDAO(getInMemoryStore()) : new ShareRepository();
+    }
+
+    public static TimelineDAO timelineDAO() {
+        return useMemory() ? new InMemoryTimelineDAO(getInMemoryStore()) : new TimelineRepository();
+    }
+
+    public static FollowDAO followDAO() {
+        return useMemory() ? new InMemoryFollowDAO(getInMemoryStore()) : new FollowRepository();
+    }
+
+    public static ConnectionDAO connectionDAO() {
+        return useMemory() ? new InMemoryConnectionDAO(getInMemoryStore()) : new ConnectionRepository();
+    }
+
+    public static BlockedUserDAO blockedUserDAO() {
+        return useMemory() ? new InMemoryBlockedUserDAO(getInMemoryStore()) : new BlockedUserRepository();
+    }
+
+    public static MessageDAO messageDAO() {
+        return useMemory() ? new InMemoryMessageDAO(getInMemoryStore()) : new MessageRepository();
+    }
+
+    public static NotificationDAO notificationDAO() {
+        return useMemory() ? new InMemoryNotificationDAO(getInMemoryStore()) : new NotificationRepository();
+    }
+
+    /*
+     * Checked by every factory method. On MySQL it first makes sure the
+     * schema migrations have run in this process, so no repository can
+     * write before the keys and tables it relies on exist.
+     */
+    private static boolean useMemory() {
+        if (isInMemory()) {
+            return true;
+        }
+        SchemaMigrator.ensureMigrated();
+        return false;
+    }
+
+    private static Backend fromProperty(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return Backend.MYSQL;
+        }
+
+        try {
+            return Backend.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown " + BACKEND_PROPERTY + " '" + value + "', using MySQL");
+            return Backend.MYSQL;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.revconnect.repository;
+
+import com.revconnect.configuration.AppConfig;
+import com.revconnect.util.DBConnectionUtil;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hour-by-hour engagement history in post_engagement_buckets.
+ *
+ * Likes, comments, shares and views are summed in memory per post and
+ * hour, then flushed every ANALYTICS_FLUSH_INTERVAL as one additive
+ * upsert per bucket. A compactor runs every ANALYTICS_COMPACTION_INTERVAL.
+ * It folds hourly rows older than ANALYTICS_HOURLY_RETENTION_DAYS into
+ * one DAY row per post and day, so a post keeps at most that many days
+ * of hourly rows plus one row per day after that.
+ */
+public class EngagementHistory {
+
+    private static final int LIKES = 0;
+    private static final int COMMENTS = 1;
+    private static final int SHARES = 2;
+    private static final int VIEWS = 3;
+
+    private static final ConcurrentHashMap<BucketKey, long[]> PENDING = new ConcurrentHashMap<>();
+    private static final Object FLUSH_LOCK = new Object();
+
+    private static final ScheduledExecutorService FLUSHER =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "revconnect-engagement-history");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        FLUSHER.scheduleWithFixedDelay(EngagementHistory::flushQuietly,
+                AppConfig.ANALYTICS_FLUSH_INTERVAL,
+                AppConfig.ANALYTICS_FLUSH_INTERVAL,
+                TimeUnit.MILLISECONDS);
+        FLUSHER.scheduleWithFixedDelay(EngagementHistory::compactQuietly,
+                AppConfig.ANALYTICS_COMPACTION_INTERVAL,
+                AppConfig.ANALYTICS_COMPACTION_INTERVAL,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public static void record(int postId, int likes, int comments, int shares) {
+        add(postId, likes, comments, shares, 0);
+    }
+
+    public static void recordView(int postId) {
+        add(postId, 0, 0, 0, 1);
+    }
+
+    /*
+     * Drops the pending buckets of a deleted post. The flush would skip
+     * them anyway; this just keeps them from waiting in memory until then.
+     */
+    public static void discard(int postId) {
+        PENDING.keySet().removeIf(key -> key.postId == postId);
+    }
+
+    public static void flush() throws SQLException {
+        synchronized (FLUSH_LOCK) {
+            List<BucketKey> keys = new ArrayList<>();
+            List<long[]> counts = new ArrayList<>();
+
+            for (BucketKey key : PENDING.keySet()) {
+                long[] taken = PENDING.remove(key);
+                if (taken != null) {
+                    keys.add(key);
+                    counts.add(taken);
+                }
+            }
+
+            if (keys.isEmpty()) {
+                return;
+            }
+
+            try {
+                writeBuckets(keys, counts);
+            } catch (SQLException e) {
+                for (int i = 0; i < keys.size(); i++) {
+                    PENDING.merge(keys.get(i), counts.get(i), EngagementHistory::sum);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /*
+     * Rolls up one day per transaction, oldest first: sum that day's hourly
+     * rows into its DAY rows, then delete them.
+     */
+    public static int compact() throws SQLException {
+        LocalDateTime cutoff = LocalDate.now()
+                .minusDays(AppConfig.ANALYTICS_HOURLY_RETENTION_DAYS).atStartOfDay();
+
+        String oldestSql =
+                "SELECT MIN(bucket_start) as oldest FROM post_engagement_buckets " +
+                "WHERE granularity = 'HOUR' AND bucket_start < ?";
+
+        String rollUpSql =
+                "INSERT INTO post_engagement_buckets " +
+                "(post_id, granularity, bucket_start, likes, comments, shares, views) " +
+                "SELECT post_id, 'DAY', ?, SUM(likes), SUM(comments), SUM(shares), SUM(views) " +
+                "FROM post_engagement_buckets " +
+                "WHERE granularity = 'HOUR' AND bucket_start >= ? AND bucket_start < ? " +
+                "GROUP BY post_id " +
+                "ON DUPLICATE KEY UPDATE likes = likes + VALUES(likes), " +
+                "comments = comments + VALUES(comments), shares = shares + VALUES(shares), " +
+                "views = views + VALUES(views)";
+
+        String deleteSql =
+                "DELETE FROM post_engagement_buckets " +
+                "WHERE granularity = 'HOUR' AND bucket_start >= ? AND bucket_start < ?";
+
+        int compactedDays = 0;
+
+        try (Connection conn = DBConnectionUtil.getConnection()) {
+
+            while (true) {
+                LocalDateTime day;
+
+                try (PreparedStatement pstmt = conn.prepareStatement(oldestSql)) {
+                    pstmt.setTimestamp(1, Timestamp.valueOf(cutoff));
+                    ResultSet rs = pstmt.executeQuery();
+
+                    Timestamp oldest = rs.next() ? rs.getTimestamp("oldest") : null;
+                    if (oldest == null) {
+                        return compactedDays;
+                    }
+                    day = oldest.toLocalDateTime().truncatedTo(ChronoUnit.DAYS);
+                }
+
+                Timestamp dayStart = Timestamp.valueOf(day);
+                Timestamp dayEnd = Timestamp.valueOf(day.plusDays(1));
+
+                conn.setAutoCommit(false);
+                try {
+                    try (PreparedStatement pstmt = conn.prepareStatement(rollUpSql)) {
+                        pstmt.setTimestamp(1, dayStart);
+                        pstmt.setTimestamp(2, dayStart);
+                        pstmt.setTimestamp(3, dayEnd);
+                        pstmt.executeUpdate();
+                    }
+
+                    try (PreparedStatement pstmt = conn.prepareStatement(deleteSql)) {
+                        pstmt.setTimestamp(1, dayStart);
+                        pstmt.setTimestamp(2, dayEnd);
+                        pstmt.executeUpdate();
+                    }
+
+                    conn.commit();
+                    compactedDays++;
+
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+        }
+    }
+
+    public static void shutdown() {
+        FLUSHER.shutdown();
+        flushQuietly();
+    }
+
+    private static void add(int postId, int likes, int comments, int shares, int views) {
+        BucketKey key = new BucketKey(postId,
+                LocalDateTime.now().truncatedTo(ChronoUnit.HOURS));
+
+        PENDING.merge(key, new long[] {likes, comments, shares, views}, EngagementHistory::sum);
+    }
+
+    private static long[] sum(long[] current, long[] delta) {
+        for (int i = 0; i < current.length; i++) {
+            current[i] += delta[i];
+        }
+        return current;
+    }
+
+    private static void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException | RuntimeException e) {
+            // counts stay pending and are retried on the next flush
+            System.err.println("Failed to flush engagement history: " + e.getMessage());
+        }
+    }
+
+    private static void compactQuietly() {
+        try {
+            compact();
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Failed to compact engagement history: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Selecting the post id from posts skips buckets of posts deleted since
+     * they were counted; a plain VALUES insert would fail the foreign key
+     * and roll back, and so keep failing, the whole batch.
+     */
+    private static void writeBuckets(List<BucketKey> keys, List<long[]> counts)
+            throws SQLException {
+        String sql =
+                "INSERT INTO post_engagement_buckets " +
+                "(post_id, granularity, bucket_start, likes, comments, shares, views) " +
+                "SELECT post_id, 'HOUR', ?, ?, ?, ?, ? FROM posts WHERE post_id = ? " +
+                "ON DUPLICATE KEY UPDATE likes = likes + VALUES(likes), " +
+                "comments = comments + VALUES(comments), shares = shares + VALUES(shares), " +
+                "views = views + VALUES(views)";
+
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < keys.size(); i++) {
+                    BucketKey key = keys.get(i);
+                    long[] count = counts.get(i);
+
+                    pstmt.setTimestamp(1, Timestamp.valueOf(key.hour));
+                    pstmt.setLong(2, count[LIKES]);
+                    pstmt.setLong(3, count[COMMENTS]);
+                    pstmt.setLong(4, count[SHARES]);
+                    pstmt.setLong(5, count[VIEWS]);
+                    pstmt.setInt(6, key.postId);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+
+            conn.commit();
+
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    // ignore
+                }
+            }
+            throw e;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    private static final class BucketKey {
+
+        private final int postId;
+        private final LocalDateTime hour;
+
+        private BucketKey(int postId, LocalDateTime hour) {
+            this.postId = postId;
+            this.hour = hour;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BucketKey)) {
+                return false;
+            }
+            BucketKey other = (BucketKey) o;
+            return postId == other.postId && hour.equals(other.hour);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(postId, hour);
+        }
+    }
+
+    private EngagementHistory() {
+    }
+}
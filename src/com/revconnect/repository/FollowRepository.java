@@ -3,6 +3,7 @@ package com.revconnect.repository;
 import com.revconnect.dao.FollowDAO;
 import com.revconnect.model.User;
 import com.revconnect.util.DBConnectionUtil;
+import com.revconnect.util.UnitOfWork;
 import com.revconnect.exception.DatabaseException;
 
 import java.sql.*;
@@ -12,17 +13,14 @@ import java.util.List;
 
 public class FollowRepository implements FollowDAO {
 
+    /*
+     * One statement: the unique key on (follower_id, following_id) turns
+     * a repeat follow into a no-op. The key is
+     * uk_follows_follower_following from schema migration V2.
+     */
     @Override
     public boolean followUser(int followerId, int followingId) {
-        try {
-            if (isFollowing(followerId, followingId)) {
-                return false;
-            }
-        } catch (DatabaseException e) {
-            throw e;
-        }
-
-        String sql = "INSERT INTO follows (follower_id, following_id, created_at) VALUES (?, ?, ?)";
+        String sql = "INSERT IGNORE INTO follows (follower_id, following_id, created_at) VALUES (?, ?, ?)";
 
         try (Connection conn = DBConnectionUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -34,6 +32,10 @@ public class FollowRepository implements FollowDAO {
             int rowsAffected = pstmt.executeUpdate();
 
             if (rowsAffected > 0) {
+                UnitOfWork.afterCommit(() -> {
+                    SocialGraph.getInstance().follow(followerId, followingId);
+                    AccountAnalytics.recordFollower(followingId, 1);
+                });
                 return true;
             }
 
@@ -57,6 +59,10 @@ public class FollowRepository implements FollowDAO {
             int rowsAffected = pstmt.executeUpdate();
 
             if (rowsAffected > 0) {
+                UnitOfWork.afterCommit(() -> {
+                    SocialGraph.getInstance().unfollow(followerId, followingId);
+                    AccountAnalytics.recordFollower(followingId, -1);
+                });
                 return true;
             }
 
@@ -139,6 +145,11 @@ public class FollowRepository implements FollowDAO {
 
     @Override
     public boolean isFollowing(int followerId, int followingId) {
+        SocialGraph graph = SocialGraph.getInstance();
+        if (graph.isReady()) {
+            return graph.isFollowing(followerId, followingId);
+        }
+
         String sql = "SELECT COUNT(*) as count FROM follows WHERE follower_id = ? AND following_id = ?";
 
         try (Connection conn = DBConnectionUtil.getConnection();
@@ -2,6 +2,7 @@ package com.revconnect.repository;
 
 import com.revconnect.dao.LikeDAO;
 import com.revconnect.util.DBConnectionUtil;
+import com.revconnect.util.UnitOfWork;
 import com.revconnect.exception.DatabaseException;
 
 import java.sql.*;
@@ -9,66 +10,31 @@ import java.time.LocalDateTime;
 
 public class LikeRepository implements LikeDAO {
 
+    /*
+     * One statement: the unique key on (post_id, user_id) turns a repeat
+     * like into a no-op, so concurrent clicks count once. The key is
+     * uk_likes_post_user from schema migration V2.
+     */
     @Override
     public boolean addLike(int postId, int userId) {
-        Connection conn = null;
-        try {
-            conn = DBConnectionUtil.getConnection();
-            conn.setAutoCommit(false);
-
-            if (hasUserLiked(postId, userId)) {
-                conn.rollback();
-                return false;
-            }
-
-            String insertSql = "INSERT INTO likes (post_id, user_id, created_at) VALUES (?, ?, ?)";
-
-            try (PreparedStatement pstmt = conn.prepareStatement(insertSql)) {
-                pstmt.setInt(1, postId);
-                pstmt.setInt(2, userId);
-                pstmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+        String sql = "INSERT IGNORE INTO likes (post_id, user_id, created_at) VALUES (?, ?, ?)";
 
-                int rowsAffected = pstmt.executeUpdate();
-
-                if (rowsAffected > 0) {
-                    String updateAnalyticsSql =
-                            "UPDATE post_analytics SET total_likes = total_likes + 1, " +
-                            "last_updated = ? WHERE post_id = ?";
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-                    try (PreparedStatement analyticsPstmt =
-                                 conn.prepareStatement(updateAnalyticsSql)) {
-                        analyticsPstmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
-                        analyticsPstmt.setInt(2, postId);
-                        analyticsPstmt.executeUpdate();
-                    }
+            pstmt.setInt(1, postId);
+            pstmt.setInt(2, userId);
+            pstmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
 
-                    conn.commit();
-                    return true;
-                }
+            if (pstmt.executeUpdate() > 0) {
+                UnitOfWork.afterCommit(() -> PostAnalyticsBuffer.recordLike(postId, 1));
+                return true;
             }
 
-            conn.rollback();
             return false;
 
         } catch (SQLException e) {
-            if (conn != null) {
-                try {
-                    conn.rollback();
-                } catch (SQLException ex) {
-                    // rollback failed
-                }
-            }
             throw new DatabaseException("Failed to add like: " + e.getMessage());
-
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                } catch (SQLException e) {
-                    // close failed
-                }
-            }
         }
     }
 
@@ -88,18 +54,8 @@ public class LikeRepository implements LikeDAO {
                 int rowsAffected = pstmt.executeUpdate();
 
                 if (rowsAffected > 0) {
-                    String updateAnalyticsSql =
-                            "UPDATE post_analytics SET total_likes = total_likes - 1, " +
-                            "last_updated = ? WHERE post_id = ?";
-
-                    try (PreparedStatement analyticsPstmt =
-                                 conn.prepareStatement(updateAnalyticsSql)) {
-                        analyticsPstmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
-                        analyticsPstmt.setInt(2, postId);
-                        analyticsPstmt.executeUpdate();
-                    }
-
                     conn.commit();
+                    UnitOfWork.afterCommit(() -> PostAnalyticsBuffer.recordLike(postId, -1));
                     return true;
                 }
             }
@@ -1,45 +1,139 @@
 package com.revconnect.repository;
 
 import com.revconnect.dao.MessageDAO;
+import com.revconnect.model.Conversation;
 import com.revconnect.model.Message;
+import com.revconnect.model.Page;
+import com.revconnect.configuration.AppConfig;
 import com.revconnect.util.DBConnectionUtil;
+import com.revconnect.util.PageToken;
+import com.revconnect.util.UnitOfWork;
 import com.revconnect.exception.DatabaseException;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class MessageRepository implements MessageDAO {
 
+    private static final UnreadCounter UNREAD =
+            new UnreadCounter("messages", MessageRepository::loadUnreadCounts);
+
     @Override
     public boolean sendMessage(Message message) {
-        String sql = "INSERT INTO messages (sender_id, receiver_id, message_text, is_read, created_at) " +
-                     "VALUES (?, ?, ?, false, ?)";
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            LocalDateTime createdAt = LocalDateTime.now();
+            int senderId = message.getSenderId();
+            int receiverId = message.getReceiverId();
+
+            // Locks both summary rows first (lower user id first), so concurrent sends
+            // and markAsRead on the same pair serialize instead of deadlocking
+            String summarySql =
+                    "INSERT INTO conversations (user_id, other_user_id, last_message_id, " +
+                    "last_sender_id, last_message_text, last_activity_at, message_count, " +
+                    "unread_count, last_read_message_id) VALUES (?, ?, 0, ?, ?, ?, 1, ?, 0) " +
+                    "ON DUPLICATE KEY UPDATE last_sender_id = VALUES(last_sender_id), " +
+                    "last_message_text = VALUES(last_message_text), " +
+                    "last_activity_at = VALUES(last_activity_at), " +
+                    "message_count = message_count + 1, " +
+                    "unread_count = unread_count + VALUES(unread_count)";
+
+            String preview = preview(message.getMessageText());
+
+            try (PreparedStatement pstmt = conn.prepareStatement(summarySql)) {
+                int first = Math.min(senderId, receiverId);
+                int second = Math.max(senderId, receiverId);
+
+                for (int owner : new int[] { first, second }) {
+                    int other = owner == senderId ? receiverId : senderId;
+                    pstmt.setInt(1, owner);
+                    pstmt.setInt(2, other);
+                    pstmt.setInt(3, senderId);
+                    pstmt.setString(4, preview);
+                    pstmt.setTimestamp(5, Timestamp.valueOf(createdAt));
+                    pstmt.setInt(6, owner == receiverId ? 1 : 0);
+                    pstmt.executeUpdate();
+                }
+            }
 
-        try (Connection conn = DBConnectionUtil.getConnection();
-             PreparedStatement pstmt =
-                     conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            String sql = "INSERT INTO messages (sender_id, receiver_id, message_text, is_read, created_at) " +
+                         "VALUES (?, ?, ?, false, ?)";
 
-            pstmt.setInt(1, message.getSenderId());
-            pstmt.setInt(2, message.getReceiverId());
-            pstmt.setString(3, message.getMessageText());
-            pstmt.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+            int messageId = 0;
 
-            int rowsAffected = pstmt.executeUpdate();
+            try (PreparedStatement pstmt =
+                         conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
-            if (rowsAffected > 0) {
-                ResultSet rs = pstmt.getGeneratedKeys();
-                if (rs.next()) {
-                    message.setMessageId(rs.getInt(1));
-                    return true;
+                pstmt.setInt(1, senderId);
+                pstmt.setInt(2, receiverId);
+                pstmt.setString(3, message.getMessageText());
+                pstmt.setTimestamp(4, Timestamp.valueOf(createdAt));
+
+                if (pstmt.executeUpdate() > 0) {
+                    ResultSet rs = pstmt.getGeneratedKeys();
+                    if (rs.next()) {
+                        messageId = rs.getInt(1);
+                    }
                 }
             }
 
-            return false;
+            if (messageId == 0) {
+                conn.rollback();
+                return false;
+            }
+
+            // The sender has seen their own message, so their watermark moves with it
+            String lastMessageSql =
+                    "UPDATE conversations SET last_message_id = ?, " +
+                    "last_read_message_id = IF(user_id = ?, ?, last_read_message_id) " +
+                    "WHERE (user_id = ? AND other_user_id = ?) " +
+                    "OR (user_id = ? AND other_user_id = ?)";
+
+            try (PreparedStatement pstmt = conn.prepareStatement(lastMessageSql)) {
+                pstmt.setInt(1, messageId);
+                pstmt.setInt(2, senderId);
+                pstmt.setInt(3, messageId);
+                pstmt.setInt(4, senderId);
+                pstmt.setInt(5, receiverId);
+                pstmt.setInt(6, receiverId);
+                pstmt.setInt(7, senderId);
+                pstmt.executeUpdate();
+            }
+
+            conn.commit();
+            UnitOfWork.afterCommit(() -> UNREAD.adjust(receiverId, 1));
+
+            message.setMessageId(messageId);
+            message.setCreatedAt(createdAt);
+            return true;
 
         } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    // ignore
+                }
+            }
             throw new DatabaseException("Failed to send message: " + e.getMessage());
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    // ignore
+                }
+            }
         }
     }
 
@@ -63,15 +157,7 @@ public class MessageRepository implements MessageDAO {
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
-                Message message = new Message();
-                message.setMessageId(rs.getInt("message_id"));
-                message.setSenderId(rs.getInt("sender_id"));
-                message.setReceiverId(rs.getInt("receiver_id"));
-                message.setMessageText(rs.getString("message_text"));
-                message.setRead(rs.getBoolean("is_read"));
-                message.setCreatedAt(
-                        rs.getTimestamp("created_at").toLocalDateTime());
-                messages.add(message);
+                messages.add(mapResultSetToMessage(rs));
             }
 
             return messages;
@@ -81,67 +167,342 @@ public class MessageRepository implements MessageDAO {
         }
     }
 
+    /*
+     * Pages backwards from the newest message. Each page is returned in
+     * chronological order; its token points at the oldest message shown.
+     */
     @Override
-    public boolean markAsRead(int userId, int otherUserId) {
-        String sql = "UPDATE messages SET is_read = true " +
-                     "WHERE sender_id = ? AND receiver_id = ? AND is_read = false";
+    public Page<Message> getConversationPage(int userId, int otherUserId,
+                                             String pageToken, int pageSize) {
+        PageToken cursor = PageToken.decode(pageToken);
+
+        String sql = "SELECT * FROM messages WHERE " +
+                     "((sender_id = ? AND receiver_id = ?) OR " +
+                     "(sender_id = ? AND receiver_id = ?)) " +
+                     (cursor != null
+                             ? "AND (created_at < ? OR (created_at = ? AND message_id < ?)) "
+                             : "") +
+                     "ORDER BY created_at DESC, message_id DESC LIMIT ?";
+
+        List<Message> messages = new ArrayList<>();
 
         try (Connection conn = DBConnectionUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setInt(1, otherUserId);
-            pstmt.setInt(2, userId);
+            int index = 1;
+            pstmt.setInt(index++, userId);
+            pstmt.setInt(index++, otherUserId);
+            pstmt.setInt(index++, otherUserId);
+            pstmt.setInt(index++, userId);
+            if (cursor != null) {
+                Timestamp createdAt = Timestamp.valueOf(cursor.getCreatedAt());
+                pstmt.setTimestamp(index++, createdAt);
+                pstmt.setTimestamp(index++, createdAt);
+                pstmt.setInt(index++, cursor.getId());
+            }
+            pstmt.setInt(index, pageSize + 1);
+
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                messages.add(mapResultSetToMessage(rs));
+            }
+
+            String nextPageToken = null;
+
+            if (messages.size() > pageSize) {
+                messages.remove(pageSize);
+                Message oldest = messages.get(pageSize - 1);
+                nextPageToken = new PageToken(oldest.getCreatedAt(), oldest.getMessageId()).encode();
+            }
 
-            int rowsAffected = pstmt.executeUpdate();
+            Collections.reverse(messages);
+            return new Page<>(messages, nextPageToken);
+
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to get conversation: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean markAsRead(int userId, int otherUserId) {
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            // Summary row first: it is the lock sendMessage takes before inserting
+            String summarySql =
+                    "UPDATE conversations SET unread_count = 0, " +
+                    "last_read_message_id = last_message_id " +
+                    "WHERE user_id = ? AND other_user_id = ?";
+
+            try (PreparedStatement pstmt = conn.prepareStatement(summarySql)) {
+                pstmt.setInt(1, userId);
+                pstmt.setInt(2, otherUserId);
+                pstmt.executeUpdate();
+            }
+
+            String sql = "UPDATE messages SET is_read = true " +
+                         "WHERE sender_id = ? AND receiver_id = ? AND is_read = false";
+
+            int rowsAffected;
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, otherUserId);
+                pstmt.setInt(2, userId);
+                rowsAffected = pstmt.executeUpdate();
+            }
+
+            conn.commit();
+            int marked = rowsAffected;
+            UnitOfWork.afterCommit(() -> UNREAD.adjust(userId, -marked));
             return rowsAffected > 0;
 
         } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    // ignore
+                }
+            }
             throw new DatabaseException("Failed to mark messages as read: " + e.getMessage());
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    // ignore
+                }
+            }
         }
     }
 
     @Override
     public boolean deleteConversation(int userId, int otherUserId) {
-        String sql = "DELETE FROM messages WHERE " +
-                     "(sender_id = ? AND receiver_id = ?) OR " +
-                     "(sender_id = ? AND receiver_id = ?)";
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            String summarySql = "DELETE FROM conversations WHERE " +
+                                "(user_id = ? AND other_user_id = ?) OR " +
+                                "(user_id = ? AND other_user_id = ?)";
+
+            try (PreparedStatement pstmt = conn.prepareStatement(summarySql)) {
+                pstmt.setInt(1, Math.min(userId, otherUserId));
+                pstmt.setInt(2, Math.max(userId, otherUserId));
+                pstmt.setInt(3, Math.max(userId, otherUserId));
+                pstmt.setInt(4, Math.min(userId, otherUserId));
+                pstmt.executeUpdate();
+            }
 
-        try (Connection conn = DBConnectionUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            String sql = "DELETE FROM messages WHERE " +
+                         "(sender_id = ? AND receiver_id = ?) OR " +
+                         "(sender_id = ? AND receiver_id = ?)";
 
-            pstmt.setInt(1, userId);
-            pstmt.setInt(2, otherUserId);
-            pstmt.setInt(3, otherUserId);
-            pstmt.setInt(4, userId);
+            int rowsAffected;
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, userId);
+                pstmt.setInt(2, otherUserId);
+                pstmt.setInt(3, otherUserId);
+                pstmt.setInt(4, userId);
+                rowsAffected = pstmt.executeUpdate();
+            }
+
+            conn.commit();
+
+            // Unread messages may have gone with the conversation; reseed both sides
+            UnitOfWork.afterCommit(() -> {
+                UNREAD.invalidate(userId);
+                UNREAD.invalidate(otherUserId);
+            });
 
-            int rowsAffected = pstmt.executeUpdate();
             return rowsAffected > 0;
 
         } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    // ignore
+                }
+            }
             throw new DatabaseException("Failed to delete conversation: " + e.getMessage());
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    // ignore
+                }
+            }
         }
     }
 
     @Override
-    public int getUnreadCount(int userId) {
-        String sql =
-                "SELECT COUNT(*) as count FROM messages " +
-                "WHERE receiver_id = ? AND is_read = false";
+    public Page<Conversation> getInbox(int userId, String pageToken, int pageSize) {
+        PageToken cursor = PageToken.decode(pageToken);
+
+        String sql = "SELECT c.*, u.username as other_username FROM conversations c " +
+                     "JOIN users u ON u.user_id = c.other_user_id " +
+                     "WHERE c.user_id = ? " +
+                     (cursor != null
+                             ? "AND (c.last_activity_at < ? OR " +
+                               "(c.last_activity_at = ? AND c.other_user_id < ?)) "
+                             : "") +
+                     "ORDER BY c.last_activity_at DESC, c.other_user_id DESC LIMIT ?";
+
+        List<Conversation> conversations = new ArrayList<>();
 
         try (Connection conn = DBConnectionUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setInt(1, userId);
+            int index = 1;
+            pstmt.setInt(index++, userId);
+            if (cursor != null) {
+                Timestamp lastActivityAt = Timestamp.valueOf(cursor.getCreatedAt());
+                pstmt.setTimestamp(index++, lastActivityAt);
+                pstmt.setTimestamp(index++, lastActivityAt);
+                pstmt.setInt(index++, cursor.getId());
+            }
+            pstmt.setInt(index, pageSize + 1);
+
             ResultSet rs = pstmt.executeQuery();
 
-            if (rs.next()) {
-                return rs.getInt("count");
+            while (rs.next()) {
+                conversations.add(mapResultSetToConversation(rs));
+            }
+
+            String nextPageToken = null;
+
+            if (conversations.size() > pageSize) {
+                conversations.remove(pageSize);
+                Conversation last = conversations.get(pageSize - 1);
+                nextPageToken = new PageToken(
+                        last.getLastActivityAt(), last.getOtherUserId()).encode();
             }
 
-            return 0;
+            return new Page<>(conversations, nextPageToken);
 
         } catch (SQLException e) {
-            throw new DatabaseException("Failed to get unread count: " + e.getMessage());
+            throw new DatabaseException("Failed to get inbox: " + e.getMessage());
         }
     }
+
+    /*
+     * Recomputes every summary row from the messages table. Used once to
+     * seed conversations for existing data; safe to re-run.
+     */
+    @Override
+    public int rebuildConversations() {
+        String sql =
+                "INSERT INTO conversations (user_id, other_user_id, last_message_id, " +
+                "last_sender_id, last_message_text, last_activity_at, message_count, " +
+                "unread_count, last_read_message_id) " +
+                "SELECT s.user_id, s.other_user_id, m.message_id, m.sender_id, " +
+                "LEFT(m.message_text, ?), m.created_at, s.message_count, s.unread_count, " +
+                "s.last_read_message_id FROM (" +
+                "SELECT pair.user_id, pair.other_user_id, MAX(pair.message_id) as last_message_id, " +
+                "COUNT(*) as message_count, SUM(pair.unread) as unread_count, " +
+                "COALESCE(MAX(CASE WHEN pair.unread = 0 THEN pair.message_id END), 0) " +
+                "as last_read_message_id FROM (" +
+                "SELECT sender_id as user_id, receiver_id as other_user_id, message_id, 0 as unread " +
+                "FROM messages " +
+                "UNION ALL " +
+                "SELECT receiver_id, sender_id, message_id, IF(is_read, 0, 1) FROM messages" +
+                ") pair GROUP BY pair.user_id, pair.other_user_id" +
+                ") s JOIN messages m ON m.message_id = s.last_message_id " +
+                "ON DUPLICATE KEY UPDATE last_message_id = VALUES(last_message_id), " +
+                "last_sender_id = VALUES(last_sender_id), " +
+                "last_message_text = VALUES(last_message_text), " +
+                "last_activity_at = VALUES(last_activity_at), " +
+                "message_count = VALUES(message_count), " +
+                "unread_count = VALUES(unread_count), " +
+                "last_read_message_id = VALUES(last_read_message_id)";
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, AppConfig.CONVERSATION_PREVIEW_LENGTH);
+            return pstmt.executeUpdate();
+
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to rebuild conversations: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public int getUnreadCount(int userId) {
+        return UNREAD.get(userId);
+    }
+
+    private static Map<Integer, Integer> loadUnreadCounts(Collection<Integer> userIds)
+            throws SQLException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT receiver_id, COUNT(*) as count FROM messages " +
+                "WHERE is_read = false AND receiver_id IN (");
+        for (int i = 0; i < userIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") GROUP BY receiver_id");
+
+        Map<Integer, Integer> counts = new HashMap<>();
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+
+            int index = 1;
+            for (Integer userId : userIds) {
+                pstmt.setInt(index++, userId);
+            }
+
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                counts.put(rs.getInt("receiver_id"), rs.getInt("count"));
+            }
+        }
+
+        return counts;
+    }
+
+    private Conversation mapResultSetToConversation(ResultSet rs) throws SQLException {
+        Conversation conversation = new Conversation();
+        conversation.setUserId(rs.getInt("user_id"));
+        conversation.setOtherUserId(rs.getInt("other_user_id"));
+        conversation.setOtherUsername(rs.getString("other_username"));
+        conversation.setLastMessageId(rs.getInt("last_message_id"));
+        conversation.setLastSenderId(rs.getInt("last_sender_id"));
+        conversation.setLastMessageText(rs.getString("last_message_text"));
+        conversation.setLastActivityAt(
+                rs.getTimestamp("last_activity_at").toLocalDateTime());
+        conversation.setMessageCount(rs.getInt("message_count"));
+        conversation.setUnreadCount(rs.getInt("unread_count"));
+        conversation.setLastReadMessageId(rs.getInt("last_read_message_id"));
+        return conversation;
+    }
+
+    private static String preview(String text) {
+        if (text == null || text.length() <= AppConfig.CONVERSATION_PREVIEW_LENGTH) {
+            return text;
+        }
+        return text.substring(0, AppConfig.CONVERSATION_PREVIEW_LENGTH);
+    }
+
+    private Message mapResultSetToMessage(ResultSet rs) throws SQLException {
+        Message message = new Message();
+        message.setMessageId(rs.getInt("message_id"));
+        message.setSenderId(rs.getInt("sender_id"));
+        message.setReceiverId(rs.getInt("receiver_id"));
+        message.setMessageText(rs.getString("message_text"));
+        message.setRead(rs.getBoolean("is_read"));
+        message.setCreatedAt(
+                rs.getTimestamp("created_at").toLocalDateTime());
+        return message;
+    }
 }
@@ -2,21 +2,57 @@ package com.revconnect.repository;
 
 import com.revconnect.dao.NotificationDAO;
 import com.revconnect.model.Notification;
+import com.revconnect.model.NotificationFanOutJob;
 import com.revconnect.model.NotificationPreference;
+import com.revconnect.model.Page;
+import com.revconnect.configuration.AppConfig;
 import com.revconnect.util.DBConnectionUtil;
+import com.revconnect.util.LruCache;
+import com.revconnect.util.PageToken;
+import com.revconnect.util.UnitOfWork;
 import com.revconnect.exception.DatabaseException;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class NotificationRepository implements NotificationDAO {
 
+    /*
+     * A notification is read if its own flag is set (read individually) or
+     * its id is at or below the user's last_read_notification_id watermark
+     * (read via mark-all).
+     */
+    private static final String READ_STATE_JOIN =
+            "LEFT JOIN notification_read_state rs ON rs.user_id = n.user_id ";
+    private static final String IS_READ =
+            "(n.is_read OR n.notification_id <= COALESCE(rs.last_read_notification_id, 0))";
+    private static final String IS_UNREAD =
+            "n.is_read = false AND n.notification_id > COALESCE(rs.last_read_notification_id, 0)";
+    private static final String SELECT_NOTIFICATIONS =
+            "SELECT n.notification_id, n.user_id, n.type, n.message, n.related_user_id, " +
+            "n.related_post_id, n.created_at, n.actor_count, n.sample_actor_ids, " +
+            IS_READ + " as is_read " +
+            "FROM notifications n " + READ_STATE_JOIN;
+
+    // Preference bitmasks by user id; every value is in the small Integer cache
+    private static final Integer DEFAULT_PREFERENCE_MASK = NotificationPreference.ALL;
+    private static final LruCache<Integer, Integer> PREFERENCE_MASKS =
+            new LruCache<>(AppConfig.PREFERENCE_CACHE_SIZE, AppConfig.PREFERENCE_CACHE_TTL);
+
+    private static final UnreadCounter UNREAD =
+            new UnreadCounter("notifications", NotificationRepository::loadUnreadCounts);
+
     @Override
     public boolean saveNotification(Notification notification) {
         String sql = "INSERT INTO notifications (user_id, type, message, is_read, " +
-                     "related_user_id, related_post_id, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+                     "related_user_id, related_post_id, created_at, actor_count, sample_actor_ids) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = DBConnectionUtil.getConnection();
              PreparedStatement pstmt =
@@ -40,6 +76,8 @@ public class NotificationRepository implements NotificationDAO {
             }
 
             pstmt.setTimestamp(7, Timestamp.valueOf(LocalDateTime.now()));
+            pstmt.setInt(8, notification.getActorCount());
+            pstmt.setString(9, joinActorIds(notification.getSampleActorIds()));
 
             int rowsAffected = pstmt.executeUpdate();
 
@@ -47,6 +85,10 @@ public class NotificationRepository implements NotificationDAO {
                 ResultSet rs = pstmt.getGeneratedKeys();
                 if (rs.next()) {
                     notification.setNotificationId(rs.getInt(1));
+                    if (!notification.isRead()) {
+                        int recipientId = notification.getUserId();
+                        UnitOfWork.afterCommit(() -> UNREAD.adjust(recipientId, 1));
+                    }
                     return true;
                 }
             }
@@ -59,149 +101,709 @@ public class NotificationRepository implements NotificationDAO {
     }
 
     @Override
-    public List<Notification> findByUserId(int userId) {
-        String sql =
-                "SELECT * FROM notifications WHERE user_id = ? ORDER BY created_at DESC LIMIT 50";
+    public int saveNotifications(List<Notification> notifications) {
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
 
-        List<Notification> notifications = new ArrayList<>();
+            int saved = insertNotifications(conn, notifications);
+
+            conn.commit();
+            UnitOfWork.afterCommit(() -> adjustUnread(notifications));
+
+            return saved;
+
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    // ignore
+                }
+            }
+            throw new DatabaseException("Failed to save notifications: " + e.getMessage());
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /*
+     * Folds each coalesced group into the recipient's newest unread row of
+     * the same type and post. That row already counts the group's first
+     * actor, so it gains actorCount - 1 actors, the new sample and the
+     * latest time. A group whose row is gone or already read is inserted
+     * as a new row instead. Returns the number of groups written.
+     */
+    @Override
+    public int foldNotifications(List<Notification> notifications) {
+        String foldSql =
+                "UPDATE notifications SET actor_count = actor_count + ?, sample_actor_ids = ?, " +
+                "related_user_id = ?, created_at = ? " +
+                "WHERE user_id = ? AND type = ? AND related_post_id = ? AND is_read = false " +
+                "AND notification_id > COALESCE((SELECT last_read_notification_id " +
+                "FROM notification_read_state WHERE user_id = ?), 0) " +
+                "ORDER BY notification_id DESC LIMIT 1";
+
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            List<Notification> unfolded = new ArrayList<>();
+
+            try (PreparedStatement pstmt = conn.prepareStatement(foldSql)) {
+                for (Notification notification : notifications) {
+                    LocalDateTime createdAt = notification.getCreatedAt() != null
+                            ? notification.getCreatedAt()
+                            : LocalDateTime.now();
+
+                    pstmt.setInt(1, notification.getActorCount() - 1);
+                    pstmt.setString(2, joinActorIds(notification.getSampleActorIds()));
+                    pstmt.setInt(3, notification.getRelatedUserId());
+                    pstmt.setTimestamp(4, Timestamp.valueOf(createdAt));
+                    pstmt.setInt(5, notification.getUserId());
+                    pstmt.setString(6, notification.getType());
+                    pstmt.setInt(7, notification.getRelatedPostId());
+                    pstmt.setInt(8, notification.getUserId());
+
+                    if (pstmt.executeUpdate() == 0) {
+                        unfolded.add(notification);
+                    }
+                }
+            }
+
+            if (!unfolded.isEmpty()) {
+                insertNotifications(conn, unfolded);
+            }
+
+            conn.commit();
+            UnitOfWork.afterCommit(() -> adjustUnread(unfolded));
+
+            return notifications.size();
+
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    // ignore
+                }
+            }
+            throw new DatabaseException("Failed to fold notifications: " + e.getMessage());
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean createFanOutJob(int postId, int authorId) {
+        String sql = "INSERT IGNORE INTO notification_fanout_jobs " +
+                     "(post_id, author_id, last_recipient_id, created_at) VALUES (?, ?, 0, ?)";
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, postId);
+            pstmt.setInt(2, authorId);
+            pstmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to create fan-out job: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public List<NotificationFanOutJob> findPendingFanOutJobs() {
+        String sql = "SELECT post_id, author_id, last_recipient_id, created_at " +
+                     "FROM notification_fanout_jobs ORDER BY created_at, post_id";
+
+        List<NotificationFanOutJob> jobs = new ArrayList<>();
 
         try (Connection conn = DBConnectionUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setInt(1, userId);
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
-                Notification notification = new Notification();
-                notification.setNotificationId(rs.getInt("notification_id"));
-                notification.setUserId(rs.getInt("user_id"));
-                notification.setType(rs.getString("type"));
-                notification.setMessage(rs.getString("message"));
-                notification.setRead(rs.getBoolean("is_read"));
-
-                int relatedUserId = rs.getInt("related_user_id");
-                if (!rs.wasNull()) {
-                    notification.setRelatedUserId(relatedUserId);
-                }
+                jobs.add(new NotificationFanOutJob(
+                        rs.getInt("post_id"),
+                        rs.getInt("author_id"),
+                        rs.getInt("last_recipient_id"),
+                        rs.getTimestamp("created_at").toLocalDateTime()));
+            }
+
+            return jobs;
 
-                int relatedPostId = rs.getInt("related_post_id");
-                if (!rs.wasNull()) {
-                    notification.setRelatedPostId(relatedPostId);
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to load fan-out jobs: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Inserts one chunk of a fan-out and advances the job's checkpoint in
+     * the same transaction, so a resumed job never notifies anyone twice.
+     * Returns -1 without inserting if the job no longer exists (its post
+     * was deleted).
+     */
+    @Override
+    public int saveFanOutChunk(int postId, List<Notification> notifications, int lastRecipientId) {
+        String checkpointSql = "UPDATE notification_fanout_jobs SET last_recipient_id = ? " +
+                               "WHERE post_id = ?";
+
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement pstmt = conn.prepareStatement(checkpointSql)) {
+                pstmt.setInt(1, lastRecipientId);
+                pstmt.setInt(2, postId);
+
+                if (pstmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    return -1;
                 }
+            }
+
+            int saved = notifications.isEmpty() ? 0 : insertNotifications(conn, notifications);
 
-                notification.setCreatedAt(
-                        rs.getTimestamp("created_at").toLocalDateTime());
+            conn.commit();
+            UnitOfWork.afterCommit(() -> adjustUnread(notifications));
 
-                notifications.add(notification);
+            return saved;
+
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    // ignore
+                }
+            }
+            throw new DatabaseException("Failed to save fan-out chunk: " + e.getMessage());
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    // ignore
+                }
             }
+        }
+    }
 
-            return notifications;
+    @Override
+    public boolean deleteFanOutJob(int postId) {
+        String sql = "DELETE FROM notification_fanout_jobs WHERE post_id = ?";
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, postId);
+            return pstmt.executeUpdate() > 0;
 
         } catch (SQLException e) {
-            throw new DatabaseException("Failed to find notifications: " + e.getMessage());
+            throw new DatabaseException("Failed to delete fan-out job: " + e.getMessage());
         }
     }
 
+    /*
+     * Ids of read notifications created before readBefore, in primary key
+     * order, starting after afterId.
+     */
     @Override
-    public int countUnread(int userId) {
-        String sql =
-                "SELECT COUNT(*) as count FROM notifications WHERE user_id = ? AND is_read = false";
+    public List<Integer> findReadNotificationIds(LocalDateTime readBefore, int afterId, int limit) {
+        String sql = "SELECT n.notification_id FROM notifications n " + READ_STATE_JOIN +
+                     "WHERE n.notification_id > ? AND n.created_at < ? AND " + IS_READ + " " +
+                     "ORDER BY n.notification_id LIMIT ?";
+
+        List<Integer> notificationIds = new ArrayList<>();
 
         try (Connection conn = DBConnectionUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setInt(1, userId);
+            pstmt.setInt(1, afterId);
+            pstmt.setTimestamp(2, Timestamp.valueOf(readBefore));
+            pstmt.setInt(3, limit);
+
             ResultSet rs = pstmt.executeQuery();
 
-            if (rs.next()) {
-                return rs.getInt("count");
+            while (rs.next()) {
+                notificationIds.add(rs.getInt("notification_id"));
             }
 
-            return 0;
+            return notificationIds;
 
         } catch (SQLException e) {
-            throw new DatabaseException("Failed to count unread notifications: " + e.getMessage());
+            throw new DatabaseException("Failed to find purgeable notifications: " + e.getMessage());
         }
     }
 
     @Override
-    public boolean markAsRead(int notificationId) {
-        String sql =
-                "UPDATE notifications SET is_read = true WHERE notification_id = ?";
+    public int deleteReadNotifications(int fromId, int toId, LocalDateTime readBefore) {
+        // Conditions are re-checked: a row in the range may have changed since it was listed
+        String sql = "DELETE n FROM notifications n " + READ_STATE_JOIN +
+                     "WHERE n.notification_id BETWEEN ? AND ? AND n.created_at < ? AND " + IS_READ;
 
         try (Connection conn = DBConnectionUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setInt(1, notificationId);
+            pstmt.setInt(1, fromId);
+            pstmt.setInt(2, toId);
+            pstmt.setTimestamp(3, Timestamp.valueOf(readBefore));
 
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+            return pstmt.executeUpdate();
 
         } catch (SQLException e) {
-            throw new DatabaseException("Failed to mark notification as read: " + e.getMessage());
+            throw new DatabaseException("Failed to purge notifications: " + e.getMessage());
         }
     }
 
     @Override
-    public boolean markAllAsRead(int userId) {
+    public int findLastNotifiedUserId() {
+        String sql = "SELECT COALESCE(MAX(user_id), 0) as user_id FROM notifications";
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt("user_id") : 0;
+
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to find users to purge: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Users with an id in [fromUserId, toUserId] holding more than keep
+     * notifications. Each user is checked by probing for their (keep+1)th
+     * newest row on (user_id, notification_id), so no user costs more
+     * than keep + 1 index entries and nothing is grouped or sorted.
+     */
+    @Override
+    public List<Integer> findUsersOverNotificationLimit(int keep, int fromUserId, int toUserId) {
+        String sql = "SELECT u.user_id FROM users u WHERE u.user_id BETWEEN ? AND ? " +
+                     "AND (SELECT n.notification_id FROM notifications n WHERE n.user_id = u.user_id " +
+                     "ORDER BY n.notification_id DESC LIMIT 1 OFFSET ?) IS NOT NULL " +
+                     "ORDER BY u.user_id";
+
+        List<Integer> userIds = new ArrayList<>();
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, fromUserId);
+            pstmt.setInt(2, toUserId);
+            pstmt.setInt(3, keep);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                userIds.add(rs.getInt("user_id"));
+            }
+
+            return userIds;
+
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to find users to purge: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Deletes up to limit of the user's oldest notifications beyond the
+     * newest keep, lowest ids first.
+     */
+    @Override
+    public int deleteOldestNotifications(int userId, int keep, int limit) {
+        // keep is used as keep - 1 in the OFFSET below
+        if (keep < 1) {
+            throw new IllegalArgumentException("Must keep at least one notification per user");
+        }
+
+        String cutoffSql = "SELECT notification_id FROM notifications WHERE user_id = ? " +
+                           "ORDER BY notification_id DESC LIMIT 1 OFFSET ?";
+
+        String deleteSql = "DELETE FROM notifications WHERE user_id = ? AND notification_id < ? " +
+                           "ORDER BY notification_id LIMIT ?";
+
+        try (Connection conn = DBConnectionUtil.getConnection()) {
+
+            int cutoffId;
+
+            try (PreparedStatement pstmt = conn.prepareStatement(cutoffSql)) {
+                pstmt.setInt(1, userId);
+                pstmt.setInt(2, keep - 1);
+                ResultSet rs = pstmt.executeQuery();
+
+                if (!rs.next()) {
+                    return 0;
+                }
+                cutoffId = rs.getInt("notification_id");
+            }
+
+            int deleted;
+
+            try (PreparedStatement pstmt = conn.prepareStatement(deleteSql)) {
+                pstmt.setInt(1, userId);
+                pstmt.setInt(2, cutoffId);
+                pstmt.setInt(3, limit);
+                deleted = pstmt.executeUpdate();
+            }
+
+            // Some of the deleted rows may have been unread
+            if (deleted > 0) {
+                UnitOfWork.afterCommit(() -> UNREAD.invalidate(userId));
+            }
+
+            return deleted;
+
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to purge notifications: " + e.getMessage());
+        }
+    }
+
+    private int insertNotifications(Connection conn, List<Notification> notifications)
+            throws SQLException {
+        String sql = "INSERT INTO notifications (user_id, type, message, is_read, " +
+                     "related_user_id, related_post_id, created_at, actor_count, sample_actor_ids) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        int saved = 0;
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            for (Notification notification : notifications) {
+                pstmt.setInt(1, notification.getUserId());
+                pstmt.setString(2, notification.getType());
+                pstmt.setString(3, notification.getMessage());
+                pstmt.setBoolean(4, notification.isRead());
+
+                if (notification.getRelatedUserId() > 0) {
+                    pstmt.setInt(5, notification.getRelatedUserId());
+                } else {
+                    pstmt.setNull(5, Types.INTEGER);
+                }
+
+                if (notification.getRelatedPostId() > 0) {
+                    pstmt.setInt(6, notification.getRelatedPostId());
+                } else {
+                    pstmt.setNull(6, Types.INTEGER);
+                }
+
+                LocalDateTime createdAt = notification.getCreatedAt() != null
+                        ? notification.getCreatedAt()
+                        : LocalDateTime.now();
+                pstmt.setTimestamp(7, Timestamp.valueOf(createdAt));
+                pstmt.setInt(8, notification.getActorCount());
+                pstmt.setString(9, joinActorIds(notification.getSampleActorIds()));
+
+                pstmt.addBatch();
+            }
+
+            for (int result : pstmt.executeBatch()) {
+                // SUCCESS_NO_INFO is reported for rewritten multi-row batches
+                saved += result == Statement.SUCCESS_NO_INFO ? 1 : result;
+            }
+        }
+
+        return saved;
+    }
+
+    private static void adjustUnread(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            if (!notification.isRead()) {
+                UNREAD.adjust(notification.getUserId(), 1);
+            }
+        }
+    }
+
+    @Override
+    public List<Notification> findByUserId(int userId) {
         String sql =
-                "UPDATE notifications SET is_read = true WHERE user_id = ? AND is_read = false";
+                SELECT_NOTIFICATIONS +
+                "WHERE n.user_id = ? ORDER BY n.created_at DESC LIMIT 50";
+
+        List<Notification> notifications = new ArrayList<>();
 
         try (Connection conn = DBConnectionUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, userId);
+            ResultSet rs = pstmt.executeQuery();
 
-            int rowsAffected = pstmt.executeUpdate();
-            return rowsAffected > 0;
+            while (rs.next()) {
+                notifications.add(mapResultSetToNotification(rs));
+            }
+
+            return notifications;
 
         } catch (SQLException e) {
-            throw new DatabaseException("Failed to mark all as read: " + e.getMessage());
+            throw new DatabaseException("Failed to find notifications: " + e.getMessage());
         }
     }
 
     @Override
-    public NotificationPreference getPreferences(int userId) {
+    public Page<Notification> findByUserIdPage(int userId, String pageToken, int pageSize) {
+        PageToken cursor = PageToken.decode(pageToken);
+
         String sql =
-                "SELECT * FROM notification_preferences WHERE user_id = ?";
+                SELECT_NOTIFICATIONS +
+                "WHERE n.user_id = ? " +
+                (cursor != null
+                        ? "AND (n.created_at < ? OR (n.created_at = ? AND n.notification_id < ?)) "
+                        : "") +
+                "ORDER BY n.created_at DESC, n.notification_id DESC LIMIT ?";
+
+        List<Notification> notifications = new ArrayList<>();
 
         try (Connection conn = DBConnectionUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setInt(1, userId);
+            int index = 1;
+            pstmt.setInt(index++, userId);
+            if (cursor != null) {
+                Timestamp createdAt = Timestamp.valueOf(cursor.getCreatedAt());
+                pstmt.setTimestamp(index++, createdAt);
+                pstmt.setTimestamp(index++, createdAt);
+                pstmt.setInt(index++, cursor.getId());
+            }
+            pstmt.setInt(index, pageSize + 1);
+
             ResultSet rs = pstmt.executeQuery();
 
-            if (rs.next()) {
-                NotificationPreference pref = new NotificationPreference();
-                pref.setPreferenceId(rs.getInt("preference_id"));
-                pref.setUserId(rs.getInt("user_id"));
-                pref.setConnectionRequests(rs.getBoolean("connection_requests"));
-                pref.setNewFollowers(rs.getBoolean("new_followers"));
-                pref.setLikes(rs.getBoolean("likes"));
-                pref.setComments(rs.getBoolean("comments"));
-                pref.setShares(rs.getBoolean("shares"));
-                pref.setNewPosts(rs.getBoolean("new_posts"));
-                return pref;
-            }
-
-            NotificationPreference defaultPref = new NotificationPreference();
-            defaultPref.setUserId(userId);
-            defaultPref.setConnectionRequests(true);
-            defaultPref.setNewFollowers(true);
-            defaultPref.setLikes(true);
-            defaultPref.setComments(true);
-            defaultPref.setShares(true);
-            defaultPref.setNewPosts(true);
-
-            return defaultPref;
+            while (rs.next()) {
+                notifications.add(mapResultSetToNotification(rs));
+            }
+
+            String nextPageToken = null;
+
+            if (notifications.size() > pageSize) {
+                notifications.remove(pageSize);
+                Notification last = notifications.get(pageSize - 1);
+                nextPageToken =
+                        new PageToken(last.getCreatedAt(), last.getNotificationId()).encode();
+            }
+
+            return new Page<>(notifications, nextPageToken);
+
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to find notifications: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public int countUnread(int userId) {
+        return UNREAD.get(userId);
+    }
+
+    @Override
+    public boolean markAsRead(int notificationId) {
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            int userId;
+            boolean wasUnread;
+
+            String selectSql =
+                    "SELECT n.user_id, " + IS_READ + " as is_read FROM notifications n " +
+                    READ_STATE_JOIN + "WHERE n.notification_id = ? FOR UPDATE";
+
+            try (PreparedStatement pstmt = conn.prepareStatement(selectSql)) {
+                pstmt.setInt(1, notificationId);
+                ResultSet rs = pstmt.executeQuery();
+
+                if (!rs.next()) {
+                    conn.rollback();
+                    return false;
+                }
+
+                userId = rs.getInt("user_id");
+                wasUnread = !rs.getBoolean("is_read");
+            }
+
+            // Items already covered by the watermark need no per-row flag
+            if (wasUnread) {
+                String sql =
+                        "UPDATE notifications SET is_read = true WHERE notification_id = ?";
+
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, notificationId);
+                    pstmt.executeUpdate();
+                }
+            }
+
+            conn.commit();
+
+            if (wasUnread) {
+                UnitOfWork.afterCommit(() -> UNREAD.adjust(userId, -1));
+            }
+
+            return true;
+
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    // ignore
+                }
+            }
+            throw new DatabaseException("Failed to mark notification as read: " + e.getMessage());
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /*
+     * Moves the watermark to the user's newest notification and recounts
+     * what is unread above it in the same transaction. A notification
+     * inserted after the MAX() was taken is still unread, and the counter
+     * keeps it instead of being zeroed.
+     */
+    @Override
+    public boolean markAllAsRead(int userId) {
+        String sql =
+                "INSERT INTO notification_read_state (user_id, last_read_notification_id) " +
+                "SELECT ?, COALESCE(MAX(notification_id), 0) FROM notifications WHERE user_id = ? " +
+                "ON DUPLICATE KEY UPDATE last_read_notification_id = " +
+                "GREATEST(last_read_notification_id, VALUES(last_read_notification_id))";
+
+        long version = UNREAD.version(userId);
+
+        return UnitOfWork.inTransaction(() -> {
+            try (Connection conn = DBConnectionUtil.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+                pstmt.setInt(1, userId);
+                pstmt.setInt(2, userId);
+                pstmt.executeUpdate();
+
+                Integer unread = loadUnreadCounts(Collections.singletonList(userId)).get(userId);
+                int count = unread != null ? unread : 0;
+
+                UnitOfWork.afterCommit(() -> UNREAD.replace(userId, count, version));
+                return true;
+
+            } catch (SQLException e) {
+                throw new DatabaseException("Failed to mark all as read: " + e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public NotificationPreference getPreferences(int userId) {
+        return NotificationPreference.fromMask(userId, getPreferenceMask(userId));
+    }
+
+    @Override
+    public int getPreferenceMask(int userId) {
+        return getPreferenceMasks(Collections.singletonList(userId)).get(userId);
+    }
+
+    @Override
+    public Map<Integer, Integer> getPreferenceMasks(Collection<Integer> userIds) {
+        Map<Integer, Integer> masks = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+
+        for (Integer userId : userIds) {
+            Integer cached = PREFERENCE_MASKS.get(userId);
+            if (cached != null) {
+                masks.put(userId, cached);
+            } else {
+                missing.add(userId);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return masks;
+        }
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT user_id, connection_requests, new_followers, likes, comments, " +
+                "shares, new_posts FROM notification_preferences WHERE user_id IN (");
+        for (int i = 0; i < missing.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+
+        long stamp = PREFERENCE_MASKS.stamp();
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+
+            int index = 1;
+            for (int userId : missing) {
+                pstmt.setInt(index++, userId);
+            }
+
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                masks.put(rs.getInt("user_id"), mapResultSetToPreferenceMask(rs));
+            }
 
         } catch (SQLException e) {
             throw new DatabaseException("Failed to get preferences: " + e.getMessage());
         }
+
+        for (Integer userId : missing) {
+            // Users without a row share the all-enabled default
+            Integer mask = masks.get(userId);
+            if (mask == null) {
+                mask = DEFAULT_PREFERENCE_MASK;
+                masks.put(userId, mask);
+            }
+            PREFERENCE_MASKS.putIfUnchanged(userId, mask, stamp);
+        }
+
+        return masks;
     }
 
     @Override
     public boolean updatePreferences(NotificationPreference preferences) {
+        boolean updated = false;
+
+        try {
+            updated = writePreferences(preferences);
+            return updated;
+        } finally {
+            // Bumps the cache stamp so a lookup that read the old row cannot store it
+            PREFERENCE_MASKS.remove(preferences.getUserId());
+            if (updated) {
+                int userId = preferences.getUserId();
+                int mask = preferences.toMask();
+                UnitOfWork.afterCommit(() -> PREFERENCE_MASKS.put(userId, mask));
+            }
+        }
+    }
+
+    private boolean writePreferences(NotificationPreference preferences) {
         String checkSql =
                 "SELECT COUNT(*) as count FROM notification_preferences WHERE user_id = ?";
 
@@ -268,4 +870,99 @@ public class NotificationRepository implements NotificationDAO {
             throw new DatabaseException("Failed to update preferences: " + e.getMessage());
         }
     }
+
+    private static Map<Integer, Integer> loadUnreadCounts(Collection<Integer> userIds)
+            throws SQLException {
+        StringBuilder sql = new StringBuilder(
+                "SELECT n.user_id, COUNT(*) as count FROM notifications n " + READ_STATE_JOIN +
+                "WHERE " + IS_UNREAD + " AND n.user_id IN (");
+        for (int i = 0; i < userIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") GROUP BY n.user_id");
+
+        Map<Integer, Integer> counts = new HashMap<>();
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+
+            int index = 1;
+            for (Integer userId : userIds) {
+                pstmt.setInt(index++, userId);
+            }
+
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                counts.put(rs.getInt("user_id"), rs.getInt("count"));
+            }
+        }
+
+        return counts;
+    }
+
+    private Notification mapResultSetToNotification(ResultSet rs) throws SQLException {
+        Notification notification = new Notification();
+        notification.setNotificationId(rs.getInt("notification_id"));
+        notification.setUserId(rs.getInt("user_id"));
+        notification.setType(rs.getString("type"));
+        notification.setMessage(rs.getString("message"));
+        notification.setRead(rs.getBoolean("is_read"));
+
+        int relatedUserId = rs.getInt("related_user_id");
+        if (!rs.wasNull()) {
+            notification.setRelatedUserId(relatedUserId);
+        }
+
+        int relatedPostId = rs.getInt("related_post_id");
+        if (!rs.wasNull()) {
+            notification.setRelatedPostId(relatedPostId);
+        }
+
+        notification.setCreatedAt(
+                rs.getTimestamp("created_at").toLocalDateTime());
+
+        notification.setActorCount(Math.max(1, rs.getInt("actor_count")));
+        notification.setSampleActorIds(splitActorIds(rs.getString("sample_actor_ids")));
+
+        return notification;
+    }
+
+    private static String joinActorIds(List<Integer> actorIds) {
+        if (actorIds == null || actorIds.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder joined = new StringBuilder();
+        for (Integer actorId : actorIds) {
+            if (joined.length() > 0) {
+                joined.append(',');
+            }
+            joined.append(actorId);
+        }
+        return joined.toString();
+    }
+
+    private static List<Integer> splitActorIds(String joined) {
+        List<Integer> actorIds = new ArrayList<>();
+        if (joined == null || joined.isEmpty()) {
+            return actorIds;
+        }
+
+        for (String actorId : joined.split(",")) {
+            actorIds.add(Integer.parseInt(actorId.trim()));
+        }
+        return actorIds;
+    }
+
+    private static int mapResultSetToPreferenceMask(ResultSet rs) throws SQLException {
+        NotificationPreference pref = new NotificationPreference();
+        pref.setConnectionRequests(rs.getBoolean("connection_requests"));
+        pref.setNewFollowers(rs.getBoolean("new_followers"));
+        pref.setLikes(rs.getBoolean("likes"));
+        pref.setComments(rs.getBoolean("comments"));
+        pref.setShares(rs.getBoolean("shares"));
+        pref.setNewPosts(rs.getBoolean("new_posts"));
+        return pref.toMask();
+    }
 }
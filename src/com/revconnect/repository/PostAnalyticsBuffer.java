@@ -0,0 +1,273 @@
+package com.revconnect.repository;
+
+import com.revconnect.model.PostAnalytics;
+import com.revconnect.configuration.AppConfig;
+import com.revconnect.util.DBConnectionUtil;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind aggregation for post_analytics counters.
+ *
+ * Like, comment and share writes record their +1/-1 here instead of
+ * updating the post_analytics row inside their own transaction, so hot
+ * posts no longer serialize on that row lock. Deltas are merged per post
+ * and flushed as one batched UPDATE every ANALYTICS_FLUSH_INTERVAL, or
+ * sooner once ANALYTICS_FLUSH_THRESHOLD events are pending.
+ */
+public class PostAnalyticsBuffer {
+
+    private static final ConcurrentHashMap<Integer, PendingCounters> PENDING =
+            new ConcurrentHashMap<>();
+    private static final AtomicLong PENDING_EVENTS = new AtomicLong();
+    private static final AtomicBoolean FLUSH_REQUESTED = new AtomicBoolean();
+    private static final Object FLUSH_LOCK = new Object();
+
+    private static final ScheduledExecutorService FLUSHER =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "revconnect-analytics-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        FLUSHER.scheduleWithFixedDelay(PostAnalyticsBuffer::flushQuietly,
+                AppConfig.ANALYTICS_FLUSH_INTERVAL,
+                AppConfig.ANALYTICS_FLUSH_INTERVAL,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public static void recordLike(int postId, int delta) {
+        record(postId, delta, 0, 0);
+    }
+
+    public static void recordComment(int postId, int delta) {
+        record(postId, 0, delta, 0);
+    }
+
+    public static void recordShare(int postId, int delta) {
+        record(postId, 0, 0, delta);
+    }
+
+    /*
+     * Adds deltas that have not reached the table yet, so readers see
+     * the same totals they would have seen with synchronous updates.
+     */
+    public static void applyPending(PostAnalytics analytics) {
+        PendingCounters counters = PENDING.get(analytics.getPostId());
+        if (counters == null) {
+            return;
+        }
+
+        long[] totals = counters.unpersisted();
+        analytics.setTotalLikes(analytics.getTotalLikes() + (int) totals[0]);
+        analytics.setTotalComments(analytics.getTotalComments() + (int) totals[1]);
+        analytics.setTotalShares(analytics.getTotalShares() + (int) totals[2]);
+    }
+
+    public static void flush() throws SQLException {
+        synchronized (FLUSH_LOCK) {
+            FLUSH_REQUESTED.set(false);
+
+            List<Integer> postIds = new ArrayList<>();
+            List<long[]> deltas = new ArrayList<>();
+
+            for (Integer postId : PENDING.keySet()) {
+                long[][] taken = new long[1][];
+                PENDING.computeIfPresent(postId, (id, counters) -> {
+                    taken[0] = counters.beginFlush();
+                    return counters;
+                });
+
+                if (taken[0] != null) {
+                    postIds.add(postId);
+                    deltas.add(taken[0]);
+                }
+            }
+
+            if (postIds.isEmpty()) {
+                return;
+            }
+
+            boolean written = false;
+            try {
+                writeDeltas(postIds, deltas);
+                written = true;
+            } finally {
+                for (int i = 0; i < postIds.size(); i++) {
+                    long[] delta = deltas.get(i);
+                    boolean persisted = written;
+
+                    PENDING.computeIfPresent(postIds.get(i), (id, counters) -> {
+                        counters.endFlush(delta, persisted);
+                        return counters.isEmpty() ? null : counters;
+                    });
+
+                    if (persisted) {
+                        PENDING_EVENTS.addAndGet(-(Math.abs(delta[0])
+                                + Math.abs(delta[1]) + Math.abs(delta[2])));
+                    }
+                }
+            }
+        }
+    }
+
+    public static void shutdown() {
+        FLUSHER.shutdown();
+        flushQuietly();
+    }
+
+    private static void record(int postId, int likes, int comments, int shares) {
+        EngagementHistory.record(postId, likes, comments, shares);
+        AccountAnalytics.recordEngagement(postId, likes, comments, shares);
+
+        PENDING.compute(postId, (id, counters) -> {
+            if (counters == null) {
+                counters = new PendingCounters();
+            }
+            counters.add(likes, comments, shares);
+            return counters;
+        });
+
+        long pending = PENDING_EVENTS.addAndGet(
+                Math.abs(likes) + Math.abs(comments) + Math.abs(shares));
+
+        if (pending >= AppConfig.ANALYTICS_FLUSH_THRESHOLD
+                && FLUSH_REQUESTED.compareAndSet(false, true)) {
+            try {
+                FLUSHER.execute(PostAnalyticsBuffer::flushQuietly);
+            } catch (RuntimeException e) {
+                // flusher already shut down; the shutdown flush picks this up
+                FLUSH_REQUESTED.set(false);
+            }
+        }
+    }
+
+    private static void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException | RuntimeException e) {
+            // deltas stay pending and are retried on the next flush
+            System.err.println("Failed to flush post analytics: " + e.getMessage());
+        }
+    }
+
+    private static void writeDeltas(List<Integer> postIds, List<long[]> deltas)
+            throws SQLException {
+        String sql =
+                "UPDATE post_analytics SET total_likes = total_likes + ?, " +
+                "total_comments = total_comments + ?, total_shares = total_shares + ?, " +
+                "last_updated = ? WHERE post_id = ?";
+
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < postIds.size(); i++) {
+                    long[] delta = deltas.get(i);
+                    pstmt.setLong(1, delta[0]);
+                    pstmt.setLong(2, delta[1]);
+                    pstmt.setLong(3, delta[2]);
+                    pstmt.setTimestamp(4, now);
+                    pstmt.setInt(5, postIds.get(i));
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+
+            conn.commit();
+
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    // ignore
+                }
+            }
+            throw e;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /*
+     * Per-post deltas. "pending" accumulates new events; "inFlight" holds
+     * the portion currently being written so readers still count it.
+     * Writers additionally hold the ConcurrentHashMap bin lock, which keeps
+     * an entry from being removed while it is being updated.
+     */
+    private static final class PendingCounters {
+
+        private final long[] pending = new long[3];
+        private final long[] inFlight = new long[3];
+
+        private synchronized void add(int likes, int comments, int shares) {
+            pending[0] += likes;
+            pending[1] += comments;
+            pending[2] += shares;
+        }
+
+        private synchronized long[] beginFlush() {
+            if (pending[0] == 0 && pending[1] == 0 && pending[2] == 0) {
+                return null;
+            }
+
+            long[] taken = pending.clone();
+            for (int i = 0; i < 3; i++) {
+                inFlight[i] += pending[i];
+                pending[i] = 0;
+            }
+            return taken;
+        }
+
+        private synchronized void endFlush(long[] taken, boolean persisted) {
+            for (int i = 0; i < 3; i++) {
+                inFlight[i] -= taken[i];
+                if (!persisted) {
+                    pending[i] += taken[i];
+                }
+            }
+        }
+
+        private synchronized long[] unpersisted() {
+            return new long[] {
+                    pending[0] + inFlight[0],
+                    pending[1] + inFlight[1],
+                    pending[2] + inFlight[2]
+            };
+        }
+
+        private synchronized boolean isEmpty() {
+            for (int i = 0; i < 3; i++) {
+                if (pending[i] != 0 || inFlight[i] != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private PostAnalyticsBuffer() {
+    }
+}
@@ -1,18 +1,34 @@
 package com.revconnect.repository;
 
 import com.revconnect.dao.PostDAO;
+import com.revconnect.model.CreatorDashboard;
+import com.revconnect.model.EngagementBucket;
+import com.revconnect.model.Page;
 import com.revconnect.model.Post;
 import com.revconnect.model.PostAnalytics;
+import com.revconnect.configuration.AppConfig;
 import com.revconnect.util.DBConnectionUtil;
+import com.revconnect.util.HashtagUtil;
+import com.revconnect.util.PageToken;
+import com.revconnect.util.UnitOfWork;
 import com.revconnect.exception.DatabaseException;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class PostRepository implements PostDAO {
 
+    // Scheduled posts are stored up front but must not surface before they are published
+    private static final String PUBLISHED_ONLY =
+            "AND NOT EXISTS (SELECT 1 FROM scheduled_posts sp " +
+            "WHERE sp.post_id = p.post_id AND sp.is_published = false) ";
+
     @Override
     public boolean createPost(Post post) {
         Connection conn = null;
@@ -20,46 +36,11 @@ public class PostRepository implements PostDAO {
             conn = DBConnectionUtil.getConnection();
             conn.setAutoCommit(false);
 
-            String postSql = "INSERT INTO posts (user_id, content, hashtags, is_promotional, " +
-                            "is_pinned, pin_order, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
-
-            try (PreparedStatement pstmt =
-                         conn.prepareStatement(postSql, Statement.RETURN_GENERATED_KEYS)) {
-
-                pstmt.setInt(1, post.getUserId());
-                pstmt.setString(2, post.getContent());
-                pstmt.setString(3, post.getHashtags());
-                pstmt.setBoolean(4, post.isPromotional());
-                pstmt.setBoolean(5, post.isPinned());
-                pstmt.setInt(6, post.getPinOrder());
-                pstmt.setTimestamp(7, Timestamp.valueOf(LocalDateTime.now()));
-
-                int rowsAffected = pstmt.executeUpdate();
-
-                if (rowsAffected > 0) {
-                    ResultSet rs = pstmt.getGeneratedKeys();
-                    if (rs.next()) {
-                        int postId = rs.getInt(1);
-                        post.setPostId(postId);
-
-                        String analyticsSql =
-                                "INSERT INTO post_analytics (post_id, total_likes, " +
-                                "total_comments, total_shares, unique_viewers, last_updated) " +
-                                "VALUES (?, 0, 0, 0, 0, ?)";
-
-                        try (PreparedStatement analyticsPstmt =
-                                     conn.prepareStatement(analyticsSql)) {
-
-                            analyticsPstmt.setInt(1, postId);
-                            analyticsPstmt.setTimestamp(
-                                    2, Timestamp.valueOf(LocalDateTime.now()));
-                            analyticsPstmt.executeUpdate();
-                        }
-
-                        conn.commit();
-                        return true;
-                    }
-                }
+            if (insertPost(conn, post, LocalDateTime.now())) {
+                conn.commit();
+                int authorId = post.getUserId();
+                UnitOfWork.afterCommit(() -> AccountAnalytics.recordPost(authorId));
+                return true;
             }
 
             conn.rollback();
@@ -88,46 +69,132 @@ public class PostRepository implements PostDAO {
 
     @Override
     public boolean updatePost(Post post) {
-        String sql = "UPDATE posts SET content = ?, hashtags = ? WHERE post_id = ?";
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
 
-        try (Connection conn = DBConnectionUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            String sql = "UPDATE posts SET content = ?, hashtags = ? WHERE post_id = ?";
 
-            pstmt.setString(1, post.getContent());
-            pstmt.setString(2, post.getHashtags());
-            pstmt.setInt(3, post.getPostId());
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            int rowsAffected = pstmt.executeUpdate();
+                pstmt.setString(1, post.getContent());
+                pstmt.setString(2, post.getHashtags());
+                pstmt.setInt(3, post.getPostId());
 
-            if (rowsAffected > 0) {
-                return true;
+                int rowsAffected = pstmt.executeUpdate();
+
+                if (rowsAffected > 0) {
+                    unindexHashtags(conn, post.getPostId());
+                    indexHashtags(conn, post.getPostId(), post.getHashtags());
+                    conn.commit();
+                    return true;
+                }
             }
 
+            conn.rollback();
             return false;
 
         } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    // ignore
+                }
+            }
             throw new DatabaseException("Failed to update post: " + e.getMessage());
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    // ignore
+                }
+            }
         }
     }
 
     @Override
     public boolean deletePost(int postId) {
-        String sql = "DELETE FROM posts WHERE post_id = ?";
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
 
-        try (Connection conn = DBConnectionUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            // Totals the post contributed to its account, read before the row goes away
+            String totalsSql =
+                    "SELECT p.user_id, COALESCE(pa.total_likes, 0) as total_likes, " +
+                    "COALESCE(pa.total_comments, 0) as total_comments, " +
+                    "COALESCE(pa.total_shares, 0) as total_shares, " +
+                    "COALESCE(sp.is_published, true) as is_published " +
+                    "FROM posts p LEFT JOIN post_analytics pa ON pa.post_id = p.post_id " +
+                    "LEFT JOIN scheduled_posts sp ON sp.post_id = p.post_id " +
+                    "WHERE p.post_id = ? FOR UPDATE";
+
+            int authorId = 0;
+            boolean published = true;
+            PostAnalytics totals = new PostAnalytics();
+            totals.setPostId(postId);
+
+            try (PreparedStatement pstmt = conn.prepareStatement(totalsSql)) {
+                pstmt.setInt(1, postId);
+                ResultSet rs = pstmt.executeQuery();
 
-            pstmt.setInt(1, postId);
-            int rowsAffected = pstmt.executeUpdate();
+                if (rs.next()) {
+                    authorId = rs.getInt("user_id");
+                    totals.setTotalLikes(rs.getInt("total_likes"));
+                    totals.setTotalComments(rs.getInt("total_comments"));
+                    totals.setTotalShares(rs.getInt("total_shares"));
+                    published = rs.getBoolean("is_published");
+                }
+            }
 
-            if (rowsAffected > 0) {
-                return true;
+            unindexHashtags(conn, postId);
+
+            String sql = "DELETE FROM posts WHERE post_id = ?";
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+                pstmt.setInt(1, postId);
+                int rowsAffected = pstmt.executeUpdate();
+
+                if (rowsAffected > 0) {
+                    conn.commit();
+                    int deletedAuthorId = authorId;
+                    boolean wasPublished = published;
+                    UnitOfWork.afterCommit(() -> {
+                        PostAnalyticsBuffer.applyPending(totals);
+                        AccountAnalytics.removePost(deletedAuthorId, totals, wasPublished);
+                        EngagementHistory.discard(postId);
+                        PostViewTracker.discard(postId);
+                    });
+                    return true;
+                }
             }
 
+            conn.rollback();
             return false;
 
         } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    // ignore
+                }
+            }
             throw new DatabaseException("Failed to delete post: " + e.getMessage());
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    // ignore
+                }
+            }
         }
     }
 
@@ -177,27 +244,27 @@ public class PostRepository implements PostDAO {
     }
 
     @Override
-    public List<Post> getFeed(int userId) {
+    public Page<Post> findByUserIdPage(int userId, String pageToken, int pageSize) {
+        PageToken cursor = PageToken.decode(pageToken);
+
         String sql =
-                "SELECT DISTINCT p.* FROM posts p " +
-                "LEFT JOIN connection_requests cr1 ON p.user_id = cr1.sender_id " +
-                "LEFT JOIN connection_requests cr2 ON p.user_id = cr2.receiver_id " +
-                "LEFT JOIN follows f ON p.user_id = f.following_id " +
-                "WHERE p.user_id = ? " +
-                "OR (cr1.receiver_id = ? AND cr1.status = 'ACCEPTED') " +
-                "OR (cr2.sender_id = ? AND cr2.status = 'ACCEPTED') " +
-                "OR f.follower_id = ? " +
-                "ORDER BY p.created_at DESC LIMIT 100";
+                "SELECT * FROM posts WHERE user_id = ? " +
+                (cursor != null
+                        ? "AND (created_at < ? OR (created_at = ? AND post_id < ?)) "
+                        : "") +
+                "ORDER BY created_at DESC, post_id DESC LIMIT ?";
 
         List<Post> posts = new ArrayList<>();
 
         try (Connection conn = DBConnectionUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setInt(1, userId);
-            pstmt.setInt(2, userId);
-            pstmt.setInt(3, userId);
-            pstmt.setInt(4, userId);
+            int index = 1;
+            pstmt.setInt(index++, userId);
+            if (cursor != null) {
+                index = setCursor(pstmt, index, cursor);
+            }
+            pstmt.setInt(index, pageSize + 1);
 
             ResultSet rs = pstmt.executeQuery();
 
@@ -205,31 +272,63 @@ public class PostRepository implements PostDAO {
                 posts.add(mapResultSetToPost(rs));
             }
 
-            return posts;
+            return toPage(posts, pageSize);
 
         } catch (SQLException e) {
-            throw new DatabaseException("Failed to get feed: " + e.getMessage());
+            throw new DatabaseException("Failed to find posts: " + e.getMessage());
         }
     }
 
+    @Override
+    public List<Post> getFeed(int userId) {
+        return queryFeed(userId, null, null, null, AppConfig.FEED_SIZE, "Failed to get feed: ");
+    }
+
+    @Override
+    public Page<Post> getFeedPage(int userId, String pageToken, int pageSize) {
+        List<Post> posts = queryFeed(userId, null, null, PageToken.decode(pageToken),
+                pageSize + 1, "Failed to get feed page: ");
+
+        return toPage(posts, pageSize);
+    }
+
     @Override
     public List<Post> getTrendingPosts() {
-        String sql =
-                "SELECT p.* FROM posts p " +
-                "JOIN post_analytics pa ON p.post_id = pa.post_id " +
-                "WHERE p.created_at >= DATE_SUB(NOW(), INTERVAL 7 DAY) " +
-                "ORDER BY (pa.total_likes + pa.total_comments + pa.total_shares) DESC " +
-                "LIMIT 20";
+        // Ranking comes from the precomputed leaderboard; only the K rows are fetched by key
+        List<Integer> postIds = TrendingEngine.topPostIds();
 
         List<Post> posts = new ArrayList<>();
+        if (postIds.isEmpty()) {
+            return posts;
+        }
+
+        // A scheduled post can gather engagement before it is due; keep it out until then
+        StringBuilder sql = new StringBuilder("SELECT p.* FROM posts p WHERE p.post_id IN (");
+        for (int i = 0; i < postIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") ").append(PUBLISHED_ONLY);
 
         try (Connection conn = DBConnectionUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+
+            for (int i = 0; i < postIds.size(); i++) {
+                pstmt.setInt(i + 1, postIds.get(i));
+            }
 
             ResultSet rs = pstmt.executeQuery();
 
+            Map<Integer, Post> byId = new HashMap<>();
             while (rs.next()) {
-                posts.add(mapResultSetToPost(rs));
+                Post post = mapResultSetToPost(rs);
+                byId.put(post.getPostId(), post);
+            }
+
+            for (Integer postId : postIds) {
+                Post post = byId.get(postId);
+                if (post != null) {
+                    posts.add(post);
+                }
             }
 
             return posts;
@@ -242,15 +341,22 @@ public class PostRepository implements PostDAO {
     @Override
     public List<Post> searchByHashtag(String hashtag) {
         String sql =
-                "SELECT * FROM posts WHERE hashtags LIKE ? " +
-                "ORDER BY created_at DESC LIMIT 50";
+                "SELECT p.* FROM post_hashtags h " +
+                "JOIN posts p ON p.post_id = h.post_id " +
+                "WHERE h.tag = ? " + PUBLISHED_ONLY +
+                "ORDER BY h.created_at DESC, h.post_id DESC LIMIT 50";
 
         List<Post> posts = new ArrayList<>();
 
+        String tag = HashtagUtil.normalize(hashtag);
+        if (tag == null) {
+            return posts;
+        }
+
         try (Connection conn = DBConnectionUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setString(1, "%" + hashtag + "%");
+            pstmt.setString(1, tag);
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
@@ -265,46 +371,34 @@ public class PostRepository implements PostDAO {
     }
 
     @Override
-    public List<Post> getFilteredFeed(int userId, String postType, String userType) {
-        StringBuilder sql = new StringBuilder(
-            "SELECT DISTINCT p.* FROM posts p " +
-            "JOIN users u ON p.user_id = u.user_id " +
-            "LEFT JOIN connection_requests cr1 ON p.user_id = cr1.sender_id " +
-            "LEFT JOIN connection_requests cr2 ON p.user_id = cr2.receiver_id " +
-            "LEFT JOIN follows f ON p.user_id = f.following_id " +
-            "WHERE (p.user_id = ? " +
-            "OR (cr1.receiver_id = ? AND cr1.status = 'ACCEPTED') " +
-            "OR (cr2.sender_id = ? AND cr2.status = 'ACCEPTED') " +
-            "OR f.follower_id = ?) "
-        );
-
-        if (postType != null && !postType.isEmpty()) {
-            if (postType.equalsIgnoreCase("PROMOTIONAL")) {
-                sql.append("AND p.is_promotional = true ");
-            } else if (postType.equalsIgnoreCase("REGULAR")) {
-                sql.append("AND p.is_promotional = false ");
-            }
-        }
-
-        if (userType != null && !userType.isEmpty()) {
-            sql.append("AND u.user_type = ? ");
-        }
+    public Page<Post> searchByHashtagPage(String hashtag, String pageToken, int pageSize) {
+        PageToken cursor = PageToken.decode(pageToken);
 
-        sql.append("ORDER BY p.created_at DESC LIMIT 100");
+        String sql =
+                "SELECT p.* FROM post_hashtags h " +
+                "JOIN posts p ON p.post_id = h.post_id " +
+                "WHERE h.tag = ? " + PUBLISHED_ONLY +
+                (cursor != null
+                        ? "AND (h.created_at < ? OR (h.created_at = ? AND h.post_id < ?)) "
+                        : "") +
+                "ORDER BY h.created_at DESC, h.post_id DESC LIMIT ?";
 
         List<Post> posts = new ArrayList<>();
 
-        try (Connection conn = DBConnectionUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+        String tag = HashtagUtil.normalize(hashtag);
+        if (tag == null) {
+            return new Page<>(posts, null);
+        }
 
-            pstmt.setInt(1, userId);
-            pstmt.setInt(2, userId);
-            pstmt.setInt(3, userId);
-            pstmt.setInt(4, userId);
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            if (userType != null && !userType.isEmpty()) {
-                pstmt.setString(5, userType);
+            int index = 1;
+            pstmt.setString(index++, tag);
+            if (cursor != null) {
+                index = setCursor(pstmt, index, cursor);
             }
+            pstmt.setInt(index, pageSize + 1);
 
             ResultSet rs = pstmt.executeQuery();
 
@@ -312,42 +406,180 @@ public class PostRepository implements PostDAO {
                 posts.add(mapResultSetToPost(rs));
             }
 
-            return posts;
+            return toPage(posts, pageSize);
 
         } catch (SQLException e) {
-            throw new DatabaseException("Failed to get filtered feed: " + e.getMessage());
+            throw new DatabaseException("Failed to search by hashtag: " + e.getMessage());
         }
     }
 
+    @Override
+    public int backfillHashtags(int afterPostId, int batchSize) {
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            String sql =
+                    "SELECT post_id, hashtags FROM posts " +
+                    "WHERE post_id > ? ORDER BY post_id LIMIT ?";
+
+            int lastPostId = 0;
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, afterPostId);
+                pstmt.setInt(2, batchSize);
+                ResultSet rs = pstmt.executeQuery();
+
+                while (rs.next()) {
+                    lastPostId = rs.getInt("post_id");
+                    indexHashtags(conn, lastPostId, rs.getString("hashtags"));
+                }
+            }
+
+            conn.commit();
+            return lastPostId;
+
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    // ignore
+                }
+            }
+            throw new DatabaseException("Failed to backfill hashtags: " + e.getMessage());
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<Post> getFilteredFeed(int userId, String postType, String userType) {
+        return queryFeed(userId, postType, userType, null, AppConfig.FEED_SIZE,
+                "Failed to get filtered feed: ");
+    }
+
     @Override
     public boolean schedulePost(Post post) {
-        boolean postCreated = createPost(post);
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
 
-        if (!postCreated || post.getPostId() == 0) {
-            return false;
+            // The post is dated at its scheduled time and stays hidden until the publisher flips the row
+            if (!insertPost(conn, post, post.getScheduledTime())) {
+                conn.rollback();
+                return false;
+            }
+
+            String sql =
+                    "INSERT INTO scheduled_posts (post_id, scheduled_for, is_published) " +
+                    "VALUES (?, ?, false)";
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, post.getPostId());
+                pstmt.setTimestamp(2,
+                        Timestamp.valueOf(post.getScheduledTime()));
+
+                if (pstmt.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+            }
+
+            // Counted towards the account when the publisher flips the row, not now
+            conn.commit();
+            return true;
+
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    // ignore
+                }
+            }
+            throw new DatabaseException("Failed to schedule post: " + e.getMessage());
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    // ignore
+                }
+            }
         }
+    }
 
+    @Override
+    public List<Post> findDueScheduledPosts(LocalDateTime dueBefore, int limit) {
         String sql =
-                "INSERT INTO scheduled_posts (post_id, scheduled_for, is_published) " +
-                "VALUES (?, ?, false)";
+                "SELECT p.*, sp.scheduled_for FROM scheduled_posts sp " +
+                "JOIN posts p ON p.post_id = sp.post_id " +
+                "WHERE sp.is_published = false AND sp.scheduled_for <= ? " +
+                "ORDER BY sp.scheduled_for, sp.post_id LIMIT ?";
+
+        List<Post> posts = new ArrayList<>();
 
         try (Connection conn = DBConnectionUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setInt(1, post.getPostId());
-            pstmt.setTimestamp(2,
-                    Timestamp.valueOf(post.getScheduledTime()));
+            pstmt.setTimestamp(1, Timestamp.valueOf(dueBefore));
+            pstmt.setInt(2, limit);
 
-            int rowsAffected = pstmt.executeUpdate();
+            ResultSet rs = pstmt.executeQuery();
 
-            if (rowsAffected > 0) {
-                return true;
+            while (rs.next()) {
+                Post post = mapResultSetToPost(rs);
+                post.setScheduledTime(rs.getTimestamp("scheduled_for").toLocalDateTime());
+                posts.add(post);
             }
 
-            return false;
+            return posts;
 
         } catch (SQLException e) {
-            throw new DatabaseException("Failed to schedule post: " + e.getMessage());
+            throw new DatabaseException("Failed to load scheduled posts: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean markScheduledPostPublished(int postId) {
+        String sql =
+                "UPDATE scheduled_posts SET is_published = true " +
+                "WHERE post_id = ? AND is_published = false";
+
+        String authorSql = "SELECT user_id FROM posts WHERE post_id = ?";
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, postId);
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+
+            // The post only now becomes visible, so this is where it counts towards the account
+            try (PreparedStatement authorStmt = conn.prepareStatement(authorSql)) {
+                authorStmt.setInt(1, postId);
+                ResultSet rs = authorStmt.executeQuery();
+                if (rs.next()) {
+                    int authorId = rs.getInt("user_id");
+                    UnitOfWork.afterCommit(() -> AccountAnalytics.recordPost(authorId));
+                }
+            }
+            return true;
+
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to publish scheduled post: " + e.getMessage());
         }
     }
 
@@ -463,6 +695,7 @@ public class PostRepository implements PostDAO {
                 analytics.setUniqueViewers(rs.getInt("unique_viewers"));
                 analytics.setLastUpdated(
                         rs.getTimestamp("last_updated").toLocalDateTime());
+                PostAnalyticsBuffer.applyPending(analytics);
                 return analytics;
             }
 
@@ -473,6 +706,426 @@ public class PostRepository implements PostDAO {
         }
     }
 
+    // Views are sketched per post and written behind; a viewer's own posts are not counted
+    @Override
+    public void recordViews(int viewerId, List<Post> posts) {
+        PostViewTracker.recordViews(viewerId, posts);
+    }
+
+    /*
+     * Reads the account's running totals, its tracked top posts and its
+     * follower changes over the last growthDays days: three indexed
+     * lookups whose cost does not depend on how many posts it has.
+     */
+    @Override
+    public CreatorDashboard getCreatorDashboard(int userId, int growthDays, int topPostCount) {
+        String totalsSql = "SELECT * FROM account_analytics WHERE user_id = ?";
+
+        String topPostsSql =
+                "SELECT pa.* FROM account_top_posts t " +
+                "JOIN post_analytics pa ON pa.post_id = t.post_id " +
+                "WHERE t.user_id = ? ORDER BY t.engagement DESC, t.post_id DESC LIMIT ?";
+
+        String growthSql =
+                "SELECT COALESCE(SUM(followers_gained), 0) as gained, " +
+                "COALESCE(SUM(followers_lost), 0) as lost " +
+                "FROM account_follower_daily WHERE user_id = ? AND day > ?";
+
+        CreatorDashboard dashboard = new CreatorDashboard();
+        dashboard.setUserId(userId);
+        dashboard.setGrowthDays(growthDays);
+
+        try (Connection conn = DBConnectionUtil.getConnection()) {
+
+            try (PreparedStatement pstmt = conn.prepareStatement(totalsSql)) {
+                pstmt.setInt(1, userId);
+                ResultSet rs = pstmt.executeQuery();
+
+                if (rs.next()) {
+                    dashboard.setTotalPosts(rs.getInt("total_posts"));
+                    dashboard.setTotalLikes(rs.getInt("total_likes"));
+                    dashboard.setTotalComments(rs.getInt("total_comments"));
+                    dashboard.setTotalShares(rs.getInt("total_shares"));
+                    dashboard.setTotalViews(rs.getInt("total_views"));
+                    dashboard.setFollowerCount(rs.getInt("follower_count"));
+                    dashboard.setLastUpdated(rs.getTimestamp("last_updated").toLocalDateTime());
+                }
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(topPostsSql)) {
+                pstmt.setInt(1, userId);
+                pstmt.setInt(2, topPostCount);
+                ResultSet rs = pstmt.executeQuery();
+
+                List<PostAnalytics> topPosts = new ArrayList<>();
+                while (rs.next()) {
+                    PostAnalytics analytics = new PostAnalytics();
+                    analytics.setAnalyticsId(rs.getInt("analytics_id"));
+                    analytics.setPostId(rs.getInt("post_id"));
+                    analytics.setTotalLikes(rs.getInt("total_likes"));
+                    analytics.setTotalComments(rs.getInt("total_comments"));
+                    analytics.setTotalShares(rs.getInt("total_shares"));
+                    analytics.setUniqueViewers(rs.getInt("unique_viewers"));
+                    analytics.setLastUpdated(rs.getTimestamp("last_updated").toLocalDateTime());
+                    topPosts.add(analytics);
+                }
+                dashboard.setTopPosts(topPosts);
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(growthSql)) {
+                pstmt.setInt(1, userId);
+                pstmt.setDate(2, Date.valueOf(LocalDate.now().minusDays(growthDays)));
+                ResultSet rs = pstmt.executeQuery();
+
+                if (rs.next()) {
+                    dashboard.setFollowersGained(rs.getInt("gained"));
+                    dashboard.setFollowersLost(rs.getInt("lost"));
+                }
+            }
+
+            return dashboard;
+
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to get creator dashboard: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Recomputes account_analytics, account_top_posts and the followers
+     * gained per day from the base tables. Unfollows leave no history, so
+     * followers_lost cannot be rebuilt and is left as it is.
+     */
+    @Override
+    public int rebuildAccountAnalytics() {
+        String totalsSql =
+                "INSERT INTO account_analytics (user_id, total_posts, total_likes, " +
+                "total_comments, total_shares, total_views, follower_count, last_updated) " +
+                "SELECT u.user_id, COALESCE(p.posts, 0), COALESCE(p.likes, 0), " +
+                "COALESCE(p.comments, 0), COALESCE(p.shares, 0), COALESCE(v.views, 0), " +
+                "COALESCE(f.followers, 0), ? FROM users u " +
+                "LEFT JOIN (SELECT p.user_id, " +
+                "SUM(sp.post_id IS NULL OR sp.is_published) as posts, " +
+                "SUM(COALESCE(pa.total_likes, 0)) as likes, " +
+                "SUM(COALESCE(pa.total_comments, 0)) as comments, " +
+                "SUM(COALESCE(pa.total_shares, 0)) as shares " +
+                "FROM posts p LEFT JOIN post_analytics pa ON pa.post_id = p.post_id " +
+                "LEFT JOIN scheduled_posts sp ON sp.post_id = p.post_id " +
+                "GROUP BY p.user_id) p ON p.user_id = u.user_id " +
+                "LEFT JOIN (SELECT p.user_id, SUM(b.views) as views " +
+                "FROM post_engagement_buckets b JOIN posts p ON p.post_id = b.post_id " +
+                "GROUP BY p.user_id) v ON v.user_id = u.user_id " +
+                "LEFT JOIN (SELECT following_id, COUNT(*) as followers FROM follows " +
+                "GROUP BY following_id) f ON f.following_id = u.user_id " +
+                "ON DUPLICATE KEY UPDATE total_posts = VALUES(total_posts), " +
+                "total_likes = VALUES(total_likes), total_comments = VALUES(total_comments), " +
+                "total_shares = VALUES(total_shares), total_views = VALUES(total_views), " +
+                "follower_count = VALUES(follower_count), last_updated = VALUES(last_updated)";
+
+        String clearTopPostsSql = "DELETE FROM account_top_posts";
+
+        String topPostsSql =
+                "INSERT INTO account_top_posts (user_id, post_id, engagement) " +
+                "SELECT user_id, post_id, engagement FROM (" +
+                "SELECT p.user_id, p.post_id, " +
+                "pa.total_likes + pa.total_comments + pa.total_shares as engagement, " +
+                "ROW_NUMBER() OVER (PARTITION BY p.user_id " +
+                "ORDER BY pa.total_likes + pa.total_comments + pa.total_shares DESC, " +
+                "p.post_id DESC) as position " +
+                "FROM posts p JOIN post_analytics pa ON pa.post_id = p.post_id" +
+                ") ranked WHERE position <= ?";
+
+        String followerDailySql =
+                "INSERT INTO account_follower_daily (user_id, day, followers_gained, followers_lost) " +
+                "SELECT following_id, DATE(created_at), COUNT(*), 0 FROM follows " +
+                "GROUP BY following_id, DATE(created_at) " +
+                "ON DUPLICATE KEY UPDATE followers_gained = VALUES(followers_gained)";
+
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            int rows;
+
+            try (PreparedStatement pstmt = conn.prepareStatement(totalsSql)) {
+                pstmt.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+                rows = pstmt.executeUpdate();
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(clearTopPostsSql)) {
+                pstmt.executeUpdate();
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(topPostsSql)) {
+                pstmt.setInt(1, AppConfig.DASHBOARD_TRACKED_POSTS);
+                pstmt.executeUpdate();
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(followerDailySql)) {
+                pstmt.executeUpdate();
+            }
+
+            conn.commit();
+            return rows;
+
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    // ignore
+                }
+            }
+            throw new DatabaseException("Failed to rebuild account analytics: " + e.getMessage());
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /*
+     * HOUR returns the stored hourly buckets. DAY sums every bucket per
+     * calendar day, so days that are still hourly are folded in as well.
+     * Either way the scan covers only this post's buckets since "from".
+     */
+    @Override
+    public List<EngagementBucket> getEngagementBuckets(int postId, LocalDateTime from,
+                                                       String granularity) {
+        String sql = EngagementBucket.HOUR.equals(granularity)
+                ? "SELECT bucket_start, likes, comments, shares, views " +
+                  "FROM post_engagement_buckets " +
+                  "WHERE post_id = ? AND granularity = 'HOUR' AND bucket_start >= ? " +
+                  "ORDER BY bucket_start"
+                : "SELECT DATE(bucket_start) as bucket_start, SUM(likes) as likes, " +
+                  "SUM(comments) as comments, SUM(shares) as shares, SUM(views) as views " +
+                  "FROM post_engagement_buckets " +
+                  "WHERE post_id = ? AND bucket_start >= ? " +
+                  "GROUP BY DATE(bucket_start) ORDER BY bucket_start";
+
+        List<EngagementBucket> buckets = new ArrayList<>();
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, postId);
+            pstmt.setTimestamp(2, Timestamp.valueOf(from));
+
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                EngagementBucket bucket = new EngagementBucket(postId, granularity,
+                        rs.getTimestamp("bucket_start").toLocalDateTime());
+                bucket.setLikes(rs.getInt("likes"));
+                bucket.setComments(rs.getInt("comments"));
+                bucket.setShares(rs.getInt("shares"));
+                bucket.setViews(rs.getInt("views"));
+                buckets.add(bucket);
+            }
+
+            return buckets;
+
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to get analytics timeline: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Reads the materialized home_timeline with one indexed range scan and
+     * merges in posts from followed high-fan-out authors, which are not
+     * pushed into follower timelines at write time.
+     */
+    private List<Post> queryFeed(int userId, String postType, String userType,
+                                 PageToken cursor, int limit, String errorPrefix) {
+        boolean filterUserType = userType != null && !userType.isEmpty();
+
+        StringBuilder filter = new StringBuilder(PUBLISHED_ONLY);
+
+        if (postType != null && !postType.isEmpty()) {
+            if (postType.equalsIgnoreCase("PROMOTIONAL")) {
+                filter.append("AND p.is_promotional = true ");
+            } else if (postType.equalsIgnoreCase("REGULAR")) {
+                filter.append("AND p.is_promotional = false ");
+            }
+        }
+
+        if (filterUserType) {
+            filter.append("AND u.user_type = ? ");
+        }
+
+        String userJoin = filterUserType ? "JOIN users u ON p.user_id = u.user_id " : "";
+
+        String timelineCursor = cursor != null
+                ? "AND (ht.created_at < ? OR (ht.created_at = ? AND ht.post_id < ?)) "
+                : "";
+        String postCursor = cursor != null
+                ? "AND (p.created_at < ? OR (p.created_at = ? AND p.post_id < ?)) "
+                : "";
+
+        String sql =
+                "SELECT * FROM (" +
+                "(SELECT p.* FROM home_timeline ht " +
+                "JOIN posts p ON p.post_id = ht.post_id " + userJoin +
+                "WHERE ht.user_id = ? " + filter + timelineCursor +
+                "ORDER BY ht.created_at DESC, ht.post_id DESC LIMIT ?) " +
+                "UNION " +
+                "(SELECT p.* FROM high_fanout_authors h " +
+                "JOIN posts p ON p.user_id = h.user_id " + userJoin +
+                "WHERE h.user_id IN (" +
+                "SELECT following_id FROM follows WHERE follower_id = ? " +
+                "UNION SELECT receiver_id FROM connection_requests " +
+                "WHERE sender_id = ? AND status = 'ACCEPTED' " +
+                "UNION SELECT sender_id FROM connection_requests " +
+                "WHERE receiver_id = ? AND status = 'ACCEPTED') " + filter + postCursor +
+                "ORDER BY p.created_at DESC, p.post_id DESC LIMIT ?)" +
+                ") feed ORDER BY created_at DESC, post_id DESC LIMIT ?";
+
+        List<Post> posts = new ArrayList<>();
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            int index = 1;
+
+            pstmt.setInt(index++, userId);
+            if (filterUserType) {
+                pstmt.setString(index++, userType);
+            }
+            if (cursor != null) {
+                index = setCursor(pstmt, index, cursor);
+            }
+            pstmt.setInt(index++, limit);
+
+            pstmt.setInt(index++, userId);
+            pstmt.setInt(index++, userId);
+            pstmt.setInt(index++, userId);
+            if (filterUserType) {
+                pstmt.setString(index++, userType);
+            }
+            if (cursor != null) {
+                index = setCursor(pstmt, index, cursor);
+            }
+            pstmt.setInt(index++, limit);
+
+            pstmt.setInt(index, limit);
+
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                posts.add(mapResultSetToPost(rs));
+            }
+
+            return posts;
+
+        } catch (SQLException e) {
+            throw new DatabaseException(errorPrefix + e.getMessage());
+        }
+    }
+
+    private void indexHashtags(Connection conn, int postId, String hashtags)
+            throws SQLException {
+        Set<String> tags = HashtagUtil.parse(hashtags);
+        if (tags.isEmpty()) {
+            return;
+        }
+
+        String sql =
+                "INSERT IGNORE INTO post_hashtags (tag, post_id, created_at) " +
+                "SELECT ?, post_id, created_at FROM posts WHERE post_id = ?";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (String tag : tags) {
+                pstmt.setString(1, tag);
+                pstmt.setInt(2, postId);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private void unindexHashtags(Connection conn, int postId) throws SQLException {
+        String sql = "DELETE FROM post_hashtags WHERE post_id = ?";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, postId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private int setCursor(PreparedStatement pstmt, int index, PageToken cursor)
+            throws SQLException {
+        Timestamp createdAt = Timestamp.valueOf(cursor.getCreatedAt());
+        pstmt.setTimestamp(index++, createdAt);
+        pstmt.setTimestamp(index++, createdAt);
+        pstmt.setInt(index++, cursor.getId());
+        return index;
+    }
+
+    private Page<Post> toPage(List<Post> posts, int pageSize) {
+        String nextPageToken = null;
+
+        if (posts.size() > pageSize) {
+            posts.remove(pageSize);
+            Post last = posts.get(pageSize - 1);
+            nextPageToken = new PageToken(last.getCreatedAt(), last.getPostId()).encode();
+        }
+
+        return new Page<>(posts, nextPageToken);
+    }
+
+    private boolean insertPost(Connection conn, Post post, LocalDateTime createdAt)
+            throws SQLException {
+        String postSql = "INSERT INTO posts (user_id, content, hashtags, is_promotional, " +
+                        "is_pinned, pin_order, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        try (PreparedStatement pstmt =
+                     conn.prepareStatement(postSql, Statement.RETURN_GENERATED_KEYS)) {
+
+            pstmt.setInt(1, post.getUserId());
+            pstmt.setString(2, post.getContent());
+            pstmt.setString(3, post.getHashtags());
+            pstmt.setBoolean(4, post.isPromotional());
+            pstmt.setBoolean(5, post.isPinned());
+            pstmt.setInt(6, post.getPinOrder());
+            pstmt.setTimestamp(7, Timestamp.valueOf(createdAt));
+
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+
+            ResultSet rs = pstmt.getGeneratedKeys();
+            if (!rs.next()) {
+                return false;
+            }
+
+            int postId = rs.getInt(1);
+            post.setPostId(postId);
+            post.setCreatedAt(createdAt);
+
+            String analyticsSql =
+                    "INSERT INTO post_analytics (post_id, total_likes, " +
+                    "total_comments, total_shares, unique_viewers, last_updated) " +
+                    "VALUES (?, 0, 0, 0, 0, ?)";
+
+            try (PreparedStatement analyticsPstmt =
+                         conn.prepareStatement(analyticsSql)) {
+
+                analyticsPstmt.setInt(1, postId);
+                analyticsPstmt.setTimestamp(
+                        2, Timestamp.valueOf(LocalDateTime.now()));
+                analyticsPstmt.executeUpdate();
+            }
+
+            indexHashtags(conn, postId, post.getHashtags());
+            return true;
+        }
+    }
+
     private Post mapResultSetToPost(ResultSet rs) throws SQLException {
         Post post = new Post();
         post.setPostId(rs.getInt("post_id"));
@@ -0,0 +1,235 @@
+package com.revconnect.repository;
+
+import com.revconnect.model.Post;
+import com.revconnect.configuration.AppConfig;
+import com.revconnect.util.DBConnectionUtil;
+import com.revconnect.util.HyperLogLog;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Unique-viewer counting for post_analytics.unique_viewers.
+ *
+ * Each time posts are shown to a user, the viewer id is added to an
+ * in-memory HyperLogLog sketch per post. Authors viewing their own posts
+ * are not counted. Every ANALYTICS_VIEW_FLUSH_INTERVAL, or sooner once
+ * ANALYTICS_VIEW_FLUSH_THRESHOLD posts have pending views, the pending
+ * sketches are merged into the persisted ones in post_view_sketches.
+ * unique_viewers is then set to the merged estimate. A view costs a
+ * register update, never a row write, and each post's sketch has a
+ * fixed size however many people see it.
+ */
+public class PostViewTracker {
+
+    private static final ConcurrentHashMap<Integer, HyperLogLog> PENDING =
+            new ConcurrentHashMap<>();
+    private static final AtomicBoolean FLUSH_REQUESTED = new AtomicBoolean();
+    private static final Object FLUSH_LOCK = new Object();
+
+    private static final int WRITE_BATCH_SIZE = 500;
+
+    private static final ScheduledExecutorService FLUSHER =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "revconnect-view-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        FLUSHER.scheduleWithFixedDelay(PostViewTracker::flushQuietly,
+                AppConfig.ANALYTICS_VIEW_FLUSH_INTERVAL,
+                AppConfig.ANALYTICS_VIEW_FLUSH_INTERVAL,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public static void recordViews(int viewerId, List<Post> posts) {
+        for (Post post : posts) {
+            if (post.getUserId() != viewerId) {
+                EngagementHistory.recordView(post.getPostId());
+                AccountAnalytics.recordView(post.getPostId());
+                PENDING.compute(post.getPostId(), (id, sketch) -> {
+                    if (sketch == null) {
+                        sketch = new HyperLogLog();
+                    }
+                    sketch.add(viewerId);
+                    return sketch;
+                });
+            }
+        }
+
+        if (PENDING.size() >= AppConfig.ANALYTICS_VIEW_FLUSH_THRESHOLD
+                && FLUSH_REQUESTED.compareAndSet(false, true)) {
+            try {
+                FLUSHER.execute(PostViewTracker::flushQuietly);
+            } catch (RuntimeException e) {
+                // flusher already shut down; the shutdown flush picks this up
+                FLUSH_REQUESTED.set(false);
+            }
+        }
+    }
+
+    // A deleted post's pending sketch has nowhere to go
+    public static void discard(int postId) {
+        PENDING.remove(postId);
+    }
+
+    public static int getPendingPostCount() {
+        return PENDING.size();
+    }
+
+    public static void flush() throws SQLException {
+        synchronized (FLUSH_LOCK) {
+            FLUSH_REQUESTED.set(false);
+
+            Map<Integer, HyperLogLog> taken = new HashMap<>();
+            for (Integer postId : PENDING.keySet()) {
+                HyperLogLog sketch = PENDING.remove(postId);
+                if (sketch != null) {
+                    taken.put(postId, sketch);
+                }
+            }
+
+            List<Integer> postIds = new ArrayList<>(taken.keySet());
+
+            for (int from = 0; from < postIds.size(); from += WRITE_BATCH_SIZE) {
+                List<Integer> batch =
+                        postIds.subList(from, Math.min(from + WRITE_BATCH_SIZE, postIds.size()));
+                try {
+                    writeSketches(batch, taken);
+                } catch (SQLException e) {
+                    // Put this batch and the unwritten rest back for the next flush
+                    for (Integer postId : postIds.subList(from, postIds.size())) {
+                        HyperLogLog sketch = taken.get(postId);
+                        PENDING.merge(postId, sketch, (current, restored) -> {
+                            current.merge(restored);
+                            return current;
+                        });
+                    }
+                    throw e;
+                }
+            }
+        }
+    }
+
+    public static void shutdown() {
+        FLUSHER.shutdown();
+        flushQuietly();
+    }
+
+    private static void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Failed to flush post views: " + e.getMessage());
+        }
+    }
+
+    private static void writeSketches(List<Integer> postIds, Map<Integer, HyperLogLog> pending)
+            throws SQLException {
+        StringBuilder selectSql = new StringBuilder(
+                "SELECT post_id, sketch FROM post_view_sketches WHERE post_id IN (");
+        for (int i = 0; i < postIds.size(); i++) {
+            selectSql.append(i == 0 ? "?" : ", ?");
+        }
+        selectSql.append(") FOR UPDATE");
+
+        // Selecting from posts skips posts deleted since their views were
+        // counted, instead of failing the foreign key for the whole batch
+        String upsertSql =
+                "INSERT INTO post_view_sketches (post_id, sketch) " +
+                "SELECT post_id, ? FROM posts WHERE post_id = ? " +
+                "ON DUPLICATE KEY UPDATE sketch = VALUES(sketch)";
+
+        String analyticsSql =
+                "UPDATE post_analytics SET unique_viewers = ?, last_updated = ? WHERE post_id = ?";
+
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            Map<Integer, HyperLogLog> merged = new HashMap<>();
+
+            try (PreparedStatement pstmt = conn.prepareStatement(selectSql.toString())) {
+                int index = 1;
+                for (Integer postId : postIds) {
+                    pstmt.setInt(index++, postId);
+                }
+
+                ResultSet rs = pstmt.executeQuery();
+
+                while (rs.next()) {
+                    merged.put(rs.getInt("post_id"), HyperLogLog.fromBytes(rs.getBytes("sketch")));
+                }
+            }
+
+            for (Integer postId : postIds) {
+                HyperLogLog sketch = pending.get(postId);
+                HyperLogLog stored = merged.get(postId);
+
+                // Copy so a failed write can still restore the pending sketch unchanged
+                HyperLogLog combined = HyperLogLog.fromBytes(sketch.toBytes());
+                if (stored != null) {
+                    combined.merge(stored);
+                }
+                merged.put(postId, combined);
+            }
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+            try (PreparedStatement upsert = conn.prepareStatement(upsertSql);
+                 PreparedStatement analytics = conn.prepareStatement(analyticsSql)) {
+
+                for (Integer postId : postIds) {
+                    HyperLogLog sketch = merged.get(postId);
+
+                    upsert.setBytes(1, sketch.toBytes());
+                    upsert.setInt(2, postId);
+                    upsert.addBatch();
+
+                    analytics.setLong(1, sketch.estimate());
+                    analytics.setTimestamp(2, now);
+                    analytics.setInt(3, postId);
+                    analytics.addBatch();
+                }
+
+                upsert.executeBatch();
+                analytics.executeBatch();
+            }
+
+            conn.commit();
+
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    // ignore
+                }
+            }
+            throw e;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    private PostViewTracker() {
+    }
+}
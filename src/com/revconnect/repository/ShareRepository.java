@@ -3,6 +3,7 @@ package com.revconnect.repository;
 import com.revconnect.dao.ShareDAO;
 import com.revconnect.model.Share;
 import com.revconnect.util.DBConnectionUtil;
+import com.revconnect.util.UnitOfWork;
 import com.revconnect.exception.DatabaseException;
 
 import java.sql.*;
@@ -33,20 +34,8 @@ public class ShareRepository implements ShareDAO {
                 int rowsAffected = pstmt.executeUpdate();
 
                 if (rowsAffected > 0) {
-                    String updateAnalyticsSql =
-                            "UPDATE post_analytics SET total_shares = total_shares + 1, " +
-                            "last_updated = ? WHERE post_id = ?";
-
-                    try (PreparedStatement analyticsPstmt =
-                                 conn.prepareStatement(updateAnalyticsSql)) {
-
-                        analyticsPstmt.setTimestamp(
-                                1, Timestamp.valueOf(LocalDateTime.now()));
-                        analyticsPstmt.setInt(2, postId);
-                        analyticsPstmt.executeUpdate();
-                    }
-
                     conn.commit();
+                    UnitOfWork.afterCommit(() -> PostAnalyticsBuffer.recordShare(postId, 1));
                     return true;
                 }
             }
@@ -0,0 +1,207 @@
+package com.revconnect.repository;
+
+import com.revconnect.util.DBConnectionUtil;
+import com.revconnect.util.IntHashSet;
+import com.revconnect.util.IntObjectHashMap;
+
+import java.sql.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory adjacency index over follows, accepted connections and blocks.
+ *
+ * The whole graph is loaded once, on first use, into primitive int hash
+ * sets so areConnected/isFollowing/isBlocked become a hash probe instead of
+ * a COUNT(*) query. The repositories apply every successful write to the
+ * index after it commits. The load holds the write lock for its duration,
+ * so a write that commits while the index is loading is either seen by
+ * the load query or applied right after it. If the load fails, isReady()
+ * stays false and the repositories fall back to SQL.
+ */
+public class SocialGraph {
+
+    private static final SocialGraph INSTANCE = new SocialGraph();
+
+    // Wait this long before retrying a failed load
+    private static final long RELOAD_BACKOFF = 30000;
+
+    private final IntObjectHashMap<IntHashSet> following = new IntObjectHashMap<>();
+    private final IntObjectHashMap<IntHashSet> connections = new IntObjectHashMap<>();
+    private final IntObjectHashMap<IntHashSet> blocked = new IntObjectHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean loaded;
+    private volatile long lastFailedLoad;
+
+    private SocialGraph() {
+    }
+
+    public static SocialGraph getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isReady() {
+        if (loaded) {
+            return true;
+        }
+        if (System.currentTimeMillis() - lastFailedLoad < RELOAD_BACKOFF) {
+            return false;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                load();
+            }
+            return true;
+        } catch (SQLException e) {
+            lastFailedLoad = System.currentTimeMillis();
+            System.err.println("Failed to load social graph: " + e.getMessage());
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isFollowing(int followerId, int followingId) {
+        return contains(following, followerId, followingId);
+    }
+
+    public boolean areConnected(int userId1, int userId2) {
+        return contains(connections, userId1, userId2);
+    }
+
+    public boolean isBlocked(int blockerId, int blockedId) {
+        return contains(blocked, blockerId, blockedId);
+    }
+
+    /*
+     * Authors whose posts belong in the user's feed: the user, everyone
+     * they follow and every accepted connection, in ascending id order.
+     */
+    public int[] feedAuthorIds(int userId) {
+        lock.readLock().lock();
+        try {
+            IntHashSet authors = new IntHashSet();
+            authors.add(userId);
+
+            IntHashSet followed = following.get(userId);
+            if (followed != null) {
+                authors.addAll(followed);
+            }
+
+            IntHashSet connected = connections.get(userId);
+            if (connected != null) {
+                authors.addAll(connected);
+            }
+
+            return authors.toSortedArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void follow(int followerId, int followingId) {
+        update(() -> link(following, followerId, followingId));
+    }
+
+    public void unfollow(int followerId, int followingId) {
+        update(() -> unlink(following, followerId, followingId));
+    }
+
+    public void connect(int userId1, int userId2) {
+        update(() -> {
+            link(connections, userId1, userId2);
+            link(connections, userId2, userId1);
+        });
+    }
+
+    public void disconnect(int userId1, int userId2) {
+        update(() -> {
+            unlink(connections, userId1, userId2);
+            unlink(connections, userId2, userId1);
+        });
+    }
+
+    public void block(int blockerId, int blockedId) {
+        update(() -> link(blocked, blockerId, blockedId));
+    }
+
+    public void unblock(int blockerId, int blockedId) {
+        update(() -> unlink(blocked, blockerId, blockedId));
+    }
+
+    private boolean contains(IntObjectHashMap<IntHashSet> adjacency, int from, int to) {
+        lock.readLock().lock();
+        try {
+            IntHashSet neighbours = adjacency.get(from);
+            return neighbours != null && neighbours.contains(to);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void update(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            // Not loaded yet: the load query will read this write from the table
+            if (loaded) {
+                change.run();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load() throws SQLException {
+        following.clear();
+        connections.clear();
+        blocked.clear();
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             Statement stmt = conn.createStatement()) {
+
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT follower_id, following_id FROM follows")) {
+                while (rs.next()) {
+                    link(following, rs.getInt(1), rs.getInt(2));
+                }
+            }
+
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT sender_id, receiver_id FROM connection_requests " +
+                    "WHERE status = 'ACCEPTED'")) {
+                while (rs.next()) {
+                    link(connections, rs.getInt(1), rs.getInt(2));
+                    link(connections, rs.getInt(2), rs.getInt(1));
+                }
+            }
+
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT blocker_id, blocked_id FROM blocked_users")) {
+                while (rs.next()) {
+                    link(blocked, rs.getInt(1), rs.getInt(2));
+                }
+            }
+        }
+
+        loaded = true;
+    }
+
+    private static void link(IntObjectHashMap<IntHashSet> adjacency, int from, int to) {
+        IntHashSet neighbours = adjacency.get(from);
+        if (neighbours == null) {
+            neighbours = new IntHashSet();
+            adjacency.put(from, neighbours);
+        }
+        neighbours.add(to);
+    }
+
+    private static void unlink(IntObjectHashMap<IntHashSet> adjacency, int from, int to) {
+        IntHashSet neighbours = adjacency.get(from);
+        if (neighbours != null && neighbours.remove(to) && neighbours.isEmpty()) {
+            adjacency.remove(from);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.revconnect.repository;
+
+import com.revconnect.dao.TimelineDAO;
+import com.revconnect.model.Post;
+import com.revconnect.configuration.AppConfig;
+import com.revconnect.util.DBConnectionUtil;
+import com.revconnect.util.UnitOfWork;
+import com.revconnect.exception.DatabaseException;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains the materialized home_timeline table that backs the feed.
+ *
+ * New posts are pushed into the timeline of every follower and connection
+ * (fan-out-on-write). Authors whose audience exceeds
+ * AppConfig.TIMELINE_FANOUT_THRESHOLD are recorded in high_fanout_authors
+ * instead, and their posts are merged in when the feed is read.
+ *
+ * Accounts that predate the table have no timeline rows for the authors
+ * they already follow. home_timeline_state records which users have had
+ * their timeline built from the graph, so that happens exactly once per
+ * user, whatever their feed looks like afterwards.
+ */
+public class TimelineRepository implements TimelineDAO {
+
+    // Users known to have a marker row; saves the lookup on every feed read
+    private static final Set<Integer> MATERIALIZED = ConcurrentHashMap.newKeySet();
+
+    private static final String AUDIENCE_SIZE_SQL =
+            "SELECT (SELECT COUNT(*) FROM follows WHERE following_id = ?) + " +
+            "(SELECT COUNT(*) FROM connection_requests " +
+            "WHERE (sender_id = ? OR receiver_id = ?) AND status = 'ACCEPTED') as audience";
+
+    @Override
+    public boolean fanOutPost(Post post) {
+        Connection conn = null;
+        try {
+            conn = DBConnectionUtil.getConnection();
+            conn.setAutoCommit(false);
+
+            int authorId = post.getUserId();
+            LocalDateTime createdAt =
+                    post.getCreatedAt() != null ? post.getCreatedAt() : LocalDateTime.now();
+
+            int audience = 0;
+
+            try (PreparedStatement pstmt = conn.prepareStatement(AUDIENCE_SIZE_SQL)) {
+                pstmt.setInt(1, authorId);
+                pstmt.setInt(2, authorId);
+                pstmt.setInt(3, authorId);
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next()) {
+                    audience = rs.getInt("audience");
+                }
+            }
+
+            if (audience > AppConfig.TIMELINE_FANOUT_THRESHOLD) {
+                String markSql =
+                        "INSERT IGNORE INTO high_fanout_authors (user_id, marked_at) VALUES (?, ?)";
+
+                try (PreparedStatement pstmt = conn.prepareStatement(markSql)) {
+                    pstmt.setInt(1, authorId);
+                    pstmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                    pstmt.executeUpdate();
+                }
+
+                // Followers pick this post up at read time; only the author's own timeline is written
+                String ownSql =
+                        "INSERT IGNORE INTO home_timeline (user_id, post_id, author_id, created_at) " +
+                        "VALUES (?, ?, ?, ?)";
+
+                try (PreparedStatement pstmt = conn.prepareStatement(ownSql)) {
+                    pstmt.setInt(1, authorId);
+                    pstmt.setInt(2, post.getPostId());
+                    pstmt.setInt(3, authorId);
+                    pstmt.setTimestamp(4, Timestamp.valueOf(createdAt));
+                    pstmt.executeUpdate();
+                }
+
+            } else {
+                String fanOutSql =
+                        "INSERT IGNORE INTO home_timeline (user_id, post_id, author_id, created_at) " +
+                        "SELECT audience.user_id, ?, ?, ? FROM (" +
+                        "SELECT ? as user_id " +
+                        "UNION SELECT follower_id FROM follows WHERE following_id = ? " +
+                        "UNION SELECT receiver_id FROM connection_requests " +
+                        "WHERE sender_id = ? AND status = 'ACCEPTED' " +
+                        "UNION SELECT sender_id FROM connection_requests " +
+                        "WHERE receiver_id = ? AND status = 'ACCEPTED'" +
+                        ") audience";
+
+                try (PreparedStatement pstmt = conn.prepareStatement(fanOutSql)) {
+                    pstmt.setInt(1, post.getPostId());
+                    pstmt.setInt(2, authorId);
+                    pstmt.setTimestamp(3, Timestamp.valueOf(createdAt));
+                    pstmt.setInt(4, authorId);
+                    pstmt.setInt(5, authorId);
+                    pstmt.setInt(6, authorId);
+                    pstmt.setInt(7, authorId);
+                    pstmt.executeUpdate();
+                }
+            }
+
+            conn.commit();
+            return true;
+
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ex) {
+                    // ignore
+                }
+            }
+            throw new DatabaseException("Failed to fan out post: " + e.getMessage());
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean removePost(int postId) {
+        String sql = "DELETE FROM home_timeline WHERE post_id = ?";
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, postId);
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to remove post from timelines: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean backfillAuthor(int userId, int authorId) {
+        String sql =
+                "INSERT IGNORE INTO home_timeline (user_id, post_id, author_id, created_at) " +
+                "SELECT ?, post_id, user_id, created_at FROM posts " +
+                "WHERE user_id = ? ORDER BY created_at DESC LIMIT ?";
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, authorId);
+            pstmt.setInt(3, AppConfig.TIMELINE_BACKFILL_LIMIT);
+
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to backfill timeline: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean pruneAuthor(int userId, int authorId) {
+        // Keep the author's posts while any other follow or connection still links the two users
+        String sql =
+                "DELETE FROM home_timeline WHERE user_id = ? AND author_id = ? " +
+                "AND NOT EXISTS (SELECT 1 FROM follows " +
+                "WHERE follower_id = ? AND following_id = ?) " +
+                "AND NOT EXISTS (SELECT 1 FROM connection_requests WHERE " +
+                "((sender_id = ? AND receiver_id = ?) OR (sender_id = ? AND receiver_id = ?)) " +
+                "AND status = 'ACCEPTED')";
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, authorId);
+            pstmt.setInt(3, userId);
+            pstmt.setInt(4, authorId);
+            pstmt.setInt(5, userId);
+            pstmt.setInt(6, authorId);
+            pstmt.setInt(7, authorId);
+            pstmt.setInt(8, userId);
+
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to prune timeline: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean rebuildTimeline(int userId) {
+        String sql =
+                "INSERT IGNORE INTO home_timeline (user_id, post_id, author_id, created_at) " +
+                "SELECT ?, p.post_id, p.user_id, p.created_at FROM posts p " +
+                "WHERE p.user_id IN (" +
+                "SELECT ? " +
+                "UNION SELECT following_id FROM follows WHERE follower_id = ? " +
+                "UNION SELECT receiver_id FROM connection_requests " +
+                "WHERE sender_id = ? AND status = 'ACCEPTED' " +
+                "UNION SELECT sender_id FROM connection_requests " +
+                "WHERE receiver_id = ? AND status = 'ACCEPTED') " +
+                "ORDER BY p.created_at DESC LIMIT ?";
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, userId);
+            pstmt.setInt(3, userId);
+            pstmt.setInt(4, userId);
+            pstmt.setInt(5, userId);
+            pstmt.setInt(6, AppConfig.FEED_SIZE);
+
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to rebuild timeline: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Rebuilds the user's timeline from the graph unless it already has
+     * been. The marker and the rebuild commit together, and a concurrent
+     * first read blocks on the marker row until this one commits, so the
+     * rebuild runs once. Returns true if it ran.
+     */
+    @Override
+    public boolean ensureMaterialized(int userId) {
+        if (MATERIALIZED.contains(userId)) {
+            return false;
+        }
+
+        String sql = "INSERT IGNORE INTO home_timeline_state (user_id, materialized_at) VALUES (?, ?)";
+
+        boolean rebuilt = UnitOfWork.inTransaction(() -> {
+            boolean marked;
+
+            try (Connection conn = DBConnectionUtil.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+                pstmt.setInt(1, userId);
+                pstmt.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                marked = pstmt.executeUpdate() > 0;
+
+            } catch (SQLException e) {
+                throw new DatabaseException("Failed to mark timeline: " + e.getMessage());
+            }
+
+            if (marked) {
+                rebuildTimeline(userId);
+            }
+            return marked;
+        });
+
+        UnitOfWork.afterCommit(() -> MATERIALIZED.add(userId));
+        return rebuilt;
+    }
+
+    /*
+     * Followers and connections of the author with an id above afterUserId,
+     * in ascending id order. Each branch reads at most limit rows from its
+     * covering index, starting at afterUserId, before the union is sorted
+     * and cut again. Walking a large audience therefore costs one short
+     * index scan per chunk, not a scan of the whole remaining audience.
+     */
+    @Override
+    public List<Integer> findAudience(int authorId, int afterUserId, int limit) {
+        String sql =
+                "SELECT audience.user_id FROM (" +
+                "(SELECT follower_id as user_id FROM follows " +
+                "WHERE following_id = ? AND follower_id > ? ORDER BY follower_id LIMIT ?) " +
+                "UNION (SELECT receiver_id FROM connection_requests " +
+                "WHERE sender_id = ? AND status = 'ACCEPTED' AND receiver_id > ? " +
+                "ORDER BY receiver_id LIMIT ?) " +
+                "UNION (SELECT sender_id FROM connection_requests " +
+                "WHERE receiver_id = ? AND status = 'ACCEPTED' AND sender_id > ? " +
+                "ORDER BY sender_id LIMIT ?)" +
+                ") audience ORDER BY audience.user_id LIMIT ?";
+
+        List<Integer> userIds = new ArrayList<>();
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, authorId);
+            pstmt.setInt(2, afterUserId);
+            pstmt.setInt(3, limit);
+            pstmt.setInt(4, authorId);
+            pstmt.setInt(5, afterUserId);
+            pstmt.setInt(6, limit);
+            pstmt.setInt(7, authorId);
+            pstmt.setInt(8, afterUserId);
+            pstmt.setInt(9, limit);
+            pstmt.setInt(10, limit);
+
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                userIds.add(rs.getInt("user_id"));
+            }
+
+            return userIds;
+
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to load audience: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.revconnect.repository;
+
+import com.revconnect.configuration.AppConfig;
+import com.revconnect.util.DBConnectionUtil;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Incrementally maintained trending leaderboard.
+ *
+ * Every engagement adds weight * 2^((now - epoch) / halfLife) to the post's
+ * score, which is equivalent to decaying all older engagement by the
+ * configured half-life without touching other posts. A background job
+ * drops posts outside the trending window, bounds the number of tracked
+ * posts and publishes the top TRENDING_SIZE post ids as an immutable
+ * snapshot, so reads are O(K) with no database sort.
+ */
+public class TrendingEngine {
+
+    private static final long HALF_LIFE = AppConfig.TRENDING_HALF_LIFE;
+    private static final long WINDOW = AppConfig.TRENDING_WINDOW;
+
+    // Rebase scores before the growth factor gets large enough to lose precision
+    private static final double REBASE_AFTER_HALF_LIVES = 32;
+
+    private static final ConcurrentHashMap<Integer, ScoredPost> SCORES = new ConcurrentHashMap<>();
+    private static final ReadWriteLock EPOCH_LOCK = new ReentrantReadWriteLock();
+
+    private static volatile long epoch = System.currentTimeMillis();
+    private static volatile List<Integer> snapshot = Collections.emptyList();
+    private static volatile boolean seeded;
+
+    private static final ScheduledExecutorService REFRESHER =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "revconnect-trending-refresher");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    static {
+        REFRESHER.scheduleWithFixedDelay(TrendingEngine::refreshQuietly,
+                0, AppConfig.TRENDING_SNAPSHOT_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    public static void recordEngagement(int postId, LocalDateTime postCreatedAt, int weight) {
+        long now = System.currentTimeMillis();
+        long createdAt = toMillis(postCreatedAt);
+
+        if (now - createdAt > WINDOW) {
+            return;
+        }
+
+        EPOCH_LOCK.readLock().lock();
+        try {
+            SCORES.computeIfAbsent(postId, id -> new ScoredPost(id, createdAt))
+                    .add(weight * growth(now));
+        } finally {
+            EPOCH_LOCK.readLock().unlock();
+        }
+    }
+
+    public static void remove(int postId) {
+        SCORES.remove(postId);
+
+        List<Integer> current = snapshot;
+        if (current.contains(postId)) {
+            List<Integer> updated = new ArrayList<>(current);
+            updated.remove(Integer.valueOf(postId));
+            snapshot = Collections.unmodifiableList(updated);
+        }
+    }
+
+    public static List<Integer> topPostIds() {
+        return snapshot;
+    }
+
+    public static void refresh() throws SQLException {
+        if (!seeded) {
+            // An in-memory store starts empty, so there is nothing to seed from
+            if (!DAOFactory.isInMemory()) {
+                seed();
+            }
+            seeded = true;
+        }
+
+        long now = System.currentTimeMillis();
+
+        if (now - epoch > REBASE_AFTER_HALF_LIVES * HALF_LIFE) {
+            rebase(now);
+        }
+
+        SCORES.values().removeIf(post -> now - post.createdAt > WINDOW);
+
+        // Scores keep changing under other threads; sort a copy taken once,
+        // or the comparator sees inconsistent values and the sort can throw
+        List<RankedPost> all = new ArrayList<>(SCORES.size());
+        for (ScoredPost post : SCORES.values()) {
+            all.add(new RankedPost(post.postId, post.score()));
+        }
+
+        if (all.size() > AppConfig.TRENDING_MAX_TRACKED) {
+            all.sort(Comparator.comparingDouble(RankedPost::getScore));
+            int evicted = all.size() - AppConfig.TRENDING_MAX_TRACKED;
+            for (int i = 0; i < evicted; i++) {
+                SCORES.remove(all.get(i).postId);
+            }
+            all = all.subList(evicted, all.size());
+        }
+
+        PriorityQueue<RankedPost> top = new PriorityQueue<>(
+                AppConfig.TRENDING_SIZE + 1, Comparator.comparingDouble(RankedPost::getScore));
+
+        for (RankedPost post : all) {
+            if (post.score <= 0) {
+                continue;
+            }
+            top.offer(post);
+            if (top.size() > AppConfig.TRENDING_SIZE) {
+                top.poll();
+            }
+        }
+
+        List<Integer> ranked = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ranked.add(top.poll().postId);
+        }
+        Collections.reverse(ranked);
+
+        snapshot = Collections.unmodifiableList(ranked);
+    }
+
+    private static void refreshQuietly() {
+        try {
+            refresh();
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Failed to refresh trending posts: " + e.getMessage());
+        }
+    }
+
+    /*
+     * Cold start: weight each recent post's lifetime engagement as if it
+     * happened when the post was created. Runs once per process.
+     */
+    private static void seed() throws SQLException {
+        String sql =
+                "SELECT p.post_id, p.created_at, " +
+                "(pa.total_likes + pa.total_comments + pa.total_shares) as engagement " +
+                "FROM posts p JOIN post_analytics pa ON p.post_id = pa.post_id " +
+                "WHERE p.created_at >= ? " +
+                "ORDER BY engagement DESC LIMIT ?";
+
+        try (Connection conn = DBConnectionUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setTimestamp(1, new Timestamp(System.currentTimeMillis() - WINDOW));
+            pstmt.setInt(2, AppConfig.TRENDING_MAX_TRACKED);
+
+            ResultSet rs = pstmt.executeQuery();
+
+            EPOCH_LOCK.readLock().lock();
+            try {
+                while (rs.next()) {
+                    int postId = rs.getInt("post_id");
+                    long createdAt = rs.getTimestamp("created_at").getTime();
+                    int engagement = rs.getInt("engagement");
+
+                    if (engagement > 0) {
+                        SCORES.computeIfAbsent(postId, id -> new ScoredPost(id, createdAt))
+                                .add(engagement * growth(createdAt));
+                    }
+                }
+            } finally {
+                EPOCH_LOCK.readLock().unlock();
+            }
+        }
+    }
+
+    private static void rebase(long now) {
+        EPOCH_LOCK.writeLock().lock();
+        try {
+            double factor = 1.0 / growth(now);
+            for (ScoredPost post : SCORES.values()) {
+                post.scale(factor);
+            }
+            epoch = now;
+        } finally {
+            EPOCH_LOCK.writeLock().unlock();
+        }
+    }
+
+    private static double growth(long time) {
+        return Math.pow(2, (double) (time - epoch) / HALF_LIFE);
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return System.currentTimeMillis();
+        }
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static final class ScoredPost {
+
+        private final int postId;
+        private final long createdAt;
+        private double score;
+
+        private ScoredPost(int postId, long createdAt) {
+            this.postId = postId;
+            this.createdAt = createdAt;
+        }
+
+        private synchronized void add(double amount) {
+            score += amount;
+        }
+
+        private synchronized void scale(double factor) {
+            score *= factor;
+        }
+
+        private synchronized double score() {
+            return score;
+        }
+    }
+
+    private static final class RankedPost {
+
+        private final int postId;
+        private final double score;
+
+        private RankedPost(int postId, double score) {
+            this.postId = postId;
+            this.score = score;
+        }
+
+        private double getScore() {
+            return score;
+        }
+    }
+
+    private TrendingEngine() {
+    }
+}
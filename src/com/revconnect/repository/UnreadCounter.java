@@ -0,0 +1,185 @@
+package com.revconnect.repository;
+
+import com.revconnect.configuration.AppConfig;
+import com.revconnect.exception.DatabaseException;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user unread badge counts kept in memory.
+ *
+ * A user's count is seeded from the database the first time it is read.
+ * After that, the owning repository adjusts it on every write that changes
+ * unread state, so reads never touch the database. A background pass
+ * recounts all tracked users in batches to correct drift, such as writes
+ * that raced a seed, and drops users whose count has not been read for
+ * UNREAD_COUNTER_IDLE_TIMEOUT. A recount is discarded if the counter
+ * changed while the query was running.
+ */
+public class UnreadCounter {
+
+    public interface CountLoader {
+        Map<Integer, Integer> load(Collection<Integer> userIds) throws SQLException;
+    }
+
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    private static final ScheduledExecutorService RECONCILER =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "revconnect-unread-reconciler");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final String name;
+    private final CountLoader loader;
+    private final ConcurrentHashMap<Integer, Counter> counters = new ConcurrentHashMap<>();
+
+    public UnreadCounter(String name, CountLoader loader) {
+        this.name = name;
+        this.loader = loader;
+
+        RECONCILER.scheduleWithFixedDelay(this::reconcileQuietly,
+                AppConfig.UNREAD_RECONCILE_INTERVAL,
+                AppConfig.UNREAD_RECONCILE_INTERVAL,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public int get(int userId) {
+        Counter counter = counters.get(userId);
+        if (counter != null) {
+            return counter.read();
+        }
+
+        int count;
+        try {
+            Integer loaded = loader.load(Collections.singletonList(userId)).get(userId);
+            count = loaded != null ? loaded : 0;
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to count unread " + name + ": " + e.getMessage());
+        }
+
+        Counter seeded = new Counter(count);
+        Counter existing = counters.putIfAbsent(userId, seeded);
+        return (existing != null ? existing : seeded).read();
+    }
+
+    /*
+     * Users that are not tracked are skipped; their first read seeds the
+     * count from the table, which already includes this change.
+     */
+    public void adjust(int userId, int delta) {
+        Counter counter = counters.get(userId);
+        if (counter != null) {
+            counter.add(delta);
+        }
+    }
+
+    // Returns -1 while the user is not tracked
+    public long version(int userId) {
+        Counter counter = counters.get(userId);
+        return counter != null ? counter.version() : -1;
+    }
+
+    /*
+     * Sets the user's count to one computed after version was taken. If
+     * the counter moved in between, that count may already be stale, so
+     * the entry is dropped and the next read recounts.
+     */
+    public void replace(int userId, int count, long version) {
+        Counter counter = counters.get(userId);
+        if (counter != null && !counter.replaceIfUnchanged(count, version)) {
+            counters.remove(userId, counter);
+        }
+    }
+
+    public void invalidate(int userId) {
+        counters.remove(userId);
+    }
+
+    public int getTrackedUserCount() {
+        return counters.size();
+    }
+
+    public void reconcile() throws SQLException {
+        long idleBefore = System.currentTimeMillis() - AppConfig.UNREAD_COUNTER_IDLE_TIMEOUT;
+
+        counters.entrySet().removeIf(entry -> entry.getValue().lastReadAt < idleBefore);
+
+        List<Integer> userIds = new ArrayList<>(counters.keySet());
+
+        for (int from = 0; from < userIds.size(); from += RECONCILE_BATCH_SIZE) {
+            List<Integer> batch =
+                    userIds.subList(from, Math.min(from + RECONCILE_BATCH_SIZE, userIds.size()));
+
+            Map<Integer, Long> versions = new HashMap<>();
+            for (Integer userId : batch) {
+                Counter counter = counters.get(userId);
+                if (counter != null) {
+                    versions.put(userId, counter.version());
+                }
+            }
+
+            Map<Integer, Integer> counts = loader.load(batch);
+
+            for (Map.Entry<Integer, Long> entry : versions.entrySet()) {
+                Counter counter = counters.get(entry.getKey());
+                Integer count = counts.get(entry.getKey());
+                if (counter != null) {
+                    counter.replaceIfUnchanged(count != null ? count : 0, entry.getValue());
+                }
+            }
+        }
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Failed to reconcile unread " + name + ": " + e.getMessage());
+        }
+    }
+
+    private static final class Counter {
+
+        private int value;
+        private long version;
+        private volatile long lastReadAt = System.currentTimeMillis();
+
+        private Counter(int value) {
+            this.value = value;
+        }
+
+        private synchronized int read() {
+            lastReadAt = System.currentTimeMillis();
+            return value;
+        }
+
+        private synchronized void add(int delta) {
+            value = Math.max(0, value + delta);
+            version++;
+        }
+
+        private synchronized long version() {
+            return version;
+        }
+
+        private synchronized boolean replaceIfUnchanged(int newValue, long expectedVersion) {
+            if (version != expectedVersion) {
+                return false;
+            }
+            value = newValue;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.revconnect.repository.memory;
+
+import com.revconnect.model.ConnectionRequest;
+import com.revconnect.util.IntHashSet;
+import com.revconnect.util.IntObjectHashMap;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * follows, connection_requests and blocked_users as adjacency maps.
+ *
+ * Follows and blocks map one user to the other to the time the link was
+ * made, in both directions where a query needs the reverse side.
+ * Accepted connections are kept as a symmetric adjacency set next to the
+ * request rows, and pending requests are indexed by receiver.
+ */
+final class GraphTable extends Table {
+
+    static final String PENDING = "PENDING";
+    static final String ACCEPTED = "ACCEPTED";
+    static final String REJECTED = "REJECTED";
+
+    final IntObjectHashMap<IntObjectHashMap<LocalDateTime>> following = new IntObjectHashMap<>();
+    final IntObjectHashMap<IntObjectHashMap<LocalDateTime>> followers = new IntObjectHashMap<>();
+
+    final IntObjectHashMap<ConnectionRequest> requests = new IntObjectHashMap<>();
+    // Keyed by Rows.pair(sender_id, receiver_id), the unique key of connection_requests
+    final Map<Long, ConnectionRequest> requestsByPair = new HashMap<>();
+    final IntObjectHashMap<IntHashSet> pendingByReceiver = new IntObjectHashMap<>();
+    final IntObjectHashMap<IntHashSet> connections = new IntObjectHashMap<>();
+
+    final IntObjectHashMap<IntObjectHashMap<LocalDateTime>> blocked = new IntObjectHashMap<>();
+
+    int lastRequestId;
+
+    // Everyone who sees the author's posts: followers and accepted connections
+    IntHashSet audience(int authorId) {
+        return read(() -> {
+            IntHashSet audience = new IntHashSet();
+            IntObjectHashMap<LocalDateTime> followedBy = followers.get(authorId);
+            if (followedBy != null) {
+                followedBy.forEach((followerId, since) -> audience.add(followerId));
+            }
+            IntHashSet connected = connections.get(authorId);
+            if (connected != null) {
+                audience.addAll(connected);
+            }
+            return audience;
+        });
+    }
+
+    // Everyone whose posts the user sees: the user, who they follow and their connections
+    IntHashSet feedAuthors(int userId) {
+        return read(() -> {
+            IntHashSet authors = new IntHashSet();
+            authors.add(userId);
+            IntObjectHashMap<LocalDateTime> followed = following.get(userId);
+            if (followed != null) {
+                followed.forEach((followingId, since) -> authors.add(followingId));
+            }
+            IntHashSet connected = connections.get(userId);
+            if (connected != null) {
+                authors.addAll(connected);
+            }
+            return authors;
+        });
+    }
+
+    boolean linked(int userId, int authorId) {
+        return read(() -> isLinked(following, userId, authorId)
+                || isMember(connections, userId, authorId));
+    }
+
+    // The neighbours of from, most recently linked first, as the list queries order them
+    static List<Integer> newestFirst(IntObjectHashMap<IntObjectHashMap<LocalDateTime>> adjacency,
+                                     int from) {
+        IntObjectHashMap<LocalDateTime> neighbours = adjacency.get(from);
+        if (neighbours == null) {
+            return new ArrayList<>();
+        }
+
+        TreeSet<TimeKey> ordered = new TreeSet<>();
+        neighbours.forEach((to, since) -> ordered.add(new TimeKey(since, to)));
+
+        List<Integer> userIds = new ArrayList<>(ordered.size());
+        for (TimeKey key : ordered.descendingSet()) {
+            userIds.add(key.id);
+        }
+        return userIds;
+    }
+
+    static boolean isLinked(IntObjectHashMap<IntObjectHashMap<LocalDateTime>> adjacency,
+                            int from, int to) {
+        IntObjectHashMap<LocalDateTime> neighbours = adjacency.get(from);
+        return neighbours != null && neighbours.get(to) != null;
+    }
+
+    static boolean isMember(IntObjectHashMap<IntHashSet> sets, int key, int value) {
+        IntHashSet set = sets.get(key);
+        return set != null && set.contains(value);
+    }
+
+    static boolean link(IntObjectHashMap<IntObjectHashMap<LocalDateTime>> adjacency,
+                        int from, int to, LocalDateTime since) {
+        IntObjectHashMap<LocalDateTime> neighbours = adjacency.get(from);
+        if (neighbours == null) {
+            neighbours = new IntObjectHashMap<>();
+            adjacency.put(from, neighbours);
+        }
+        return neighbours.put(to, since) == null;
+    }
+
+    static boolean unlink(IntObjectHashMap<IntObjectHashMap<LocalDateTime>> adjacency,
+                          int from, int to) {
+        IntObjectHashMap<LocalDateTime> neighbours = adjacency.get(from);
+        if (neighbours == null || neighbours.remove(to) == null) {
+            return false;
+        }
+        if (neighbours.size() == 0) {
+            adjacency.remove(from);
+        }
+        return true;
+    }
+
+    static void add(IntObjectHashMap<IntHashSet> sets, int key, int value) {
+        IntHashSet set = sets.get(key);
+        if (set == null) {
+            set = new IntHashSet();
+            sets.put(key, set);
+        }
+        set.add(value);
+    }
+
+    static void remove(IntObjectHashMap<IntHashSet> sets, int key, int value) {
+        IntHashSet set = sets.get(key);
+        if (set != null && set.remove(value) && set.isEmpty()) {
+            sets.remove(key);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.revconnect.repository.memory;
+
+import com.revconnect.dao.BlockedUserDAO;
+import com.revconnect.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class InMemoryBlockedUserDAO implements BlockedUserDAO {
+
+    private final GraphTable graph;
+    private final UserTable users;
+
+    public InMemoryBlockedUserDAO(InMemoryStore store) {
+        this.graph = store.graph;
+        this.users = store.users;
+    }
+
+    @Override
+    public boolean blockUser(int blockerId, int blockedId) {
+        LocalDateTime now = LocalDateTime.now();
+        return graph.write(() -> GraphTable.link(graph.blocked, blockerId, blockedId, now));
+    }
+
+    @Override
+    public boolean unblockUser(int blockerId, int blockedId) {
+        return graph.write(() -> GraphTable.unlink(graph.blocked, blockerId, blockedId));
+    }
+
+    @Override
+    public boolean isBlocked(int blockerId, int blockedId) {
+        return graph.read(() -> GraphTable.isLinked(graph.blocked, blockerId, blockedId));
+    }
+
+    @Override
+    public List<User> findBlockedUsers(int blockerId) {
+        return users.summaries(graph.read(() -> GraphTable.newestFirst(graph.blocked, blockerId)));
+    }
+}
@@ -0,0 +1,114 @@
+package com.revconnect.repository.memory;
+
+import com.revconnect.dao.CommentDAO;
+import com.revconnect.exception.DatabaseException;
+import com.revconnect.model.Comment;
+import com.revconnect.model.Page;
+import com.revconnect.util.PageToken;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+public class InMemoryCommentDAO implements CommentDAO {
+
+    private final PostTable table;
+
+    public InMemoryCommentDAO(InMemoryStore store) {
+        this.table = store.posts;
+    }
+
+    @Override
+    public boolean addComment(int postId, int userId, String text) {
+        return table.write(() -> {
+            if (table.posts.get(postId) == null) {
+                throw new DatabaseException("Failed to add comment: post " + postId + " does not exist");
+            }
+
+            Comment comment = new Comment();
+            comment.setCommentId(++table.lastCommentId);
+            comment.setPostId(postId);
+            comment.setUserId(userId);
+            comment.setCommentText(text);
+            comment.setCreatedAt(LocalDateTime.now());
+
+            table.comments.put(comment.getCommentId(), comment);
+            TreeSet<TimeKey> thread = table.commentsByPost.get(postId);
+            if (thread == null) {
+                thread = new TreeSet<>();
+                table.commentsByPost.put(postId, thread);
+            }
+            thread.add(new TimeKey(comment.getCreatedAt(), comment.getCommentId()));
+
+            table.recordEngagement(postId, 0, 1, 0, 0);
+            return true;
+        });
+    }
+
+    @Override
+    public Comment findById(int commentId) {
+        return table.read(() -> {
+            Comment row = table.comments.get(commentId);
+            return row != null ? Rows.comment(row) : null;
+        });
+    }
+
+    @Override
+    public List<Comment> findByPostId(int postId) {
+        return table.read(() -> {
+            TreeSet<TimeKey> thread = table.commentsByPost.get(postId);
+            List<Comment> comments = new ArrayList<>(thread != null ? thread.size() : 0);
+
+            if (thread != null) {
+                for (TimeKey key : thread) {
+                    comments.add(Rows.comment(table.comments.get(key.id)));
+                }
+            }
+            return comments;
+        });
+    }
+
+    @Override
+    public Page<Comment> findByPostIdPage(int postId, String pageToken, int pageSize) {
+        PageToken cursor = PageToken.decode(pageToken);
+
+        List<Comment> comments = table.read(() -> {
+            List<Comment> page = new ArrayList<>(pageSize + 1);
+            TreeSet<TimeKey> thread = table.commentsByPost.get(postId);
+
+            if (thread != null) {
+                for (TimeKey key : TimeKey.after(thread, cursor)) {
+                    if (page.size() > pageSize) {
+                        break;
+                    }
+                    page.add(Rows.comment(table.comments.get(key.id)));
+                }
+            }
+            return page;
+        });
+
+        return TimeKey.toPage(comments, pageSize,
+                comment -> new PageToken(comment.getCreatedAt(), comment.getCommentId()));
+    }
+
+    @Override
+    public boolean deleteComment(int commentId, int userId) {
+        return table.write(() -> {
+            Comment comment = table.comments.get(commentId);
+            if (comment == null || comment.getUserId() != userId) {
+                return false;
+            }
+
+            table.comments.remove(commentId);
+            TreeSet<TimeKey> thread = table.commentsByPost.get(comment.getPostId());
+            thread.remove(new TimeKey(comment.getCreatedAt(), commentId));
+            if (thread.isEmpty()) {
+                table.commentsByPost.remove(comment.getPostId());
+            }
+
+            table.recordEngagement(comment.getPostId(), 0, -1, 0, 0);
+            return true;
+        });
+    }
+}
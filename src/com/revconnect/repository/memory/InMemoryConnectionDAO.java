@@ -0,0 +1,182 @@
+package com.revconnect.repository.memory;
+
+import com.revconnect.dao.ConnectionDAO;
+import com.revconnect.model.ConnectionRequest;
+import com.revconnect.model.User;
+import com.revconnect.util.IntHashSet;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+public class InMemoryConnectionDAO implements ConnectionDAO {
+
+    // ORDER BY p.name, u.username: users without a profile name come first
+    private static final Comparator<String> BY_NAME =
+            Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER);
+
+    private final GraphTable graph;
+    private final UserTable users;
+
+    public InMemoryConnectionDAO(InMemoryStore store) {
+        this.graph = store.graph;
+        this.users = store.users;
+    }
+
+    /*
+     * Same rules as the INSERT IGNORE ... WHERE NOT EXISTS and the reopen
+     * UPDATE: one row per (sender, receiver), none while the receiver's
+     * own request to the sender is accepted, and a rejected row goes back
+     * to pending.
+     */
+    @Override
+    public boolean sendRequest(int senderId, int receiverId) {
+        LocalDateTime now = LocalDateTime.now();
+
+        return graph.write(() -> {
+            ConnectionRequest existing = graph.requestsByPair.get(Rows.pair(senderId, receiverId));
+
+            if (existing == null) {
+                ConnectionRequest reverse = graph.requestsByPair.get(Rows.pair(receiverId, senderId));
+                if (reverse != null && GraphTable.ACCEPTED.equals(reverse.getStatus())) {
+                    return false;
+                }
+
+                ConnectionRequest request = new ConnectionRequest();
+                request.setRequestId(++graph.lastRequestId);
+                request.setSenderId(senderId);
+                request.setReceiverId(receiverId);
+                request.setStatus(GraphTable.PENDING);
+                request.setCreatedAt(now);
+
+                graph.requests.put(request.getRequestId(), request);
+                graph.requestsByPair.put(Rows.pair(senderId, receiverId), request);
+                GraphTable.add(graph.pendingByReceiver, receiverId, request.getRequestId());
+                return true;
+            }
+
+            if (!GraphTable.REJECTED.equals(existing.getStatus())) {
+                return false;
+            }
+
+            existing.setStatus(GraphTable.PENDING);
+            existing.setCreatedAt(now);
+            existing.setUpdatedAt(now);
+            GraphTable.add(graph.pendingByReceiver, receiverId, existing.getRequestId());
+            return true;
+        });
+    }
+
+    @Override
+    public boolean acceptRequest(int requestId) {
+        return graph.write(() -> {
+            ConnectionRequest request = resolve(requestId, GraphTable.ACCEPTED);
+            if (request == null) {
+                return false;
+            }
+
+            GraphTable.add(graph.connections, request.getSenderId(), request.getReceiverId());
+            GraphTable.add(graph.connections, request.getReceiverId(), request.getSenderId());
+            return true;
+        });
+    }
+
+    @Override
+    public boolean rejectRequest(int requestId) {
+        return graph.write(() -> resolve(requestId, GraphTable.REJECTED) != null);
+    }
+
+    @Override
+    public ConnectionRequest findById(int requestId) {
+        return graph.read(() -> {
+            ConnectionRequest request = graph.requests.get(requestId);
+            return request != null ? Rows.request(request) : null;
+        });
+    }
+
+    @Override
+    public List<ConnectionRequest> findPendingRequests(int userId) {
+        return graph.read(() -> {
+            IntHashSet requestIds = graph.pendingByReceiver.get(userId);
+            if (requestIds == null) {
+                return new ArrayList<ConnectionRequest>();
+            }
+
+            TreeSet<TimeKey> ordered = new TreeSet<>();
+            for (int requestId : requestIds.toSortedArray()) {
+                ordered.add(new TimeKey(graph.requests.get(requestId).getCreatedAt(), requestId));
+            }
+
+            List<ConnectionRequest> requests = new ArrayList<>(ordered.size());
+            for (TimeKey key : ordered.descendingSet()) {
+                requests.add(Rows.request(graph.requests.get(key.id)));
+            }
+            return requests;
+        });
+    }
+
+    @Override
+    public List<User> findConnections(int userId) {
+        int[] connectedIds = graph.read(() -> {
+            IntHashSet connected = graph.connections.get(userId);
+            return connected != null ? connected.toSortedArray() : new int[0];
+        });
+
+        List<Integer> userIds = new ArrayList<>(connectedIds.length);
+        for (int connectedId : connectedIds) {
+            userIds.add(connectedId);
+        }
+
+        List<User> connections = users.summaries(userIds);
+        connections.sort(Comparator
+                .comparing((User user) -> users.profileName(user.getUserId()), BY_NAME)
+                .thenComparing(User::getUsername, String.CASE_INSENSITIVE_ORDER));
+        return connections;
+    }
+
+    @Override
+    public boolean removeConnection(int userId, int connectionId) {
+        return graph.write(() -> {
+            boolean removed = removeAccepted(userId, connectionId);
+            removed |= removeAccepted(connectionId, userId);
+
+            if (removed) {
+                GraphTable.remove(graph.connections, userId, connectionId);
+                GraphTable.remove(graph.connections, connectionId, userId);
+            }
+            return removed;
+        });
+    }
+
+    @Override
+    public boolean areConnected(int userId1, int userId2) {
+        return graph.read(() -> GraphTable.isMember(graph.connections, userId1, userId2));
+    }
+
+    // UPDATE ... SET status = ? WHERE request_id = ? AND status = 'PENDING'
+    private ConnectionRequest resolve(int requestId, String status) {
+        ConnectionRequest request = graph.requests.get(requestId);
+        if (request == null || !GraphTable.PENDING.equals(request.getStatus())) {
+            return null;
+        }
+
+        request.setStatus(status);
+        request.setUpdatedAt(LocalDateTime.now());
+        GraphTable.remove(graph.pendingByReceiver, request.getReceiverId(), requestId);
+        return request;
+    }
+
+    private boolean removeAccepted(int senderId, int receiverId) {
+        long pair = Rows.pair(senderId, receiverId);
+        ConnectionRequest request = graph.requestsByPair.get(pair);
+        if (request == null || !GraphTable.ACCEPTED.equals(request.getStatus())) {
+            return false;
+        }
+
+        graph.requestsByPair.remove(pair);
+        graph.requests.remove(request.getRequestId());
+        return true;
+    }
+}
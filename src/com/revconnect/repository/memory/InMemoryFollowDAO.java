@@ -0,0 +1,82 @@
+package com.revconnect.repository.memory;
+
+import com.revconnect.dao.FollowDAO;
+import com.revconnect.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class InMemoryFollowDAO implements FollowDAO {
+
+    private final GraphTable graph;
+    private final PostTable posts;
+    private final UserTable users;
+
+    public InMemoryFollowDAO(InMemoryStore store) {
+        this.graph = store.graph;
+        this.posts = store.posts;
+        this.users = store.users;
+    }
+
+    @Override
+    public boolean followUser(int followerId, int followingId) {
+        LocalDateTime now = LocalDateTime.now();
+
+        boolean followed = graph.write(() -> {
+            if (!GraphTable.link(graph.following, followerId, followingId, now)) {
+                return false;
+            }
+            GraphTable.link(graph.followers, followingId, followerId, now);
+            return true;
+        });
+
+        if (followed) {
+            recordFollower(followingId, 1, now);
+        }
+        return followed;
+    }
+
+    @Override
+    public boolean unfollowUser(int followerId, int followingId) {
+        boolean unfollowed = graph.write(() -> {
+            if (!GraphTable.unlink(graph.following, followerId, followingId)) {
+                return false;
+            }
+            GraphTable.unlink(graph.followers, followingId, followerId);
+            return true;
+        });
+
+        if (unfollowed) {
+            recordFollower(followingId, -1, LocalDateTime.now());
+        }
+        return unfollowed;
+    }
+
+    @Override
+    public List<User> findFollowers(int userId) {
+        return users.summaries(graph.read(() -> GraphTable.newestFirst(graph.followers, userId)));
+    }
+
+    @Override
+    public List<User> findFollowing(int userId) {
+        return users.summaries(graph.read(() -> GraphTable.newestFirst(graph.following, userId)));
+    }
+
+    @Override
+    public boolean isFollowing(int followerId, int followingId) {
+        return graph.read(() -> GraphTable.isLinked(graph.following, followerId, followingId));
+    }
+
+    // The account_analytics and account_follower_daily side of a follow
+    private void recordFollower(int userId, int delta, LocalDateTime now) {
+        posts.write(() -> {
+            PostTable.AccountStats account = posts.account(userId);
+            account.followers += delta;
+            account.lastUpdated = now;
+
+            int[] day = account.followerDays.computeIfAbsent(now.toLocalDate(), d -> new int[2]);
+            day[delta > 0 ? PostTable.GAINED : PostTable.LOST]++;
+            return null;
+        });
+    }
+}
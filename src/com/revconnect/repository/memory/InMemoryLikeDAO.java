@@ -0,0 +1,67 @@
+package com.revconnect.repository.memory;
+
+import com.revconnect.dao.LikeDAO;
+import com.revconnect.exception.DatabaseException;
+import com.revconnect.util.IntHashSet;
+
+public class InMemoryLikeDAO implements LikeDAO {
+
+    private final PostTable table;
+
+    public InMemoryLikeDAO(InMemoryStore store) {
+        this.table = store.posts;
+    }
+
+    @Override
+    public boolean addLike(int postId, int userId) {
+        return table.write(() -> {
+            if (table.posts.get(postId) == null) {
+                throw new DatabaseException("Failed to add like: post " + postId + " does not exist");
+            }
+
+            IntHashSet likedBy = table.likes.get(postId);
+            if (likedBy == null) {
+                likedBy = new IntHashSet();
+                table.likes.put(postId, likedBy);
+            }
+            if (!likedBy.add(userId)) {
+                return false;
+            }
+
+            table.recordEngagement(postId, 1, 0, 0, 0);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean removeLike(int postId, int userId) {
+        return table.write(() -> {
+            IntHashSet likedBy = table.likes.get(postId);
+            if (likedBy == null || !likedBy.remove(userId)) {
+                return false;
+            }
+            if (likedBy.isEmpty()) {
+                table.likes.remove(postId);
+            }
+
+            table.recordEngagement(postId, -1, 0, 0, 0);
+            return true;
+        });
+    }
+
+    @Override
+    public int getLikeCount(int postId) {
+        return table.read(() -> {
+            IntHashSet likedBy = table.likes.get(postId);
+            return likedBy != null ? likedBy.size() : 0;
+        });
+    }
+
+    @Override
+    public boolean hasUserLiked(int postId, int userId) {
+        return table.read(() -> {
+            IntHashSet likedBy = table.likes.get(postId);
+            return likedBy != null && likedBy.contains(userId);
+        });
+    }
+}
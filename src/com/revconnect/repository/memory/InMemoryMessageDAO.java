@@ -0,0 +1,257 @@
+package com.revconnect.repository.memory;
+
+import com.revconnect.configuration.AppConfig;
+import com.revconnect.dao.MessageDAO;
+import com.revconnect.model.Conversation;
+import com.revconnect.model.Message;
+import com.revconnect.model.Page;
+import com.revconnect.util.PageToken;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+public class InMemoryMessageDAO implements MessageDAO {
+
+    private final MessageTable table;
+    private final UserTable users;
+
+    public InMemoryMessageDAO(InMemoryStore store) {
+        this.table = store.messages;
+        this.users = store.users;
+    }
+
+    @Override
+    public boolean sendMessage(Message message) {
+        LocalDateTime createdAt = LocalDateTime.now();
+        int senderId = message.getSenderId();
+        int receiverId = message.getReceiverId();
+
+        return table.write(() -> {
+            Message row = Rows.message(message);
+            row.setMessageId(++table.lastMessageId);
+            row.setRead(false);
+            row.setCreatedAt(createdAt);
+
+            table.messages.put(row.getMessageId(), row);
+            table.threads.computeIfAbsent(MessageTable.thread(senderId, receiverId),
+                    t -> new TreeSet<>()).add(new TimeKey(createdAt, row.getMessageId()));
+
+            // The sender has seen their own message, so their watermark moves with it
+            updateSummary(senderId, receiverId, row, 0, row.getMessageId());
+            updateSummary(receiverId, senderId, row, 1, -1);
+            table.adjustUnread(receiverId, 1);
+
+            message.setMessageId(row.getMessageId());
+            message.setCreatedAt(createdAt);
+            return true;
+        });
+    }
+
+    @Override
+    public List<Message> getConversation(int userId, int otherUserId) {
+        return table.read(() -> {
+            TreeSet<TimeKey> thread = table.threads.get(MessageTable.thread(userId, otherUserId));
+            List<Message> messages = new ArrayList<>(thread != null ? thread.size() : 0);
+
+            if (thread != null) {
+                for (TimeKey key : thread) {
+                    messages.add(Rows.message(table.messages.get(key.id)));
+                }
+            }
+            return messages;
+        });
+    }
+
+    /*
+     * Pages backwards from the newest message. Each page is returned in
+     * chronological order; its token points at the oldest message shown.
+     */
+    @Override
+    public Page<Message> getConversationPage(int userId, int otherUserId,
+                                             String pageToken, int pageSize) {
+        PageToken cursor = PageToken.decode(pageToken);
+
+        List<Message> messages = table.read(() -> {
+            List<Message> page = new ArrayList<>(pageSize + 1);
+            TreeSet<TimeKey> thread = table.threads.get(MessageTable.thread(userId, otherUserId));
+
+            if (thread != null) {
+                for (TimeKey key : TimeKey.after(thread.descendingSet(), cursor)) {
+                    if (page.size() > pageSize) {
+                        break;
+                    }
+                    page.add(Rows.message(table.messages.get(key.id)));
+                }
+            }
+            return page;
+        });
+
+        Page<Message> page = TimeKey.toPage(messages, pageSize,
+                oldest -> new PageToken(oldest.getCreatedAt(), oldest.getMessageId()));
+        Collections.reverse(page.getItems());
+        return page;
+    }
+
+    @Override
+    public boolean markAsRead(int userId, int otherUserId) {
+        return table.write(() -> {
+            Conversation summary = table.conversations.get(Rows.pair(userId, otherUserId));
+            if (summary != null) {
+                summary.setUnreadCount(0);
+                summary.setLastReadMessageId(summary.getLastMessageId());
+            }
+
+            int marked = 0;
+            TreeSet<TimeKey> thread = table.threads.get(MessageTable.thread(userId, otherUserId));
+            if (thread != null) {
+                for (TimeKey key : thread) {
+                    Message message = table.messages.get(key.id);
+                    if (message.getSenderId() == otherUserId && !message.isRead()) {
+                        message.setRead(true);
+                        marked++;
+                    }
+                }
+            }
+
+            table.adjustUnread(userId, -marked);
+            return marked > 0;
+        });
+    }
+
+    @Override
+    public boolean deleteConversation(int userId, int otherUserId) {
+        return table.write(() -> {
+            table.removeConversation(userId, otherUserId);
+            table.removeConversation(otherUserId, userId);
+
+            TreeSet<TimeKey> thread = table.threads.remove(MessageTable.thread(userId, otherUserId));
+            if (thread == null) {
+                return false;
+            }
+
+            for (TimeKey key : thread) {
+                Message message = table.messages.remove(key.id);
+                if (!message.isRead()) {
+                    table.adjustUnread(message.getReceiverId(), -1);
+                }
+            }
+            return true;
+        });
+    }
+
+    @Override
+    public int getUnreadCount(int userId) {
+        return table.read(() -> {
+            int[] count = table.unread.get(userId);
+            return count != null ? count[0] : 0;
+        });
+    }
+
+    @Override
+    public Page<Conversation> getInbox(int userId, String pageToken, int pageSize) {
+        PageToken cursor = PageToken.decode(pageToken);
+
+        List<Conversation> conversations = table.read(() -> {
+            List<Conversation> page = new ArrayList<>(pageSize + 1);
+            TreeSet<TimeKey> inbox = table.inboxes.get(userId);
+
+            if (inbox != null) {
+                for (TimeKey key : TimeKey.after(inbox.descendingSet(), cursor)) {
+                    if (page.size() > pageSize) {
+                        break;
+                    }
+
+                    // JOIN users on the other side of the conversation
+                    String otherUsername = users.username(key.id);
+                    if (otherUsername != null) {
+                        Conversation conversation =
+                                Rows.conversation(table.conversations.get(Rows.pair(userId, key.id)));
+                        conversation.setOtherUsername(otherUsername);
+                        page.add(conversation);
+                    }
+                }
+            }
+            return page;
+        });
+
+        return TimeKey.toPage(conversations, pageSize,
+                last -> new PageToken(last.getLastActivityAt(), last.getOtherUserId()));
+    }
+
+    /*
+     * Recomputes every summary row and unread count from the messages.
+     * Returns the number of summary rows written.
+     */
+    @Override
+    public int rebuildConversations() {
+        return table.write(() -> {
+            for (Map.Entry<Long, TreeSet<TimeKey>> entry : table.threads.entrySet()) {
+                int first = (int) (entry.getKey() >>> 32);
+                int second = (int) (long) entry.getKey();
+                table.removeConversation(first, second);
+                table.removeConversation(second, first);
+            }
+            table.unread.clear();
+
+            int rows = 0;
+            for (TreeSet<TimeKey> thread : table.threads.values()) {
+                for (TimeKey key : thread) {
+                    Message message = table.messages.get(key.id);
+                    int readUpTo = message.isRead() ? message.getMessageId() : -1;
+
+                    rows += updateSummary(message.getSenderId(), message.getReceiverId(),
+                            message, 0, message.getMessageId());
+                    rows += updateSummary(message.getReceiverId(), message.getSenderId(),
+                            message, message.isRead() ? 0 : 1, readUpTo);
+                    if (!message.isRead()) {
+                        table.adjustUnread(message.getReceiverId(), 1);
+                    }
+                }
+            }
+            return rows;
+        });
+    }
+
+    /*
+     * Folds one message into the owner's summary row, as the ON DUPLICATE
+     * KEY UPDATE does. readUpTo moves last_read_message_id when it is not
+     * -1. Returns 1 if the row was created.
+     */
+    private int updateSummary(int ownerId, int otherUserId, Message message,
+                              int unreadDelta, int readUpTo) {
+        Conversation previous = table.conversations.get(Rows.pair(ownerId, otherUserId));
+        Conversation summary;
+
+        if (previous != null) {
+            summary = Rows.conversation(previous);
+        } else {
+            summary = new Conversation();
+            summary.setUserId(ownerId);
+            summary.setOtherUserId(otherUserId);
+        }
+
+        summary.setLastMessageId(message.getMessageId());
+        summary.setLastSenderId(message.getSenderId());
+        summary.setLastMessageText(preview(message.getMessageText()));
+        summary.setLastActivityAt(message.getCreatedAt());
+        summary.setMessageCount(summary.getMessageCount() + 1);
+        summary.setUnreadCount(summary.getUnreadCount() + unreadDelta);
+        if (readUpTo != -1) {
+            summary.setLastReadMessageId(readUpTo);
+        }
+
+        table.putConversation(summary);
+        return previous == null ? 1 : 0;
+    }
+
+    private static String preview(String text) {
+        if (text == null || text.length() <= AppConfig.CONVERSATION_PREVIEW_LENGTH) {
+            return text;
+        }
+        return text.substring(0, AppConfig.CONVERSATION_PREVIEW_LENGTH);
+    }
+}
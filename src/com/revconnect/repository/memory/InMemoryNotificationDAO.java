@@ -0,0 +1,370 @@
+package com.revconnect.repository.memory;
+
+import com.revconnect.dao.NotificationDAO;
+import com.revconnect.model.Notification;
+import com.revconnect.model.NotificationFanOutJob;
+import com.revconnect.model.NotificationPreference;
+import com.revconnect.model.Page;
+import com.revconnect.util.PageToken;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+public class InMemoryNotificationDAO implements NotificationDAO {
+
+    private static final int LIST_LIMIT = 50;
+
+    private final NotificationTable table;
+
+    public InMemoryNotificationDAO(InMemoryStore store) {
+        this.table = store.notifications;
+    }
+
+    @Override
+    public boolean saveNotification(Notification notification) {
+        Notification row = Rows.notification(notification);
+        row.setCreatedAt(LocalDateTime.now());
+
+        return table.write(() -> {
+            notification.setNotificationId(table.insert(row).getNotificationId());
+            return true;
+        });
+    }
+
+    @Override
+    public int saveNotifications(List<Notification> notifications) {
+        return table.write(() -> insertAll(notifications));
+    }
+
+    // Same matching as NotificationRepository: the newest unread row of the same type and post
+    @Override
+    public int foldNotifications(List<Notification> notifications) {
+        return table.write(() -> {
+            for (Notification notification : notifications) {
+                Notification row = foldTarget(notification);
+
+                if (row == null) {
+                    insertAll(Collections.singletonList(notification));
+                    continue;
+                }
+
+                // The time is part of the user's index key, so the row is re-keyed
+                TreeSet<TimeKey> own = table.byUser.get(row.getUserId());
+                own.remove(new TimeKey(row.getCreatedAt(), row.getNotificationId()));
+
+                row.setActorCount(row.getActorCount() + notification.getActorCount() - 1);
+                row.setSampleActorIds(new ArrayList<>(notification.getSampleActorIds()));
+                row.setRelatedUserId(notification.getRelatedUserId());
+                row.setCreatedAt(notification.getCreatedAt() != null
+                        ? notification.getCreatedAt() : LocalDateTime.now());
+                own.add(new TimeKey(row.getCreatedAt(), row.getNotificationId()));
+            }
+            return notifications.size();
+        });
+    }
+
+    @Override
+    public boolean createFanOutJob(int postId, int authorId) {
+        LocalDateTime now = LocalDateTime.now();
+
+        return table.write(() -> {
+            if (table.fanOutJobs.get(postId) != null) {
+                return false;
+            }
+            table.fanOutJobs.put(postId, new NotificationFanOutJob(postId, authorId, 0, now));
+            return true;
+        });
+    }
+
+    @Override
+    public List<NotificationFanOutJob> findPendingFanOutJobs() {
+        List<NotificationFanOutJob> jobs = table.read(() -> {
+            List<NotificationFanOutJob> pending = new ArrayList<>(table.fanOutJobs.size());
+            table.fanOutJobs.forEach((postId, job) -> pending.add(new NotificationFanOutJob(
+                    job.getPostId(), job.getAuthorId(), job.getLastRecipientId(), job.getCreatedAt())));
+            return pending;
+        });
+
+        jobs.sort(Comparator.comparing(NotificationFanOutJob::getCreatedAt)
+                .thenComparingInt(NotificationFanOutJob::getPostId));
+        return jobs;
+    }
+
+    /*
+     * Inserts one chunk of a fan-out and advances the job's checkpoint
+     * under one lock, so a resumed job never notifies anyone twice.
+     * Returns -1 without inserting if the job no longer exists.
+     */
+    @Override
+    public int saveFanOutChunk(int postId, List<Notification> notifications, int lastRecipientId) {
+        return table.write(() -> {
+            NotificationFanOutJob job = table.fanOutJobs.get(postId);
+            if (job == null) {
+                return -1;
+            }
+
+            job.setLastRecipientId(lastRecipientId);
+            return insertAll(notifications);
+        });
+    }
+
+    @Override
+    public boolean deleteFanOutJob(int postId) {
+        return table.write(() -> table.fanOutJobs.remove(postId) != null);
+    }
+
+    @Override
+    public List<Integer> findReadNotificationIds(LocalDateTime readBefore, int afterId, int limit) {
+        return table.read(() -> {
+            List<Integer> notificationIds = new ArrayList<>();
+
+            for (Notification row : table.notifications.tailMap(afterId, false).values()) {
+                if (notificationIds.size() >= limit) {
+                    break;
+                }
+                if (row.getCreatedAt().isBefore(readBefore) && table.isRead(row)) {
+                    notificationIds.add(row.getNotificationId());
+                }
+            }
+            return notificationIds;
+        });
+    }
+
+    // Conditions are re-checked: a row in the range may have changed since it was listed
+    @Override
+    public int deleteReadNotifications(int fromId, int toId, LocalDateTime readBefore) {
+        return table.write(() -> {
+            List<Notification> purged = new ArrayList<>();
+
+            for (Notification row : table.notifications.subMap(fromId, true, toId, true).values()) {
+                if (row.getCreatedAt().isBefore(readBefore) && table.isRead(row)) {
+                    purged.add(row);
+                }
+            }
+
+            for (Notification row : purged) {
+                table.delete(row);
+            }
+            return purged.size();
+        });
+    }
+
+    @Override
+    public int findLastNotifiedUserId() {
+        return table.read(() -> {
+            int[] last = new int[1];
+            table.byUser.forEach((userId, own) -> last[0] = Math.max(last[0], userId));
+            return last[0];
+        });
+    }
+
+    @Override
+    public List<Integer> findUsersOverNotificationLimit(int keep, int fromUserId, int toUserId) {
+        return table.read(() -> {
+            TreeSet<Integer> userIds = new TreeSet<>();
+            table.byUser.forEach((userId, own) -> {
+                if (userId >= fromUserId && userId <= toUserId && own.size() > keep) {
+                    userIds.add(userId);
+                }
+            });
+            return new ArrayList<>(userIds);
+        });
+    }
+
+    /*
+     * Deletes up to limit of the user's notifications with an id below
+     * their keep-th newest, lowest ids first.
+     */
+    @Override
+    public int deleteOldestNotifications(int userId, int keep, int limit) {
+        if (keep < 1) {
+            throw new IllegalArgumentException("Must keep at least one notification per user");
+        }
+
+        return table.write(() -> {
+            TreeSet<TimeKey> own = table.byUser.get(userId);
+            if (own == null || own.size() <= keep) {
+                return 0;
+            }
+
+            int[] notificationIds = new int[own.size()];
+            int i = 0;
+            for (TimeKey key : own) {
+                notificationIds[i++] = key.id;
+            }
+            Arrays.sort(notificationIds);
+
+            int cutoffId = notificationIds[notificationIds.length - keep];
+            int deleted = 0;
+
+            for (int notificationId : notificationIds) {
+                if (notificationId >= cutoffId || deleted >= limit) {
+                    break;
+                }
+                table.delete(table.notifications.get(notificationId));
+                deleted++;
+            }
+            return deleted;
+        });
+    }
+
+    @Override
+    public List<Notification> findByUserId(int userId) {
+        return table.read(() -> newestFirst(userId, null, LIST_LIMIT));
+    }
+
+    @Override
+    public Page<Notification> findByUserIdPage(int userId, String pageToken, int pageSize) {
+        PageToken cursor = PageToken.decode(pageToken);
+
+        List<Notification> notifications = table.read(() -> newestFirst(userId, cursor, pageSize + 1));
+
+        return TimeKey.toPage(notifications, pageSize,
+                last -> new PageToken(last.getCreatedAt(), last.getNotificationId()));
+    }
+
+    @Override
+    public int countUnread(int userId) {
+        return table.read(() -> {
+            int[] count = table.unread.get(userId);
+            return count != null ? count[0] : 0;
+        });
+    }
+
+    @Override
+    public boolean markAsRead(int notificationId) {
+        return table.write(() -> {
+            Notification row = table.notifications.get(notificationId);
+            if (row == null) {
+                return false;
+            }
+
+            // Items already covered by the watermark need no per-row flag
+            if (!table.isRead(row)) {
+                row.setRead(true);
+                table.adjustUnread(row.getUserId(), -1);
+            }
+            return true;
+        });
+    }
+
+    // Moves the user's watermark to their newest notification
+    @Override
+    public boolean markAllAsRead(int userId) {
+        return table.write(() -> {
+            int newestId = 0;
+            TreeSet<TimeKey> own = table.byUser.get(userId);
+            if (own != null) {
+                for (TimeKey key : own) {
+                    newestId = Math.max(newestId, key.id);
+                }
+            }
+
+            int[] watermark = table.readWatermarks.get(userId);
+            if (watermark == null) {
+                watermark = new int[1];
+                table.readWatermarks.put(userId, watermark);
+            }
+            watermark[0] = Math.max(watermark[0], newestId);
+
+            table.unread.remove(userId);
+            return true;
+        });
+    }
+
+    @Override
+    public NotificationPreference getPreferences(int userId) {
+        return NotificationPreference.fromMask(userId, getPreferenceMask(userId));
+    }
+
+    @Override
+    public int getPreferenceMask(int userId) {
+        return table.read(() -> mask(userId));
+    }
+
+    @Override
+    public Map<Integer, Integer> getPreferenceMasks(Collection<Integer> userIds) {
+        return table.read(() -> {
+            Map<Integer, Integer> masks = new HashMap<>();
+            for (Integer userId : userIds) {
+                masks.put(userId, mask(userId));
+            }
+            return masks;
+        });
+    }
+
+    @Override
+    public boolean updatePreferences(NotificationPreference preferences) {
+        return table.write(() -> {
+            table.preferenceMasks.put(preferences.getUserId(), preferences.toMask());
+            return true;
+        });
+    }
+
+    // Users without a row share the all-enabled default
+    private Integer mask(int userId) {
+        Integer mask = table.preferenceMasks.get(userId);
+        return mask != null ? mask : NotificationPreference.ALL;
+    }
+
+    // Expects the write lock
+    private int insertAll(List<Notification> notifications) {
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Notification notification : notifications) {
+            Notification row = Rows.notification(notification);
+            if (row.getCreatedAt() == null) {
+                row.setCreatedAt(now);
+            }
+            table.insert(row);
+        }
+        return notifications.size();
+    }
+
+    // Expects the write lock
+    private Notification foldTarget(Notification notification) {
+        TreeSet<TimeKey> own = table.byUser.get(notification.getUserId());
+        if (own == null) {
+            return null;
+        }
+
+        Notification target = null;
+        for (TimeKey key : own) {
+            Notification row = table.notifications.get(key.id);
+            if (!table.isRead(row)
+                    && row.getType().equals(notification.getType())
+                    && row.getRelatedPostId() == notification.getRelatedPostId()
+                    && (target == null || row.getNotificationId() > target.getNotificationId())) {
+                target = row;
+            }
+        }
+        return target;
+    }
+
+    // Expects the read lock; is_read reflects the mark-all watermark
+    private List<Notification> newestFirst(int userId, PageToken cursor, int limit) {
+        List<Notification> notifications = new ArrayList<>();
+        TreeSet<TimeKey> own = table.byUser.get(userId);
+
+        if (own != null) {
+            for (TimeKey key : TimeKey.after(own.descendingSet(), cursor)) {
+                if (notifications.size() >= limit) {
+                    break;
+                }
+                Notification row = table.notifications.get(key.id);
+                Notification notification = Rows.notification(row);
+                notification.setRead(table.isRead(row));
+                notifications.add(notification);
+            }
+        }
+        return notifications;
+    }
+}
@@ -0,0 +1,624 @@
+package com.revconnect.repository.memory;
+
+import com.revconnect.configuration.AppConfig;
+import com.revconnect.dao.PostDAO;
+import com.revconnect.model.CreatorDashboard;
+import com.revconnect.model.EngagementBucket;
+import com.revconnect.model.Page;
+import com.revconnect.model.Post;
+import com.revconnect.model.PostAnalytics;
+import com.revconnect.repository.TrendingEngine;
+import com.revconnect.util.HashtagUtil;
+import com.revconnect.util.IntHashSet;
+import com.revconnect.util.IntObjectHashMap;
+import com.revconnect.util.PageToken;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+public class InMemoryPostDAO implements PostDAO {
+
+    private static final int SEARCH_LIMIT = 50;
+
+    private static final Comparator<Post> NEWEST_FIRST = Comparator
+            .comparing(Post::getCreatedAt)
+            .thenComparingInt(Post::getPostId)
+            .reversed();
+
+    private final PostTable table;
+    private final GraphTable graph;
+    private final UserTable users;
+
+    public InMemoryPostDAO(InMemoryStore store) {
+        this.table = store.posts;
+        this.graph = store.graph;
+        this.users = store.users;
+    }
+
+    @Override
+    public boolean createPost(Post post) {
+        return table.write(() -> insert(post, LocalDateTime.now()));
+    }
+
+    @Override
+    public boolean updatePost(Post post) {
+        return table.write(() -> {
+            Post row = table.posts.get(post.getPostId());
+            if (row == null) {
+                return false;
+            }
+
+            table.unindexHashtags(row);
+            row.setContent(post.getContent());
+            row.setHashtags(post.getHashtags());
+            row.setUpdatedAt(LocalDateTime.now());
+            table.indexHashtags(row);
+            return true;
+        });
+    }
+
+    /*
+     * Cascades like the foreign keys on posts do: likes, comments,
+     * shares, analytics and the schedule go with the post. Timeline
+     * entries are left to TimelineDAO.removePost(), as in MySQL.
+     */
+    @Override
+    public boolean deletePost(int postId) {
+        return table.write(() -> {
+            Post row = table.posts.remove(postId);
+            if (row == null) {
+                return false;
+            }
+
+            table.unindexHashtags(row);
+
+            TreeSet<TimeKey> authored = table.postsByAuthor.get(row.getUserId());
+            authored.remove(new TimeKey(row.getCreatedAt(), postId));
+            if (authored.isEmpty()) {
+                table.postsByAuthor.remove(row.getUserId());
+            }
+
+            LocalDateTime scheduledFor = table.unpublished.remove(postId);
+            if (scheduledFor != null) {
+                table.publishQueue.remove(new TimeKey(scheduledFor, postId));
+            }
+
+            table.likes.remove(postId);
+            table.sharesByPost.remove(postId);
+            TreeSet<TimeKey> thread = table.commentsByPost.remove(postId);
+            if (thread != null) {
+                for (TimeKey key : thread) {
+                    table.comments.remove(key.id);
+                }
+            }
+
+            PostTable.PostStats stats = table.stats.remove(postId);
+            PostTable.AccountStats account = table.account(row.getUserId());
+            if (scheduledFor == null) {
+                account.posts--;
+            }
+            if (stats != null) {
+                account.likes -= stats.likes;
+                account.comments -= stats.comments;
+                account.shares -= stats.shares;
+            }
+            account.lastUpdated = LocalDateTime.now();
+            return true;
+        });
+    }
+
+    @Override
+    public Post findById(int postId) {
+        return table.read(() -> {
+            Post row = table.posts.get(postId);
+            return row != null ? Rows.post(row) : null;
+        });
+    }
+
+    @Override
+    public List<Post> findByUserId(int userId) {
+        return table.read(() -> {
+            TreeSet<TimeKey> authored = table.postsByAuthor.get(userId);
+            List<Post> posts = new ArrayList<>(authored != null ? authored.size() : 0);
+
+            if (authored != null) {
+                for (TimeKey key : authored.descendingSet()) {
+                    posts.add(Rows.post(table.posts.get(key.id)));
+                }
+            }
+            return posts;
+        });
+    }
+
+    @Override
+    public Page<Post> findByUserIdPage(int userId, String pageToken, int pageSize) {
+        PageToken cursor = PageToken.decode(pageToken);
+
+        List<Post> posts = table.read(() -> {
+            List<Post> page = new ArrayList<>(pageSize + 1);
+            TreeSet<TimeKey> authored = table.postsByAuthor.get(userId);
+
+            if (authored != null) {
+                for (TimeKey key : TimeKey.after(authored.descendingSet(), cursor)) {
+                    if (page.size() > pageSize) {
+                        break;
+                    }
+                    page.add(Rows.post(table.posts.get(key.id)));
+                }
+            }
+            return page;
+        });
+
+        return toPage(posts, pageSize);
+    }
+
+    @Override
+    public List<Post> getFeed(int userId) {
+        return queryFeed(userId, null, null, null, AppConfig.FEED_SIZE);
+    }
+
+    @Override
+    public Page<Post> getFeedPage(int userId, String pageToken, int pageSize) {
+        List<Post> posts = queryFeed(userId, null, null, PageToken.decode(pageToken), pageSize + 1);
+        return toPage(posts, pageSize);
+    }
+
+    @Override
+    public List<Post> getTrendingPosts() {
+        List<Integer> postIds = TrendingEngine.topPostIds();
+
+        return table.read(() -> {
+            List<Post> posts = new ArrayList<>(postIds.size());
+            for (int postId : postIds) {
+                Post row = table.posts.get(postId);
+                if (row != null && table.isPublished(postId)) {
+                    posts.add(Rows.post(row));
+                }
+            }
+            return posts;
+        });
+    }
+
+    @Override
+    public List<Post> searchByHashtag(String hashtag) {
+        String tag = HashtagUtil.normalize(hashtag);
+        if (tag == null) {
+            return new ArrayList<>();
+        }
+        return queryTag(tag, null, SEARCH_LIMIT);
+    }
+
+    @Override
+    public Page<Post> searchByHashtagPage(String hashtag, String pageToken, int pageSize) {
+        String tag = HashtagUtil.normalize(hashtag);
+        if (tag == null) {
+            return new Page<>(new ArrayList<>(), null);
+        }
+        return toPage(queryTag(tag, PageToken.decode(pageToken), pageSize + 1), pageSize);
+    }
+
+    // Hashtags are indexed on every write here, so this only re-applies the same index entries
+    @Override
+    public int backfillHashtags(int afterPostId, int batchSize) {
+        return table.write(() -> {
+            int lastPostId = 0;
+            int indexed = 0;
+
+            for (int postId = afterPostId + 1; postId <= table.lastPostId && indexed < batchSize; postId++) {
+                Post row = table.posts.get(postId);
+                if (row != null) {
+                    table.indexHashtags(row);
+                    lastPostId = postId;
+                    indexed++;
+                }
+            }
+            return lastPostId;
+        });
+    }
+
+    @Override
+    public List<Post> getFilteredFeed(int userId, String postType, String userType) {
+        return queryFeed(userId, postType, userType, null, AppConfig.FEED_SIZE);
+    }
+
+    @Override
+    public boolean schedulePost(Post post) {
+        return table.write(() -> {
+            if (!insert(post, post.getScheduledTime())) {
+                return false;
+            }
+
+            // Counted towards the account once published
+            table.account(post.getUserId()).posts--;
+            table.unpublished.put(post.getPostId(), post.getScheduledTime());
+            table.publishQueue.add(new TimeKey(post.getScheduledTime(), post.getPostId()));
+            return true;
+        });
+    }
+
+    @Override
+    public List<Post> findDueScheduledPosts(LocalDateTime dueBefore, int limit) {
+        return table.read(() -> {
+            List<Post> posts = new ArrayList<>();
+
+            for (TimeKey key : table.publishQueue) {
+                if (posts.size() >= limit || key.time.isAfter(dueBefore)) {
+                    break;
+                }
+                Post post = Rows.post(table.posts.get(key.id));
+                post.setScheduledTime(key.time);
+                posts.add(post);
+            }
+            return posts;
+        });
+    }
+
+    @Override
+    public boolean markScheduledPostPublished(int postId) {
+        return table.write(() -> {
+            LocalDateTime scheduledFor = table.unpublished.remove(postId);
+            if (scheduledFor == null) {
+                return false;
+            }
+            table.publishQueue.remove(new TimeKey(scheduledFor, postId));
+
+            PostTable.AccountStats account = table.account(table.posts.get(postId).getUserId());
+            account.posts++;
+            account.lastUpdated = LocalDateTime.now();
+            return true;
+        });
+    }
+
+    @Override
+    public boolean pinPost(int postId, int userId) {
+        return table.write(() -> {
+            Post row = table.posts.get(postId);
+            if (row == null || row.getUserId() != userId) {
+                return false;
+            }
+
+            int maxPinOrder = 0;
+            for (TimeKey key : table.postsByAuthor.get(userId)) {
+                Post authored = table.posts.get(key.id);
+                if (authored.isPinned()) {
+                    maxPinOrder = Math.max(maxPinOrder, authored.getPinOrder());
+                }
+            }
+
+            row.setPinned(true);
+            row.setPinOrder(maxPinOrder + 1);
+            row.setUpdatedAt(LocalDateTime.now());
+            return true;
+        });
+    }
+
+    @Override
+    public boolean unpinPost(int postId, int userId) {
+        return table.write(() -> {
+            Post row = table.posts.get(postId);
+            if (row == null || row.getUserId() != userId) {
+                return false;
+            }
+
+            row.setPinned(false);
+            row.setPinOrder(0);
+            row.setUpdatedAt(LocalDateTime.now());
+            return true;
+        });
+    }
+
+    @Override
+    public PostAnalytics getAnalytics(int postId) {
+        return table.read(() -> {
+            PostTable.PostStats stats = table.stats.get(postId);
+            return stats != null ? analytics(postId, stats) : null;
+        });
+    }
+
+    @Override
+    public void recordViews(int viewerId, List<Post> posts) {
+        table.write(() -> {
+            for (Post post : posts) {
+                PostTable.PostStats stats = table.stats.get(post.getPostId());
+                if (post.getUserId() != viewerId && stats != null) {
+                    stats.viewers.add(viewerId);
+                    table.recordEngagement(post.getPostId(), 0, 0, 0, 1);
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public List<EngagementBucket> getEngagementBuckets(int postId, LocalDateTime from,
+                                                       String granularity) {
+        boolean hourly = EngagementBucket.HOUR.equals(granularity);
+
+        return table.read(() -> {
+            PostTable.PostStats stats = table.stats.get(postId);
+            if (stats == null) {
+                return new ArrayList<EngagementBucket>();
+            }
+
+            // DAY folds the hourly buckets into one bucket per calendar day
+            TreeMap<LocalDateTime, int[]> totals = new TreeMap<>();
+            for (Map.Entry<LocalDateTime, int[]> entry : stats.hourly.tailMap(from, true).entrySet()) {
+                LocalDateTime start = hourly
+                        ? entry.getKey()
+                        : entry.getKey().toLocalDate().atStartOfDay();
+                int[] sum = totals.computeIfAbsent(start, s -> new int[4]);
+                for (int i = 0; i < sum.length; i++) {
+                    sum[i] += entry.getValue()[i];
+                }
+            }
+
+            List<EngagementBucket> buckets = new ArrayList<>(totals.size());
+            for (Map.Entry<LocalDateTime, int[]> entry : totals.entrySet()) {
+                int[] sum = entry.getValue();
+                EngagementBucket bucket = new EngagementBucket(postId, granularity, entry.getKey());
+                bucket.setLikes(sum[PostTable.LIKES]);
+                bucket.setComments(sum[PostTable.COMMENTS]);
+                bucket.setShares(sum[PostTable.SHARES]);
+                bucket.setViews(sum[PostTable.VIEWS]);
+                buckets.add(bucket);
+            }
+            return buckets;
+        });
+    }
+
+    @Override
+    public CreatorDashboard getCreatorDashboard(int userId, int growthDays, int topPostCount) {
+        CreatorDashboard dashboard = new CreatorDashboard();
+        dashboard.setUserId(userId);
+        dashboard.setGrowthDays(growthDays);
+
+        return table.read(() -> {
+            PostTable.AccountStats account = table.accounts.get(userId);
+            if (account != null) {
+                dashboard.setTotalPosts(account.posts);
+                dashboard.setTotalLikes(account.likes);
+                dashboard.setTotalComments(account.comments);
+                dashboard.setTotalShares(account.shares);
+                dashboard.setTotalViews(account.views);
+                dashboard.setFollowerCount(account.followers);
+                dashboard.setLastUpdated(account.lastUpdated);
+
+                int gained = 0;
+                int lost = 0;
+                LocalDate since = LocalDate.now().minusDays(growthDays);
+                for (int[] day : account.followerDays.tailMap(since, false).values()) {
+                    gained += day[PostTable.GAINED];
+                    lost += day[PostTable.LOST];
+                }
+                dashboard.setFollowersGained(gained);
+                dashboard.setFollowersLost(lost);
+            }
+
+            // ORDER BY engagement DESC, post_id DESC over the author's posts
+            TreeSet<TimeKey> ranked = new TreeSet<>(Comparator
+                    .comparingInt((TimeKey key) -> table.stats.get(key.id).engagement())
+                    .thenComparingInt(key -> key.id)
+                    .reversed());
+            TreeSet<TimeKey> authored = table.postsByAuthor.get(userId);
+            if (authored != null) {
+                for (TimeKey key : authored) {
+                    if (table.stats.get(key.id) != null) {
+                        ranked.add(key);
+                        if (ranked.size() > topPostCount) {
+                            ranked.pollLast();
+                        }
+                    }
+                }
+            }
+
+            List<PostAnalytics> topPosts = new ArrayList<>(ranked.size());
+            for (TimeKey key : ranked) {
+                topPosts.add(analytics(key.id, table.stats.get(key.id)));
+            }
+            dashboard.setTopPosts(topPosts);
+
+            return dashboard;
+        });
+    }
+
+    /*
+     * Recomputes every account's totals from the post stats and the
+     * follows, and the followers gained per day from the follow dates.
+     * As in MySQL, followers lost has no history to rebuild from.
+     */
+    @Override
+    public int rebuildAccountAnalytics() {
+        IntObjectHashMap<TreeMap<LocalDate, Integer>> gainedByDay = graph.read(() -> {
+            IntObjectHashMap<TreeMap<LocalDate, Integer>> days = new IntObjectHashMap<>();
+            graph.followers.forEach((userId, followedBy) -> {
+                TreeMap<LocalDate, Integer> gained = new TreeMap<>();
+                followedBy.forEach((followerId, since) ->
+                        gained.merge(since.toLocalDate(), 1, Integer::sum));
+                days.put(userId, gained);
+            });
+            return days;
+        });
+
+        List<Integer> userIds = users.userIds();
+        LocalDateTime now = LocalDateTime.now();
+
+        return table.write(() -> {
+            for (int userId : userIds) {
+                PostTable.AccountStats account = table.account(userId);
+                account.posts = 0;
+                account.likes = 0;
+                account.comments = 0;
+                account.shares = 0;
+                account.views = 0;
+                account.followers = 0;
+                account.lastUpdated = now;
+
+                TreeSet<TimeKey> authored = table.postsByAuthor.get(userId);
+                if (authored != null) {
+                    for (TimeKey key : authored) {
+                        if (table.isPublished(key.id)) {
+                            account.posts++;
+                        }
+                        PostTable.PostStats stats = table.stats.get(key.id);
+                        if (stats != null) {
+                            account.likes += stats.likes;
+                            account.comments += stats.comments;
+                            account.shares += stats.shares;
+                            for (int[] bucket : stats.hourly.values()) {
+                                account.views += bucket[PostTable.VIEWS];
+                            }
+                        }
+                    }
+                }
+
+                TreeMap<LocalDate, Integer> gained = gainedByDay.get(userId);
+                if (gained != null) {
+                    for (Map.Entry<LocalDate, Integer> day : gained.entrySet()) {
+                        account.followers += day.getValue();
+                        account.followerDays.computeIfAbsent(day.getKey(), d -> new int[2])
+                                [PostTable.GAINED] = day.getValue();
+                    }
+                }
+            }
+            return userIds.size();
+        });
+    }
+
+    /*
+     * The user's materialized timeline merged with the posts of followed
+     * high-fan-out authors, which are not pushed into timelines. The
+     * graph is read first so no graph lock is taken under the post lock.
+     */
+    private List<Post> queryFeed(int userId, String postType, String userType,
+                                 PageToken cursor, int limit) {
+        IntHashSet authors = graph.feedAuthors(userId);
+
+        Boolean promotional = null;
+        if (postType != null && postType.equalsIgnoreCase("PROMOTIONAL")) {
+            promotional = Boolean.TRUE;
+        } else if (postType != null && postType.equalsIgnoreCase("REGULAR")) {
+            promotional = Boolean.FALSE;
+        }
+        Boolean promotionalFilter = promotional;
+        String userTypeFilter = userType != null && !userType.isEmpty() ? userType : null;
+
+        return table.read(() -> {
+            TreeSet<Post> feed = new TreeSet<>(NEWEST_FIRST);
+
+            TreeSet<TimeKey> timeline = table.timelines.get(userId);
+            if (timeline != null) {
+                collect(TimeKey.after(timeline.descendingSet(), cursor), feed,
+                        promotionalFilter, userTypeFilter, limit);
+            }
+
+            for (int authorId : authors.toSortedArray()) {
+                TreeSet<TimeKey> authored = table.postsByAuthor.get(authorId);
+                if (authored != null && table.highFanoutAuthors.contains(authorId)) {
+                    collect(TimeKey.after(authored.descendingSet(), cursor), feed,
+                            promotionalFilter, userTypeFilter, limit);
+                }
+            }
+
+            List<Post> posts = new ArrayList<>(Math.min(feed.size(), limit));
+            for (Post post : feed) {
+                if (posts.size() >= limit) {
+                    break;
+                }
+                posts.add(post);
+            }
+            return posts;
+        });
+    }
+
+    // Adds up to limit matching published posts from one newest-first index
+    private void collect(Iterable<TimeKey> keys, TreeSet<Post> feed, Boolean promotional,
+                         String userType, int limit) {
+        int added = 0;
+
+        for (TimeKey key : keys) {
+            if (added >= limit) {
+                break;
+            }
+
+            Post row = table.posts.get(key.id);
+            if (row == null || !table.isPublished(key.id)
+                    || (promotional != null && row.isPromotional() != promotional)
+                    || (userType != null && !userType.equals(users.userType(row.getUserId())))) {
+                continue;
+            }
+
+            if (feed.add(Rows.post(row))) {
+                added++;
+            }
+        }
+    }
+
+    private List<Post> queryTag(String tag, PageToken cursor, int limit) {
+        return table.read(() -> {
+            List<Post> posts = new ArrayList<>();
+            TreeSet<TimeKey> tagged = table.postsByTag.get(tag);
+
+            if (tagged != null) {
+                for (TimeKey key : TimeKey.after(tagged.descendingSet(), cursor)) {
+                    if (posts.size() >= limit) {
+                        break;
+                    }
+                    if (table.isPublished(key.id)) {
+                        posts.add(Rows.post(table.posts.get(key.id)));
+                    }
+                }
+            }
+            return posts;
+        });
+    }
+
+    // Expects the write lock; the caller adds the schedule row for scheduled posts
+    private boolean insert(Post post, LocalDateTime createdAt) {
+        Post row = Rows.post(post);
+        row.setPostId(++table.lastPostId);
+        row.setCreatedAt(createdAt);
+        row.setUpdatedAt(null);
+
+        table.posts.put(row.getPostId(), row);
+        TreeSet<TimeKey> authored = table.postsByAuthor.get(row.getUserId());
+        if (authored == null) {
+            authored = new TreeSet<>();
+            table.postsByAuthor.put(row.getUserId(), authored);
+        }
+        authored.add(new TimeKey(createdAt, row.getPostId()));
+
+        table.stats.put(row.getPostId(), new PostTable.PostStats(++table.lastAnalyticsId));
+        table.indexHashtags(row);
+
+        PostTable.AccountStats account = table.account(row.getUserId());
+        account.posts++;
+        account.lastUpdated = LocalDateTime.now();
+
+        post.setPostId(row.getPostId());
+        post.setCreatedAt(createdAt);
+        return true;
+    }
+
+    private PostAnalytics analytics(int postId, PostTable.PostStats stats) {
+        PostAnalytics analytics = new PostAnalytics();
+        analytics.setAnalyticsId(stats.analyticsId);
+        analytics.setPostId(postId);
+        analytics.setTotalLikes(stats.likes);
+        analytics.setTotalComments(stats.comments);
+        analytics.setTotalShares(stats.shares);
+        analytics.setUniqueViewers((int) stats.viewers.estimate());
+        analytics.setLastUpdated(stats.lastUpdated);
+        return analytics;
+    }
+
+    private Page<Post> toPage(List<Post> posts, int pageSize) {
+        return TimeKey.toPage(posts, pageSize,
+                post -> new PageToken(post.getCreatedAt(), post.getPostId()));
+    }
+}
@@ -0,0 +1,67 @@
+package com.revconnect.repository.memory;
+
+import com.revconnect.dao.ProfileDAO;
+import com.revconnect.exception.DatabaseException;
+import com.revconnect.model.Profile;
+
+import java.time.LocalDateTime;
+
+public class InMemoryProfileDAO implements ProfileDAO {
+
+    private final UserTable table;
+
+    public InMemoryProfileDAO(InMemoryStore store) {
+        this.table = store.users;
+    }
+
+    @Override
+    public boolean createProfile(Profile profile) {
+        return table.write(() -> {
+            if (table.profilesByUser.get(profile.getUserId()) != null) {
+                throw new DatabaseException("Failed to create profile: Duplicate entry '" +
+                        profile.getUserId() + "' for key 'uk_profiles_user'");
+            }
+
+            Profile row = Rows.profile(profile);
+            row.setProfileId(++table.lastProfileId);
+            row.setCreatedAt(LocalDateTime.now());
+            row.setUpdatedAt(null);
+
+            table.profilesByUser.put(row.getUserId(), row);
+            table.profilesById.put(row.getProfileId(), row);
+
+            profile.setProfileId(row.getProfileId());
+            return true;
+        });
+    }
+
+    @Override
+    public Profile findByUserId(int userId) {
+        return table.read(() -> {
+            Profile row = table.profilesByUser.get(userId);
+            return row != null ? Rows.profile(row) : null;
+        });
+    }
+
+    @Override
+    public boolean updateProfile(Profile profile) {
+        return table.write(() -> {
+            Profile row = table.profilesById.get(profile.getProfileId());
+            if (row == null) {
+                return false;
+            }
+
+            row.setName(profile.getName());
+            row.setBio(profile.getBio());
+            row.setProfilePicPath(profile.getProfilePicPath());
+            row.setLocation(profile.getLocation());
+            row.setWebsite(profile.getWebsite());
+            row.setCategory(profile.getCategory());
+            row.setBusinessAddress(profile.getBusinessAddress());
+            row.setContactInfo(profile.getContactInfo());
+            row.setBusinessHours(profile.getBusinessHours());
+            row.setUpdatedAt(LocalDateTime.now());
+            return true;
+        });
+    }
+}
@@ -0,0 +1,72 @@
+package com.revconnect.repository.memory;
+
+import com.revconnect.dao.SecurityQuestionDAO;
+import com.revconnect.model.SecurityQuestion;
+import com.revconnect.model.UserSecurityAnswer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class InMemorySecurityQuestionDAO implements SecurityQuestionDAO {
+
+    // The rows the baseline schema migration seeds, in question_id order
+    private static final List<String> QUESTIONS = Collections.unmodifiableList(Arrays.asList(
+            "What was the name of your first pet?",
+            "In which city were you born?",
+            "What is your mother's maiden name?",
+            "What was the name of your first school?",
+            "What is your favourite book?"));
+
+    private final UserTable table;
+
+    public InMemorySecurityQuestionDAO(InMemoryStore store) {
+        this.table = store.users;
+    }
+
+    @Override
+    public List<SecurityQuestion> getAllQuestions() {
+        List<SecurityQuestion> questions = new ArrayList<>(QUESTIONS.size());
+
+        for (int i = 0; i < QUESTIONS.size(); i++) {
+            SecurityQuestion question = new SecurityQuestion();
+            question.setQuestionId(i + 1);
+            question.setQuestionText(QUESTIONS.get(i));
+            questions.add(question);
+        }
+
+        return questions;
+    }
+
+    @Override
+    public boolean saveAnswer(UserSecurityAnswer answer) {
+        long key = Rows.pair(answer.getUserId(), answer.getQuestionId());
+
+        return table.write(() -> {
+            UserSecurityAnswer row = table.answers.get(key);
+
+            if (row != null) {
+                row.setAnswerHash(answer.getAnswerHash());
+                return true;
+            }
+
+            row = Rows.answer(answer);
+            row.setAnswerId(++table.lastAnswerId);
+            row.setCreatedAt(LocalDateTime.now());
+            table.answers.put(key, row);
+
+            answer.setAnswerId(row.getAnswerId());
+            return true;
+        });
+    }
+
+    @Override
+    public UserSecurityAnswer findAnswer(int userId, int questionId) {
+        return table.read(() -> {
+            UserSecurityAnswer row = table.answers.get(Rows.pair(userId, questionId));
+            return row != null ? Rows.answer(row) : null;
+        });
+    }
+}
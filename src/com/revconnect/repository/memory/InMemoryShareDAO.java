@@ -0,0 +1,67 @@
+package com.revconnect.repository.memory;
+
+import com.revconnect.dao.ShareDAO;
+import com.revconnect.exception.DatabaseException;
+import com.revconnect.model.Share;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class InMemoryShareDAO implements ShareDAO {
+
+    private final PostTable table;
+
+    public InMemoryShareDAO(InMemoryStore store) {
+        this.table = store.posts;
+    }
+
+    @Override
+    public boolean sharePost(int postId, int userId) {
+        return table.write(() -> {
+            if (table.posts.get(postId) == null) {
+                throw new DatabaseException("Failed to share post: post " + postId + " does not exist");
+            }
+
+            Share share = new Share();
+            share.setShareId(++table.lastShareId);
+            share.setPostId(postId);
+            share.setUserId(userId);
+            share.setCreatedAt(LocalDateTime.now());
+
+            List<Share> shares = table.sharesByPost.get(postId);
+            if (shares == null) {
+                shares = new ArrayList<>();
+                table.sharesByPost.put(postId, shares);
+            }
+            shares.add(share);
+
+            table.recordEngagement(postId, 0, 0, 1, 0);
+            return true;
+        });
+    }
+
+    @Override
+    public int getShareCount(int postId) {
+        return table.read(() -> {
+            List<Share> shares = table.sharesByPost.get(postId);
+            return shares != null ? shares.size() : 0;
+        });
+    }
+
+    // Shares are appended in created_at order, so newest first is a reverse walk
+    @Override
+    public List<Share> findByPostId(int postId) {
+        return table.read(() -> {
+            List<Share> shares = table.sharesByPost.get(postId);
+            List<Share> newestFirst = new ArrayList<>(shares != null ? shares.size() : 0);
+
+            if (shares != null) {
+                for (int i = shares.size() - 1; i >= 0; i--) {
+                    newestFirst.add(Rows.share(shares.get(i)));
+                }
+            }
+            return newestFirst;
+        });
+    }
+}
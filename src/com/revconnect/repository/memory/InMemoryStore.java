@@ -0,0 +1,24 @@
+package com.revconnect.repository.memory;
+
+/**
+ * Embedded replacement for the MySQL schema, used by the in-memory DAOs.
+ *
+ * Each DAO is a thin view over one store; DAOs created over the same
+ * store see each other's writes, just as the MySQL repositories share
+ * one database. Rows are indexed by primitive int keys and kept in the
+ * orders the SQL queries read them in, so every DAO call is a hash probe
+ * or an ordered scan of the rows it returns.
+ *
+ * Writes are applied immediately and are not transactional:
+ * UnitOfWork.inTransaction() still defers afterCommit() tasks, but a
+ * rollback does not undo what the DAOs already stored. Unique keys and
+ * the post foreign keys are enforced; foreign keys to users are not.
+ */
+public final class InMemoryStore {
+
+    final UserTable users = new UserTable();
+    final GraphTable graph = new GraphTable();
+    final PostTable posts = new PostTable();
+    final MessageTable messages = new MessageTable();
+    final NotificationTable notifications = new NotificationTable();
+}
@@ -0,0 +1,168 @@
+package com.revconnect.repository.memory;
+
+import com.revconnect.configuration.AppConfig;
+import com.revconnect.dao.TimelineDAO;
+import com.revconnect.model.Post;
+import com.revconnect.util.IntObjectHashMap;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * The home timelines over PostTable, with the same fan-out-on-write and
+ * high-fan-out rules as TimelineRepository. The audience is read from
+ * the graph before the post lock is taken.
+ */
+public class InMemoryTimelineDAO implements TimelineDAO {
+
+    private final PostTable table;
+    private final GraphTable graph;
+
+    public InMemoryTimelineDAO(InMemoryStore store) {
+        this.table = store.posts;
+        this.graph = store.graph;
+    }
+
+    @Override
+    public boolean fanOutPost(Post post) {
+        int authorId = post.getUserId();
+        LocalDateTime createdAt =
+                post.getCreatedAt() != null ? post.getCreatedAt() : LocalDateTime.now();
+
+        int[] audience = graph.audience(authorId).toSortedArray();
+        boolean highFanout = audience.length > AppConfig.TIMELINE_FANOUT_THRESHOLD;
+
+        return table.write(() -> {
+            if (highFanout) {
+                // Followers pick this post up at read time; only the author's own timeline is written
+                table.highFanoutAuthors.add(authorId);
+            } else {
+                for (int userId : audience) {
+                    table.addToTimeline(userId, post.getPostId(), createdAt);
+                }
+            }
+
+            table.addToTimeline(authorId, post.getPostId(), createdAt);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean removePost(int postId) {
+        return table.write(() -> {
+            IntObjectHashMap<LocalDateTime> readers = table.timelineReaders.get(postId);
+            if (readers == null) {
+                return false;
+            }
+
+            List<Integer> userIds = new ArrayList<>(readers.size());
+            readers.forEach((userId, createdAt) -> userIds.add(userId));
+            for (int userId : userIds) {
+                table.removeFromTimeline(userId, postId);
+            }
+            return true;
+        });
+    }
+
+    @Override
+    public boolean backfillAuthor(int userId, int authorId) {
+        return table.write(() -> {
+            TreeSet<TimeKey> authored = table.postsByAuthor.get(authorId);
+            boolean inserted = false;
+
+            if (authored != null) {
+                int added = 0;
+                for (TimeKey key : authored.descendingSet()) {
+                    if (added++ >= AppConfig.TIMELINE_BACKFILL_LIMIT) {
+                        break;
+                    }
+                    inserted |= table.addToTimeline(userId, key.id, key.time);
+                }
+            }
+            return inserted;
+        });
+    }
+
+    // Keep the author's posts while any other follow or connection still links the two users
+    @Override
+    public boolean pruneAuthor(int userId, int authorId) {
+        if (graph.linked(userId, authorId)) {
+            return false;
+        }
+
+        return table.write(() -> {
+            TreeSet<TimeKey> timeline = table.timelines.get(userId);
+            if (timeline == null) {
+                return false;
+            }
+
+            List<Integer> postIds = new ArrayList<>();
+            for (TimeKey key : timeline) {
+                Post post = table.posts.get(key.id);
+                if (post != null && post.getUserId() == authorId) {
+                    postIds.add(key.id);
+                }
+            }
+
+            for (int postId : postIds) {
+                table.removeFromTimeline(userId, postId);
+            }
+            return !postIds.isEmpty();
+        });
+    }
+
+    @Override
+    public boolean rebuildTimeline(int userId) {
+        int[] authors = graph.feedAuthors(userId).toSortedArray();
+
+        return table.write(() -> {
+            // ORDER BY p.created_at DESC LIMIT FEED_SIZE across every author's posts
+            TreeSet<TimeKey> newest = new TreeSet<>();
+            for (int authorId : authors) {
+                TreeSet<TimeKey> authored = table.postsByAuthor.get(authorId);
+                if (authored == null) {
+                    continue;
+                }
+                for (TimeKey key : authored.descendingSet()) {
+                    if (newest.size() >= AppConfig.FEED_SIZE && key.compareTo(newest.first()) <= 0) {
+                        break;
+                    }
+                    newest.add(key);
+                    if (newest.size() > AppConfig.FEED_SIZE) {
+                        newest.pollFirst();
+                    }
+                }
+            }
+
+            boolean inserted = false;
+            for (TimeKey key : newest) {
+                inserted |= table.addToTimeline(userId, key.id, key.time);
+            }
+            return inserted;
+        });
+    }
+
+    // The store starts empty and every timeline is written by fan-out from the first post
+    @Override
+    public boolean ensureMaterialized(int userId) {
+        return false;
+    }
+
+    @Override
+    public List<Integer> findAudience(int authorId, int afterUserId, int limit) {
+        int[] audience = graph.audience(authorId).toSortedArray();
+
+        List<Integer> userIds = new ArrayList<>(Math.min(limit, audience.length));
+        for (int userId : audience) {
+            if (userIds.size() >= limit) {
+                break;
+            }
+            if (userId > afterUserId) {
+                userIds.add(userId);
+            }
+        }
+        return userIds;
+    }
+}
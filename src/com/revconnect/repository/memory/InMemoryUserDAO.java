@@ -0,0 +1,135 @@
+package com.revconnect.repository.memory;
+
+import com.revconnect.dao.UserDAO;
+import com.revconnect.exception.DatabaseException;
+import com.revconnect.model.Profile;
+import com.revconnect.model.User;
+import com.revconnect.util.ValidationUtil;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class InMemoryUserDAO implements UserDAO {
+
+    private static final int SEARCH_LIMIT = 50;
+
+    private final UserTable table;
+
+    public InMemoryUserDAO(InMemoryStore store) {
+        this.table = store.users;
+    }
+
+    @Override
+    public boolean registerUser(User user) {
+        if (!ValidationUtil.isValidEmail(user.getEmail())) {
+            throw new DatabaseException("Invalid email format");
+        }
+        if (!ValidationUtil.isValidUsername(user.getUsername())) {
+            throw new DatabaseException("Invalid username format");
+        }
+
+        String email = UserTable.key(user.getEmail());
+        String username = UserTable.key(user.getUsername());
+
+        return table.write(() -> {
+            if (table.idsByEmail.containsKey(email)) {
+                throw new DatabaseException("Failed to register user: Duplicate entry '" +
+                        email + "' for key 'uk_users_email'");
+            }
+            if (table.idsByUsername.containsKey(username)) {
+                throw new DatabaseException("Failed to register user: Duplicate entry '" +
+                        user.getUsername() + "' for key 'uk_users_username'");
+            }
+
+            User row = Rows.user(user);
+            row.setUserId(++table.lastUserId);
+            row.setEmail(email);
+            row.setCreatedAt(LocalDateTime.now());
+            row.setUpdatedAt(null);
+
+            table.users.put(row.getUserId(), row);
+            table.idsByEmail.put(email, row.getUserId());
+            table.idsByUsername.put(username, row.getUserId());
+
+            user.setUserId(row.getUserId());
+            return true;
+        });
+    }
+
+    @Override
+    public User findByEmail(String email) {
+        return table.read(() -> find(table.idsByEmail.get(UserTable.key(email))));
+    }
+
+    @Override
+    public User findByUsername(String username) {
+        return table.read(() -> find(table.idsByUsername.get(UserTable.key(username))));
+    }
+
+    @Override
+    public User findById(int userId) {
+        return table.read(() -> find(userId));
+    }
+
+    @Override
+    public boolean updatePassword(int userId, String newPasswordHash) {
+        return table.write(() -> {
+            User row = table.users.get(userId);
+            if (row == null) {
+                return false;
+            }
+            row.setPassword(newPasswordHash);
+            row.setUpdatedAt(LocalDateTime.now());
+            return true;
+        });
+    }
+
+    /*
+     * Substring match on username or profile name, ignoring case like
+     * LIKE does, walking users in primary key order.
+     */
+    @Override
+    public List<User> searchUsers(String keyword) {
+        String needle = keyword.toLowerCase();
+
+        return table.read(() -> {
+            List<User> users = new ArrayList<>();
+
+            for (int userId = 1; userId <= table.lastUserId && users.size() < SEARCH_LIMIT; userId++) {
+                User row = table.users.get(userId);
+                if (row == null) {
+                    continue;
+                }
+
+                Profile profile = table.profilesByUser.get(userId);
+                String name = profile != null ? profile.getName() : null;
+
+                if (row.getUsername().toLowerCase().contains(needle)
+                        || (name != null && name.toLowerCase().contains(needle))) {
+                    users.add(Rows.user(row));
+                }
+            }
+
+            return users;
+        });
+    }
+
+    @Override
+    public boolean updatePrivacy(int userId, boolean isPrivate) {
+        return table.write(() -> {
+            User row = table.users.get(userId);
+            if (row == null) {
+                return false;
+            }
+            row.setPrivate(isPrivate);
+            row.setUpdatedAt(LocalDateTime.now());
+            return true;
+        });
+    }
+
+    private User find(Integer userId) {
+        User row = userId != null ? table.users.get(userId) : null;
+        return row != null ? Rows.user(row) : null;
+    }
+}
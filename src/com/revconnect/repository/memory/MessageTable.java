@@ -0,0 +1,72 @@
+package com.revconnect.repository.memory;
+
+import com.revconnect.model.Conversation;
+import com.revconnect.model.Message;
+import com.revconnect.util.IntObjectHashMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * messages, grouped into one time-ordered thread per pair of users, and
+ * the per-user conversation summaries that back the inbox.
+ */
+final class MessageTable extends Table {
+
+    final IntObjectHashMap<Message> messages = new IntObjectHashMap<>();
+    // Keyed by Rows.pair(lower user id, higher user id)
+    final Map<Long, TreeSet<TimeKey>> threads = new HashMap<>();
+
+    // Keyed by Rows.pair(user_id, other_user_id), the primary key of conversations
+    final Map<Long, Conversation> conversations = new HashMap<>();
+    // Per user: (last_activity_at, other_user_id) of each conversation
+    final IntObjectHashMap<TreeSet<TimeKey>> inboxes = new IntObjectHashMap<>();
+
+    final IntObjectHashMap<int[]> unread = new IntObjectHashMap<>();
+
+    int lastMessageId;
+
+    static long thread(int userId, int otherUserId) {
+        return Rows.pair(Math.min(userId, otherUserId), Math.max(userId, otherUserId));
+    }
+
+    // The methods below expect the caller to hold the write lock
+
+    void adjustUnread(int userId, int delta) {
+        int[] count = unread.get(userId);
+        if (count == null) {
+            count = new int[1];
+            unread.put(userId, count);
+        }
+        count[0] = Math.max(0, count[0] + delta);
+    }
+
+    void putConversation(Conversation conversation) {
+        Conversation previous = conversations.put(
+                Rows.pair(conversation.getUserId(), conversation.getOtherUserId()), conversation);
+
+        TreeSet<TimeKey> inbox = inboxes.get(conversation.getUserId());
+        if (inbox == null) {
+            inbox = new TreeSet<>();
+            inboxes.put(conversation.getUserId(), inbox);
+        }
+        if (previous != null) {
+            inbox.remove(new TimeKey(previous.getLastActivityAt(), previous.getOtherUserId()));
+        }
+        inbox.add(new TimeKey(conversation.getLastActivityAt(), conversation.getOtherUserId()));
+    }
+
+    void removeConversation(int userId, int otherUserId) {
+        Conversation removed = conversations.remove(Rows.pair(userId, otherUserId));
+        if (removed == null) {
+            return;
+        }
+
+        TreeSet<TimeKey> inbox = inboxes.get(userId);
+        if (inbox != null && inbox.remove(new TimeKey(removed.getLastActivityAt(), otherUserId))
+                && inbox.isEmpty()) {
+            inboxes.remove(userId);
+        }
+    }
+}
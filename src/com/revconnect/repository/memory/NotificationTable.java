@@ -0,0 +1,77 @@
+package com.revconnect.repository.memory;
+
+import com.revconnect.model.Notification;
+import com.revconnect.model.NotificationFanOutJob;
+import com.revconnect.util.IntObjectHashMap;
+
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * notifications with their read watermarks and unread counts, the
+ * notification preferences and the new-post fan-out jobs.
+ */
+final class NotificationTable extends Table {
+
+    // In id order, because the purger walks them by primary key
+    final TreeMap<Integer, Notification> notifications = new TreeMap<>();
+    // Per user: (created_at, notification_id)
+    final IntObjectHashMap<TreeSet<TimeKey>> byUser = new IntObjectHashMap<>();
+
+    final IntObjectHashMap<int[]> readWatermarks = new IntObjectHashMap<>();
+    final IntObjectHashMap<int[]> unread = new IntObjectHashMap<>();
+
+    final IntObjectHashMap<Integer> preferenceMasks = new IntObjectHashMap<>();
+    final IntObjectHashMap<NotificationFanOutJob> fanOutJobs = new IntObjectHashMap<>();
+
+    int lastNotificationId;
+
+    // The methods below expect the caller to hold the lock
+
+    // Read if flagged individually or covered by the user's mark-all watermark
+    boolean isRead(Notification notification) {
+        int[] watermark = readWatermarks.get(notification.getUserId());
+        return notification.isRead()
+                || (watermark != null && notification.getNotificationId() <= watermark[0]);
+    }
+
+    Notification insert(Notification row) {
+        row.setNotificationId(++lastNotificationId);
+        notifications.put(row.getNotificationId(), row);
+
+        TreeSet<TimeKey> own = byUser.get(row.getUserId());
+        if (own == null) {
+            own = new TreeSet<>();
+            byUser.put(row.getUserId(), own);
+        }
+        own.add(new TimeKey(row.getCreatedAt(), row.getNotificationId()));
+
+        if (!row.isRead()) {
+            adjustUnread(row.getUserId(), 1);
+        }
+        return row;
+    }
+
+    void delete(Notification row) {
+        if (!isRead(row)) {
+            adjustUnread(row.getUserId(), -1);
+        }
+
+        notifications.remove(row.getNotificationId());
+
+        TreeSet<TimeKey> own = byUser.get(row.getUserId());
+        if (own != null && own.remove(new TimeKey(row.getCreatedAt(), row.getNotificationId()))
+                && own.isEmpty()) {
+            byUser.remove(row.getUserId());
+        }
+    }
+
+    void adjustUnread(int userId, int delta) {
+        int[] count = unread.get(userId);
+        if (count == null) {
+            count = new int[1];
+            unread.put(userId, count);
+        }
+        count[0] = Math.max(0, count[0] + delta);
+    }
+}
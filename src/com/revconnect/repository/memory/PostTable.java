@@ -0,0 +1,197 @@
+package com.revconnect.repository.memory;
+
+import com.revconnect.model.Comment;
+import com.revconnect.model.Post;
+import com.revconnect.model.Share;
+import com.revconnect.util.HashtagUtil;
+import com.revconnect.util.HyperLogLog;
+import com.revconnect.util.IntHashSet;
+import com.revconnect.util.IntObjectHashMap;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Posts and everything keyed by post: hashtags, schedule, likes,
+ * comments, shares, analytics, the account dashboards and the home
+ * timelines.
+ *
+ * Analytics are applied as the engagement happens rather than through
+ * the write-behind buffers, so reads see them at once. Unique viewers
+ * are still a HyperLogLog estimate, and hourly buckets are never
+ * compacted into daily ones.
+ */
+final class PostTable extends Table {
+
+    // Per-post hourly buckets and per-day follower changes
+    static final int LIKES = 0;
+    static final int COMMENTS = 1;
+    static final int SHARES = 2;
+    static final int VIEWS = 3;
+    static final int GAINED = 0;
+    static final int LOST = 1;
+
+    final IntObjectHashMap<Post> posts = new IntObjectHashMap<>();
+    final IntObjectHashMap<TreeSet<TimeKey>> postsByAuthor = new IntObjectHashMap<>();
+    final Map<String, TreeSet<TimeKey>> postsByTag = new HashMap<>();
+
+    // Scheduled posts not yet published, by id and in (scheduled_for, post_id) order
+    final IntObjectHashMap<LocalDateTime> unpublished = new IntObjectHashMap<>();
+    final TreeSet<TimeKey> publishQueue = new TreeSet<>();
+
+    final IntObjectHashMap<IntHashSet> likes = new IntObjectHashMap<>();
+    final IntObjectHashMap<Comment> comments = new IntObjectHashMap<>();
+    final IntObjectHashMap<TreeSet<TimeKey>> commentsByPost = new IntObjectHashMap<>();
+    final IntObjectHashMap<List<Share>> sharesByPost = new IntObjectHashMap<>();
+
+    final IntObjectHashMap<PostStats> stats = new IntObjectHashMap<>();
+    final IntObjectHashMap<AccountStats> accounts = new IntObjectHashMap<>();
+
+    final IntObjectHashMap<TreeSet<TimeKey>> timelines = new IntObjectHashMap<>();
+    // Reverse index of timelines: post -> user whose timeline holds it -> entry time
+    final IntObjectHashMap<IntObjectHashMap<LocalDateTime>> timelineReaders =
+            new IntObjectHashMap<>();
+    final IntHashSet highFanoutAuthors = new IntHashSet();
+
+    int lastPostId;
+    int lastCommentId;
+    int lastShareId;
+    int lastAnalyticsId;
+
+    static final class PostStats {
+
+        final int analyticsId;
+        int likes;
+        int comments;
+        int shares;
+        final HyperLogLog viewers = new HyperLogLog();
+        LocalDateTime lastUpdated = LocalDateTime.now();
+        final TreeMap<LocalDateTime, int[]> hourly = new TreeMap<>();
+
+        PostStats(int analyticsId) {
+            this.analyticsId = analyticsId;
+        }
+
+        int engagement() {
+            return likes + comments + shares;
+        }
+    }
+
+    static final class AccountStats {
+
+        int posts;
+        int likes;
+        int comments;
+        int shares;
+        int views;
+        int followers;
+        LocalDateTime lastUpdated = LocalDateTime.now();
+        final TreeMap<LocalDate, int[]> followerDays = new TreeMap<>();
+    }
+
+    // The methods below expect the caller to hold the write lock
+
+    AccountStats account(int userId) {
+        AccountStats account = accounts.get(userId);
+        if (account == null) {
+            account = new AccountStats();
+            accounts.put(userId, account);
+        }
+        return account;
+    }
+
+    void recordEngagement(int postId, int likeDelta, int commentDelta, int shareDelta, int views) {
+        Post post = posts.get(postId);
+        PostStats postStats = stats.get(postId);
+        if (post == null || postStats == null) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+
+        postStats.likes += likeDelta;
+        postStats.comments += commentDelta;
+        postStats.shares += shareDelta;
+        postStats.lastUpdated = now;
+
+        int[] bucket = postStats.hourly.computeIfAbsent(
+                now.truncatedTo(ChronoUnit.HOURS), hour -> new int[4]);
+        bucket[LIKES] += likeDelta;
+        bucket[COMMENTS] += commentDelta;
+        bucket[SHARES] += shareDelta;
+        bucket[VIEWS] += views;
+
+        AccountStats account = account(post.getUserId());
+        account.likes += likeDelta;
+        account.comments += commentDelta;
+        account.shares += shareDelta;
+        account.views += views;
+        account.lastUpdated = now;
+    }
+
+    void indexHashtags(Post post) {
+        TimeKey key = new TimeKey(post.getCreatedAt(), post.getPostId());
+        for (String tag : HashtagUtil.parse(post.getHashtags())) {
+            postsByTag.computeIfAbsent(tag, t -> new TreeSet<>()).add(key);
+        }
+    }
+
+    void unindexHashtags(Post post) {
+        TimeKey key = new TimeKey(post.getCreatedAt(), post.getPostId());
+        for (String tag : HashtagUtil.parse(post.getHashtags())) {
+            TreeSet<TimeKey> tagged = postsByTag.get(tag);
+            if (tagged != null && tagged.remove(key) && tagged.isEmpty()) {
+                postsByTag.remove(tag);
+            }
+        }
+    }
+
+    boolean isPublished(int postId) {
+        return unpublished.get(postId) == null;
+    }
+
+    // INSERT IGNORE into home_timeline: (user_id, post_id) is the key
+    boolean addToTimeline(int userId, int postId, LocalDateTime createdAt) {
+        IntObjectHashMap<LocalDateTime> readers = timelineReaders.get(postId);
+        if (readers == null) {
+            readers = new IntObjectHashMap<>();
+            timelineReaders.put(postId, readers);
+        }
+        if (readers.get(userId) != null) {
+            return false;
+        }
+        readers.put(userId, createdAt);
+
+        TreeSet<TimeKey> timeline = timelines.get(userId);
+        if (timeline == null) {
+            timeline = new TreeSet<>();
+            timelines.put(userId, timeline);
+        }
+        timeline.add(new TimeKey(createdAt, postId));
+        return true;
+    }
+
+    boolean removeFromTimeline(int userId, int postId) {
+        IntObjectHashMap<LocalDateTime> readers = timelineReaders.get(postId);
+        LocalDateTime createdAt = readers != null ? readers.remove(userId) : null;
+        if (createdAt == null) {
+            return false;
+        }
+        if (readers.size() == 0) {
+            timelineReaders.remove(postId);
+        }
+
+        TreeSet<TimeKey> timeline = timelines.get(userId);
+        if (timeline != null && timeline.remove(new TimeKey(createdAt, postId))
+                && timeline.isEmpty()) {
+            timelines.remove(userId);
+        }
+        return true;
+    }
+}
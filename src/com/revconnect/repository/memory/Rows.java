@@ -0,0 +1,165 @@
+package com.revconnect.repository.memory;
+
+import com.revconnect.model.Comment;
+import com.revconnect.model.ConnectionRequest;
+import com.revconnect.model.Conversation;
+import com.revconnect.model.Message;
+import com.revconnect.model.Notification;
+import com.revconnect.model.Post;
+import com.revconnect.model.Profile;
+import com.revconnect.model.Share;
+import com.revconnect.model.User;
+import com.revconnect.model.UserSecurityAnswer;
+
+import java.util.ArrayList;
+
+/**
+ * Copies between stored rows and the models handed to callers. The
+ * tables never share an object with a caller, so mutating a returned
+ * model or one passed in after the call has no effect on stored state,
+ * as with rows read from the database. Each copy carries the columns the
+ * matching MySQL repository maps, no more.
+ */
+final class Rows {
+
+    private Rows() {
+    }
+
+    static User user(User row) {
+        User user = summary(row);
+        user.setPassword(row.getPassword());
+        user.setPasswordHint(row.getPasswordHint());
+        user.setUpdatedAt(row.getUpdatedAt());
+        return user;
+    }
+
+    // The columns the follower, connection and block lists select
+    static User summary(User row) {
+        User user = new User();
+        user.setUserId(row.getUserId());
+        user.setEmail(row.getEmail());
+        user.setUsername(row.getUsername());
+        user.setUserType(row.getUserType());
+        user.setPrivate(row.isPrivate());
+        user.setCreatedAt(row.getCreatedAt());
+        return user;
+    }
+
+    static Profile profile(Profile row) {
+        Profile profile = new Profile();
+        profile.setProfileId(row.getProfileId());
+        profile.setUserId(row.getUserId());
+        profile.setName(row.getName());
+        profile.setBio(row.getBio());
+        profile.setProfilePicPath(row.getProfilePicPath());
+        profile.setLocation(row.getLocation());
+        profile.setWebsite(row.getWebsite());
+        profile.setCategory(row.getCategory());
+        profile.setBusinessAddress(row.getBusinessAddress());
+        profile.setContactInfo(row.getContactInfo());
+        profile.setBusinessHours(row.getBusinessHours());
+        profile.setCreatedAt(row.getCreatedAt());
+        profile.setUpdatedAt(row.getUpdatedAt());
+        return profile;
+    }
+
+    static UserSecurityAnswer answer(UserSecurityAnswer row) {
+        UserSecurityAnswer answer = new UserSecurityAnswer();
+        answer.setAnswerId(row.getAnswerId());
+        answer.setUserId(row.getUserId());
+        answer.setQuestionId(row.getQuestionId());
+        answer.setAnswerHash(row.getAnswerHash());
+        answer.setCreatedAt(row.getCreatedAt());
+        return answer;
+    }
+
+    static Post post(Post row) {
+        Post post = new Post();
+        post.setPostId(row.getPostId());
+        post.setUserId(row.getUserId());
+        post.setContent(row.getContent());
+        post.setHashtags(row.getHashtags());
+        post.setPromotional(row.isPromotional());
+        post.setPinned(row.isPinned());
+        post.setPinOrder(row.getPinOrder());
+        post.setCreatedAt(row.getCreatedAt());
+        post.setUpdatedAt(row.getUpdatedAt());
+        return post;
+    }
+
+    static Comment comment(Comment row) {
+        Comment comment = new Comment();
+        comment.setCommentId(row.getCommentId());
+        comment.setPostId(row.getPostId());
+        comment.setUserId(row.getUserId());
+        comment.setCommentText(row.getCommentText());
+        comment.setCreatedAt(row.getCreatedAt());
+        return comment;
+    }
+
+    static Share share(Share row) {
+        Share share = new Share();
+        share.setShareId(row.getShareId());
+        share.setPostId(row.getPostId());
+        share.setUserId(row.getUserId());
+        share.setCreatedAt(row.getCreatedAt());
+        return share;
+    }
+
+    static ConnectionRequest request(ConnectionRequest row) {
+        ConnectionRequest request = new ConnectionRequest();
+        request.setRequestId(row.getRequestId());
+        request.setSenderId(row.getSenderId());
+        request.setReceiverId(row.getReceiverId());
+        request.setStatus(row.getStatus());
+        request.setCreatedAt(row.getCreatedAt());
+        request.setUpdatedAt(row.getUpdatedAt());
+        return request;
+    }
+
+    static Message message(Message row) {
+        Message message = new Message();
+        message.setMessageId(row.getMessageId());
+        message.setSenderId(row.getSenderId());
+        message.setReceiverId(row.getReceiverId());
+        message.setMessageText(row.getMessageText());
+        message.setRead(row.isRead());
+        message.setCreatedAt(row.getCreatedAt());
+        return message;
+    }
+
+    static Conversation conversation(Conversation row) {
+        Conversation conversation = new Conversation();
+        conversation.setUserId(row.getUserId());
+        conversation.setOtherUserId(row.getOtherUserId());
+        conversation.setLastMessageId(row.getLastMessageId());
+        conversation.setLastSenderId(row.getLastSenderId());
+        conversation.setLastMessageText(row.getLastMessageText());
+        conversation.setLastActivityAt(row.getLastActivityAt());
+        conversation.setMessageCount(row.getMessageCount());
+        conversation.setUnreadCount(row.getUnreadCount());
+        conversation.setLastReadMessageId(row.getLastReadMessageId());
+        return conversation;
+    }
+
+    static Notification notification(Notification row) {
+        Notification notification = new Notification();
+        notification.setNotificationId(row.getNotificationId());
+        notification.setUserId(row.getUserId());
+        notification.setType(row.getType());
+        notification.setMessage(row.getMessage());
+        notification.setRead(row.isRead());
+        notification.setRelatedUserId(row.getRelatedUserId());
+        notification.setRelatedPostId(row.getRelatedPostId());
+        notification.setCreatedAt(row.getCreatedAt());
+        notification.setActorCount(Math.max(1, row.getActorCount()));
+        notification.setSampleActorIds(row.getSampleActorIds() != null
+                ? new ArrayList<>(row.getSampleActorIds())
+                : new ArrayList<>());
+        return notification;
+    }
+
+    static long pair(int first, int second) {
+        return ((long) first << 32) | (second & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,37 @@
+package com.revconnect.repository.memory;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * One group of in-memory tables guarded by a single read/write lock.
+ *
+ * A DAO call holds the lock of the table it works on for its whole
+ * duration, so each call is atomic the way a single statement is. The
+ * user table is the only lock a call may take while holding another one,
+ * and nothing is locked inside it, so locks cannot be taken in opposite
+ * orders.
+ */
+abstract class Table {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    <T> T write(Supplier<T> change) {
+        lock.writeLock().lock();
+        try {
+            return change.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.revconnect.repository.memory;
+
+import com.revconnect.model.Page;
+import com.revconnect.util.PageToken;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.function.Function;
+
+/**
+ * (time, id) key of the time-ordered indexes. Keys sort by time and then
+ * by id, like the (created_at, id) indexes the SQL queries seek on, so a
+ * PageToken cursor maps straight onto a tailSet of the index.
+ */
+final class TimeKey implements Comparable<TimeKey> {
+
+    final LocalDateTime time;
+    final int id;
+
+    TimeKey(LocalDateTime time, int id) {
+        this.time = time;
+        this.id = id;
+    }
+
+    /*
+     * The keys after the cursor in the order of the given view: pass the
+     * index for oldest-first pages and its descendingSet() for
+     * newest-first ones.
+     */
+    static NavigableSet<TimeKey> after(NavigableSet<TimeKey> ordered, PageToken cursor) {
+        if (cursor == null) {
+            return ordered;
+        }
+        return ordered.tailSet(new TimeKey(cursor.getCreatedAt(), cursor.getId()), false);
+    }
+
+    // items holds up to pageSize + 1 rows; the extra row only signals another page
+    static <T> Page<T> toPage(List<T> items, int pageSize, Function<T, PageToken> tokenOf) {
+        String nextPageToken = null;
+
+        if (items.size() > pageSize) {
+            items.remove(pageSize);
+            nextPageToken = tokenOf.apply(items.get(pageSize - 1)).encode();
+        }
+
+        return new Page<>(items, nextPageToken);
+    }
+
+    @Override
+    public int compareTo(TimeKey other) {
+        int byTime = time.compareTo(other.time);
+        return byTime != 0 ? byTime : Integer.compare(id, other.id);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof TimeKey)) {
+            return false;
+        }
+        TimeKey key = (TimeKey) other;
+        return id == key.id && time.equals(key.time);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * time.hashCode() + id;
+    }
+}
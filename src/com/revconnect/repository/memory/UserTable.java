@@ -0,0 +1,87 @@
+package com.revconnect.repository.memory;
+
+import com.revconnect.model.Profile;
+import com.revconnect.model.User;
+import com.revconnect.model.UserSecurityAnswer;
+import com.revconnect.util.IntObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * users, profiles and user_security_answers.
+ *
+ * Email and username lookups are case-insensitive, as they are under the
+ * MySQL column collation. Other tables read user rows through the lookup
+ * methods below, which take this table's read lock themselves.
+ */
+final class UserTable extends Table {
+
+    final IntObjectHashMap<User> users = new IntObjectHashMap<>();
+    final Map<String, Integer> idsByEmail = new HashMap<>();
+    final Map<String, Integer> idsByUsername = new HashMap<>();
+
+    final IntObjectHashMap<Profile> profilesByUser = new IntObjectHashMap<>();
+    final IntObjectHashMap<Profile> profilesById = new IntObjectHashMap<>();
+
+    // Keyed by Rows.pair(user_id, question_id)
+    final Map<Long, UserSecurityAnswer> answers = new HashMap<>();
+
+    int lastUserId;
+    int lastProfileId;
+    int lastAnswerId;
+
+    static String key(String emailOrUsername) {
+        return emailOrUsername.toLowerCase();
+    }
+
+    // Users in the given order, as the list queries select them; unknown ids are skipped
+    List<User> summaries(Collection<Integer> userIds) {
+        return read(() -> {
+            List<User> found = new ArrayList<>(userIds.size());
+            for (int userId : userIds) {
+                User user = users.get(userId);
+                if (user != null) {
+                    found.add(Rows.summary(user));
+                }
+            }
+            return found;
+        });
+    }
+
+    String username(int userId) {
+        return read(() -> {
+            User user = users.get(userId);
+            return user != null ? user.getUsername() : null;
+        });
+    }
+
+    String userType(int userId) {
+        return read(() -> {
+            User user = users.get(userId);
+            return user != null ? user.getUserType() : null;
+        });
+    }
+
+    String profileName(int userId) {
+        return read(() -> {
+            Profile profile = profilesByUser.get(userId);
+            return profile != null ? profile.getName() : null;
+        });
+    }
+
+    List<Integer> userIds() {
+        return read(() -> {
+            List<Integer> userIds = new ArrayList<>(users.size());
+            for (int userId = 1; userId <= lastUserId; userId++) {
+                if (users.get(userId) != null) {
+                    userIds.add(userId);
+                }
+            }
+            return userIds;
+        });
+    }
+}
@@ -0,0 +1,129 @@
+package com.revconnect.schema;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Snapshot of the tables, columns and indexes that exist in the connected
+ * database, read from information_schema.
+ */
+class LiveSchema {
+
+    private final Map<String, Set<String>> columns = new HashMap<>();
+    private final Map<String, Map<String, TableDefinition.Index>> indexes = new HashMap<>();
+
+    private LiveSchema() {
+    }
+
+    // table may be null to load every table in the schema
+    static LiveSchema load(Connection conn, String table) throws SQLException {
+        String tableFilter = table != null ? "AND TABLE_NAME = ? " : "";
+
+        String columnsSql =
+                "SELECT TABLE_NAME, COLUMN_NAME FROM information_schema.COLUMNS " +
+                "WHERE TABLE_SCHEMA = DATABASE() " + tableFilter;
+
+        String indexesSql =
+                "SELECT TABLE_NAME, INDEX_NAME, NON_UNIQUE, COLUMN_NAME " +
+                "FROM information_schema.STATISTICS " +
+                "WHERE TABLE_SCHEMA = DATABASE() " + tableFilter +
+                "ORDER BY TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX";
+
+        LiveSchema live = new LiveSchema();
+
+        try (PreparedStatement pstmt = conn.prepareStatement(columnsSql)) {
+            if (table != null) {
+                pstmt.setString(1, table);
+            }
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                live.columns.computeIfAbsent(rs.getString("TABLE_NAME").toLowerCase(),
+                        name -> new HashSet<>()).add(rs.getString("COLUMN_NAME").toLowerCase());
+            }
+        }
+
+        Map<String, Map<String, List<String>>> indexColumns = new HashMap<>();
+        Map<String, Boolean> uniqueByIndex = new HashMap<>();
+
+        try (PreparedStatement pstmt = conn.prepareStatement(indexesSql)) {
+            if (table != null) {
+                pstmt.setString(1, table);
+            }
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                String tableName = rs.getString("TABLE_NAME").toLowerCase();
+                String indexName = rs.getString("INDEX_NAME");
+
+                indexColumns.computeIfAbsent(tableName, name -> new LinkedHashMap<>())
+                        .computeIfAbsent(indexName, name -> new ArrayList<>())
+                        .add(rs.getString("COLUMN_NAME").toLowerCase());
+                uniqueByIndex.put(tableName + "." + indexName, rs.getInt("NON_UNIQUE") == 0);
+            }
+        }
+
+        for (Map.Entry<String, Map<String, List<String>>> tableIndexes : indexColumns.entrySet()) {
+            Map<String, TableDefinition.Index> byName = new LinkedHashMap<>();
+            for (Map.Entry<String, List<String>> index : tableIndexes.getValue().entrySet()) {
+                boolean unique = uniqueByIndex.get(tableIndexes.getKey() + "." + index.getKey());
+                byName.put(index.getKey(),
+                        new TableDefinition.Index(index.getKey(), unique, index.getValue()));
+            }
+            live.indexes.put(tableIndexes.getKey(), byName);
+        }
+
+        return live;
+    }
+
+    boolean hasTable(String table) {
+        return columns.containsKey(table.toLowerCase());
+    }
+
+    boolean hasColumn(String table, String column) {
+        Set<String> tableColumns = columns.get(table.toLowerCase());
+        return tableColumns != null && tableColumns.contains(column.toLowerCase());
+    }
+
+    List<String> primaryKey(String table) {
+        TableDefinition.Index primary = tableIndexes(table).get("PRIMARY");
+        return primary != null ? primary.getColumns() : new ArrayList<>();
+    }
+
+    /*
+     * Matched on columns rather than name, so an equivalent index created
+     * by hand is accepted. A unique index (or the primary key) satisfies a
+     * plain one with the same columns, but not the other way round.
+     */
+    boolean hasIndex(String table, TableDefinition.Index wanted) {
+        for (TableDefinition.Index index : tableIndexes(table).values()) {
+            if (index.getColumns().equals(lowerCase(wanted.getColumns()))
+                    && (index.isUnique() || !wanted.isUnique())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<String, TableDefinition.Index> tableIndexes(String table) {
+        Map<String, TableDefinition.Index> tableIndexes = indexes.get(table.toLowerCase());
+        return tableIndexes != null ? tableIndexes : new HashMap<>();
+    }
+
+    private static List<String> lowerCase(List<String> names) {
+        List<String> lower = new ArrayList<>(names.size());
+        for (String name : names) {
+            lower.add(name.toLowerCase());
+        }
+        return lower;
+    }
+}
@@ -0,0 +1,178 @@
+package com.revconnect.schema;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One numbered schema change. It is a list of steps that are applied in
+ * order and recorded in schema_migrations once they all succeed.
+ *
+ * MySQL commits DDL implicitly, so a migration is not atomic. Every step
+ * is written so that a migration interrupted halfway can simply run
+ * again: createTable and addIndex first check what already exists.
+ */
+public class Migration {
+
+    interface Step {
+
+        // The text the checksum is computed over
+        String describe();
+
+        void apply(Connection conn) throws SQLException;
+
+        // Folds this step into the expected end-state schema
+        default void expect(Map<String, TableDefinition> schema) {
+        }
+    }
+
+    private final int version;
+    private final String description;
+    private final List<Step> steps = new ArrayList<>();
+
+    private Migration(int version, String description) {
+        this.version = version;
+        this.description = description;
+    }
+
+    public static Migration version(int version, String description) {
+        return new Migration(version, description);
+    }
+
+    /*
+     * Creates the table when it is missing. When it already exists, for
+     * example in a database set up by hand, missing columns and indexes
+     * are added instead. Foreign keys are only declared on creation.
+     */
+    public Migration createTable(TableDefinition table) {
+        steps.add(new Step() {
+            @Override
+            public String describe() {
+                return table.createSql();
+            }
+
+            @Override
+            public void apply(Connection conn) throws SQLException {
+                LiveSchema live = LiveSchema.load(conn, table.getName());
+
+                if (!live.hasTable(table.getName())) {
+                    execute(conn, table.createSql());
+                    return;
+                }
+
+                for (Map.Entry<String, String> column : table.getColumns().entrySet()) {
+                    if (!live.hasColumn(table.getName(), column.getKey())) {
+                        execute(conn, "ALTER TABLE " + table.getName() + " ADD COLUMN " +
+                                column.getKey() + " " + column.getValue());
+                    }
+                }
+
+                for (TableDefinition.Index index : table.getIndexes()) {
+                    if (!live.hasIndex(table.getName(), index)) {
+                        execute(conn, "ALTER TABLE " + table.getName() + " ADD " + index.keySql());
+                    }
+                }
+            }
+
+            @Override
+            public void expect(Map<String, TableDefinition> schema) {
+                schema.put(table.getName(), table.copy());
+            }
+        });
+        return this;
+    }
+
+    public Migration addIndex(String table, String name, String... columns) {
+        return addIndex(table, new TableDefinition.Index(name, false, Arrays.asList(columns)));
+    }
+
+    public Migration addUnique(String table, String name, String... columns) {
+        return addIndex(table, new TableDefinition.Index(name, true, Arrays.asList(columns)));
+    }
+
+    // Plain SQL, for data fix-ups; it must be safe to run more than once
+    public Migration execute(String sql) {
+        steps.add(new Step() {
+            @Override
+            public String describe() {
+                return sql;
+            }
+
+            @Override
+            public void apply(Connection conn) throws SQLException {
+                execute(conn, sql);
+            }
+        });
+        return this;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    List<Step> getSteps() {
+        return Collections.unmodifiableList(steps);
+    }
+
+    String checksum() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Step step : steps) {
+                digest.update(step.describe().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private Migration addIndex(String table, TableDefinition.Index index) {
+        steps.add(new Step() {
+            @Override
+            public String describe() {
+                return "ALTER TABLE " + table + " ADD " + index.keySql();
+            }
+
+            @Override
+            public void apply(Connection conn) throws SQLException {
+                if (!LiveSchema.load(conn, table).hasIndex(table, index)) {
+                    execute(conn, describe());
+                }
+            }
+
+            @Override
+            public void expect(Map<String, TableDefinition> schema) {
+                TableDefinition definition = schema.get(table);
+                if (definition != null) {
+                    definition.addIndex(index);
+                }
+            }
+        });
+        return this;
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.revconnect.schema;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.revconnect.schema.TableDefinition.table;
+
+/**
+ * Every schema change the application has gone through, oldest first.
+ *
+ * Migrations are forward-only. Once a version has shipped, its steps must
+ * not change, because the checksum recorded in schema_migrations would no
+ * longer match and startup would stop. A change to the schema is a new
+ * Migration appended to the end of ALL.
+ */
+public final class SchemaMigrations {
+
+    private static final String NOW = "DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP";
+    private static final String UPDATED = "DATETIME NULL DEFAULT NULL ON UPDATE CURRENT_TIMESTAMP";
+    private static final String ID = "INT NOT NULL AUTO_INCREMENT";
+    private static final String REF = "INT NOT NULL";
+    private static final String COUNTER = "INT NOT NULL DEFAULT 0";
+    private static final String FLAG_OFF = "BOOLEAN NOT NULL DEFAULT FALSE";
+    private static final String FLAG_ON = "BOOLEAN NOT NULL DEFAULT TRUE";
+
+    private static final Migration BASELINE = Migration.version(1, "Baseline tables")
+            .createTable(table("users")
+                    .column("user_id", ID)
+                    .column("email", "VARCHAR(255) NOT NULL")
+                    .column("username", "VARCHAR(50) NOT NULL")
+                    .column("password", "VARCHAR(255) NOT NULL")
+                    .column("password_hint", "VARCHAR(255) NULL")
+                    .column("user_type", "VARCHAR(20) NOT NULL DEFAULT 'PERSONAL'")
+                    .column("is_private", FLAG_OFF)
+                    .column("created_at", NOW)
+                    .column("updated_at", UPDATED)
+                    .primaryKey("user_id")
+                    .unique("uk_users_email", "email")
+                    .unique("uk_users_username", "username"))
+            .createTable(table("profiles")
+                    .column("profile_id", ID)
+                    .column("user_id", REF)
+                    .column("name", "VARCHAR(100) NULL")
+                    .column("bio", "VARCHAR(500) NULL")
+                    .column("profile_pic_path", "VARCHAR(255) NULL")
+                    .column("location", "VARCHAR(100) NULL")
+                    .column("website", "VARCHAR(255) NULL")
+                    .column("category", "VARCHAR(100) NULL")
+                    .column("business_address", "VARCHAR(255) NULL")
+                    .column("contact_info", "VARCHAR(255) NULL")
+                    .column("business_hours", "VARCHAR(255) NULL")
+                    .column("created_at", NOW)
+                    .column("updated_at", UPDATED)
+                    .primaryKey("profile_id")
+                    .unique("uk_profiles_user", "user_id")
+                    .foreignKey("user_id", "users", "user_id", "CASCADE"))
+            .createTable(table("security_questions")
+                    .column("question_id", ID)
+                    .column("question_text", "VARCHAR(255) NOT NULL")
+                    .primaryKey("question_id"))
+            .createTable(table("user_security_answers")
+                    .column("answer_id", ID)
+                    .column("user_id", REF)
+                    .column("question_id", REF)
+                    .column("answer_hash", "VARCHAR(255) NOT NULL")
+                    .column("created_at", NOW)
+                    .primaryKey("answer_id")
+                    .unique("uk_user_security_answers_user_question", "user_id", "question_id")
+                    .foreignKey("user_id", "users", "user_id", "CASCADE")
+                    .foreignKey("question_id", "security_questions", "question_id", "CASCADE"))
+            .createTable(table("posts")
+                    .column("post_id", ID)
+                    .column("user_id", REF)
+                    .column("content", "TEXT NOT NULL")
+                    .column("hashtags", "VARCHAR(500) NULL")
+                    .column("is_promotional", FLAG_OFF)
+                    .column("is_pinned", FLAG_OFF)
+                    .column("pin_order", COUNTER)
+                    .column("created_at", NOW)
+                    .column("updated_at", UPDATED)
+                    .primaryKey("post_id")
+                    .foreignKey("user_id", "users", "user_id", "CASCADE"))
+            .createTable(table("scheduled_posts")
+                    .column("post_id", REF)
+                    .column("scheduled_for", "DATETIME NOT NULL")
+                    .column("is_published", FLAG_OFF)
+                    .primaryKey("post_id")
+                    .foreignKey("post_id", "posts", "post_id", "CASCADE"))
+            .createTable(table("post_hashtags")
+                    .column("tag", "VARCHAR(100) NOT NULL")
+                    .column("post_id", REF)
+                    .column("created_at", "DATETIME NOT NULL")
+                    .primaryKey("tag", "post_id"))
+            .createTable(table("likes")
+                    .column("like_id", ID)
+                    .column("post_id", REF)
+                    .column("user_id", REF)
+                    .column("created_at", NOW)
+                    .primaryKey("like_id")
+                    .foreignKey("post_id", "posts", "post_id", "CASCADE")
+                    .foreignKey("user_id", "users", "user_id", "CASCADE"))
+            .createTable(table("comments")
+                    .column("comment_id", ID)
+                    .column("post_id", REF)
+                    .column("user_id", REF)
+                    .column("comment_text", "VARCHAR(1000) NOT NULL")
+                    .column("created_at", NOW)
+                    .primaryKey("comment_id")
+                    .foreignKey("post_id", "posts", "post_id", "CASCADE")
+                    .foreignKey("user_id", "users", "user_id", "CASCADE"))
+            .createTable(table("shares")
+                    .column("share_id", ID)
+                    .column("post_id", REF)
+                    .column("user_id", REF)
+                    .column("created_at", NOW)
+                    .primaryKey("share_id")
+                    .foreignKey("post_id", "posts", "post_id", "CASCADE")
+                    .foreignKey("user_id", "users", "user_id", "CASCADE"))
+            .createTable(table("post_analytics")
+                    .column("analytics_id", ID)
+                    .column("post_id", REF)
+                    .column("total_likes", COUNTER)
+                    .column("total_comments", COUNTER)
+                    .column("total_shares", COUNTER)
+                    .column("unique_viewers", COUNTER)
+                    .column("last_updated", NOW)
+                    .primaryKey("analytics_id")
+                    .unique("uk_post_analytics_post", "post_id")
+                    .foreignKey("post_id", "posts", "post_id", "CASCADE"))
+            .createTable(table("post_view_sketches")
+                    .column("post_id", REF)
+                    .column("sketch", "BLOB NOT NULL")
+                    .primaryKey("post_id")
+                    .foreignKey("post_id", "posts", "post_id", "CASCADE"))
+            .createTable(table("post_engagement_buckets")
+                    .column("post_id", REF)
+                    .column("granularity", "VARCHAR(4) NOT NULL")
+                    .column("bucket_start", "DATETIME NOT NULL")
+                    .column("likes", COUNTER)
+                    .column("comments", COUNTER)
+                    .column("shares", COUNTER)
+                    .column("views", COUNTER)
+                    .primaryKey("post_id", "granularity", "bucket_start")
+                    .foreignKey("post_id", "posts", "post_id", "CASCADE"))
+            .createTable(table("follows")
+                    .column("follow_id", ID)
+                    .column("follower_id", REF)
+                    .column("following_id", REF)
+                    .column("created_at", NOW)
+                    .primaryKey("follow_id")
+                    .foreignKey("follower_id", "users", "user_id", "CASCADE")
+                    .foreignKey("following_id", "users", "user_id", "CASCADE"))
+            .createTable(table("connection_requests")
+                    .column("request_id", ID)
+                    .column("sender_id", REF)
+                    .column("receiver_id", REF)
+                    .column("status", "VARCHAR(20) NOT NULL DEFAULT 'PENDING'")
+                    .column("created_at", NOW)
+                    .column("updated_at", UPDATED)
+                    .primaryKey("request_id")
+                    .foreignKey("sender_id", "users", "user_id", "CASCADE")
+                    .foreignKey("receiver_id", "users", "user_id", "CASCADE"))
+            .createTable(table("blocked_users")
+                    .column("block_id", ID)
+                    .column("blocker_id", REF)
+                    .column("blocked_id", REF)
+                    .column("created_at", NOW)
+                    .primaryKey("block_id")
+                    .foreignKey("blocker_id", "users", "user_id", "CASCADE")
+                    .foreignKey("blocked_id", "users", "user_id", "CASCADE"))
+            .createTable(table("messages")
+                    .column("message_id", ID)
+                    .column("sender_id", REF)
+                    .column("receiver_id", REF)
+                    .column("message_text", "VARCHAR(2000) NOT NULL")
+                    .column("is_read", FLAG_OFF)
+                    .column("created_at", NOW)
+                    .primaryKey("message_id")
+                    .foreignKey("sender_id", "users", "user_id", "CASCADE")
+                    .foreignKey("receiver_id", "users", "user_id", "CASCADE"))
+            .createTable(table("conversations")
+                    .column("user_id", REF)
+                    .column("other_user_id", REF)
+                    .column("last_message_id", COUNTER)
+                    .column("last_sender_id", REF)
+                    .column("last_message_text", "VARCHAR(100) NULL")
+                    .column("last_activity_at", "DATETIME NOT NULL")
+                    .column("message_count", COUNTER)
+                    .column("unread_count", COUNTER)
+                    .column("last_read_message_id", COUNTER)
+                    .primaryKey("user_id", "other_user_id"))
+            .createTable(table("notifications")
+                    .column("notification_id", ID)
+                    .column("user_id", REF)
+                    .column("type", "VARCHAR(30) NOT NULL")
+                    .column("message", "VARCHAR(255) NOT NULL")
+                    .column("is_read", FLAG_OFF)
+                    .column("related_user_id", "INT NULL")
+                    .column("related_post_id", "INT NULL")
+                    .column("created_at", NOW)
+                    .column("actor_count", "INT NOT NULL DEFAULT 1")
+                    .column("sample_actor_ids", "VARCHAR(100) NULL")
+                    .primaryKey("notification_id")
+                    .foreignKey("user_id", "users", "user_id", "CASCADE"))
+            .createTable(table("notification_read_state")
+                    .column("user_id", REF)
+                    .column("last_read_notification_id", COUNTER)
+                    .primaryKey("user_id"))
+            .createTable(table("notification_preferences")
+                    .column("user_id", REF)
+                    .column("connection_requests", FLAG_ON)
+                    .column("new_followers", FLAG_ON)
+                    .column("likes", FLAG_ON)
+                    .column("comments", FLAG_ON)
+                    .column("shares", FLAG_ON)
+                    .column("new_posts", FLAG_ON)
+                    .primaryKey("user_id")
+                    .foreignKey("user_id", "users", "user_id", "CASCADE"))
+            .createTable(table("notification_fanout_jobs")
+                    .column("post_id", REF)
+                    .column("author_id", REF)
+                    .column("last_recipient_id", COUNTER)
+                    .column("created_at", "DATETIME NOT NULL")
+                    .primaryKey("post_id"))
+            .createTable(table("home_timeline")
+                    .column("user_id", REF)
+                    .column("post_id", REF)
+                    .column("author_id", REF)
+                    .column("created_at", "DATETIME NOT NULL")
+                    .primaryKey("user_id", "post_id"))
+            .createTable(table("high_fanout_authors")
+                    .column("user_id", REF)
+                    .column("marked_at", "DATETIME NOT NULL")
+                    .primaryKey("user_id"))
+            .createTable(table("account_analytics")
+                    .column("user_id", REF)
+                    .column("total_posts", COUNTER)
+                    .column("total_likes", COUNTER)
+                    .column("total_comments", COUNTER)
+                    .column("total_shares", COUNTER)
+                    .column("total_views", COUNTER)
+                    .column("follower_count", COUNTER)
+                    .column("last_updated", NOW)
+                    .primaryKey("user_id"))
+            .createTable(table("account_follower_daily")
+                    .column("user_id", REF)
+                    .column("day", "DATE NOT NULL")
+                    .column("followers_gained", COUNTER)
+                    .column("followers_lost", COUNTER)
+                    .primaryKey("user_id", "day"))
+            .createTable(table("account_top_posts")
+                    .column("user_id", REF)
+                    .column("post_id", REF)
+                    .column("engagement", COUNTER)
+                    .primaryKey("user_id", "post_id"))
+            .execute("INSERT INTO security_questions (question_text) " +
+                    "SELECT question_text FROM (" +
+                    "SELECT 'What was the name of your first pet?' as question_text " +
+                    "UNION ALL SELECT 'In which city were you born?' " +
+                    "UNION ALL SELECT 'What is your mother''s maiden name?' " +
+                    "UNION ALL SELECT 'What was the name of your first school?' " +
+                    "UNION ALL SELECT 'What is your favourite book?'" +
+                    ") seed WHERE NOT EXISTS (SELECT 1 FROM security_questions)");
+
+    /*
+     * Likes, follows, blocks and connection requests are written with
+     * INSERT IGNORE and rely on these keys to stay idempotent. Duplicates
+     * left over from the old check-then-insert writes are removed first.
+     * For connection requests, the row kept is the most advanced one:
+     * accepted, then pending, then rejected.
+     */
+    private static final Migration ENGAGEMENT_KEYS = Migration.version(2, "Unique keys for idempotent writes")
+            .execute("DELETE l1 FROM likes l1 JOIN likes l2 " +
+                    "ON l2.post_id = l1.post_id AND l2.user_id = l1.user_id " +
+                    "AND l2.like_id < l1.like_id")
+            .addUnique("likes", "uk_likes_post_user", "post_id", "user_id")
+            .execute("DELETE f1 FROM follows f1 JOIN follows f2 " +
+                    "ON f2.follower_id = f1.follower_id AND f2.following_id = f1.following_id " +
+                    "AND f2.follow_id < f1.follow_id")
+            .addUnique("follows", "uk_follows_follower_following", "follower_id", "following_id")
+            .execute("DELETE b1 FROM blocked_users b1 JOIN blocked_users b2 " +
+                    "ON b2.blocker_id = b1.blocker_id AND b2.blocked_id = b1.blocked_id " +
+                    "AND b2.block_id < b1.block_id")
+            .addUnique("blocked_users", "uk_blocked_users_blocker_blocked", "blocker_id", "blocked_id")
+            .execute("DELETE r1 FROM connection_requests r1 JOIN connection_requests r2 " +
+                    "ON r2.sender_id = r1.sender_id AND r2.receiver_id = r1.receiver_id " +
+                    "AND (FIELD(r2.status, 'ACCEPTED', 'PENDING', 'REJECTED') " +
+                    "< FIELD(r1.status, 'ACCEPTED', 'PENDING', 'REJECTED') " +
+                    "OR (r2.status = r1.status AND r2.request_id < r1.request_id))")
+            .addUnique("connection_requests", "uk_connection_requests_sender_receiver",
+                    "sender_id", "receiver_id");
+
+    /*
+     * One index per access path in the repositories. InnoDB appends the
+     * primary key to every secondary index, so (user_id, created_at) on a
+     * table keyed by id already serves ORDER BY created_at, id keyset pages.
+     */
+    private static final Migration QUERY_INDEXES = Migration.version(3, "Query-aligned secondary indexes")
+            // findByUserId and its pages, timeline backfill, high-fan-out merge, pinning
+            .addIndex("posts", "idx_posts_user_created", "user_id", "created_at")
+            // TrendingEngine's recent-window rebuild
+            .addIndex("posts", "idx_posts_created", "created_at")
+            // ScheduledPostPublisher's due scan
+            .addIndex("scheduled_posts", "idx_scheduled_posts_due", "is_published", "scheduled_for")
+            // searchByHashtag ordered by recency, and unindexing a deleted post
+            .addIndex("post_hashtags", "idx_post_hashtags_tag_created", "tag", "created_at")
+            .addIndex("post_hashtags", "idx_post_hashtags_post", "post_id")
+            // comment and share lists in post order
+            .addIndex("comments", "idx_comments_post_created", "post_id", "created_at")
+            .addIndex("shares", "idx_shares_post_created", "post_id", "created_at")
+            // follower lists, counts and the fan-out audience scan (covering)
+            .addIndex("follows", "idx_follows_following_follower", "following_id", "follower_id")
+            // pending requests and accepted-connection lookups from either side (covering)
+            .addIndex("connection_requests", "idx_connection_requests_receiver_status",
+                    "receiver_id", "status", "sender_id")
+            .addIndex("connection_requests", "idx_connection_requests_sender_status",
+                    "sender_id", "status", "receiver_id")
+            // conversation history for a pair, and unread counts per receiver
+            .addIndex("messages", "idx_messages_sender_receiver_created",
+                    "sender_id", "receiver_id", "created_at")
+            .addIndex("messages", "idx_messages_receiver_read", "receiver_id", "is_read")
+            // the inbox, newest conversation first
+            .addIndex("conversations", "idx_conversations_user_activity", "user_id", "last_activity_at")
+            // notification pages, and unread counts above the read watermark
+            .addIndex("notifications", "idx_notifications_user_created", "user_id", "created_at")
+            .addIndex("notifications", "idx_notifications_user_read", "user_id", "is_read")
+            // NewPostNotifier resumes jobs oldest first
+            .addIndex("notification_fanout_jobs", "idx_notification_fanout_jobs_created", "created_at")
+            // the feed page, removing a deleted post, and unfollow cleanup
+            .addIndex("home_timeline", "idx_home_timeline_user_created", "user_id", "created_at")
+            .addIndex("home_timeline", "idx_home_timeline_post", "post_id")
+            .addIndex("home_timeline", "idx_home_timeline_user_author", "user_id", "author_id")
+            // EngagementHistory compaction of old hourly rows
+            .addIndex("post_engagement_buckets", "idx_post_engagement_buckets_granularity_start",
+                    "granularity", "bucket_start")
+            // dashboard top posts, and re-ranking or unranking by post
+            .addIndex("account_top_posts", "idx_account_top_posts_user_engagement", "user_id", "engagement")
+            .addIndex("account_top_posts", "idx_account_top_posts_post", "post_id");
+
+    /*
+     * The (user_id, ...) indexes from V3 let MySQL drop the implicit index
+     * behind fk_notifications_user_id. The retention purge and mark-all-read
+     * read a user's notifications in id order and relied on it.
+     */
+    private static final Migration NOTIFICATION_ID_ORDER = Migration.version(4, "Per-user notification id order")
+            .addIndex("notifications", "idx_notifications_user_id", "user_id", "notification_id");
+
+    /*
+     * One row per user whose home_timeline has been built from the graph.
+     * Accounts created before the timeline existed are rebuilt once, on
+     * their first feed read, and never again.
+     */
+    private static final Migration TIMELINE_STATE = Migration.version(5, "Home timeline materialization markers")
+            .createTable(table("home_timeline_state")
+                    .column("user_id", REF)
+                    .column("materialized_at", "DATETIME NOT NULL")
+                    .primaryKey("user_id"));
+
+    public static final List<Migration> ALL = Collections.unmodifiableList(Arrays.asList(
+            BASELINE,
+            ENGAGEMENT_KEYS,
+            QUERY_INDEXES,
+            NOTIFICATION_ID_ORDER,
+            TIMELINE_STATE));
+
+    private SchemaMigrations() {
+    }
+}
@@ -0,0 +1,255 @@
+package com.revconnect.schema;
+
+import com.revconnect.exception.DatabaseException;
+import com.revconnect.util.DBConnectionUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Brings the database up to the latest version in SchemaMigrations and
+ * then checks that every table, column and index the code relies on is
+ * actually there. Runs once at startup, before any worker touches the
+ * database; if it throws, the application should not start.
+ *
+ * A named MySQL lock makes concurrent starts take turns, so only one of
+ * them applies a given migration. Each applied version is recorded with a
+ * checksum of its steps. A recorded version whose steps have since been
+ * edited, or one this build does not know, stops startup rather than
+ * running against a schema it was not written for.
+ */
+public class SchemaMigrator {
+
+    private static final String LOCK_NAME = "revconnect_schema_migrations";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    private static volatile boolean migrated;
+
+    private static final String CREATE_HISTORY_SQL =
+            "CREATE TABLE IF NOT EXISTS schema_migrations (" +
+            "version INT NOT NULL, " +
+            "description VARCHAR(200) NOT NULL, " +
+            "checksum CHAR(64) NOT NULL, " +
+            "applied_at DATETIME NOT NULL, " +
+            "execution_ms BIGINT NOT NULL, " +
+            "PRIMARY KEY (version)) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
+
+    private SchemaMigrator() {
+    }
+
+    public static void migrate() {
+        migrate(SchemaMigrations.ALL);
+        migrated = true;
+    }
+
+    /*
+     * Migrates once per process. The MySQL repositories are only handed
+     * out after this, because their writes depend on keys the migrations
+     * create: the INSERT IGNORE writes for likes, follows and blocks are
+     * only idempotent once V2's unique keys exist.
+     */
+    public static void ensureMigrated() {
+        if (migrated) {
+            return;
+        }
+        synchronized (SchemaMigrator.class) {
+            if (!migrated) {
+                migrate();
+            }
+        }
+    }
+
+    static void migrate(List<Migration> migrations) {
+        checkOrdering(migrations);
+
+        try (Connection conn = DBConnectionUtil.getConnection()) {
+            acquireLock(conn);
+            try {
+                execute(conn, CREATE_HISTORY_SQL);
+
+                Map<Integer, String> applied = appliedChecksums(conn);
+                checkHistory(migrations, applied);
+
+                for (Migration migration : migrations) {
+                    if (!applied.containsKey(migration.getVersion())) {
+                        apply(conn, migration);
+                    }
+                }
+
+                verify(conn, migrations);
+
+            } finally {
+                releaseLock(conn);
+            }
+
+        } catch (SQLException e) {
+            throw new DatabaseException("Schema migration failed: " + e.getMessage(), e);
+        }
+    }
+
+    private static void checkOrdering(List<Migration> migrations) {
+        int previous = 0;
+        for (Migration migration : migrations) {
+            if (migration.getVersion() <= previous) {
+                throw new DatabaseException("Schema migrations are out of order at V" +
+                        migration.getVersion());
+            }
+            previous = migration.getVersion();
+        }
+    }
+
+    private static void acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            ResultSet rs = pstmt.executeQuery();
+
+            if (!rs.next() || rs.getInt(1) != 1) {
+                throw new DatabaseException("Timed out waiting for another instance " +
+                        "to finish migrating the schema");
+            }
+        }
+    }
+
+    private static void releaseLock(Connection conn) {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.executeQuery();
+        } catch (SQLException e) {
+            // MySQL releases the lock when the session ends
+        }
+    }
+
+    private static Map<Integer, String> appliedChecksums(Connection conn) throws SQLException {
+        Map<Integer, String> applied = new TreeMap<>();
+
+        try (Statement stmt = conn.createStatement()) {
+            ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_migrations");
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+
+        return applied;
+    }
+
+    private static void checkHistory(List<Migration> migrations, Map<Integer, String> applied) {
+        Map<Integer, Migration> known = new LinkedHashMap<>();
+        for (Migration migration : migrations) {
+            known.put(migration.getVersion(), migration);
+        }
+
+        for (Map.Entry<Integer, String> entry : applied.entrySet()) {
+            Migration migration = known.get(entry.getKey());
+
+            if (migration == null) {
+                throw new DatabaseException("Database schema is at V" + entry.getKey() +
+                        ", which this version of the application does not know about");
+            }
+
+            if (!migration.checksum().equals(entry.getValue())) {
+                throw new DatabaseException("Schema migration V" + entry.getKey() +
+                        " was changed after it was applied");
+            }
+        }
+    }
+
+    private static void apply(Connection conn, Migration migration) throws SQLException {
+        long start = System.currentTimeMillis();
+
+        for (Migration.Step step : migration.getSteps()) {
+            try {
+                step.apply(conn);
+            } catch (SQLException e) {
+                throw new DatabaseException("Schema migration V" + migration.getVersion() +
+                        " failed: " + e.getMessage(), e);
+            }
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+
+        String sql = "INSERT INTO schema_migrations " +
+                "(version, description, checksum, applied_at, execution_ms) VALUES (?, ?, ?, ?, ?)";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, migration.getVersion());
+            pstmt.setString(2, migration.getDescription());
+            pstmt.setString(3, migration.checksum());
+            pstmt.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            pstmt.setLong(5, elapsed);
+            pstmt.executeUpdate();
+        }
+
+        System.out.println("Applied schema migration V" + migration.getVersion() +
+                " (" + migration.getDescription() + ") in " + elapsed + " ms");
+    }
+
+    /*
+     * Replays every migration's steps into an in-memory picture of the
+     * schema and compares it with information_schema. This catches
+     * databases that were marked as migrated but changed by hand since,
+     * e.g. an index dropped while debugging a slow query.
+     */
+    private static void verify(Connection conn, List<Migration> migrations) throws SQLException {
+        Map<String, TableDefinition> expected = new LinkedHashMap<>();
+        for (Migration migration : migrations) {
+            for (Migration.Step step : migration.getSteps()) {
+                step.expect(expected);
+            }
+        }
+
+        LiveSchema live = LiveSchema.load(conn, null);
+        List<String> problems = new ArrayList<>();
+
+        for (TableDefinition table : expected.values()) {
+            String name = table.getName();
+
+            if (!live.hasTable(name)) {
+                problems.add("missing table " + name);
+                continue;
+            }
+
+            for (String column : table.getColumns().keySet()) {
+                if (!live.hasColumn(name, column)) {
+                    problems.add("missing column " + name + "." + column);
+                }
+            }
+
+            List<String> primaryKey = new ArrayList<>();
+            for (String column : table.getPrimaryKey()) {
+                primaryKey.add(column.toLowerCase());
+            }
+            if (!primaryKey.equals(live.primaryKey(name))) {
+                problems.add("primary key of " + name + " is " + live.primaryKey(name) +
+                        ", expected " + primaryKey);
+            }
+
+            for (TableDefinition.Index index : table.getIndexes()) {
+                if (!live.hasIndex(name, index)) {
+                    problems.add("missing index " + name + "." + index.getName() +
+                            " " + index.getColumns());
+                }
+            }
+        }
+
+        if (!problems.isEmpty()) {
+            throw new DatabaseException("Database schema does not match the migrations: " +
+                    String.join("; ", problems));
+        }
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
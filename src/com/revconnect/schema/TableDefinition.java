@@ -0,0 +1,143 @@
+package com.revconnect.schema;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Declarative description of one table: columns in order, primary key,
+ * secondary indexes and foreign keys. It renders the CREATE TABLE
+ * statement for a fresh database, and the verifier compares the live
+ * schema against it.
+ */
+public class TableDefinition {
+
+    private final String name;
+    private final Map<String, String> columns = new LinkedHashMap<>();
+    private final List<String> primaryKey = new ArrayList<>();
+    private final List<Index> indexes = new ArrayList<>();
+    private final List<String> foreignKeys = new ArrayList<>();
+
+    private TableDefinition(String name) {
+        this.name = name;
+    }
+
+    public static TableDefinition table(String name) {
+        return new TableDefinition(name);
+    }
+
+    public TableDefinition column(String column, String definition) {
+        columns.put(column, definition);
+        return this;
+    }
+
+    public TableDefinition primaryKey(String... columnNames) {
+        primaryKey.clear();
+        primaryKey.addAll(Arrays.asList(columnNames));
+        return this;
+    }
+
+    public TableDefinition unique(String indexName, String... columnNames) {
+        indexes.add(new Index(indexName, true, Arrays.asList(columnNames)));
+        return this;
+    }
+
+    public TableDefinition index(String indexName, String... columnNames) {
+        indexes.add(new Index(indexName, false, Arrays.asList(columnNames)));
+        return this;
+    }
+
+    public TableDefinition foreignKey(String column, String referencedTable,
+                                      String referencedColumn, String onDelete) {
+        foreignKeys.add("CONSTRAINT fk_" + name + "_" + column + " FOREIGN KEY (" + column + ") " +
+                "REFERENCES " + referencedTable + " (" + referencedColumn + ") ON DELETE " + onDelete);
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, String> getColumns() {
+        return Collections.unmodifiableMap(columns);
+    }
+
+    public List<String> getPrimaryKey() {
+        return Collections.unmodifiableList(primaryKey);
+    }
+
+    public List<Index> getIndexes() {
+        return Collections.unmodifiableList(indexes);
+    }
+
+    public String createSql() {
+        List<String> parts = new ArrayList<>();
+
+        for (Map.Entry<String, String> column : columns.entrySet()) {
+            parts.add(column.getKey() + " " + column.getValue());
+        }
+
+        if (!primaryKey.isEmpty()) {
+            parts.add("PRIMARY KEY (" + String.join(", ", primaryKey) + ")");
+        }
+
+        for (Index index : indexes) {
+            parts.add(index.keySql());
+        }
+
+        parts.addAll(foreignKeys);
+
+        return "CREATE TABLE " + name + " (" + String.join(", ", parts) + ") " +
+                "ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
+    }
+
+    TableDefinition copy() {
+        TableDefinition copy = new TableDefinition(name);
+        copy.columns.putAll(columns);
+        copy.primaryKey.addAll(primaryKey);
+        copy.indexes.addAll(indexes);
+        copy.foreignKeys.addAll(foreignKeys);
+        return copy;
+    }
+
+    void addIndex(Index index) {
+        indexes.add(index);
+    }
+
+    public static final class Index {
+
+        private final String name;
+        private final boolean unique;
+        private final List<String> columns;
+
+        public Index(String name, boolean unique, List<String> columns) {
+            this.name = name;
+            this.unique = unique;
+            this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isUnique() {
+            return unique;
+        }
+
+        public List<String> getColumns() {
+            return columns;
+        }
+
+        String keySql() {
+            return (unique ? "UNIQUE KEY " : "KEY ") + name + " (" + String.join(", ", columns) + ")";
+        }
+
+        @Override
+        public String toString() {
+            return keySql();
+        }
+    }
+}
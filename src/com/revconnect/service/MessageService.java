@@ -1,15 +1,19 @@
 package com.revconnect.service;
 
+import com.revconnect.model.Conversation;
 import com.revconnect.model.Message;
+import com.revconnect.model.Page;
 import com.revconnect.model.User;
 import java.util.List;
 
 public interface MessageService {
     boolean sendMessage(Message message);
     List<Message> getConversation(int userId, int otherUserId);
+    Page<Message> getConversationPage(int userId, int otherUserId, String pageToken, int pageSize);
     boolean markConversationAsRead(int userId, int otherUserId);
     boolean deleteConversation(int userId, int otherUserId);
     int getUnreadMessageCount(int userId);
+    Page<Conversation> getInbox(int userId, String pageToken, int pageSize);
     boolean blockUser(int blockerId, int blockedId);
     boolean unblockUser(int blockerId, int blockedId);
     List<User> getBlockedUsers(int blockerId);
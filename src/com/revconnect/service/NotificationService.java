@@ -2,11 +2,13 @@ package com.revconnect.service;
 
 import com.revconnect.model.Notification;
 import com.revconnect.model.NotificationPreference;
+import com.revconnect.model.Page;
 import java.util.List;
 
 public interface NotificationService {
     boolean createNotification(Notification notification);
     List<Notification> getNotifications(int userId);
+    Page<Notification> getNotificationsPage(int userId, String pageToken, int pageSize);
     int getUnreadCount(int userId);
     boolean markAsRead(int notificationId);
     boolean markAllAsRead(int userId);
@@ -1,5 +1,8 @@
 package com.revconnect.service;
 
+import com.revconnect.model.CreatorDashboard;
+import com.revconnect.model.EngagementBucket;
+import com.revconnect.model.Page;
 import com.revconnect.model.Post;
 import com.revconnect.model.PostAnalytics;
 import com.revconnect.model.Comment;
@@ -10,17 +13,23 @@ public interface PostService {
     boolean updatePost(Post post);
     boolean deletePost(int postId, int userId);
     List<Post> getMyPosts(int userId);
+    Page<Post> getMyPostsPage(int userId, String pageToken, int pageSize);
     List<Post> getFeed(int userId);
+    Page<Post> getFeedPage(int userId, String pageToken, int pageSize);
     List<Post> getFilteredFeed(int userId, String postType, String userType);
-    List<Post> getTrendingPosts();
-    List<Post> searchByHashtag(String hashtag);
+    List<Post> getTrendingPosts(int viewerId);
+    List<Post> searchByHashtag(String hashtag, int viewerId);
+    Page<Post> searchByHashtagPage(String hashtag, int viewerId, String pageToken, int pageSize);
     boolean likePost(int postId, int userId);
     boolean unlikePost(int postId, int userId);
     boolean commentOnPost(int postId, int userId, String commentText);
     List<Comment> getComments(int postId);
+    Page<Comment> getCommentsPage(int postId, String pageToken, int pageSize);
     boolean deleteComment(int commentId, int userId);
     boolean sharePost(int postId, int userId);
     boolean schedulePost(Post post);
     boolean pinPost(int postId, int userId);
     PostAnalytics getAnalytics(int postId);
+    List<EngagementBucket> getAnalyticsTimeline(int postId, String range);
+    CreatorDashboard getCreatorDashboard(int userId);
 }
\ No newline at end of file
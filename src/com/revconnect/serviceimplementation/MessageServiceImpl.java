@@ -1,25 +1,29 @@
 package com.revconnect.serviceimplementation;
 
 import com.revconnect.service.MessageService;
+import com.revconnect.model.Conversation;
 import com.revconnect.model.Message;
+import com.revconnect.model.Page;
 import com.revconnect.model.User;
-import com.revconnect.repository.MessageRepository;
-import com.revconnect.repository.BlockedUserRepository;
+import com.revconnect.dao.BlockedUserDAO;
+import com.revconnect.dao.MessageDAO;
+import com.revconnect.repository.DAOFactory;
 import com.revconnect.configuration.AppConfig;
 import com.revconnect.exception.MessagingException;
 import com.revconnect.exception.ValidationException;
+import com.revconnect.util.PageToken;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 public class MessageServiceImpl implements MessageService {
 
-    private final MessageRepository messageRepository;
-    private final BlockedUserRepository blockedUserRepository;
+    private final MessageDAO messageRepository;
+    private final BlockedUserDAO blockedUserRepository;
 
     public MessageServiceImpl() {
-        this.messageRepository = new MessageRepository();
-        this.blockedUserRepository = new BlockedUserRepository();
+        this.messageRepository = DAOFactory.messageDAO();
+        this.blockedUserRepository = DAOFactory.blockedUserDAO();
     }
 
     @Override
@@ -59,6 +63,13 @@ public class MessageServiceImpl implements MessageService {
         return messageRepository.getConversation(userId, otherUserId);
     }
 
+    @Override
+    public Page<Message> getConversationPage(int userId, int otherUserId,
+                                             String pageToken, int pageSize) {
+        return messageRepository.getConversationPage(userId, otherUserId, pageToken,
+                PageToken.clampPageSize(pageSize, AppConfig.DEFAULT_PAGE_SIZE, AppConfig.MAX_PAGE_SIZE));
+    }
+
     @Override
     public boolean markConversationAsRead(int userId, int otherUserId) {
         return messageRepository.markAsRead(userId, otherUserId);
@@ -74,6 +85,12 @@ public class MessageServiceImpl implements MessageService {
         return messageRepository.getUnreadCount(userId);
     }
 
+    @Override
+    public Page<Conversation> getInbox(int userId, String pageToken, int pageSize) {
+        return messageRepository.getInbox(userId, pageToken,
+                PageToken.clampPageSize(pageSize, AppConfig.DEFAULT_PAGE_SIZE, AppConfig.MAX_PAGE_SIZE));
+    }
+
     @Override
     public boolean blockUser(int blockerId, int blockedId) {
 
@@ -5,8 +5,10 @@ import com.revconnect.service.NotificationService;
 import com.revconnect.model.User;
 import com.revconnect.model.ConnectionRequest;
 import com.revconnect.model.Notification;
-import com.revconnect.repository.ConnectionRepository;
-import com.revconnect.repository.FollowRepository;
+import com.revconnect.dao.ConnectionDAO;
+import com.revconnect.dao.FollowDAO;
+import com.revconnect.dao.TimelineDAO;
+import com.revconnect.repository.DAOFactory;
 import com.revconnect.exception.ValidationException;
 
 import java.time.LocalDateTime;
@@ -14,13 +16,15 @@ import java.util.List;
 
 public class NetworkServiceImpl implements NetworkService {
 
-    private final ConnectionRepository connectionRepository;
-    private final FollowRepository followRepository;
+    private final ConnectionDAO connectionRepository;
+    private final FollowDAO followRepository;
+    private final TimelineDAO timelineRepository;
     private final NotificationService notificationService;
 
     public NetworkServiceImpl() {
-        this.connectionRepository = new ConnectionRepository();
-        this.followRepository = new FollowRepository();
+        this.connectionRepository = DAOFactory.connectionDAO();
+        this.followRepository = DAOFactory.followDAO();
+        this.timelineRepository = DAOFactory.timelineDAO();
         this.notificationService = new NotificationServiceImpl();
     }
 
@@ -57,6 +61,11 @@ public class NetworkServiceImpl implements NetworkService {
         boolean accepted = connectionRepository.acceptRequest(requestId);
 
         if (accepted) {
+            ConnectionRequest request = connectionRepository.findById(requestId);
+            if (request != null) {
+                timelineRepository.backfillAuthor(request.getReceiverId(), request.getSenderId());
+                timelineRepository.backfillAuthor(request.getSenderId(), request.getReceiverId());
+            }
         }
 
         return accepted;
@@ -84,7 +93,14 @@ public class NetworkServiceImpl implements NetworkService {
             throw new ValidationException("Not connected with this user");
         }
 
-        return connectionRepository.removeConnection(userId, connectionId);
+        boolean removed = connectionRepository.removeConnection(userId, connectionId);
+
+        if (removed) {
+            timelineRepository.pruneAuthor(userId, connectionId);
+            timelineRepository.pruneAuthor(connectionId, userId);
+        }
+
+        return removed;
     }
 
     @Override
@@ -97,6 +113,8 @@ public class NetworkServiceImpl implements NetworkService {
         boolean followed = followRepository.followUser(followerId, followingId);
 
         if (followed) {
+            timelineRepository.backfillAuthor(followerId, followingId);
+
             Notification notification = new Notification();
             notification.setUserId(followingId);
             notification.setType("NEW_FOLLOWER");
@@ -112,7 +130,13 @@ public class NetworkServiceImpl implements NetworkService {
 
     @Override
     public boolean unfollowUser(int followerId, int followingId) {
-        return followRepository.unfollowUser(followerId, followingId);
+        boolean unfollowed = followRepository.unfollowUser(followerId, followingId);
+
+        if (unfollowed) {
+            timelineRepository.pruneAuthor(followerId, followingId);
+        }
+
+        return unfollowed;
     }
 
     @Override
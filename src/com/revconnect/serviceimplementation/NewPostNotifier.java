@@ -0,0 +1,192 @@
+package com.revconnect.serviceimplementation;
+
+import com.revconnect.dao.NotificationDAO;
+import com.revconnect.dao.TimelineDAO;
+import com.revconnect.model.Notification;
+import com.revconnect.model.NotificationFanOutJob;
+import com.revconnect.model.Post;
+import com.revconnect.repository.DAOFactory;
+import com.revconnect.configuration.AppConfig;
+import com.revconnect.exception.DatabaseException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends NEW_POST notifications to an author's followers and connections.
+ *
+ * Publishing a post only records a row in notification_fanout_jobs. A
+ * single background worker walks the audience in id order, in chunks of
+ * NOTIFICATION_FANOUT_CHUNK_SIZE. Each chunk is filtered with one bulk
+ * preference lookup, then inserted as one batched statement in the same
+ * transaction that advances the job's checkpoint. The worker pauses
+ * NOTIFICATION_FANOUT_CHUNK_DELAY between chunks, so an author with a very
+ * large audience costs the database a steady trickle rather than a burst.
+ * Jobs left unfinished by a shutdown or an error resume from their
+ * checkpoint on the next start().
+ */
+public class NewPostNotifier {
+
+    private static final NewPostNotifier INSTANCE =
+            new NewPostNotifier(DAOFactory.notificationDAO(), DAOFactory.timelineDAO());
+
+    private static final long POLL_TIMEOUT = 500;
+
+    private final NotificationDAO notificationDAO;
+    private final TimelineDAO timelineDAO;
+    private final LinkedBlockingQueue<NotificationFanOutJob> jobs = new LinkedBlockingQueue<>();
+    private final Thread worker;
+
+    private volatile boolean running;
+
+    NewPostNotifier(NotificationDAO notificationDAO, TimelineDAO timelineDAO) {
+        this.notificationDAO = notificationDAO;
+        this.timelineDAO = timelineDAO;
+
+        this.worker = new Thread(this::workLoop, "revconnect-post-notifier");
+        this.worker.setDaemon(true);
+    }
+
+    public static NewPostNotifier getInstance() {
+        return INSTANCE;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+
+        try {
+            jobs.addAll(notificationDAO.findPendingFanOutJobs());
+        } catch (DatabaseException e) {
+            System.err.println("Failed to resume post notifications: " + e.getMessage());
+        }
+
+        worker.start();
+    }
+
+    public void submit(Post post) {
+        try {
+            if (notificationDAO.createFanOutJob(post.getPostId(), post.getUserId()) && running) {
+                jobs.offer(new NotificationFanOutJob(
+                        post.getPostId(), post.getUserId(), 0, LocalDateTime.now()));
+            }
+        } catch (DatabaseException e) {
+            // The post itself is saved; only its notifications are lost
+            System.err.println("Failed to queue notifications for post "
+                    + post.getPostId() + ": " + e.getMessage());
+        }
+    }
+
+    /*
+     * Drops the job's row; the worker sees the missing row at its next
+     * checkpoint and stops.
+     */
+    public void cancel(int postId) {
+        try {
+            notificationDAO.deleteFanOutJob(postId);
+        } catch (DatabaseException e) {
+            System.err.println("Failed to cancel notifications for post "
+                    + postId + ": " + e.getMessage());
+        }
+    }
+
+    public int getPendingCount() {
+        return jobs.size();
+    }
+
+    public void shutdown() {
+        // The current chunk finishes; the rest resumes from its checkpoint on next start
+        running = false;
+
+        try {
+            worker.join(AppConfig.SHUTDOWN_FLUSH_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void workLoop() {
+        while (running) {
+            NotificationFanOutJob job;
+            try {
+                job = jobs.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (job == null) {
+                continue;
+            }
+
+            try {
+                run(job);
+            } catch (RuntimeException e) {
+                // The job row stays and is resumed on restart. Not just
+                // DatabaseException: this is the only worker thread.
+                System.err.println("Failed to notify followers of post "
+                        + job.getPostId() + ": " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void run(NotificationFanOutJob job) throws InterruptedException {
+        while (running) {
+            List<Integer> audience = timelineDAO.findAudience(job.getAuthorId(),
+                    job.getLastRecipientId(), AppConfig.NOTIFICATION_FANOUT_CHUNK_SIZE);
+
+            if (audience.isEmpty()) {
+                notificationDAO.deleteFanOutJob(job.getPostId());
+                return;
+            }
+
+            Map<Integer, Integer> preferences = notificationDAO.getPreferenceMasks(audience);
+
+            List<Notification> chunk = new ArrayList<>(audience.size());
+            for (Integer recipientId : audience) {
+                Integer mask = preferences.get(recipientId);
+
+                if (mask == null
+                        || NotificationServiceImpl.shouldCreateNotification("NEW_POST", mask)) {
+                    chunk.add(newPostNotification(job, recipientId));
+                }
+            }
+
+            int lastRecipientId = audience.get(audience.size() - 1);
+
+            if (notificationDAO.saveFanOutChunk(job.getPostId(), chunk, lastRecipientId) < 0) {
+                // Job row is gone: the post was deleted
+                return;
+            }
+
+            job.setLastRecipientId(lastRecipientId);
+
+            if (audience.size() < AppConfig.NOTIFICATION_FANOUT_CHUNK_SIZE) {
+                notificationDAO.deleteFanOutJob(job.getPostId());
+                return;
+            }
+
+            Thread.sleep(AppConfig.NOTIFICATION_FANOUT_CHUNK_DELAY);
+        }
+    }
+
+    private static Notification newPostNotification(NotificationFanOutJob job, int recipientId) {
+        Notification notification = new Notification();
+        notification.setUserId(recipientId);
+        notification.setType("NEW_POST");
+        notification.setMessage("Someone you follow published a new post");
+        notification.setRelatedUserId(job.getAuthorId());
+        notification.setRelatedPostId(job.getPostId());
+        return notification;
+    }
+}
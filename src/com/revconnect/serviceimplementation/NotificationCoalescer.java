@@ -0,0 +1,168 @@
+package com.revconnect.serviceimplementation;
+
+import com.revconnect.model.Notification;
+import com.revconnect.configuration.AppConfig;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Folds engagement notifications about the same post into one row.
+ *
+ * The first LIKE, COMMENT or SHARE for a recipient, type and post is not
+ * held back: add() opens a group for it and tells the caller to send it
+ * straight away. Later events for the same key within
+ * NOTIFICATION_COALESCE_WINDOW are absorbed by the group. When the window
+ * closes, a group that gained new actors yields one notification carrying
+ * the number of distinct actors and up to NOTIFICATION_SAMPLE_ACTORS of
+ * them, newest first, which the writer folds into the row already sent.
+ *
+ * At most NOTIFICATION_COALESCE_MAX_GROUPS groups are open at a time.
+ * Beyond that, events are sent uncoalesced until older groups close.
+ */
+class NotificationCoalescer {
+
+    private static final Set<String> COALESCED_TYPES =
+            new HashSet<>(Arrays.asList("LIKE", "COMMENT", "SHARE"));
+
+    // Insertion order is opening order, so expired groups are always at the head
+    private final Map<GroupKey, Group> groups = new LinkedHashMap<>();
+
+    static boolean isCoalesced(Notification notification) {
+        return notification.getRelatedPostId() > 0
+                && COALESCED_TYPES.contains(notification.getType());
+    }
+
+    /*
+     * Returns true if the notification joined an open group and must not
+     * be sent on its own, false if the caller should send it now.
+     */
+    synchronized boolean add(Notification notification) {
+        GroupKey key = new GroupKey(notification.getUserId(),
+                notification.getType(), notification.getRelatedPostId());
+
+        Group group = groups.get(key);
+        if (group != null) {
+            group.add(notification);
+            return true;
+        }
+
+        if (groups.size() < AppConfig.NOTIFICATION_COALESCE_MAX_GROUPS) {
+            group = new Group(notification);
+            group.add(notification);
+            groups.put(key, group);
+        }
+        return false;
+    }
+
+    synchronized List<Notification> drainExpired() {
+        return drain(System.currentTimeMillis() - AppConfig.NOTIFICATION_COALESCE_WINDOW);
+    }
+
+    synchronized List<Notification> drainAll() {
+        return drain(Long.MAX_VALUE);
+    }
+
+    synchronized int size() {
+        return groups.size();
+    }
+
+    private List<Notification> drain(long openedBefore) {
+        List<Notification> ready = new ArrayList<>();
+
+        Iterator<Group> iterator = groups.values().iterator();
+        while (iterator.hasNext()) {
+            Group group = iterator.next();
+            if (group.openedAt > openedBefore) {
+                break;
+            }
+
+            // Nobody new since the first event, which has already gone out
+            if (group.actorIds.size() > 1) {
+                ready.add(group.toNotification());
+            }
+            iterator.remove();
+        }
+
+        return ready;
+    }
+
+    private static final class Group {
+
+        private final Notification first;
+        private final long openedAt = System.currentTimeMillis();
+        private final Set<Integer> actorIds = new HashSet<>();
+        private final List<Integer> recentActorIds = new ArrayList<>();
+
+        private Notification latest;
+
+        private Group(Notification first) {
+            this.first = first;
+        }
+
+        private void add(Notification notification) {
+            latest = notification;
+
+            int actorId = notification.getRelatedUserId();
+            if (actorIds.add(actorId)) {
+                recentActorIds.add(0, actorId);
+                if (recentActorIds.size() > AppConfig.NOTIFICATION_SAMPLE_ACTORS) {
+                    recentActorIds.remove(recentActorIds.size() - 1);
+                }
+            }
+        }
+
+        private Notification toNotification() {
+            Notification merged = new Notification();
+            merged.setUserId(first.getUserId());
+            merged.setType(first.getType());
+            merged.setMessage(first.getMessage());
+            merged.setRead(false);
+            merged.setRelatedUserId(latest.getRelatedUserId());
+            merged.setRelatedPostId(first.getRelatedPostId());
+            merged.setCreatedAt(latest.getCreatedAt() != null
+                    ? latest.getCreatedAt() : LocalDateTime.now());
+            merged.setActorCount(actorIds.size());
+            merged.setSampleActorIds(new ArrayList<>(recentActorIds));
+            return merged;
+        }
+    }
+
+    private static final class GroupKey {
+
+        private final int userId;
+        private final String type;
+        private final int postId;
+
+        private GroupKey(int userId, String type, int postId) {
+            this.userId = userId;
+            this.type = type;
+            this.postId = postId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof GroupKey)) {
+                return false;
+            }
+            GroupKey other = (GroupKey) o;
+            return userId == other.userId && postId == other.postId && type.equals(other.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, type, postId);
+        }
+    }
+}
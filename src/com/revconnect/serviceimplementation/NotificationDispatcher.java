@@ -0,0 +1,204 @@
+package com.revconnect.serviceimplementation;
+
+import com.revconnect.dao.NotificationDAO;
+import com.revconnect.model.Notification;
+import com.revconnect.repository.DAOFactory;
+import com.revconnect.configuration.AppConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves notification writes off the request path.
+ *
+ * Notifications are queued in memory and a background writer drains them
+ * in batches: one preference lookup for all recipients in the batch, then
+ * one batched insert. When the queue is full the caller writes its own
+ * notification synchronously, which slows producers down instead of
+ * dropping events. Likes, comments and shares on the same post are folded
+ * together by a NotificationCoalescer: the first one is queued as usual,
+ * and the actors that follow it within the window are later folded into
+ * that row. shutdown() drains everything still queued or being coalesced.
+ *
+ * A batch that fails to write is kept and retried with doubling backoff,
+ * up to NOTIFICATION_WRITE_ATTEMPTS, and only then logged and dropped.
+ * Meanwhile new notifications wait in the queue, and callers fall back to
+ * synchronous writes once it fills.
+ */
+public class NotificationDispatcher {
+
+    private static final NotificationDispatcher INSTANCE =
+            new NotificationDispatcher(DAOFactory.notificationDAO());
+
+    private final NotificationDAO notificationDAO;
+    private final BlockingQueue<Notification> queue;
+    private final NotificationCoalescer coalescer = new NotificationCoalescer();
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    NotificationDispatcher(NotificationDAO notificationDAO) {
+        this.notificationDAO = notificationDAO;
+        this.queue = new ArrayBlockingQueue<>(AppConfig.NOTIFICATION_QUEUE_CAPACITY);
+
+        this.writer = new Thread(this::drainLoop, "revconnect-notification-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public static NotificationDispatcher getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean submit(Notification notification) {
+        if (running && NotificationCoalescer.isCoalesced(notification)
+                && coalescer.add(notification)) {
+            return true;
+        }
+
+        if (running) {
+            try {
+                if (queue.offer(notification,
+                        AppConfig.NOTIFICATION_ENQUEUE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        // Queue saturated or shutting down: write on the caller's thread
+        return writeBatch(Collections.singletonList(notification)) > 0;
+    }
+
+    public int getPendingCount() {
+        return queue.size() + coalescer.size();
+    }
+
+    public void shutdown() {
+        // No interrupt: it would abort an in-flight JDBC write. The writer
+        // notices the flag within one flush interval.
+        running = false;
+
+        try {
+            writer.join(AppConfig.SHUTDOWN_FLUSH_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Writer did not finish in time; flush the remainder here
+        List<Notification> remaining = new ArrayList<>();
+        while (queue.drainTo(remaining, AppConfig.NOTIFICATION_BATCH_SIZE) > 0) {
+            writeBatch(remaining);
+            remaining.clear();
+        }
+
+        List<Notification> coalesced = coalescer.drainAll();
+        for (int from = 0; from < coalesced.size(); from += AppConfig.NOTIFICATION_BATCH_SIZE) {
+            writeFolds(coalesced.subList(from,
+                    Math.min(from + AppConfig.NOTIFICATION_BATCH_SIZE, coalesced.size())));
+        }
+    }
+
+    private void drainLoop() {
+        List<Notification> batch = new ArrayList<>(AppConfig.NOTIFICATION_BATCH_SIZE);
+        List<Notification> folds = new ArrayList<>();
+        int failures = 0;
+
+        while (running || !queue.isEmpty() || !batch.isEmpty() || !folds.isEmpty()) {
+            try {
+                // Work left over from a failed write is retried before anything new
+                if (batch.isEmpty() && folds.isEmpty()) {
+                    Notification first = queue.poll(
+                            AppConfig.NOTIFICATION_FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+                    if (first != null) {
+                        batch.add(first);
+                        queue.drainTo(batch, AppConfig.NOTIFICATION_BATCH_SIZE - 1);
+                    }
+
+                    folds.addAll(coalescer.drainExpired());
+                }
+
+                // Inserts first, so a group's opening row is in place before it is folded into
+                if (!batch.isEmpty()) {
+                    writeBatch(batch);
+                    batch.clear();
+                }
+
+                if (!folds.isEmpty()) {
+                    writeFolds(folds);
+                    folds.clear();
+                }
+
+                failures = 0;
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Any failure, not just DatabaseException: this is the only writer thread
+                failures++;
+
+                int pending = batch.size() + folds.size();
+
+                if (failures >= AppConfig.NOTIFICATION_WRITE_ATTEMPTS) {
+                    System.err.println("Dropping " + pending + " notification(s) after "
+                            + failures + " failed attempts: " + e.getMessage());
+                    batch.clear();
+                    folds.clear();
+                    failures = 0;
+                    continue;
+                }
+
+                System.err.println("Failed to write " + pending
+                        + " notification(s), retrying: " + e.getMessage());
+                try {
+                    Thread.sleep(AppConfig.NOTIFICATION_RETRY_BACKOFF << (failures - 1));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private int writeBatch(List<Notification> batch) {
+        List<Notification> accepted = accepted(batch);
+        return accepted.isEmpty() ? 0 : notificationDAO.saveNotifications(accepted);
+    }
+
+    private int writeFolds(List<Notification> folds) {
+        List<Notification> accepted = accepted(folds);
+        return accepted.isEmpty() ? 0 : notificationDAO.foldNotifications(accepted);
+    }
+
+    // Drops notifications the recipient has switched off, with one preference lookup
+    private List<Notification> accepted(List<Notification> batch) {
+        Set<Integer> recipientIds = new HashSet<>();
+        for (Notification notification : batch) {
+            recipientIds.add(notification.getUserId());
+        }
+
+        Map<Integer, Integer> preferences = notificationDAO.getPreferenceMasks(recipientIds);
+
+        List<Notification> accepted = new ArrayList<>(batch.size());
+        for (Notification notification : batch) {
+            Integer mask = preferences.get(notification.getUserId());
+
+            if (mask == null
+                    || NotificationServiceImpl.shouldCreateNotification(
+                            notification.getType(), mask)) {
+                accepted.add(notification);
+            }
+        }
+
+        return accepted;
+    }
+}
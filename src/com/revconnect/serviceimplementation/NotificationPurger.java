@@ -0,0 +1,198 @@
+package com.revconnect.serviceimplementation;
+
+import com.revconnect.dao.NotificationDAO;
+import com.revconnect.repository.DAOFactory;
+import com.revconnect.configuration.AppConfig;
+import com.revconnect.exception.DatabaseException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the notification retention policy in the background.
+ *
+ * Every NOTIFICATION_PURGE_INTERVAL it removes read notifications older
+ * than NOTIFICATION_READ_RETENTION_DAYS, then trims every user to their
+ * newest NOTIFICATION_RETENTION_PER_USER notifications, scanning users in
+ * id ranges rather than grouping the whole table. Deletes cover at
+ * most NOTIFICATION_PURGE_BATCH_SIZE rows over a primary key range, each
+ * in its own autocommit statement, with NOTIFICATION_PURGE_BATCH_DELAY
+ * between batches, so no statement holds locks for long and replicas can
+ * keep up. A summary of each run is printed and kept in getLastReport().
+ */
+public class NotificationPurger {
+
+    private static final NotificationPurger INSTANCE =
+            new NotificationPurger(DAOFactory.notificationDAO());
+
+    private final NotificationDAO notificationDAO;
+    private final ScheduledExecutorService executor;
+
+    private volatile boolean running;
+    private volatile Report lastReport;
+
+    NotificationPurger(NotificationDAO notificationDAO) {
+        this.notificationDAO = notificationDAO;
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "revconnect-notification-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static NotificationPurger getInstance() {
+        return INSTANCE;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+        executor.scheduleWithFixedDelay(this::purgeQuietly,
+                AppConfig.NOTIFICATION_PURGE_INTERVAL,
+                AppConfig.NOTIFICATION_PURGE_INTERVAL,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public Report getLastReport() {
+        return lastReport;
+    }
+
+    public void shutdown() {
+        // A run in progress stops after its current batch
+        running = false;
+        executor.shutdown();
+
+        try {
+            executor.awaitTermination(AppConfig.SHUTDOWN_FLUSH_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Report purge() throws InterruptedException {
+        long startedAt = System.currentTimeMillis();
+        Report report = new Report();
+
+        purgeRead(report);
+        purgeOverflow(report);
+
+        report.elapsedMillis = System.currentTimeMillis() - startedAt;
+        lastReport = report;
+        return report;
+    }
+
+    private void purgeQuietly() {
+        try {
+            Report report = purge();
+            System.out.println("Notification purge: " + report);
+        } catch (DatabaseException e) {
+            System.err.println("Failed to purge notifications: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void purgeRead(Report report) throws InterruptedException {
+        LocalDateTime readBefore =
+                LocalDateTime.now().minusDays(AppConfig.NOTIFICATION_READ_RETENTION_DAYS);
+        int afterId = 0;
+
+        while (running) {
+            List<Integer> ids = notificationDAO.findReadNotificationIds(
+                    readBefore, afterId, AppConfig.NOTIFICATION_PURGE_BATCH_SIZE);
+
+            if (ids.isEmpty()) {
+                return;
+            }
+
+            int fromId = ids.get(0);
+            afterId = ids.get(ids.size() - 1);
+
+            report.readPurged += notificationDAO.deleteReadNotifications(fromId, afterId, readBefore);
+            report.batches++;
+
+            if (ids.size() < AppConfig.NOTIFICATION_PURGE_BATCH_SIZE) {
+                return;
+            }
+
+            Thread.sleep(AppConfig.NOTIFICATION_PURGE_BATCH_DELAY);
+        }
+    }
+
+    /*
+     * Walks user ids in ranges of NOTIFICATION_PURGE_USER_BATCH_SIZE up to
+     * the highest id with notifications when the run started. Users who
+     * appear later are handled on the next run.
+     */
+    private void purgeOverflow(Report report) throws InterruptedException {
+        int lastUserId = notificationDAO.findLastNotifiedUserId();
+
+        for (int fromUserId = 1; fromUserId <= lastUserId && running;
+                fromUserId += AppConfig.NOTIFICATION_PURGE_USER_BATCH_SIZE) {
+
+            List<Integer> userIds = notificationDAO.findUsersOverNotificationLimit(
+                    AppConfig.NOTIFICATION_RETENTION_PER_USER, fromUserId,
+                    fromUserId + AppConfig.NOTIFICATION_PURGE_USER_BATCH_SIZE - 1);
+
+            for (Integer userId : userIds) {
+                int deleted;
+                do {
+                    if (!running) {
+                        return;
+                    }
+
+                    deleted = notificationDAO.deleteOldestNotifications(userId,
+                            AppConfig.NOTIFICATION_RETENTION_PER_USER,
+                            AppConfig.NOTIFICATION_PURGE_BATCH_SIZE);
+
+                    report.overflowPurged += deleted;
+                    report.batches++;
+
+                    Thread.sleep(AppConfig.NOTIFICATION_PURGE_BATCH_DELAY);
+                } while (deleted == AppConfig.NOTIFICATION_PURGE_BATCH_SIZE);
+            }
+        }
+    }
+
+    public static final class Report {
+
+        private int readPurged;
+        private int overflowPurged;
+        private int batches;
+        private long elapsedMillis;
+
+        public int getReadPurged() {
+            return readPurged;
+        }
+
+        public int getOverflowPurged() {
+            return overflowPurged;
+        }
+
+        public int getTotalPurged() {
+            return readPurged + overflowPurged;
+        }
+
+        public int getBatches() {
+            return batches;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "purged=" + getTotalPurged() + " (read=" + readPurged
+                    + ", over limit=" + overflowPurged + "), batches=" + batches
+                    + ", elapsed=" + elapsedMillis + "ms";
+        }
+    }
+}
@@ -1,39 +1,50 @@
 package com.revconnect.serviceimplementation;
 
 import com.revconnect.service.NotificationService;
+import com.revconnect.dao.NotificationDAO;
+import com.revconnect.dao.UserDAO;
 import com.revconnect.model.Notification;
 import com.revconnect.model.NotificationPreference;
-import com.revconnect.repository.NotificationRepository;
-
+import com.revconnect.model.Page;
+import com.revconnect.model.User;
+import com.revconnect.repository.CachingUserDAO;
+import com.revconnect.repository.DAOFactory;
+import com.revconnect.configuration.AppConfig;
+import com.revconnect.util.PageToken;
+
+import java.util.ArrayList;
 import java.util.List;
 
 public class NotificationServiceImpl implements NotificationService {
 
-    private final NotificationRepository notificationRepository;
+    private final NotificationDAO notificationRepository;
+    private final UserDAO userRepository;
 
     public NotificationServiceImpl() {
-        this.notificationRepository = new NotificationRepository();
+        this.notificationRepository = DAOFactory.notificationDAO();
+        this.userRepository = new CachingUserDAO(DAOFactory.userDAO());
     }
 
     @Override
     public boolean createNotification(Notification notification) {
 
-        NotificationPreference preferences =
-                notificationRepository.getPreferences(notification.getUserId());
-
-        boolean shouldNotify =
-                shouldCreateNotification(notification.getType(), preferences);
-
-        if (!shouldNotify) {
-            return false;
-        }
-
-        return notificationRepository.saveNotification(notification);
+        // Preference check and insert happen in the background writer
+        return NotificationDispatcher.getInstance().submit(notification);
     }
 
     @Override
     public List<Notification> getNotifications(int userId) {
-        return notificationRepository.findByUserId(userId);
+        List<Notification> notifications = notificationRepository.findByUserId(userId);
+        renderCoalesced(notifications);
+        return notifications;
+    }
+
+    @Override
+    public Page<Notification> getNotificationsPage(int userId, String pageToken, int pageSize) {
+        Page<Notification> page = notificationRepository.findByUserIdPage(userId, pageToken,
+                PageToken.clampPageSize(pageSize, AppConfig.DEFAULT_PAGE_SIZE, AppConfig.MAX_PAGE_SIZE));
+        renderCoalesced(page.getItems());
+        return page;
     }
 
     @Override
@@ -61,25 +72,82 @@ public class NotificationServiceImpl implements NotificationService {
         return notificationRepository.updatePreferences(preferences);
     }
 
-    private boolean shouldCreateNotification(
-            String notificationType,
-            NotificationPreference preferences) {
+    /*
+     * Rewrites the message of coalesced notifications, e.g.
+     * "alice, bob and 40 others liked your post".
+     */
+    private void renderCoalesced(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            String action = describeAction(notification.getType());
+
+            if (notification.getActorCount() <= 1 || action == null) {
+                continue;
+            }
+
+            List<String> names = new ArrayList<>();
+            for (Integer actorId : notification.getSampleActorIds()) {
+                User actor = userRepository.findById(actorId);
+                if (actor != null) {
+                    names.add(actor.getUsername());
+                }
+            }
+
+            if (names.isEmpty()) {
+                continue;
+            }
+
+            int others = notification.getActorCount() - names.size();
+            StringBuilder actors = new StringBuilder();
+
+            for (int i = 0; i < names.size(); i++) {
+                if (i > 0) {
+                    actors.append(others == 0 && i == names.size() - 1 ? " and " : ", ");
+                }
+                actors.append(names.get(i));
+            }
+
+            if (others > 0) {
+                actors.append(" and ").append(others).append(others == 1 ? " other" : " others");
+            }
+
+            notification.setMessage(actors + " " + action);
+        }
+    }
+
+    private static String describeAction(String notificationType) {
+        switch (notificationType) {
+            case "LIKE":
+                return "liked your post";
+            case "COMMENT":
+                return "commented on your post";
+            case "SHARE":
+                return "shared your post";
+            default:
+                return null;
+        }
+    }
+
+    static boolean shouldCreateNotification(String notificationType, int preferenceMask) {
+        int flag = preferenceFlag(notificationType);
+        return flag == 0 || (preferenceMask & flag) != 0;
+    }
 
+    private static int preferenceFlag(String notificationType) {
         switch (notificationType) {
             case "CONNECTION_REQUEST":
-                return preferences.isConnectionRequests();
+                return NotificationPreference.CONNECTION_REQUESTS;
             case "NEW_FOLLOWER":
-                return preferences.isNewFollowers();
+                return NotificationPreference.NEW_FOLLOWERS;
             case "LIKE":
-                return preferences.isLikes();
+                return NotificationPreference.LIKES;
             case "COMMENT":
-                return preferences.isComments();
+                return NotificationPreference.COMMENTS;
             case "SHARE":
-                return preferences.isShares();
+                return NotificationPreference.SHARES;
             case "NEW_POST":
-                return preferences.isNewPosts();
+                return NotificationPreference.NEW_POSTS;
             default:
-                return true;
+                return 0;
         }
     }
 }
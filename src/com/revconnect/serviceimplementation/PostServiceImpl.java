@@ -2,33 +2,45 @@ package com.revconnect.serviceimplementation;
 
 import com.revconnect.service.PostService;
 import com.revconnect.service.NotificationService;
+import com.revconnect.model.CreatorDashboard;
+import com.revconnect.model.EngagementBucket;
+import com.revconnect.model.Page;
 import com.revconnect.model.Post;
 import com.revconnect.model.PostAnalytics;
 import com.revconnect.model.Comment;
 import com.revconnect.model.Notification;
-import com.revconnect.repository.PostRepository;
-import com.revconnect.repository.CommentRepository;
-import com.revconnect.repository.LikeRepository;
-import com.revconnect.repository.ShareRepository;
+import com.revconnect.dao.CommentDAO;
+import com.revconnect.dao.LikeDAO;
+import com.revconnect.dao.PostDAO;
+import com.revconnect.dao.ShareDAO;
+import com.revconnect.dao.TimelineDAO;
+import com.revconnect.repository.DAOFactory;
+import com.revconnect.repository.TrendingEngine;
 import com.revconnect.configuration.AppConfig;
 import com.revconnect.exception.ValidationException;
+import com.revconnect.util.PageToken;
+import com.revconnect.util.UnitOfWork;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 
 public class PostServiceImpl implements PostService {
 
-    private final PostRepository postRepository;
-    private final CommentRepository commentRepository;
-    private final LikeRepository likeRepository;
-    private final ShareRepository shareRepository;
+    private final PostDAO postRepository;
+    private final CommentDAO commentRepository;
+    private final LikeDAO likeRepository;
+    private final ShareDAO shareRepository;
+    private final TimelineDAO timelineRepository;
     private final NotificationService notificationService;
 
     public PostServiceImpl() {
-        this.postRepository = new PostRepository();
-        this.commentRepository = new CommentRepository();
-        this.likeRepository = new LikeRepository();
-        this.shareRepository = new ShareRepository();
+        this.postRepository = DAOFactory.postDAO();
+        this.commentRepository = DAOFactory.commentDAO();
+        this.likeRepository = DAOFactory.likeDAO();
+        this.shareRepository = DAOFactory.shareDAO();
+        this.timelineRepository = DAOFactory.timelineDAO();
         this.notificationService = new NotificationServiceImpl();
     }
 
@@ -47,7 +59,18 @@ public class PostServiceImpl implements PostService {
         }
 
         post.setCreatedAt(LocalDateTime.now());
-        return postRepository.createPost(post);
+
+        // A post that is saved but missing from the timelines would never show up in a feed
+        return UnitOfWork.inTransaction(() -> {
+            boolean created = postRepository.createPost(post);
+
+            if (created) {
+                timelineRepository.fanOutPost(post);
+                UnitOfWork.afterCommit(() -> NewPostNotifier.getInstance().submit(post));
+            }
+
+            return created;
+        });
     }
 
     @Override
@@ -80,33 +103,68 @@ public class PostServiceImpl implements PostService {
             throw new ValidationException("You can only delete your own posts");
         }
 
-        return postRepository.deletePost(postId);
+        boolean deleted = postRepository.deletePost(postId);
+
+        if (deleted) {
+            timelineRepository.removePost(postId);
+            TrendingEngine.remove(postId);
+            NewPostNotifier.getInstance().cancel(postId);
+        }
+
+        return deleted;
     }
 
     @Override
     public List<Post> getMyPosts(int userId) {
-        return postRepository.findByUserId(userId);
+        List<Post> posts = postRepository.findByUserId(userId);
+        postRepository.recordViews(userId, posts);
+        return posts;
+    }
+
+    @Override
+    public Page<Post> getMyPostsPage(int userId, String pageToken, int pageSize) {
+        Page<Post> page = postRepository.findByUserIdPage(userId, pageToken,
+                PageToken.clampPageSize(pageSize, AppConfig.DEFAULT_PAGE_SIZE, AppConfig.MAX_PAGE_SIZE));
+        postRepository.recordViews(userId, page.getItems());
+        return page;
     }
 
     @Override
     public List<Post> getFeed(int userId) {
-        return postRepository.getFeed(userId);
+        timelineRepository.ensureMaterialized(userId);
+        List<Post> feed = postRepository.getFeed(userId);
+        postRepository.recordViews(userId, feed);
+        return feed;
+    }
+
+    @Override
+    public Page<Post> getFeedPage(int userId, String pageToken, int pageSize) {
+        timelineRepository.ensureMaterialized(userId);
+        Page<Post> page = postRepository.getFeedPage(userId, pageToken,
+                PageToken.clampPageSize(pageSize, AppConfig.DEFAULT_PAGE_SIZE, AppConfig.MAX_PAGE_SIZE));
+        postRepository.recordViews(userId, page.getItems());
+        return page;
     }
 
     @Override
     public List<Post> getFilteredFeed(int userId,
                                       String postType,
                                       String userType) {
-        return postRepository.getFilteredFeed(userId, postType, userType);
+        timelineRepository.ensureMaterialized(userId);
+        List<Post> feed = postRepository.getFilteredFeed(userId, postType, userType);
+        postRepository.recordViews(userId, feed);
+        return feed;
     }
 
     @Override
-    public List<Post> getTrendingPosts() {
-        return postRepository.getTrendingPosts();
+    public List<Post> getTrendingPosts(int viewerId) {
+        List<Post> trending = postRepository.getTrendingPosts();
+        postRepository.recordViews(viewerId, trending);
+        return trending;
     }
 
     @Override
-    public List<Post> searchByHashtag(String hashtag) {
+    public List<Post> searchByHashtag(String hashtag, int viewerId) {
 
         if (hashtag == null || hashtag.trim().isEmpty()) {
             throw new ValidationException("Hashtag cannot be empty");
@@ -117,46 +175,78 @@ public class PostServiceImpl implements PostService {
                         ? hashtag.substring(1)
                         : hashtag;
 
-        return postRepository.searchByHashtag(cleanHashtag);
+        List<Post> posts = postRepository.searchByHashtag(cleanHashtag);
+        postRepository.recordViews(viewerId, posts);
+        return posts;
     }
 
     @Override
-    public boolean likePost(int postId, int userId) {
+    public Page<Post> searchByHashtagPage(String hashtag, int viewerId,
+                                          String pageToken, int pageSize) {
 
-        Post post = postRepository.findById(postId);
-        if (post == null) {
-            throw new ValidationException("Post not found");
+        if (hashtag == null || hashtag.trim().isEmpty()) {
+            throw new ValidationException("Hashtag cannot be empty");
         }
 
-        boolean liked =
-                likeRepository.addLike(postId, userId);
+        Page<Post> page = postRepository.searchByHashtagPage(hashtag, pageToken,
+                PageToken.clampPageSize(pageSize, AppConfig.DEFAULT_PAGE_SIZE, AppConfig.MAX_PAGE_SIZE));
+        postRepository.recordViews(viewerId, page.getItems());
+        return page;
+    }
 
-        if (liked && post.getUserId() != userId) {
+    @Override
+    public boolean likePost(int postId, int userId) {
 
-            Notification notification = new Notification();
-            notification.setUserId(post.getUserId());
-            notification.setType("LIKE");
-            notification.setMessage("Someone liked your post");
-            notification.setRead(false);
-            notification.setRelatedUserId(userId);
-            notification.setRelatedPostId(postId);
-            notification.setCreatedAt(LocalDateTime.now());
+        return UnitOfWork.inTransaction(() -> {
+            Post post = postRepository.findById(postId);
+            if (post == null) {
+                throw new ValidationException("Post not found");
+            }
 
-            notificationService.createNotification(notification);
-        }
+            boolean liked =
+                    likeRepository.addLike(postId, userId);
+
+            if (liked) {
+                UnitOfWork.afterCommit(() ->
+                        TrendingEngine.recordEngagement(postId, post.getCreatedAt(), 1));
+            }
 
-        return liked;
+            if (liked && post.getUserId() != userId) {
+
+                Notification notification = new Notification();
+                notification.setUserId(post.getUserId());
+                notification.setType("LIKE");
+                notification.setMessage("Someone liked your post");
+                notification.setRead(false);
+                notification.setRelatedUserId(userId);
+                notification.setRelatedPostId(postId);
+                notification.setCreatedAt(LocalDateTime.now());
+
+                UnitOfWork.afterCommit(() -> notificationService.createNotification(notification));
+            }
+
+            return liked;
+        });
     }
 
     @Override
     public boolean unlikePost(int postId, int userId) {
 
-        Post post = postRepository.findById(postId);
-        if (post == null) {
-            throw new ValidationException("Post not found");
-        }
+        return UnitOfWork.inTransaction(() -> {
+            Post post = postRepository.findById(postId);
+            if (post == null) {
+                throw new ValidationException("Post not found");
+            }
+
+            boolean unliked = likeRepository.removeLike(postId, userId);
+
+            if (unliked) {
+                UnitOfWork.afterCommit(() ->
+                        TrendingEngine.recordEngagement(postId, post.getCreatedAt(), -1));
+            }
 
-        return likeRepository.removeLike(postId, userId);
+            return unliked;
+        });
     }
 
     @Override
@@ -164,43 +254,50 @@ public class PostServiceImpl implements PostService {
                                  int userId,
                                  String commentText) {
 
-        Post post = postRepository.findById(postId);
-        if (post == null) {
-            throw new ValidationException("Post not found");
-        }
-
-        if (commentText == null || commentText.trim().isEmpty()) {
-            throw new ValidationException("Comment cannot be empty");
-        }
-
-        if (commentText.length()
-                > AppConfig.MAX_COMMENT_LENGTH) {
-
-            throw new ValidationException(
-                    "Comment exceeds maximum length of "
-                            + AppConfig.MAX_COMMENT_LENGTH
-                            + " characters");
-        }
-
-        boolean commented =
-                commentRepository.addComment(
-                        postId, userId, commentText);
-
-        if (commented && post.getUserId() != userId) {
-
-            Notification notification = new Notification();
-            notification.setUserId(post.getUserId());
-            notification.setType("COMMENT");
-            notification.setMessage("Someone commented on your post");
-            notification.setRead(false);
-            notification.setRelatedUserId(userId);
-            notification.setRelatedPostId(postId);
-            notification.setCreatedAt(LocalDateTime.now());
-
-            notificationService.createNotification(notification);
-        }
-
-        return commented;
+        return UnitOfWork.inTransaction(() -> {
+            Post post = postRepository.findById(postId);
+            if (post == null) {
+                throw new ValidationException("Post not found");
+            }
+
+            if (commentText == null || commentText.trim().isEmpty()) {
+                throw new ValidationException("Comment cannot be empty");
+            }
+
+            if (commentText.length()
+                    > AppConfig.MAX_COMMENT_LENGTH) {
+
+                throw new ValidationException(
+                        "Comment exceeds maximum length of "
+                                + AppConfig.MAX_COMMENT_LENGTH
+                                + " characters");
+            }
+
+            boolean commented =
+                    commentRepository.addComment(
+                            postId, userId, commentText);
+
+            if (commented) {
+                UnitOfWork.afterCommit(() ->
+                        TrendingEngine.recordEngagement(postId, post.getCreatedAt(), 1));
+            }
+
+            if (commented && post.getUserId() != userId) {
+
+                Notification notification = new Notification();
+                notification.setUserId(post.getUserId());
+                notification.setType("COMMENT");
+                notification.setMessage("Someone commented on your post");
+                notification.setRead(false);
+                notification.setRelatedUserId(userId);
+                notification.setRelatedPostId(postId);
+                notification.setCreatedAt(LocalDateTime.now());
+
+                UnitOfWork.afterCommit(() -> notificationService.createNotification(notification));
+            }
+
+            return commented;
+        });
     }
 
     @Override
@@ -208,38 +305,68 @@ public class PostServiceImpl implements PostService {
         return commentRepository.findByPostId(postId);
     }
 
+    @Override
+    public Page<Comment> getCommentsPage(int postId, String pageToken, int pageSize) {
+        return commentRepository.findByPostIdPage(postId, pageToken,
+                PageToken.clampPageSize(pageSize, AppConfig.DEFAULT_PAGE_SIZE, AppConfig.MAX_PAGE_SIZE));
+    }
+
     @Override
     public boolean deleteComment(int commentId,
                                  int userId) {
-        return commentRepository.deleteComment(commentId, userId);
+
+        return UnitOfWork.inTransaction(() -> {
+            Comment comment = commentRepository.findById(commentId);
+            if (comment == null || comment.getUserId() != userId) {
+                return false;
+            }
+
+            Post post = postRepository.findById(comment.getPostId());
+
+            boolean deleted = commentRepository.deleteComment(commentId, userId);
+
+            if (deleted && post != null) {
+                UnitOfWork.afterCommit(() ->
+                        TrendingEngine.recordEngagement(post.getPostId(), post.getCreatedAt(), -1));
+            }
+
+            return deleted;
+        });
     }
 
     @Override
     public boolean sharePost(int postId, int userId) {
 
-        Post post = postRepository.findById(postId);
-        if (post == null) {
-            throw new ValidationException("Post not found");
-        }
+        return UnitOfWork.inTransaction(() -> {
+            Post post = postRepository.findById(postId);
+            if (post == null) {
+                throw new ValidationException("Post not found");
+            }
 
-        boolean shared =
-                shareRepository.sharePost(postId, userId);
+            boolean shared =
+                    shareRepository.sharePost(postId, userId);
 
-        if (shared && post.getUserId() != userId) {
+            if (shared) {
+                UnitOfWork.afterCommit(() ->
+                        TrendingEngine.recordEngagement(postId, post.getCreatedAt(), 1));
+            }
 
-            Notification notification = new Notification();
-            notification.setUserId(post.getUserId());
-            notification.setType("SHARE");
-            notification.setMessage("Someone shared your post");
-            notification.setRead(false);
-            notification.setRelatedUserId(userId);
-            notification.setRelatedPostId(postId);
-            notification.setCreatedAt(LocalDateTime.now());
+            if (shared && post.getUserId() != userId) {
 
-            notificationService.createNotification(notification);
-        }
+                Notification notification = new Notification();
+                notification.setUserId(post.getUserId());
+                notification.setType("SHARE");
+                notification.setMessage("Someone shared your post");
+                notification.setRead(false);
+                notification.setRelatedUserId(userId);
+                notification.setRelatedPostId(postId);
+                notification.setCreatedAt(LocalDateTime.now());
+
+                UnitOfWork.afterCommit(() -> notificationService.createNotification(notification));
+            }
 
-        return shared;
+            return shared;
+        });
     }
 
     @Override
@@ -271,7 +398,13 @@ public class PostServiceImpl implements PostService {
                     "Post content exceeds maximum length");
         }
 
-        return postRepository.schedulePost(post);
+        boolean scheduled = postRepository.schedulePost(post);
+
+        if (scheduled) {
+            ScheduledPostPublisher.getInstance().schedule(post);
+        }
+
+        return scheduled;
     }
 
     @Override
@@ -300,4 +433,68 @@ public class PostServiceImpl implements PostService {
 
         return postRepository.getAnalytics(postId);
     }
+
+    /*
+     * Served from the account-level aggregates, so the cost is the same
+     * for an account with ten posts or ten thousand. Figures lag live
+     * activity by up to ANALYTICS_FLUSH_INTERVAL.
+     */
+    @Override
+    public CreatorDashboard getCreatorDashboard(int userId) {
+        return postRepository.getCreatorDashboard(userId,
+                AppConfig.DASHBOARD_GROWTH_DAYS, AppConfig.DASHBOARD_TOP_POSTS);
+    }
+
+    /*
+     * range is a count followed by H (hourly buckets, e.g. "24H") or
+     * D (daily buckets, e.g. "30D"). Hours without activity are returned
+     * as zero buckets so the series has no gaps.
+     */
+    @Override
+    public List<EngagementBucket> getAnalyticsTimeline(int postId, String range) {
+
+        if (range == null || !range.trim().matches("\\d+[HhDd]")) {
+            throw new ValidationException("Range must look like 24H or 30D");
+        }
+
+        Post post = postRepository.findById(postId);
+        if (post == null) {
+            throw new ValidationException("Post not found");
+        }
+
+        String trimmed = range.trim().toUpperCase();
+        int count = Integer.parseInt(trimmed.substring(0, trimmed.length() - 1));
+        boolean hourly = trimmed.endsWith("H");
+
+        int maxCount = hourly
+                ? AppConfig.ANALYTICS_HOURLY_RETENTION_DAYS * 24
+                : AppConfig.ANALYTICS_MAX_TIMELINE_DAYS;
+
+        if (count < 1 || count > maxCount) {
+            throw new ValidationException("Range must be between 1 and " + maxCount
+                    + (hourly ? " hours" : " days"));
+        }
+
+        ChronoUnit unit = hourly ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+        String granularity = hourly ? EngagementBucket.HOUR : EngagementBucket.DAY;
+        LocalDateTime from = LocalDateTime.now().truncatedTo(unit).minus(count - 1, unit);
+
+        List<EngagementBucket> stored =
+                postRepository.getEngagementBuckets(postId, from, granularity);
+
+        List<EngagementBucket> timeline = new ArrayList<>(count);
+        int next = 0;
+
+        for (int i = 0; i < count; i++) {
+            LocalDateTime bucketStart = from.plus(i, unit);
+
+            if (next < stored.size() && stored.get(next).getBucketStart().equals(bucketStart)) {
+                timeline.add(stored.get(next++));
+            } else {
+                timeline.add(new EngagementBucket(postId, granularity, bucketStart));
+            }
+        }
+
+        return timeline;
+    }
 }
@@ -0,0 +1,217 @@
+package com.revconnect.serviceimplementation;
+
+import com.revconnect.dao.PostDAO;
+import com.revconnect.dao.TimelineDAO;
+import com.revconnect.model.Post;
+import com.revconnect.repository.DAOFactory;
+import com.revconnect.configuration.AppConfig;
+import com.revconnect.exception.DatabaseException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes rows from scheduled_posts when their time arrives.
+ *
+ * A loader reads unpublished rows due within the next poll interval, in
+ * batches of SCHEDULER_BATCH_SIZE, into a DelayQueue. A dispatcher thread
+ * takes each post as it becomes due, fans it out to timelines and then
+ * flips is_published. Readers hide the post until that flag flips, and the
+ * fan-out is an INSERT IGNORE, so a publish interrupted by a restart is
+ * simply repeated. After downtime, overdue rows are loaded one batch at a
+ * time and never more than SCHEDULER_QUEUE_CAPACITY are held in memory.
+ */
+public class ScheduledPostPublisher {
+
+    private static final ScheduledPostPublisher INSTANCE =
+            new ScheduledPostPublisher(DAOFactory.postDAO(), DAOFactory.timelineDAO());
+
+    private static final long DISPATCH_POLL_TIMEOUT = 500;
+
+    private final PostDAO postDAO;
+    private final TimelineDAO timelineDAO;
+    private final DelayQueue<DuePost> queue = new DelayQueue<>();
+    private final Set<Integer> queuedPostIds = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService loader;
+    private final Thread dispatcher;
+
+    private volatile boolean running;
+
+    ScheduledPostPublisher(PostDAO postDAO, TimelineDAO timelineDAO) {
+        this.postDAO = postDAO;
+        this.timelineDAO = timelineDAO;
+
+        this.loader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "revconnect-schedule-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.dispatcher = new Thread(this::dispatchLoop, "revconnect-schedule-dispatcher");
+        this.dispatcher.setDaemon(true);
+    }
+
+    public static ScheduledPostPublisher getInstance() {
+        return INSTANCE;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+        dispatcher.start();
+        loader.execute(this::loadCycle);
+    }
+
+    /*
+     * Queues a freshly scheduled post right away when it falls inside the
+     * current load window; otherwise the loader picks it up later.
+     */
+    public void schedule(Post post) {
+        LocalDateTime horizon = LocalDateTime.now()
+                .plusNanos(TimeUnit.MILLISECONDS.toNanos(AppConfig.SCHEDULER_POLL_INTERVAL));
+
+        if (running
+                && post.getScheduledTime() != null
+                && !post.getScheduledTime().isAfter(horizon)) {
+            enqueue(post);
+        }
+    }
+
+    public int getPendingCount() {
+        return queuedPostIds.size();
+    }
+
+    public void shutdown() {
+        // Anything still queued remains unpublished in the table and is reloaded on next start
+        running = false;
+        loader.shutdownNow();
+
+        try {
+            dispatcher.join(AppConfig.SHUTDOWN_FLUSH_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void loadCycle() {
+        long delay = AppConfig.SCHEDULER_POLL_INTERVAL;
+
+        try {
+            delay = loadDue();
+        } catch (DatabaseException e) {
+            System.err.println("Failed to load scheduled posts: " + e.getMessage());
+        } finally {
+            if (running) {
+                try {
+                    loader.schedule(this::loadCycle, delay, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    // shutting down
+                }
+            }
+        }
+    }
+
+    private long loadDue() {
+        int room = AppConfig.SCHEDULER_QUEUE_CAPACITY - queuedPostIds.size();
+        if (room <= 0) {
+            return AppConfig.SCHEDULER_CATCH_UP_DELAY;
+        }
+
+        int limit = Math.min(room, AppConfig.SCHEDULER_BATCH_SIZE);
+        LocalDateTime horizon = LocalDateTime.now()
+                .plusNanos(TimeUnit.MILLISECONDS.toNanos(AppConfig.SCHEDULER_POLL_INTERVAL));
+
+        List<Post> due = postDAO.findDueScheduledPosts(horizon, limit);
+
+        int added = 0;
+        for (Post post : due) {
+            if (enqueue(post)) {
+                added++;
+            }
+        }
+
+        // A full batch of new rows means a backlog is waiting; come back sooner
+        return due.size() == limit && added > 0
+                ? AppConfig.SCHEDULER_CATCH_UP_DELAY
+                : AppConfig.SCHEDULER_POLL_INTERVAL;
+    }
+
+    private boolean enqueue(Post post) {
+        if (!queuedPostIds.add(post.getPostId())) {
+            return false;
+        }
+        queue.offer(new DuePost(post));
+        return true;
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            DuePost due;
+            try {
+                due = queue.poll(DISPATCH_POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (due == null) {
+                continue;
+            }
+
+            try {
+                publish(due.post);
+            } catch (RuntimeException e) {
+                // Row stays unpublished; the loader finds it again on its next pass.
+                // Not just DatabaseException: this is the only dispatcher thread.
+                System.err.println("Failed to publish scheduled post "
+                        + due.post.getPostId() + ": " + e.getMessage());
+            } finally {
+                queuedPostIds.remove(due.post.getPostId());
+            }
+        }
+    }
+
+    private void publish(Post post) {
+        // Timeline rows stay hidden until the flag flips, so this order is safe to repeat
+        timelineDAO.fanOutPost(post);
+
+        if (postDAO.markScheduledPostPublished(post.getPostId())) {
+            NewPostNotifier.getInstance().submit(post);
+        }
+    }
+
+    private static final class DuePost implements Delayed {
+
+        private final Post post;
+        private final long dueAt;
+
+        private DuePost(Post post) {
+            this.post = post;
+            this.dueAt = post.getScheduledTime()
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS),
+                    other.getDelay(TimeUnit.MILLISECONDS));
+        }
+    }
+}
@@ -4,12 +4,17 @@ import com.revconnect.service.UserService;
 import com.revconnect.model.User;
 import com.revconnect.model.Profile;
 import com.revconnect.model.UserSecurityAnswer;
-import com.revconnect.repository.UserRepository;
-import com.revconnect.repository.ProfileRepository;
-import com.revconnect.repository.SecurityQuestionRepository;
+import com.revconnect.dao.UserDAO;
+import com.revconnect.dao.ProfileDAO;
+import com.revconnect.dao.SecurityQuestionDAO;
+import com.revconnect.repository.CachingUserDAO;
+import com.revconnect.repository.CachingProfileDAO;
+import com.revconnect.repository.DAOFactory;
 import com.revconnect.util.PasswordUtil;
+import com.revconnect.util.UnitOfWork;
 import com.revconnect.util.ValidationUtil;
 import com.revconnect.exception.AuthenticationException;
+import com.revconnect.exception.DatabaseException;
 import com.revconnect.exception.ValidationException;
 
 import java.time.LocalDateTime;
@@ -17,14 +22,14 @@ import java.util.List;
 
 public class UserServiceImpl implements UserService {
 
-    private final UserRepository userRepository;
-    private final ProfileRepository profileRepository;
-    private final SecurityQuestionRepository securityQuestionRepository;
+    private final UserDAO userRepository;
+    private final ProfileDAO profileRepository;
+    private final SecurityQuestionDAO securityQuestionRepository;
 
     public UserServiceImpl() {
-        this.userRepository = new UserRepository();
-        this.profileRepository = new ProfileRepository();
-        this.securityQuestionRepository = new SecurityQuestionRepository();
+        this.userRepository = new CachingUserDAO(DAOFactory.userDAO());
+        this.profileRepository = new CachingProfileDAO(DAOFactory.profileDAO());
+        this.securityQuestionRepository = DAOFactory.securityQuestionDAO();
     }
 
     @Override
@@ -56,21 +61,23 @@ public class UserServiceImpl implements UserService {
         user.setPassword(hashedPassword);
         user.setCreatedAt(LocalDateTime.now());
 
-        boolean userCreated = userRepository.registerUser(user);
+        // The user and profile rows commit together or not at all
+        return UnitOfWork.inTransaction(() -> {
+            boolean userCreated = userRepository.registerUser(user);
+
+            if (!userCreated || user.getUserId() <= 0) {
+                return false;
+            }
 
-        if (userCreated && user.getUserId() > 0) {
             profile.setUserId(user.getUserId());
             profile.setCreatedAt(LocalDateTime.now());
-            boolean profileCreated = profileRepository.createProfile(profile);
 
-            if (profileCreated) {
-                return true;
-            } else {
-                return false;
+            if (!profileRepository.createProfile(profile)) {
+                throw new DatabaseException("Failed to create profile");
             }
-        }
 
-        return false;
+            return true;
+        });
     }
 
     @Override
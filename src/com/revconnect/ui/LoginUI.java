@@ -4,7 +4,8 @@ import com.revconnect.model.User;
 import com.revconnect.model.SecurityQuestion;
 import com.revconnect.service.UserService;
 import com.revconnect.serviceimplementation.UserServiceImpl;
-import com.revconnect.repository.SecurityQuestionRepository;
+import com.revconnect.dao.SecurityQuestionDAO;
+import com.revconnect.repository.DAOFactory;
 import com.revconnect.exception.AuthenticationException;
 import com.revconnect.exception.ValidationException;
 
@@ -14,12 +15,12 @@ import java.util.Scanner;
 public class LoginUI {
     
     private UserService userService;
-    private SecurityQuestionRepository securityQuestionRepository;
+    private SecurityQuestionDAO securityQuestionRepository;
     private Scanner scanner;
     
     public LoginUI() {
         this.userService = new UserServiceImpl();
-        this.securityQuestionRepository = new SecurityQuestionRepository();
+        this.securityQuestionRepository = DAOFactory.securityQuestionDAO();
         this.scanner = new Scanner(System.in);
     }
     
@@ -3,11 +3,14 @@
 package com.revconnect.ui;
 
 import com.revconnect.model.User;
+import com.revconnect.model.Conversation;
 import com.revconnect.model.Message;
+import com.revconnect.model.Page;
 import com.revconnect.service.MessageService;
 import com.revconnect.service.NetworkService;
 import com.revconnect.serviceimplementation.MessageServiceImpl;
 import com.revconnect.serviceimplementation.NetworkServiceImpl;
+import com.revconnect.configuration.AppConfig;
 
 import java.util.List;
 import java.util.Scanner;
@@ -145,35 +148,42 @@ public class MessagingUI {
         System.out.println("      RECENT CONVERSATIONS");
         System.out.println("========================================");
         
-        List<User> connections = networkService.getConnections(loggedInUser.getUserId());
+        Page<Conversation> page = messageService.getInbox(
+            loggedInUser.getUserId(),
+            null,
+            AppConfig.DEFAULT_PAGE_SIZE
+        );
         
-        if (connections.isEmpty()) {
-            System.out.println("\nNo conversations yet. Connect with users to start messaging.");
+        if (page.getItems().isEmpty()) {
+            System.out.println("\nNo conversations yet. Send a message to one of your connections to start one.");
             return;
         }
         
-        System.out.println("\nConnections you can message:");
         System.out.println("----------------------------------------");
         
-        for (User user : connections) {
-            List<Message> conversation = messageService.getConversation(
-                loggedInUser.getUserId(), 
-                user.getUserId()
-            );
-            
-            int unreadCount = 0;
-            for (Message msg : conversation) {
-                if (msg.getReceiverId() == loggedInUser.getUserId() && !msg.isRead()) {
-                    unreadCount++;
+        while (true) {
+            for (Conversation conversation : page.getItems()) {
+                String sender = conversation.getLastSenderId() == loggedInUser.getUserId()
+                        ? "You" : conversation.getOtherUsername();
+                
+                System.out.println("User ID: " + conversation.getOtherUserId() + " | " + conversation.getOtherUsername());
+                System.out.println("  " + sender + ": " + conversation.getLastMessageText());
+                System.out.println("  Last activity: " + conversation.getLastActivityAt());
+                System.out.println("  Messages: " + conversation.getMessageCount());
+                if (conversation.getUnreadCount() > 0) {
+                    System.out.println("  Unread: " + conversation.getUnreadCount());
                 }
+                System.out.println("----------------------------------------");
             }
             
-            System.out.println("User ID: " + user.getUserId() + " | " + user.getUsername());
-            System.out.println("  Messages: " + conversation.size());
-            if (unreadCount > 0) {
-                System.out.println("  Unread: " + unreadCount);
+            if (!page.hasNext() || !askLoadMoreConversations()) {
+                break;
             }
-            System.out.println("----------------------------------------");
+            page = messageService.getInbox(
+                loggedInUser.getUserId(),
+                page.getNextPageToken(),
+                AppConfig.DEFAULT_PAGE_SIZE
+            );
         }
     }
     
@@ -182,12 +192,14 @@ public class MessagingUI {
         int otherUserId = Integer.parseInt(scanner.nextLine().trim());
         
         try {
-            List<Message> conversation = messageService.getConversation(
+            Page<Message> page = messageService.getConversationPage(
                 loggedInUser.getUserId(), 
-                otherUserId
+                otherUserId,
+                null,
+                AppConfig.DEFAULT_PAGE_SIZE
             );
             
-            if (conversation.isEmpty()) {
+            if (page.getItems().isEmpty()) {
                 System.out.println("\nNo messages in this conversation yet.");
                 return;
             }
@@ -195,17 +207,30 @@ public class MessagingUI {
             System.out.println("\n========================================");
             System.out.println("      CONVERSATION HISTORY");
             System.out.println("========================================");
-            System.out.println("Total messages: " + conversation.size());
-            System.out.println("----------------------------------------");
             
-            for (Message message : conversation) {
-                String direction = message.getSenderId() == loggedInUser.getUserId() ? "You" : "Them";
-                String status = message.isRead() ? "[READ]" : "[UNREAD]";
-                
-                System.out.println(direction + " " + status);
-                System.out.println("  " + message.getMessageText());
-                System.out.println("  " + message.getCreatedAt());
+            while (true) {
+                System.out.println("Showing " + page.getItems().size() + " message(s)");
                 System.out.println("----------------------------------------");
+                
+                for (Message message : page.getItems()) {
+                    String direction = message.getSenderId() == loggedInUser.getUserId() ? "You" : "Them";
+                    String status = message.isRead() ? "[READ]" : "[UNREAD]";
+                    
+                    System.out.println(direction + " " + status);
+                    System.out.println("  " + message.getMessageText());
+                    System.out.println("  " + message.getCreatedAt());
+                    System.out.println("----------------------------------------");
+                }
+                
+                if (!page.hasNext() || !askLoadMore()) {
+                    break;
+                }
+                page = messageService.getConversationPage(
+                    loggedInUser.getUserId(),
+                    otherUserId,
+                    page.getNextPageToken(),
+                    AppConfig.DEFAULT_PAGE_SIZE
+                );
             }
             
         } catch (Exception e) {
@@ -338,4 +363,16 @@ public class MessagingUI {
             System.out.println("\nError loading blocked users: " + e.getMessage());
         }
     }
+
+    private boolean askLoadMoreConversations() {
+        System.out.print("\nLoad more conversations? (yes/no): ");
+        String input = scanner.nextLine().trim().toLowerCase();
+        return input.equals("yes") || input.equals("y");
+    }
+    
+    private boolean askLoadMore() {
+        System.out.print("\nLoad older messages? (yes/no): ");
+        String input = scanner.nextLine().trim().toLowerCase();
+        return input.equals("yes") || input.equals("y");
+    }
 }
\ No newline at end of file
@@ -5,9 +5,13 @@ package com.revconnect.ui;
 import com.revconnect.model.User;
 import com.revconnect.model.Post;
 import com.revconnect.model.Comment;
+import com.revconnect.model.Page;
+import com.revconnect.model.CreatorDashboard;
+import com.revconnect.model.EngagementBucket;
 import com.revconnect.model.PostAnalytics;
 import com.revconnect.service.PostService;
 import com.revconnect.serviceimplementation.PostServiceImpl;
+import com.revconnect.configuration.AppConfig;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -69,6 +73,13 @@ public class PostUI {
                             System.out.println("\nInvalid choice.");
                         }
                         break;
+                    case 16:
+                        if (!loggedInUser.getUserType().equals("PERSONAL")) {
+                            viewCreatorDashboard();
+                        } else {
+                            System.out.println("\nInvalid choice.");
+                        }
+                        break;
                     case 0:
                         running = false;
                         break;
@@ -109,6 +120,7 @@ public class PostUI {
             System.out.println("13. Schedule Post");
             System.out.println("14. Pin Post");
             System.out.println("15. View Post Analytics");
+            System.out.println("16. View Account Dashboard");
         }
         
         System.out.println("0. Back to Main Menu");
@@ -157,14 +169,21 @@ public class PostUI {
         System.out.println("           MY POSTS");
         System.out.println("=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+");
         
-        List<Post> posts = postService.getMyPosts(loggedInUser.getUserId());
+        Page<Post> page = postService.getMyPostsPage(
+                loggedInUser.getUserId(), null, AppConfig.DEFAULT_PAGE_SIZE);
         
-        if (posts.isEmpty()) {
+        if (page.getItems().isEmpty()) {
             System.out.println("\nYou haven't created any posts yet.");
             return;
         }
         
-        displayPosts(posts);
+        displayPosts(page.getItems());
+        
+        while (page.hasNext() && askLoadMore()) {
+            page = postService.getMyPostsPage(
+                    loggedInUser.getUserId(), page.getNextPageToken(), AppConfig.DEFAULT_PAGE_SIZE);
+            displayPosts(page.getItems());
+        }
     }
     
     private void viewFeed() {
@@ -172,14 +191,21 @@ public class PostUI {
         System.out.println("          YOUR FEED");
         System.out.println("=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+");
         
-        List<Post> feed = postService.getFeed(loggedInUser.getUserId());
+        Page<Post> page = postService.getFeedPage(
+                loggedInUser.getUserId(), null, AppConfig.DEFAULT_PAGE_SIZE);
         
-        if (feed.isEmpty()) {
+        if (page.getItems().isEmpty()) {
             System.out.println("\nNo posts to display. Connect with users to see their posts.");
             return;
         }
         
-        displayPosts(feed);
+        displayPosts(page.getItems());
+        
+        while (page.hasNext() && askLoadMore()) {
+            page = postService.getFeedPage(
+                    loggedInUser.getUserId(), page.getNextPageToken(), AppConfig.DEFAULT_PAGE_SIZE);
+            displayPosts(page.getItems());
+        }
     }
     
     private void filterFeed() {
@@ -232,7 +258,7 @@ public class PostUI {
         System.out.println("        TRENDING POSTS");
         System.out.println("=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+");
         
-        List<Post> trending = postService.getTrendingPosts();
+        List<Post> trending = postService.getTrendingPosts(loggedInUser.getUserId());
         
         if (trending.isEmpty()) {
             System.out.println("\nNo trending posts at the moment.");
@@ -251,7 +277,7 @@ public class PostUI {
             return;
         }
         
-        List<Post> posts = postService.searchByHashtag(hashtag);
+        List<Post> posts = postService.searchByHashtag(hashtag, loggedInUser.getUserId());
         
         if (posts.isEmpty()) {
             System.out.println("\nNo posts found with hashtag: #" + hashtag);
@@ -313,19 +339,26 @@ public class PostUI {
         System.out.print("\nEnter Post ID: ");
         int postId = Integer.parseInt(scanner.nextLine().trim());
         
-        List<Comment> comments = postService.getComments(postId);
+        Page<Comment> page = postService.getCommentsPage(postId, null, AppConfig.DEFAULT_PAGE_SIZE);
         
-        if (comments.isEmpty()) {
+        if (page.getItems().isEmpty()) {
             System.out.println("\nNo comments on this post yet.");
             return;
         }
         
         System.out.println("\n--- Comments ---");
-        for (Comment comment : comments) {
-            System.out.println("ID: " + comment.getCommentId() + " | User ID: " + comment.getUserId());
-            System.out.println("  " + comment.getCommentText());
-            System.out.println("  " + comment.getCreatedAt());
-            System.out.println("----------------------------------------");
+        while (true) {
+            for (Comment comment : page.getItems()) {
+                System.out.println("ID: " + comment.getCommentId() + " | User ID: " + comment.getUserId());
+                System.out.println("  " + comment.getCommentText());
+                System.out.println("  " + comment.getCreatedAt());
+                System.out.println("----------------------------------------");
+            }
+            
+            if (!page.hasNext() || !askLoadMore()) {
+                break;
+            }
+            page = postService.getCommentsPage(postId, page.getNextPageToken(), AppConfig.DEFAULT_PAGE_SIZE);
         }
     }
     
@@ -385,6 +418,7 @@ public class PostUI {
             post.setContent(content);
             post.setHashtags(hashtags.isEmpty() ? null : hashtags);
             post.setPromotional(isPromotional);
+            post.setScheduledTime(scheduledTime);
             
             boolean success = postService.schedulePost(post);
             
@@ -431,6 +465,41 @@ public class PostUI {
         System.out.println("Total Shares: " + analytics.getTotalShares());
         System.out.println("Unique Viewers: " + analytics.getUniqueViewers());
         System.out.println("=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+");
+        
+        System.out.println("\nLast 7 days (likes / comments / shares / views):");
+        for (EngagementBucket bucket : postService.getAnalyticsTimeline(postId, "7D")) {
+            System.out.println(bucket.getBucketStart().toLocalDate() + ": "
+                    + bucket.getLikes() + " / " + bucket.getComments() + " / "
+                    + bucket.getShares() + " / " + bucket.getViews());
+        }
+    }
+    
+    private void viewCreatorDashboard() {
+        CreatorDashboard dashboard = postService.getCreatorDashboard(loggedInUser.getUserId());
+        
+        System.out.println("\n=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+");
+        System.out.println("       ACCOUNT DASHBOARD");
+        System.out.println("=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+");
+        System.out.println("Posts: " + dashboard.getTotalPosts());
+        System.out.println("Likes: " + dashboard.getTotalLikes());
+        System.out.println("Comments: " + dashboard.getTotalComments());
+        System.out.println("Shares: " + dashboard.getTotalShares());
+        System.out.println("Views: " + dashboard.getTotalViews());
+        System.out.println(String.format("Engagement Rate: %.2f%%", dashboard.getEngagementRate()));
+        System.out.println("Followers: " + dashboard.getFollowerCount()
+                + " (" + (dashboard.getFollowerGrowth() >= 0 ? "+" : "")
+                + dashboard.getFollowerGrowth() + " in the last "
+                + dashboard.getGrowthDays() + " days)");
+        System.out.println("=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+=+");
+        
+        if (!dashboard.getTopPosts().isEmpty()) {
+            System.out.println("\nTop posts (likes / comments / shares):");
+            for (PostAnalytics analytics : dashboard.getTopPosts()) {
+                System.out.println("Post " + analytics.getPostId() + ": "
+                        + analytics.getTotalLikes() + " / " + analytics.getTotalComments()
+                        + " / " + analytics.getTotalShares());
+            }
+        }
     }
     
     private void displayPosts(List<Post> posts) {
@@ -454,4 +523,10 @@ public class PostUI {
             System.out.println("-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+");
         }
     }
+
+    private boolean askLoadMore() {
+        System.out.print("\nLoad more? (yes/no): ");
+        String input = scanner.nextLine().trim().toLowerCase();
+        return input.equals("yes") || input.equals("y");
+    }
 }
\ No newline at end of file
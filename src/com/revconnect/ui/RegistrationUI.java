@@ -8,7 +8,8 @@ import com.revconnect.model.SecurityQuestion;
 import com.revconnect.model.UserSecurityAnswer;
 import com.revconnect.service.UserService;
 import com.revconnect.serviceimplementation.UserServiceImpl;
-import com.revconnect.repository.SecurityQuestionRepository;
+import com.revconnect.dao.SecurityQuestionDAO;
+import com.revconnect.repository.DAOFactory;
 import com.revconnect.util.ValidationUtil;
 import com.revconnect.util.PasswordUtil;
 import com.revconnect.exception.ValidationException;
@@ -19,12 +20,12 @@ import java.util.Scanner;
 public class RegistrationUI {
     
     private UserService userService;
-    private SecurityQuestionRepository securityQuestionRepository;
+    private SecurityQuestionDAO securityQuestionRepository;
     private Scanner scanner;
     
     public RegistrationUI() {
         this.userService = new UserServiceImpl();
-        this.securityQuestionRepository = new SecurityQuestionRepository();
+        this.securityQuestionRepository = DAOFactory.securityQuestionDAO();
         this.scanner = new Scanner(System.in);
     }
     
@@ -4,10 +4,11 @@ package com.revconnect.ui;
 
 import com.revconnect.model.User;
 import com.revconnect.model.Notification;
+import com.revconnect.model.Page;
 import com.revconnect.service.NotificationService;
 import com.revconnect.serviceimplementation.NotificationServiceImpl;
+import com.revconnect.configuration.AppConfig;
 
-import java.util.List;
 import java.util.Scanner;
 
 public class UserMenuUI {
@@ -123,25 +124,39 @@ public class UserMenuUI {
         System.out.println("========================================");
         
         try {
-            List<Notification> notifications = notificationService.getNotifications(loggedInUser.getUserId());
+            Page<Notification> page = notificationService.getNotificationsPage(
+                    loggedInUser.getUserId(), null, AppConfig.DEFAULT_PAGE_SIZE);
             
-            if (notifications.isEmpty()) {
+            if (page.getItems().isEmpty()) {
                 System.out.println("\nNo notifications to display.");
                 return;
             }
             
-            System.out.println("\nTotal notifications: " + notifications.size());
             System.out.println("----------------------------------------");
             
-            for (int i = 0; i < notifications.size(); i++) {
-                Notification notification = notifications.get(i);
+            int shown = 0;
+            while (true) {
+                for (Notification notification : page.getItems()) {
+                    String status = notification.isRead() ? "[READ]" : "[UNREAD]";
+                    
+                    System.out.println((++shown) + ". " + status + " " + notification.getType());
+                    System.out.println("   " + notification.getMessage());
+                    System.out.println("   Time: " + notification.getCreatedAt());
+                    System.out.println("----------------------------------------");
+                }
+                
+                if (!page.hasNext()) {
+                    break;
+                }
                 
-                String status = notification.isRead() ? "[READ]" : "[UNREAD]";
+                System.out.print("\nLoad more? (yes/no): ");
+                String more = scanner.nextLine().trim().toLowerCase();
+                if (!more.equals("yes") && !more.equals("y")) {
+                    break;
+                }
                 
-                System.out.println((i + 1) + ". " + status + " " + notification.getType());
-                System.out.println("   " + notification.getMessage());
-                System.out.println("   Time: " + notification.getCreatedAt());
-                System.out.println("----------------------------------------");
+                page = notificationService.getNotificationsPage(
+                        loggedInUser.getUserId(), page.getNextPageToken(), AppConfig.DEFAULT_PAGE_SIZE);
             }
             
             System.out.print("\nMark all as read? (yes/no): ");
@@ -0,0 +1,277 @@
+package com.revconnect.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded JDBC connection pool.
+ *
+ * Physical connections are handed out wrapped in a proxy whose close()
+ * returns them to the pool. At most maximumPoolSize connections exist at
+ * once; borrowers wait up to connectionTimeout for one to free up. A
+ * background housekeeper keeps minimumIdle connections warm, evicts idle
+ * connections past idleTimeout and recycles any past maxLifetime.
+ */
+public class ConnectionPool {
+
+    // Skip the validation ping for connections returned this recently
+    private static final long VALIDATION_BYPASS_WINDOW = 500;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maximumPoolSize;
+    private final int minimumIdle;
+    private final long connectionTimeout;
+    private final long idleTimeout;
+    private final long maxLifetime;
+    private final int validationTimeoutSeconds;
+
+    private final LinkedBlockingDeque<PooledEntry> idleConnections = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, String username, String password,
+                          int maximumPoolSize, int minimumIdle,
+                          long connectionTimeout, long idleTimeout, long maxLifetime,
+                          long validationTimeout, long housekeepingInterval) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maximumPoolSize = maximumPoolSize;
+        this.minimumIdle = Math.min(minimumIdle, maximumPoolSize);
+        this.connectionTimeout = connectionTimeout;
+        this.idleTimeout = idleTimeout;
+        this.maxLifetime = maxLifetime;
+        this.validationTimeoutSeconds = (int) Math.max(1, validationTimeout / 1000);
+        this.permits = new Semaphore(maximumPoolSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "revconnect-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.housekeeper.scheduleWithFixedDelay(
+                this::houseKeep, 0, housekeepingInterval, TimeUnit.MILLISECONDS);
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        try {
+            if (!permits.tryAcquire(connectionTimeout, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException(
+                        "Timed out after " + connectionTimeout + "ms waiting for a connection " +
+                        "(pool size " + maximumPoolSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+
+        try {
+            PooledEntry entry;
+            while ((entry = idleConnections.pollFirst()) != null) {
+                if (isRetired(entry, System.currentTimeMillis()) || !isUsable(entry)) {
+                    closePhysical(entry);
+                    continue;
+                }
+                return entry.lease();
+            }
+            return createEntry().lease();
+
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getTotalConnections() {
+        return totalConnections.get();
+    }
+
+    public int getIdleConnections() {
+        return idleConnections.size();
+    }
+
+    public int getActiveConnections() {
+        return maximumPoolSize - permits.availablePermits();
+    }
+
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+
+        PooledEntry entry;
+        while ((entry = idleConnections.pollFirst()) != null) {
+            closePhysical(entry);
+        }
+    }
+
+    private PooledEntry createEntry() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, username, password);
+        totalConnections.incrementAndGet();
+        return new PooledEntry(physical);
+    }
+
+    private boolean isRetired(PooledEntry entry, long now) {
+        return now - entry.createdAt >= maxLifetime;
+    }
+
+    private boolean isUsable(PooledEntry entry) {
+        if (System.currentTimeMillis() - entry.lastReturnedAt < VALIDATION_BYPASS_WINDOW) {
+            return true;
+        }
+        try {
+            return entry.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledEntry entry) {
+        try {
+            Connection physical = entry.physical;
+
+            if (closed || physical.isClosed() || isRetired(entry, System.currentTimeMillis())) {
+                closePhysical(entry);
+                return;
+            }
+
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+
+            entry.lastReturnedAt = System.currentTimeMillis();
+            // LIFO keeps a hot working set and lets surplus connections idle out
+            idleConnections.offerFirst(entry);
+
+        } catch (SQLException e) {
+            closePhysical(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void houseKeep() {
+        long now = System.currentTimeMillis();
+
+        Iterator<PooledEntry> iterator = idleConnections.descendingIterator();
+        while (iterator.hasNext()) {
+            PooledEntry entry = iterator.next();
+            boolean idleTooLong = now - entry.lastReturnedAt >= idleTimeout
+                    && idleConnections.size() > minimumIdle;
+
+            if ((idleTooLong || isRetired(entry, now)) && idleConnections.remove(entry)) {
+                closePhysical(entry);
+            }
+        }
+
+        try {
+            while (!closed
+                    && idleConnections.size() < minimumIdle
+                    && totalConnections.get() < maximumPoolSize) {
+                idleConnections.offerLast(createEntry());
+            }
+        } catch (SQLException e) {
+            // database unreachable; borrowers will surface the error
+        }
+    }
+
+    private void closePhysical(PooledEntry entry) {
+        totalConnections.decrementAndGet();
+        try {
+            entry.physical.close();
+        } catch (SQLException e) {
+            // ignore
+        }
+    }
+
+    private final class PooledEntry {
+
+        private final Connection physical;
+        private final long createdAt;
+        private volatile long lastReturnedAt;
+
+        private PooledEntry(Connection physical) {
+            this.physical = physical;
+            this.createdAt = System.currentTimeMillis();
+            this.lastReturnedAt = this.createdAt;
+        }
+
+        private Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new LeaseHandler(this));
+        }
+    }
+
+    private final class LeaseHandler implements InvocationHandler {
+
+        private PooledEntry entry;
+
+        private LeaseHandler(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if ("close".equals(name)) {
+                PooledEntry leased = entry;
+                entry = null;
+                if (leased != null) {
+                    release(leased);
+                }
+                return null;
+            }
+
+            if ("isClosed".equals(name)) {
+                return entry == null || entry.physical.isClosed();
+            }
+
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+
+            if ("toString".equals(name)) {
+                return "PooledConnection[" + (entry == null ? "returned" : entry.physical) + "]";
+            }
+
+            if (entry == null) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+
+            try {
+                return method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
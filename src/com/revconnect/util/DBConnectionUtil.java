@@ -1,13 +1,19 @@
 package com.revconnect.util;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 import com.revconnect.configuration.DBConfig;
 
 public class DBConnectionUtil {
 
+    private static String url = DBConfig.DB_URL;
+    private static String username = DBConfig.DB_USERNAME;
+    private static String password = DBConfig.DB_PASSWORD;
+
+    // Opened on first use, so a tool can pick another database before that
+    private static volatile ConnectionPool pool;
+
     static {
         try {
             // Load MySQL JDBC Driver
@@ -17,16 +23,64 @@ public class DBConnectionUtil {
         }
     }
 
+    /*
+     * Points every connection at another database instead of DBConfig's.
+     * For the maintenance tools only; it must be called before the first
+     * connection is taken.
+     */
+    public static synchronized void useDatabase(String newUrl, String newUsername, String newPassword) {
+        if (pool != null) {
+            throw new IllegalStateException("The connection pool is already open on " + url);
+        }
+        url = newUrl;
+        username = newUsername;
+        password = newPassword;
+    }
+
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(
-                DBConfig.DB_URL,
-                DBConfig.DB_USERNAME,
-                DBConfig.DB_PASSWORD
-        );
+        // Inside a UnitOfWork every caller shares the connection bound to it
+        Connection bound = UnitOfWork.lease();
+        if (bound != null) {
+            return StatementCapture.wrap(bound);
+        }
+
+        // Closing the returned connection hands it back to the pool
+        return StatementCapture.wrap(pool().getConnection());
     }
 
-    public static void closeDataSource() {
-        // Not needed for plain JDBC (kept for compatibility)
+    static Connection acquire() throws SQLException {
+        return pool().getConnection();
+    }
+
+    public static synchronized void closeDataSource() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    private static ConnectionPool pool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DBConnectionUtil.class) {
+                current = pool;
+                if (current == null) {
+                    current = new ConnectionPool(
+                            url,
+                            username,
+                            password,
+                            DBConfig.MAXIMUM_POOL_SIZE,
+                            DBConfig.MINIMUM_IDLE,
+                            DBConfig.CONNECTION_TIMEOUT,
+                            DBConfig.IDLE_TIMEOUT,
+                            DBConfig.MAX_LIFETIME,
+                            DBConfig.VALIDATION_TIMEOUT,
+                            DBConfig.HOUSEKEEPING_INTERVAL
+                    );
+                    pool = current;
+                }
+            }
+        }
+        return current;
     }
 
     private DBConnectionUtil() {
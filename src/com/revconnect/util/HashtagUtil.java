@@ -0,0 +1,56 @@
+package com.revconnect.util;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+public class HashtagUtil {
+
+    public static final int MAX_TAG_LENGTH = 100;
+
+    /*
+     * Splits a post's free-form hashtag field ("#Java #jvm, spring") into
+     * the distinct normalized tags stored in post_hashtags.
+     */
+    public static Set<String> parse(String hashtags) {
+        Set<String> tags = new LinkedHashSet<>();
+
+        if (hashtags == null) {
+            return tags;
+        }
+
+        for (String token : hashtags.split("[\\s,#]+")) {
+            String tag = normalize(token);
+            if (tag != null) {
+                tags.add(tag);
+            }
+        }
+
+        return tags;
+    }
+
+    public static String normalize(String tag) {
+        if (tag == null) {
+            return null;
+        }
+
+        String normalized = tag.trim();
+        while (normalized.startsWith("#")) {
+            normalized = normalized.substring(1);
+        }
+        normalized = normalized.toLowerCase(Locale.ROOT);
+
+        if (normalized.isEmpty()) {
+            return null;
+        }
+
+        if (normalized.length() > MAX_TAG_LENGTH) {
+            normalized = normalized.substring(0, MAX_TAG_LENGTH);
+        }
+
+        return normalized;
+    }
+
+    private HashtagUtil() {
+    }
+}
@@ -0,0 +1,117 @@
+package com.revconnect.util;
+
+/**
+ * HyperLogLog cardinality sketch over int ids.
+ *
+ * 2^precision one-byte registers; the standard error of estimate() is
+ * about 1.04 / sqrt(2^precision), or 1.6% at the default precision of 12
+ * (4 KB per sketch). Sketches of the same precision merge by taking the
+ * register-wise maximum, so partial sketches can be combined without
+ * losing accuracy. Not thread-safe.
+ */
+public class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 12;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("precision must be between 4 and 16");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.precision = Integer.numberOfTrailingZeros(registers.length);
+        this.registers = registers;
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes.length < 16 || bytes.length > (1 << 16) || Integer.bitCount(bytes.length) != 1) {
+            throw new IllegalArgumentException("Not a HyperLogLog sketch: " + bytes.length + " bytes");
+        }
+        return new HyperLogLog(bytes.clone());
+    }
+
+    public void add(int value) {
+        long hash = mix(value);
+        int index = (int) (hash >>> (64 - precision));
+        // The guard bit caps the rank at 64 - precision + 1
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of different precision");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+
+        // Small-range correction: linear counting is more accurate here
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+
+        return Math.round(estimate);
+    }
+
+    public boolean isEmpty() {
+        for (byte register : registers) {
+            if (register != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public byte[] toBytes() {
+        return registers.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "HyperLogLog{precision=" + precision + ", estimate=" + estimate() + '}';
+    }
+
+    // SplitMix64 finalizer: spreads sequential ids over all 64 bits
+    private static long mix(int value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
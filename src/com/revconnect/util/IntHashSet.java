@@ -0,0 +1,181 @@
+package com.revconnect.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash set of primitive ints.
+ *
+ * Linear probing over a power-of-two table with backward-shift deletion,
+ * so there are no tombstones and no boxing. Not thread-safe; callers
+ * guard it with their own lock.
+ */
+public class IntHashSet {
+
+    private static final int EMPTY = 0;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] table;
+    private int size;
+    private boolean containsEmptyKey;
+    private int resizeAt;
+
+    public IntHashSet() {
+        this(4);
+    }
+
+    public IntHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public boolean contains(int value) {
+        if (value == EMPTY) {
+            return containsEmptyKey;
+        }
+
+        int mask = table.length - 1;
+        int slot = mix(value) & mask;
+
+        while (table[slot] != EMPTY) {
+            if (table[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public boolean add(int value) {
+        if (value == EMPTY) {
+            if (containsEmptyKey) {
+                return false;
+            }
+            containsEmptyKey = true;
+            size++;
+            return true;
+        }
+
+        int mask = table.length - 1;
+        int slot = mix(value) & mask;
+
+        while (table[slot] != EMPTY) {
+            if (table[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        table[slot] = value;
+        if (++size > resizeAt) {
+            rehash(table.length << 1);
+        }
+        return true;
+    }
+
+    public boolean remove(int value) {
+        if (value == EMPTY) {
+            if (!containsEmptyKey) {
+                return false;
+            }
+            containsEmptyKey = false;
+            size--;
+            return true;
+        }
+
+        int mask = table.length - 1;
+        int slot = mix(value) & mask;
+
+        while (table[slot] != EMPTY) {
+            if (table[slot] == value) {
+                shiftBack(slot);
+                size--;
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void addAll(IntHashSet other) {
+        if (other.containsEmptyKey) {
+            add(EMPTY);
+        }
+        for (int value : other.table) {
+            if (value != EMPTY) {
+                add(value);
+            }
+        }
+    }
+
+    /*
+     * Returns the members in ascending order.
+     */
+    public int[] toSortedArray() {
+        int[] values = new int[size];
+        int index = 0;
+
+        if (containsEmptyKey) {
+            values[index++] = EMPTY;
+        }
+        for (int value : table) {
+            if (value != EMPTY) {
+                values[index++] = value;
+            }
+        }
+
+        Arrays.sort(values);
+        return values;
+    }
+
+    private void shiftBack(int slot) {
+        int mask = table.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+
+        while (table[next] != EMPTY) {
+            int home = mix(table[next]) & mask;
+            // Move the entry into the gap unless its home slot lies cyclically in (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                table[gap] = table[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        table[gap] = EMPTY;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = table;
+        allocate(capacity);
+
+        int mask = table.length - 1;
+        for (int value : old) {
+            if (value != EMPTY) {
+                int slot = mix(value) & mask;
+                while (table[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new int[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,181 @@
+package com.revconnect.util;
+
+/**
+ * Open-addressing map from primitive int keys to objects.
+ *
+ * Same layout as IntHashSet: linear probing, power-of-two table and
+ * backward-shift deletion. Not thread-safe; callers guard it with their
+ * own lock.
+ */
+public class IntObjectHashMap<V> {
+
+    @FunctionalInterface
+    public interface Visitor<V> {
+        void visit(int key, V value);
+    }
+
+    private static final int EMPTY = 0;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int resizeAt;
+
+    private V emptyKeyValue;
+
+    public IntObjectHashMap() {
+        this(16);
+    }
+
+    public IntObjectHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (key == EMPTY) {
+            return emptyKeyValue;
+        }
+
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (key == EMPTY) {
+            V previous = emptyKeyValue;
+            if (previous == null) {
+                size++;
+            }
+            emptyKeyValue = value;
+            return previous;
+        }
+
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        if (key == EMPTY) {
+            V previous = emptyKeyValue;
+            if (previous != null) {
+                size--;
+            }
+            emptyKeyValue = null;
+            return previous;
+        }
+
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                shiftBack(slot);
+                size--;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Visits every entry in table order; the visitor must not modify the map
+    @SuppressWarnings("unchecked")
+    public void forEach(Visitor<? super V> visitor) {
+        if (emptyKeyValue != null) {
+            visitor.visit(EMPTY, emptyKeyValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                visitor.visit(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    public void clear() {
+        allocate(16);
+        size = 0;
+        emptyKeyValue = null;
+    }
+
+    private void shiftBack(int slot) {
+        int mask = keys.length - 1;
+        int gap = slot;
+        int next = (gap + 1) & mask;
+
+        while (keys[next] != EMPTY) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        keys[gap] = EMPTY;
+        values[gap] = null;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,123 @@
+package com.revconnect.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache with a per-entry time-to-live.
+ *
+ * Least recently used entries are evicted once maxSize is exceeded and
+ * entries older than ttl are treated as misses. Every removal bumps a
+ * stamp; loaders read stamp() before going to the database and store the
+ * result with putIfUnchanged(), so a value loaded before an invalidation
+ * is never cached after it.
+ */
+public class LruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttl;
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+
+    private long stamp;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public LruCache(int maxSize, long ttl) {
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        CacheEntry<V> entry = entries.get(key);
+
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+
+        if (System.currentTimeMillis() - entry.storedAt >= ttl) {
+            entries.remove(key);
+            evictions++;
+            misses++;
+            return null;
+        }
+
+        hits++;
+        return entry.value;
+    }
+
+    public synchronized long stamp() {
+        return stamp;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new CacheEntry<>(value));
+    }
+
+    public synchronized boolean putIfUnchanged(K key, V value, long expectedStamp) {
+        if (stamp != expectedStamp) {
+            return false;
+        }
+        entries.put(key, new CacheEntry<>(value));
+        return true;
+    }
+
+    public synchronized void remove(K key) {
+        stamp++;
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        stamp++;
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "size=" + entries.size() + ", hits=" + hits + ", misses=" + misses
+                + ", evictions=" + evictions;
+    }
+
+    private static final class CacheEntry<V> {
+
+        private final V value;
+        private final long storedAt;
+
+        private CacheEntry(V value) {
+            this.value = value;
+            this.storedAt = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.revconnect.util;
+
+import com.revconnect.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor. Encodes the (created_at, id) of the last row on a
+ * page so the next page can seek straight past it instead of using OFFSET.
+ */
+public class PageToken {
+
+    private final LocalDateTime createdAt;
+    private final int id;
+
+    public PageToken(LocalDateTime createdAt, int id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageToken decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new PageToken(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Integer.parseInt(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new ValidationException("Invalid page token");
+        }
+    }
+
+    public static int clampPageSize(int pageSize, int defaultSize, int maxSize) {
+        if (pageSize <= 0) {
+            return defaultSize;
+        }
+        return Math.min(pageSize, maxSize);
+    }
+}
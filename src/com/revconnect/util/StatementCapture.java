@@ -0,0 +1,173 @@
+package com.revconnect.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reports every SQL statement executed through DBConnectionUtil, with its
+ * bound parameters, to a listener. Used by the query-plan check under
+ * tools/ to EXPLAIN exactly what the repositories send.
+ *
+ * While no listener is installed, connections are handed out unwrapped
+ * and the only cost is one volatile read per getConnection().
+ */
+public final class StatementCapture {
+
+    @FunctionalInterface
+    public interface Listener {
+        // parameters are in placeholder order; a NULL parameter is null
+        void executed(String sql, List<Object> parameters);
+    }
+
+    private static volatile Listener listener;
+
+    private StatementCapture() {
+    }
+
+    public static void start(Listener newListener) {
+        listener = newListener;
+    }
+
+    public static void stop() {
+        listener = null;
+    }
+
+    static Connection wrap(Connection conn) {
+        Listener current = listener;
+        if (current == null || conn == null) {
+            return conn;
+        }
+
+        return (Connection) Proxy.newProxyInstance(
+                StatementCapture.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                new ConnectionHandler(conn, current));
+    }
+
+    private static Object forward(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final Listener listener;
+
+        private ConnectionHandler(Connection target, Listener listener) {
+            this.target = target;
+            this.listener = listener;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            Object result = forward(target, method, args);
+
+            if ("prepareStatement".equals(name) && args != null && args[0] instanceof String) {
+                return Proxy.newProxyInstance(
+                        StatementCapture.class.getClassLoader(),
+                        new Class<?>[] { PreparedStatement.class },
+                        new PreparedHandler((PreparedStatement) result, (String) args[0], listener));
+            }
+
+            if ("createStatement".equals(name)) {
+                return Proxy.newProxyInstance(
+                        StatementCapture.class.getClassLoader(),
+                        new Class<?>[] { Statement.class },
+                        new StatementHandler((Statement) result, listener));
+            }
+
+            return result;
+        }
+    }
+
+    private static final class PreparedHandler implements InvocationHandler {
+
+        private final PreparedStatement target;
+        private final String sql;
+        private final Listener listener;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        private final List<List<Object>> batch = new ArrayList<>();
+
+        private PreparedHandler(PreparedStatement target, String sql, Listener listener) {
+            this.target = target;
+            this.sql = sql;
+            this.listener = listener;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if (name.startsWith("set") && args != null && args.length >= 2
+                    && args[0] instanceof Integer) {
+                parameters.put((Integer) args[0], "setNull".equals(name) ? null : args[1]);
+            } else if ("clearParameters".equals(name)) {
+                parameters.clear();
+            } else if ("addBatch".equals(name) && args == null) {
+                batch.add(snapshot());
+            } else if ("clearBatch".equals(name)) {
+                batch.clear();
+            } else if ("executeBatch".equals(name) || "executeLargeBatch".equals(name)) {
+                for (List<Object> entry : batch) {
+                    listener.executed(sql, entry);
+                }
+                batch.clear();
+            } else if (name.startsWith("execute") && args == null) {
+                listener.executed(sql, snapshot());
+            }
+
+            return forward(target, method, args);
+        }
+
+        private List<Object> snapshot() {
+            return Collections.unmodifiableList(new ArrayList<>(parameters.values()));
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final Listener listener;
+        private final List<String> batch = new ArrayList<>();
+
+        private StatementHandler(Statement target, Listener listener) {
+            this.target = target;
+            this.listener = listener;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if ("addBatch".equals(name)) {
+                batch.add((String) args[0]);
+            } else if ("clearBatch".equals(name)) {
+                batch.clear();
+            } else if ("executeBatch".equals(name) || "executeLargeBatch".equals(name)) {
+                for (String sql : batch) {
+                    listener.executed(sql, Collections.emptyList());
+                }
+                batch.clear();
+            } else if (name.startsWith("execute") && args != null && args[0] instanceof String) {
+                listener.executed((String) args[0], Collections.emptyList());
+            }
+
+            return forward(target, method, args);
+        }
+    }
+}
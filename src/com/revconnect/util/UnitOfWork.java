@@ -0,0 +1,375 @@
+package com.revconnect.util;
+
+import com.revconnect.exception.DatabaseException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binds one pooled connection to the current thread for the length of a
+ * service call, so every repository the call touches shares it.
+ *
+ * call() shares the connection but leaves each statement in autocommit,
+ * as before. inTransaction() runs the whole call as one transaction that
+ * commits when it returns and rolls back if it throws. While a unit is
+ * bound, DBConnectionUtil.getConnection() hands out leases on the bound
+ * connection. Closing a lease does not return the connection; the unit
+ * returns it when the outermost call ends. A repository that manages its
+ * own transaction inside an enclosing one gets a savepoint instead.
+ * Its commit releases the savepoint, and its rollback undoes only its
+ * own statements. Nested inTransaction() calls work the same way.
+ *
+ * In-memory side effects of a write (counters, caches, notifications)
+ * should go through afterCommit(), so they are dropped if the
+ * transaction rolls back. The connection is taken from the pool on first
+ * use, so a call served entirely from caches never borrows one.
+ */
+public final class UnitOfWork {
+
+    @FunctionalInterface
+    public interface Work<T> {
+        T execute();
+    }
+
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private Connection connection;
+    // The unit itself or the lease that currently owns the open transaction
+    private Object transactionOwner;
+    private final List<Runnable> afterCommit = new ArrayList<>();
+
+    private UnitOfWork() {
+    }
+
+    public static <T> T call(Work<T> work) {
+        UnitOfWork unit = CURRENT.get();
+        if (unit != null) {
+            return work.execute();
+        }
+
+        unit = new UnitOfWork();
+        CURRENT.set(unit);
+        try {
+            return work.execute();
+        } finally {
+            CURRENT.remove();
+            unit.release();
+        }
+    }
+
+    public static <T> T inTransaction(Work<T> work) {
+        UnitOfWork unit = CURRENT.get();
+        if (unit == null) {
+            return call(() -> inTransaction(work));
+        }
+
+        if (unit.transactionOwner != null) {
+            return unit.nested(work);
+        }
+
+        unit.begin();
+        T result;
+        try {
+            result = work.execute();
+            unit.commit();
+        } catch (RuntimeException | Error e) {
+            unit.rollback();
+            throw e;
+        }
+
+        // Outside the try so a failing task cannot undo a committed transaction
+        unit.runAfterCommit();
+        return result;
+    }
+
+    /*
+     * Runs task once the enclosing transaction commits, or straight away
+     * when there is none. Tasks registered under a savepoint that is then
+     * rolled back are dropped with it. A task that throws is logged; it
+     * cannot undo the commit, so it does not fail the caller or skip the
+     * tasks after it.
+     */
+    public static void afterCommit(Runnable task) {
+        UnitOfWork unit = CURRENT.get();
+        if (unit == null || unit.transactionOwner == null) {
+            runQuietly(task);
+        } else {
+            unit.afterCommit.add(task);
+        }
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    public static boolean isInTransaction() {
+        UnitOfWork unit = CURRENT.get();
+        return unit != null && unit.transactionOwner != null;
+    }
+
+    static Connection lease() throws SQLException {
+        UnitOfWork unit = CURRENT.get();
+        if (unit == null) {
+            return null;
+        }
+
+        return (Connection) Proxy.newProxyInstance(
+                UnitOfWork.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                unit.new LeaseHandler(unit.connection()));
+    }
+
+    private Connection connection() throws SQLException {
+        if (connection == null) {
+            connection = DBConnectionUtil.acquire();
+            if (transactionOwner == this) {
+                connection.setAutoCommit(false);
+            }
+        }
+        return connection;
+    }
+
+    private <T> T nested(Work<T> work) {
+        Savepoint savepoint;
+        int callbacks = afterCommit.size();
+        try {
+            savepoint = connection().setSavepoint();
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to start nested transaction: " + e.getMessage());
+        }
+
+        boolean completed = false;
+        try {
+            T result = work.execute();
+            completed = true;
+            return result;
+        } finally {
+            try {
+                if (completed) {
+                    connection.releaseSavepoint(savepoint);
+                } else {
+                    connection.rollback(savepoint);
+                    truncateCallbacks(callbacks);
+                }
+            } catch (SQLException e) {
+                // the enclosing transaction fails on its own commit
+            }
+        }
+    }
+
+    private void begin() {
+        transactionOwner = this;
+        if (connection != null) {
+            try {
+                connection.setAutoCommit(false);
+            } catch (SQLException e) {
+                transactionOwner = null;
+                throw new DatabaseException("Failed to start transaction: " + e.getMessage());
+            }
+        }
+    }
+
+    private void commit() {
+        if (connection != null) {
+            try {
+                connection.commit();
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                throw new DatabaseException("Failed to commit transaction: " + e.getMessage());
+            }
+        }
+        transactionOwner = null;
+    }
+
+    private void rollback() {
+        transactionOwner = null;
+        afterCommit.clear();
+        if (connection != null) {
+            try {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                // the pool rolls back again when the connection is returned
+            }
+        }
+    }
+
+    private void runAfterCommit() {
+        List<Runnable> tasks = new ArrayList<>(afterCommit);
+        afterCommit.clear();
+        for (Runnable task : tasks) {
+            runQuietly(task);
+        }
+    }
+
+    private static void runQuietly(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            System.err.println("After-commit task failed: " + e.getMessage());
+        }
+    }
+
+    private void release() {
+        if (connection != null) {
+            try {
+                // The pool rolls back anything a lease left open
+                connection.close();
+            } catch (SQLException e) {
+                // ignore
+            }
+            connection = null;
+        }
+    }
+
+    private void truncateCallbacks(int size) {
+        while (afterCommit.size() > size) {
+            afterCommit.remove(afterCommit.size() - 1);
+        }
+    }
+
+    /*
+     * One repository's view of the bound connection. close() only ends
+     * the lease. Transaction calls are translated: a transaction started
+     * on a shared connection is owned by the lease that started it, and
+     * one started inside an existing transaction becomes a savepoint.
+     */
+    private final class LeaseHandler implements InvocationHandler {
+
+        private final Connection target;
+        private boolean closed;
+        private boolean ownsTransaction;
+        private Savepoint savepoint;
+        private int callbacksAtSavepoint;
+
+        private LeaseHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if ("close".equals(name)) {
+                if (!closed) {
+                    closed = true;
+                    endUnfinished();
+                }
+                return null;
+            }
+
+            if ("isClosed".equals(name)) {
+                return closed || target.isClosed();
+            }
+
+            if ("equals".equals(name)) {
+                return proxy == args[0];
+            }
+
+            if ("hashCode".equals(name)) {
+                return System.identityHashCode(proxy);
+            }
+
+            if ("toString".equals(name)) {
+                return "UnitOfWorkConnection[" + target + "]";
+            }
+
+            if (closed) {
+                throw new SQLException("Connection lease has already been closed");
+            }
+
+            if ("setAutoCommit".equals(name)) {
+                setAutoCommit((Boolean) args[0]);
+                return null;
+            }
+
+            if ("getAutoCommit".equals(name)) {
+                return transactionOwner == null;
+            }
+
+            if ("commit".equals(name)) {
+                commit();
+                return null;
+            }
+
+            if ("rollback".equals(name) && (args == null || args.length == 0)) {
+                rollback();
+                return null;
+            }
+
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void setAutoCommit(boolean autoCommit) throws SQLException {
+            if (!autoCommit) {
+                if (ownsTransaction || savepoint != null) {
+                    return;
+                }
+                if (transactionOwner != null) {
+                    savepoint = target.setSavepoint();
+                    callbacksAtSavepoint = afterCommit.size();
+                } else {
+                    target.setAutoCommit(false);
+                    transactionOwner = this;
+                    ownsTransaction = true;
+                }
+                return;
+            }
+
+            // Like JDBC, switching autocommit back on commits what is pending
+            if (ownsTransaction || savepoint != null) {
+                commit();
+            }
+        }
+
+        private void commit() throws SQLException {
+            if (ownsTransaction) {
+                target.commit();
+                target.setAutoCommit(true);
+                ownsTransaction = false;
+                transactionOwner = null;
+                runAfterCommit();
+            } else if (savepoint != null) {
+                target.releaseSavepoint(savepoint);
+                savepoint = null;
+            } else if (transactionOwner == null) {
+                target.commit();
+            }
+            // otherwise the enclosing transaction commits
+        }
+
+        private void rollback() throws SQLException {
+            if (ownsTransaction) {
+                target.rollback();
+                target.setAutoCommit(true);
+                ownsTransaction = false;
+                transactionOwner = null;
+                afterCommit.clear();
+            } else if (savepoint != null) {
+                target.rollback(savepoint);
+                savepoint = null;
+                truncateCallbacks(callbacksAtSavepoint);
+            } else if (transactionOwner == null) {
+                target.rollback();
+            }
+        }
+
+        // A lease closed mid-transaction is rolled back, as the pool does
+        private void endUnfinished() throws SQLException {
+            if (ownsTransaction || savepoint != null) {
+                rollback();
+            }
+        }
+    }
+}
@@ -0,0 +1,877 @@
+package com.revconnect.tools;
+
+import com.revconnect.configuration.DBConfig;
+import com.revconnect.model.EngagementBucket;
+import com.revconnect.model.Message;
+import com.revconnect.model.Notification;
+import com.revconnect.model.NotificationPreference;
+import com.revconnect.model.Post;
+import com.revconnect.model.Profile;
+import com.revconnect.model.User;
+import com.revconnect.model.UserSecurityAnswer;
+import com.revconnect.repository.AccountAnalytics;
+import com.revconnect.repository.BlockedUserRepository;
+import com.revconnect.repository.CommentRepository;
+import com.revconnect.repository.ConnectionRepository;
+import com.revconnect.repository.EngagementHistory;
+import com.revconnect.repository.FollowRepository;
+import com.revconnect.repository.LikeRepository;
+import com.revconnect.repository.MessageRepository;
+import com.revconnect.repository.NotificationRepository;
+import com.revconnect.repository.PostAnalyticsBuffer;
+import com.revconnect.repository.PostRepository;
+import com.revconnect.repository.PostViewTracker;
+import com.revconnect.repository.ProfileRepository;
+import com.revconnect.repository.SecurityQuestionRepository;
+import com.revconnect.repository.ShareRepository;
+import com.revconnect.repository.SocialGraph;
+import com.revconnect.repository.TimelineRepository;
+import com.revconnect.repository.TrendingEngine;
+import com.revconnect.repository.UserRepository;
+import com.revconnect.schema.SchemaMigrator;
+import com.revconnect.util.DBConnectionUtil;
+import com.revconnect.util.StatementCapture;
+import com.revconnect.util.UnitOfWork;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Query-plan regression check for the repositories.
+ *
+ * It seeds a realistically sized dataset (QueryPlanDataset), then calls
+ * every repository method with StatementCapture installed, so it sees the
+ * SQL the code really sends, including dynamically built statements such
+ * as the feed filters. Each distinct statement is then run through EXPLAIN
+ * with the parameters it was first executed with. A plan fails when, on a
+ * real table, it:
+ *
+ *  - scans the whole table (type ALL),
+ *  - estimates more than MAX_ROWS rows examined, or
+ *  - needs a filesort or a temporary table.
+ *
+ * Sorting or scanning at most SMALL_ROWS rows is always accepted. Derived
+ * tables and UNION results are materialised from already bounded inner
+ * queries, so only the tables they read from are judged. Intentional
+ * exceptions are listed in ALLOWANCES together with the reason.
+ *
+ * Writes are made inside a transaction that is rolled back, and the
+ * seeded rows are removed at the end. Even so, seeding adds hundreds of
+ * thousands of rows and runs ANALYZE TABLE, so the check only runs against
+ * a scratch database named on the command line. It refuses DBConfig's
+ * database, and the password is read from the environment so it stays out
+ * of the process list. Usage:
+ *
+ *   QUERY_PLAN_CHECK_PASSWORD=... QueryPlanCheck <jdbc-url> <username> [users]
+ *
+ * (default 2000 seeded users). Exits with status 1 when any plan or
+ * repository call fails, and with status 2 on bad arguments.
+ */
+public class QueryPlanCheck {
+
+    private static final int DEFAULT_USERS = 2000;
+    private static final long MAX_ROWS = 1000;
+    private static final long SMALL_ROWS = 100;
+    private static final int PAGE_SIZE = 10;
+    private static final String PASSWORD_VARIABLE = "QUERY_PLAN_CHECK_PASSWORD";
+
+    private static final List<Allowance> ALLOWANCES = Arrays.asList(
+            allow("WHERE u.username LIKE ? OR p.name LIKE ?",
+                    "substring search needs a leading wildcard, which no index serves; " +
+                    "LIMIT 50 stops the scan at the first 50 matches")
+                    .fullScan().unbounded(),
+            allow("SELECT follower_id, following_id FROM follows",
+                    "SocialGraph keeps the whole follow graph in memory and loads it once per process")
+                    .fullScan().unbounded(),
+            allow("SELECT sender_id, receiver_id FROM connection_requests WHERE status = 'ACCEPTED'",
+                    "SocialGraph keeps every accepted connection in memory and loads them once per process")
+                    .fullScan().unbounded(),
+            allow("SELECT blocker_id, blocked_id FROM blocked_users",
+                    "SocialGraph keeps every block in memory and loads them once per process")
+                    .fullScan().unbounded(),
+            allow("FROM posts p JOIN post_analytics pa ON p.post_id = pa.post_id WHERE p.created_at >= ?",
+                    "TrendingEngine orders the trending window by a decayed score no index can hold; " +
+                    "it reads the window once per process and keeps the ranking in memory")
+                    .filesort().unbounded(),
+            allow("SELECT n.notification_id FROM notifications n ",
+                    "the purge walks read notifications in primary-key batches; " +
+                    "EXPLAIN estimates the whole range and ignores the LIMIT")
+                    .unbounded(),
+            allow("DELETE n FROM notifications n ",
+                    "deletes the id range listed by the previous purge batch, at most " +
+                    "NOTIFICATION_PURGE_BATCH_SIZE rows; EXPLAIN estimates the whole range")
+                    .unbounded(),
+            allow("FROM post_engagement_buckets WHERE granularity = 'HOUR' AND bucket_start",
+                    "the hourly background compaction rolls one whole day of hourly buckets " +
+                    "into daily rows in a single statement")
+                    .temporary().filesort().unbounded(),
+            allow(") audience ORDER BY audience.user_id LIMIT ?",
+                    "each branch of the fan-out audience page stops after LIMIT rows of its " +
+                    "covering index; EXPLAIN estimates the whole remaining range")
+                    .unbounded(),
+            allow("FROM high_fanout_authors h",
+                    "merges the newest posts of the few high fan-out authors a user follows; " +
+                    "no single index orders posts across authors")
+                    .filesort().temporary(),
+            allow("SELECT ?, p.post_id, p.user_id, p.created_at FROM posts p WHERE p.user_id IN (",
+                    "a timeline rebuild merges the newest posts of every followed author; " +
+                    "no single index orders posts across authors")
+                    .filesort().temporary(),
+            allow("JOIN follows f ON u.user_id = f.follower_id",
+                    "sorts one user's followers by follow time; a (following_id, created_at) index " +
+                    "would duplicate the (following_id, follower_id) one that fan-out reads")
+                    .filesort(),
+            allow("JOIN follows f ON u.user_id = f.following_id",
+                    "sorts one user's follows by follow time; the unique key limits the rows " +
+                    "to that user's follows")
+                    .filesort(),
+            allow("WHERE cr.receiver_id = ? AND cr.status = 'PENDING'",
+                    "sorts one user's pending requests by age; the (receiver_id, status) index " +
+                    "limits the rows to those requests")
+                    .filesort(),
+            allow("SELECT DISTINCT u.*, p.name as profile_name",
+                    "one user's connections come from both request directions and are sorted by " +
+                    "profile name, so they must be de-duplicated and sorted after the join")
+                    .temporary().filesort(),
+            allow("JOIN blocked_users bu ON u.user_id = bu.blocked_id",
+                    "sorts one user's block list by age; the unique key limits the rows " +
+                    "to that user's blocks")
+                    .filesort(),
+            allow("(sender_id = ? AND receiver_id = ?) OR",
+                    "the two directions of one conversation are read from two index ranges, " +
+                    "so merging them by time needs a sort")
+                    .filesort(),
+            allow("GROUP BY DATE(bucket_start)",
+                    "rolls one post's hourly buckets up into days; hourly buckets are kept for " +
+                    "ANALYTICS_HOURLY_RETENTION_DAYS only")
+                    .temporary().filesort(),
+            allow("SELECT DISTINCT user_id FROM account_top_posts WHERE post_id IN (",
+                    "de-duplicates the owners of one analytics flush batch, " +
+                    "at most ANALYTICS_FLUSH_THRESHOLD posts")
+                    .temporary(),
+            allow("FROM notification_fanout_jobs ORDER BY created_at, post_id",
+                    "NewPostNotifier reads every unfinished fan-out job to resume it; " +
+                    "finished jobs are deleted, so the table only holds work in flight")
+                    .fullScan().unbounded(),
+            allow("SELECT post_id, hashtags FROM posts WHERE post_id > ? ORDER BY post_id LIMIT ?",
+                    "HashtagIndexBackfill walks every post in primary-key batches; " +
+                    "EXPLAIN estimates the whole range and ignores the LIMIT")
+                    .unbounded(),
+            allow("COALESCE(f.followers, 0), ? FROM users u",
+                    "AccountAnalyticsBackfill recomputes every account's totals from the base " +
+                    "tables; it is an offline one-off job")
+                    .fullScan().temporary().filesort().unbounded(),
+            allowExactly("DELETE FROM account_top_posts",
+                    "AccountAnalyticsBackfill clears every ranking before recomputing them")
+                    .fullScan().unbounded(),
+            allow("ROW_NUMBER() OVER (PARTITION BY p.user_id",
+                    "AccountAnalyticsBackfill ranks every account's posts in one window query")
+                    .fullScan().temporary().filesort().unbounded(),
+            allow("SELECT following_id, DATE(created_at), COUNT(*), 0 FROM follows GROUP BY",
+                    "AccountAnalyticsBackfill recounts followers gained per day from every follow")
+                    .fullScan().temporary().filesort().unbounded(),
+            allow("SELECT s.user_id, s.other_user_id, m.message_id",
+                    "ConversationSummaryBackfill rebuilds every conversation summary from all " +
+                    "messages; it is an offline one-off job")
+                    .fullScan().temporary().filesort().unbounded());
+
+    private final Map<String, Captured> statements = new LinkedHashMap<>();
+    private final List<String> failedCalls = new ArrayList<>();
+
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.out.println("Usage: QueryPlanCheck <jdbc-url> <username> [users]");
+            System.out.println("The password is read from " + PASSWORD_VARIABLE + ".");
+            System.exit(2);
+        }
+
+        if (sameDatabase(args[0], DBConfig.DB_URL)) {
+            System.out.println("Refusing to seed the application database " + DBConfig.DB_URL +
+                    "; point the check at a scratch copy.");
+            System.exit(2);
+        }
+
+        int users = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_USERS;
+        String password = System.getenv(PASSWORD_VARIABLE);
+        DBConnectionUtil.useDatabase(args[0], args[1], password != null ? password : "");
+
+        QueryPlanDataset dataset = new QueryPlanDataset(users);
+        QueryPlanCheck check = new QueryPlanCheck();
+        boolean passed = false;
+
+        try {
+            SchemaMigrator.migrate();
+
+            try (Connection conn = DBConnectionUtil.getConnection()) {
+                dataset.cleanup(conn);
+                dataset.seed(conn);
+            }
+
+            check.capture();
+            passed = check.report();
+
+        } catch (Exception e) {
+            System.out.println("Query plan check stopped: " + e.getMessage());
+        } finally {
+            // Flush the write-behind buffers first, so nothing lands after the cleanup
+            PostAnalyticsBuffer.shutdown();
+            PostViewTracker.shutdown();
+            EngagementHistory.shutdown();
+            AccountAnalytics.shutdown();
+
+            try (Connection conn = DBConnectionUtil.getConnection()) {
+                dataset.cleanup(conn);
+            } catch (SQLException e) {
+                System.out.println("Failed to remove the seeded data: " + e.getMessage());
+            }
+            DBConnectionUtil.closeDataSource();
+        }
+
+        System.exit(passed ? 0 : 1);
+    }
+
+    private void capture() throws SQLException {
+        Ids ids;
+        try (Connection conn = DBConnectionUtil.getConnection()) {
+            ids = new Ids(conn);
+        }
+
+        StatementCapture.start(this::record);
+        try {
+            exercise(ids);
+        } finally {
+            StatementCapture.stop();
+        }
+    }
+
+    /*
+     * Calls every repository method, reads first and then writes. Paged
+     * reads are called twice so the cursor variant of the SQL is captured.
+     */
+    private void exercise(Ids ids) {
+        UserRepository users = new UserRepository();
+        ProfileRepository profiles = new ProfileRepository();
+        SecurityQuestionRepository questions = new SecurityQuestionRepository();
+        PostRepository posts = new PostRepository();
+        LikeRepository likes = new LikeRepository();
+        CommentRepository comments = new CommentRepository();
+        ShareRepository shares = new ShareRepository();
+        FollowRepository follows = new FollowRepository();
+        ConnectionRepository connections = new ConnectionRepository();
+        BlockedUserRepository blocks = new BlockedUserRepository();
+        MessageRepository messages = new MessageRepository();
+        NotificationRepository notifications = new NotificationRepository();
+        TimelineRepository timeline = new TimelineRepository();
+
+        LocalDateTime now = LocalDateTime.now();
+
+        call("SocialGraph.load", () -> SocialGraph.getInstance().isReady());
+        call("TrendingEngine.refresh", TrendingEngine::refresh);
+
+        User user = users.findById(ids.user);
+        call("UserRepository.findByEmail", () -> users.findByEmail(user.getEmail()));
+        call("UserRepository.findByUsername", () -> users.findByUsername(user.getUsername()));
+        call("UserRepository.searchUsers", () -> users.searchUsers("seed_1"));
+
+        call("ProfileRepository.findByUserId", () -> profiles.findByUserId(ids.user));
+        call("SecurityQuestionRepository.getAllQuestions", questions::getAllQuestions);
+        call("SecurityQuestionRepository.findAnswer",
+                () -> questions.findAnswer(ids.user, ids.question));
+
+        call("PostRepository.findById", () -> posts.findById(ids.post));
+        call("PostRepository.findByUserId", () -> posts.findByUserId(ids.user));
+        call("PostRepository.findByUserIdPage", () -> posts.findByUserIdPage(ids.user,
+                posts.findByUserIdPage(ids.user, null, PAGE_SIZE / 2).getNextPageToken(), PAGE_SIZE));
+        call("PostRepository.getFeed", () -> posts.getFeed(ids.user));
+        call("PostRepository.getFeedPage", () -> posts.getFeedPage(ids.user,
+                posts.getFeedPage(ids.user, null, PAGE_SIZE).getNextPageToken(), PAGE_SIZE));
+        call("PostRepository.getFilteredFeed",
+                () -> posts.getFilteredFeed(ids.user, "PROMOTIONAL", "CREATOR"));
+        call("PostRepository.getFilteredFeed", () -> posts.getFilteredFeed(ids.user, "REGULAR", null));
+        call("PostRepository.getTrendingPosts", posts::getTrendingPosts);
+        call("PostRepository.searchByHashtag", () -> posts.searchByHashtag(ids.tag));
+        call("PostRepository.searchByHashtagPage", () -> posts.searchByHashtagPage(ids.tag,
+                posts.searchByHashtagPage(ids.tag, null, PAGE_SIZE).getNextPageToken(), PAGE_SIZE));
+        call("PostRepository.findDueScheduledPosts",
+                () -> posts.findDueScheduledPosts(now.plusYears(1), PAGE_SIZE));
+        call("PostRepository.getAnalytics", () -> posts.getAnalytics(ids.post));
+        call("PostRepository.getEngagementBuckets",
+                () -> posts.getEngagementBuckets(ids.post, now.minusDays(7), EngagementBucket.HOUR));
+        call("PostRepository.getEngagementBuckets",
+                () -> posts.getEngagementBuckets(ids.post, now.minusDays(60), EngagementBucket.DAY));
+        call("PostRepository.getCreatorDashboard",
+                () -> posts.getCreatorDashboard(ids.user, 30, 5));
+
+        call("LikeRepository.getLikeCount", () -> likes.getLikeCount(ids.post));
+        call("LikeRepository.hasUserLiked", () -> likes.hasUserLiked(ids.post, ids.friend));
+        call("CommentRepository.findByPostId", () -> comments.findByPostId(ids.post));
+        call("CommentRepository.findById", () -> comments.findById(ids.comment[0]));
+        call("CommentRepository.findByPostIdPage", () -> comments.findByPostIdPage(ids.post,
+                comments.findByPostIdPage(ids.post, null, 1).getNextPageToken(), PAGE_SIZE));
+        call("ShareRepository.getShareCount", () -> shares.getShareCount(ids.post));
+        call("ShareRepository.findByPostId", () -> shares.findByPostId(ids.post));
+
+        call("FollowRepository.findFollowers", () -> follows.findFollowers(ids.user));
+        call("FollowRepository.findFollowing", () -> follows.findFollowing(ids.user));
+        call("FollowRepository.isFollowing", () -> follows.isFollowing(ids.user, ids.friend));
+        call("ConnectionRepository.findById", () -> connections.findById(ids.pendingRequest));
+        call("ConnectionRepository.findPendingRequests",
+                () -> connections.findPendingRequests(ids.pendingReceiver));
+        call("ConnectionRepository.findConnections", () -> connections.findConnections(ids.connected[0]));
+        call("ConnectionRepository.areConnected",
+                () -> connections.areConnected(ids.connected[0], ids.connected[1]));
+        call("BlockedUserRepository.isBlocked", () -> blocks.isBlocked(ids.blocked[0], ids.blocked[1]));
+        call("BlockedUserRepository.findBlockedUsers", () -> blocks.findBlockedUsers(ids.blocked[0]));
+
+        call("MessageRepository.getConversation", () -> messages.getConversation(ids.user, ids.partner));
+        call("MessageRepository.getConversationPage", () -> messages.getConversationPage(ids.user,
+                ids.partner, messages.getConversationPage(ids.user, ids.partner, null, 2)
+                        .getNextPageToken(), PAGE_SIZE));
+        call("MessageRepository.getUnreadCount", () -> messages.getUnreadCount(ids.partner));
+        call("MessageRepository.getInbox", () -> messages.getInbox(ids.user,
+                messages.getInbox(ids.user, null, 1).getNextPageToken(), PAGE_SIZE));
+
+        call("NotificationRepository.findByUserId", () -> notifications.findByUserId(ids.user));
+        call("NotificationRepository.findByUserIdPage", () -> notifications.findByUserIdPage(ids.user,
+                notifications.findByUserIdPage(ids.user, null, PAGE_SIZE).getNextPageToken(), PAGE_SIZE));
+        call("NotificationRepository.countUnread", () -> notifications.countUnread(ids.user));
+        call("NotificationRepository.getPreferences", () -> notifications.getPreferences(ids.user));
+        call("NotificationRepository.getPreferenceMasks",
+                () -> notifications.getPreferenceMasks(Arrays.asList(ids.friend, ids.partner)));
+        call("NotificationRepository.findPendingFanOutJobs", notifications::findPendingFanOutJobs);
+        call("NotificationRepository.findReadNotificationIds",
+                () -> notifications.findReadNotificationIds(now, 0, 1000));
+        call("NotificationRepository.findLastNotifiedUserId",
+                notifications::findLastNotifiedUserId);
+        call("NotificationRepository.findUsersOverNotificationLimit",
+                () -> notifications.findUsersOverNotificationLimit(20, 1, 1000));
+
+        call("TimelineRepository.findAudience", () -> timeline.findAudience(ids.popular, 0, 500));
+
+        // Writes, each rolled back
+        rolledBack("UserRepository.registerUser", () -> {
+            User created = new User();
+            created.setEmail("qp_plan_check@example.com");
+            created.setUsername("qp_plan_check");
+            created.setPassword("seed");
+            created.setUserType("PERSONAL");
+            users.registerUser(created);
+
+            Profile profile = new Profile();
+            profile.setUserId(created.getUserId());
+            profile.setName("Plan Check");
+            profiles.createProfile(profile);
+        });
+        rolledBack("UserRepository.updatePassword", () -> users.updatePassword(ids.user, "seed"));
+        rolledBack("UserRepository.updatePrivacy", () -> users.updatePrivacy(ids.user, true));
+        rolledBack("ProfileRepository.updateProfile", () -> {
+            Profile profile = profiles.findByUserId(ids.user);
+            profile.setBio("qp_seed updated");
+            profiles.updateProfile(profile);
+        });
+        rolledBack("SecurityQuestionRepository.saveAnswer", () -> {
+            UserSecurityAnswer answer = new UserSecurityAnswer();
+            answer.setUserId(ids.user);
+            answer.setQuestionId(ids.question);
+            answer.setAnswerHash("seed");
+            questions.saveAnswer(answer);
+        });
+
+        rolledBack("PostRepository.createPost", () -> {
+            Post post = newPost(ids.user);
+            posts.createPost(post);
+            timeline.fanOutPost(post);
+        });
+        rolledBack("PostRepository.schedulePost", () -> {
+            Post post = newPost(ids.user);
+            post.setScheduledTime(now.plusDays(1));
+            posts.schedulePost(post);
+        });
+        rolledBack("PostRepository.updatePost", () -> {
+            Post post = posts.findById(ids.post);
+            post.setContent("qp_seed post updated");
+            posts.updatePost(post);
+        });
+        rolledBack("PostRepository.pinPost", () -> posts.pinPost(ids.post, ids.user));
+        rolledBack("PostRepository.unpinPost", () -> posts.unpinPost(ids.post, ids.user));
+        rolledBack("PostRepository.markScheduledPostPublished",
+                () -> posts.markScheduledPostPublished(ids.scheduledPost));
+        rolledBack("PostRepository.deletePost", () -> posts.deletePost(ids.post));
+
+        rolledBack("LikeRepository.addLike", () -> likes.addLike(ids.post, ids.partner));
+        rolledBack("LikeRepository.removeLike", () -> likes.removeLike(ids.post, ids.liker));
+        rolledBack("CommentRepository.addComment",
+                () -> comments.addComment(ids.post, ids.partner, "qp_seed comment"));
+        rolledBack("CommentRepository.deleteComment",
+                () -> comments.deleteComment(ids.comment[0], ids.comment[1]));
+        rolledBack("ShareRepository.sharePost", () -> shares.sharePost(ids.post, ids.partner));
+
+        rolledBack("FollowRepository.followUser", () -> follows.followUser(ids.partner, ids.user));
+        rolledBack("FollowRepository.unfollowUser", () -> follows.unfollowUser(ids.user, ids.friend));
+        rolledBack("ConnectionRepository.sendRequest", () -> connections.sendRequest(ids.user, ids.partner));
+        rolledBack("ConnectionRepository.acceptRequest", () -> connections.acceptRequest(ids.pendingRequest));
+        rolledBack("ConnectionRepository.rejectRequest", () -> connections.rejectRequest(ids.pendingRequest));
+        rolledBack("ConnectionRepository.removeConnection",
+                () -> connections.removeConnection(ids.connected[0], ids.connected[1]));
+        rolledBack("BlockedUserRepository.blockUser", () -> blocks.blockUser(ids.user, ids.partner));
+        rolledBack("BlockedUserRepository.unblockUser",
+                () -> blocks.unblockUser(ids.blocked[0], ids.blocked[1]));
+
+        rolledBack("MessageRepository.sendMessage", () -> {
+            Message message = new Message();
+            message.setSenderId(ids.user);
+            message.setReceiverId(ids.partner);
+            message.setMessageText("qp_seed message");
+            messages.sendMessage(message);
+        });
+        rolledBack("MessageRepository.markAsRead", () -> messages.markAsRead(ids.partner, ids.user));
+        rolledBack("MessageRepository.deleteConversation",
+                () -> messages.deleteConversation(ids.user, ids.partner));
+
+        rolledBack("NotificationRepository.saveNotification",
+                () -> notifications.saveNotification(newNotification(ids.user, ids.friend)));
+        rolledBack("NotificationRepository.saveNotifications", () -> notifications.saveNotifications(
+                Arrays.asList(newNotification(ids.user, ids.friend), newNotification(ids.partner, ids.friend))));
+        rolledBack("NotificationRepository.foldNotifications", () -> notifications.foldNotifications(
+                Collections.singletonList(newFold(ids.user, ids.post, ids.friend, ids.partner))));
+        rolledBack("NotificationRepository.createFanOutJob",
+                () -> notifications.createFanOutJob(ids.post, ids.user));
+        rolledBack("NotificationRepository.saveFanOutChunk", () -> notifications.saveFanOutChunk(
+                ids.fanOutPost, Collections.singletonList(newNotification(ids.partner, ids.user)), ids.partner));
+        rolledBack("NotificationRepository.deleteFanOutJob",
+                () -> notifications.deleteFanOutJob(ids.fanOutPost));
+        rolledBack("NotificationRepository.deleteReadNotifications", () -> notifications
+                .deleteReadNotifications(ids.notifications[0], ids.notifications[1], now));
+        rolledBack("NotificationRepository.deleteOldestNotifications",
+                () -> notifications.deleteOldestNotifications(ids.user, 10, 100));
+        rolledBack("NotificationRepository.markAsRead",
+                () -> notifications.markAsRead(ids.notifications[1]));
+        rolledBack("NotificationRepository.markAllAsRead", () -> notifications.markAllAsRead(ids.user));
+        rolledBack("NotificationRepository.updatePreferences", () -> notifications.updatePreferences(
+                NotificationPreference.fromMask(ids.user, NotificationPreference.ALL)));
+
+        rolledBack("TimelineRepository.removePost", () -> timeline.removePost(ids.post));
+        rolledBack("TimelineRepository.backfillAuthor", () -> timeline.backfillAuthor(ids.user, ids.partner));
+        rolledBack("TimelineRepository.pruneAuthor", () -> timeline.pruneAuthor(ids.user, ids.friend));
+        rolledBack("TimelineRepository.rebuildTimeline", () -> timeline.rebuildTimeline(ids.user));
+        rolledBack("TimelineRepository.ensureMaterialized", () -> timeline.ensureMaterialized(ids.user));
+
+        // One-off backfills, run over the whole seeded dataset
+        rolledBack("PostRepository.backfillHashtags", () -> posts.backfillHashtags(0, PAGE_SIZE));
+        rolledBack("PostRepository.rebuildAccountAnalytics", posts::rebuildAccountAnalytics);
+        rolledBack("MessageRepository.rebuildConversations", messages::rebuildConversations);
+
+        // Write-behind flushes run on their own connections, against seeded posts only
+        Post viewed = posts.findById(ids.post);
+        PostAnalyticsBuffer.recordLike(ids.post, 1);
+        AccountAnalytics.recordEngagement(ids.post, 1, 0, 0);
+        AccountAnalytics.recordFollower(ids.user, 1);
+        EngagementHistory.record(ids.post, 1, 0, 0);
+        PostViewTracker.recordViews(ids.partner, Collections.singletonList(viewed));
+
+        call("PostAnalyticsBuffer.flush", PostAnalyticsBuffer::flush);
+        call("PostViewTracker.flush", PostViewTracker::flush);
+        call("EngagementHistory.flush", EngagementHistory::flush);
+        call("EngagementHistory.compact", EngagementHistory::compact);
+        call("AccountAnalytics.flush", AccountAnalytics::flush);
+    }
+
+    private boolean report() throws SQLException {
+        int checked = 0;
+        int failed = 0;
+
+        try (Connection conn = DBConnectionUtil.getConnection()) {
+            for (Captured statement : statements.values()) {
+                if (!isExplainable(statement.sql)) {
+                    continue;
+                }
+                checked++;
+
+                Allowance allowance = allowanceFor(statement.sql);
+                List<String> problems;
+                try {
+                    problems = check(explain(conn, statement), allowance);
+                } catch (SQLException e) {
+                    problems = Collections.singletonList("EXPLAIN failed: " + e.getMessage());
+                }
+
+                if (problems.isEmpty()) {
+                    System.out.println("[OK]   " + statement.origin + "  " + abbreviate(statement.sql));
+                    if (allowance != null) {
+                        System.out.println("         allowed: " + allowance.reason);
+                    }
+                } else {
+                    failed++;
+                    System.out.println("[FAIL] " + statement.origin + "  " + abbreviate(statement.sql));
+                    for (String problem : problems) {
+                        System.out.println("         - " + problem);
+                    }
+                }
+            }
+        }
+
+        for (String call : failedCalls) {
+            System.out.println("[FAIL] call " + call);
+        }
+
+        System.out.println();
+        System.out.println("Checked " + checked + " statement(s): " + failed + " plan(s) failed, " +
+                failedCalls.size() + " call(s) failed.");
+
+        return failed == 0 && failedCalls.isEmpty();
+    }
+
+    private static List<PlanRow> explain(Connection conn, Captured statement) throws SQLException {
+        List<PlanRow> plan = new ArrayList<>();
+
+        try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + statement.sql)) {
+            for (int i = 0; i < statement.parameters.size(); i++) {
+                pstmt.setObject(i + 1, statement.parameters.get(i));
+            }
+
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                plan.add(new PlanRow(rs.getString("select_type"), rs.getString("table"),
+                        rs.getString("type"), rs.getLong("rows"), rs.getString("Extra")));
+            }
+        }
+
+        return plan;
+    }
+
+    private static List<String> check(List<PlanRow> plan, Allowance allowance) {
+        boolean fullScan = allowance != null && allowance.fullScan;
+        boolean filesort = allowance != null && allowance.filesort;
+        boolean temporary = allowance != null && allowance.temporary;
+        long maxRows = allowance != null ? allowance.maxRows : MAX_ROWS;
+
+        List<String> problems = new ArrayList<>();
+
+        for (PlanRow row : plan) {
+            // Derived tables, UNION results and the target row of INSERT ... SELECT
+            if (row.table == null || row.table.startsWith("<")
+                    || "INSERT".equals(row.selectType) || "REPLACE".equals(row.selectType)) {
+                continue;
+            }
+
+            boolean small = row.rows <= SMALL_ROWS;
+            String extra = row.extra != null ? row.extra : "";
+
+            if ("ALL".equals(row.type) && !small && !fullScan) {
+                problems.add("full scan of " + row.table + " (~" + row.rows + " rows)");
+            }
+            if (row.rows > maxRows) {
+                problems.add("examines ~" + row.rows + " rows of " + row.table +
+                        " (limit " + maxRows + ")");
+            }
+            if (extra.contains("Using filesort") && !small && !filesort) {
+                problems.add("filesort on " + row.table + " (~" + row.rows + " rows)");
+            }
+            if (extra.contains("Using temporary") && !small && !temporary) {
+                problems.add("temporary table for " + row.table + " (~" + row.rows + " rows)");
+            }
+        }
+
+        return problems;
+    }
+
+    // Plain INSERT ... VALUES and table-less SELECTs have no plan worth checking
+    private static boolean isExplainable(String sql) {
+        String normalized = normalize(sql).toUpperCase(Locale.ROOT);
+
+        if (normalized.startsWith("INSERT") || normalized.startsWith("REPLACE")) {
+            return normalized.contains(" SELECT ") && normalized.contains(" FROM ");
+        }
+        if (normalized.startsWith("SELECT")) {
+            return normalized.contains(" FROM ");
+        }
+        return normalized.startsWith("UPDATE") || normalized.startsWith("DELETE");
+    }
+
+    private static Allowance allowanceFor(String sql) {
+        String normalized = normalize(sql);
+        for (Allowance allowance : ALLOWANCES) {
+            if (allowance.matches(normalized)) {
+                return allowance;
+            }
+        }
+        return null;
+    }
+
+    private void record(String sql, List<Object> parameters) {
+        String origin = origin();
+        synchronized (statements) {
+            statements.putIfAbsent(sql, new Captured(origin, sql, parameters));
+        }
+    }
+
+    // The repository method that issued the statement
+    private static String origin() {
+        for (StackTraceElement frame : Thread.currentThread().getStackTrace()) {
+            String className = frame.getClassName();
+            if (className.startsWith("com.revconnect.repository.")) {
+                String simpleName = className.substring(className.lastIndexOf('.') + 1);
+                int nested = simpleName.indexOf('$');
+                if (nested >= 0) {
+                    simpleName = simpleName.substring(0, nested);
+                }
+                return simpleName + "." + frame.getMethodName();
+            }
+        }
+        return "unknown";
+    }
+
+    private void call(String label, Action action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            failedCalls.add(label + ": " + e.getMessage());
+        }
+    }
+
+    private void rolledBack(String label, Action action) {
+        call(label, () -> {
+            try {
+                UnitOfWork.inTransaction(() -> {
+                    try {
+                        action.run();
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e.getMessage(), e);
+                    }
+                    throw new Rollback();
+                });
+            } catch (Rollback expected) {
+                // the writes were made and captured, then undone
+            }
+        });
+    }
+
+    private static Post newPost(int userId) {
+        Post post = new Post();
+        post.setUserId(userId);
+        post.setContent("qp_seed plan check post");
+        post.setHashtags("#tag1 #plancheck");
+        return post;
+    }
+
+    private static Notification newNotification(int userId, int actorId) {
+        Notification notification = new Notification();
+        notification.setUserId(userId);
+        notification.setType("LIKE");
+        notification.setMessage("qp_seed notification");
+        notification.setRelatedUserId(actorId);
+        notification.setCreatedAt(LocalDateTime.now());
+        return notification;
+    }
+
+    private static Notification newFold(int userId, int postId, int firstActorId, int secondActorId) {
+        Notification notification = newNotification(userId, secondActorId);
+        notification.setRelatedPostId(postId);
+        notification.setActorCount(2);
+        notification.setSampleActorIds(Arrays.asList(secondActorId, firstActorId));
+        return notification;
+    }
+
+    // Same host, port and schema; connection parameters do not matter
+    private static boolean sameDatabase(String url, String other) {
+        return databaseOf(url).equals(databaseOf(other));
+    }
+
+    private static String databaseOf(String url) {
+        String database = url.trim().toLowerCase(Locale.ROOT);
+        int parameters = database.indexOf('?');
+        if (parameters >= 0) {
+            database = database.substring(0, parameters);
+        }
+        while (database.endsWith("/")) {
+            database = database.substring(0, database.length() - 1);
+        }
+        return database.replace("//127.0.0.1", "//localhost");
+    }
+
+    private static String normalize(String sql) {
+        return sql.trim().replaceAll("\\s+", " ");
+    }
+
+    private static String abbreviate(String sql) {
+        String normalized = normalize(sql);
+        return normalized.length() > 110 ? normalized.substring(0, 107) + "..." : normalized;
+    }
+
+    private static Allowance allow(String fragment, String reason) {
+        return new Allowance(fragment, reason, false);
+    }
+
+    // For statements that are a prefix of other, narrower ones
+    private static Allowance allowExactly(String sql, String reason) {
+        return new Allowance(sql, reason, true);
+    }
+
+    @FunctionalInterface
+    private interface Action {
+        void run() throws Exception;
+    }
+
+    private static final class Rollback extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private Rollback() {
+            super("rolled back by QueryPlanCheck", null, false, false);
+        }
+    }
+
+    private static final class Allowance {
+
+        private final String fragment;
+        private final String reason;
+        private final boolean exact;
+        private boolean fullScan;
+        private boolean filesort;
+        private boolean temporary;
+        private long maxRows = MAX_ROWS;
+
+        private Allowance(String fragment, String reason, boolean exact) {
+            this.fragment = fragment;
+            this.reason = reason;
+            this.exact = exact;
+        }
+
+        private boolean matches(String normalized) {
+            return exact ? normalized.equals(fragment) : normalized.contains(fragment);
+        }
+
+        private Allowance fullScan() {
+            fullScan = true;
+            return this;
+        }
+
+        private Allowance filesort() {
+            filesort = true;
+            return this;
+        }
+
+        private Allowance temporary() {
+            temporary = true;
+            return this;
+        }
+
+        private Allowance unbounded() {
+            maxRows = Long.MAX_VALUE;
+            return this;
+        }
+    }
+
+    private static final class Captured {
+
+        private final String origin;
+        private final String sql;
+        private final List<Object> parameters;
+
+        private Captured(String origin, String sql, List<Object> parameters) {
+            this.origin = origin;
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+    }
+
+    private static final class PlanRow {
+
+        private final String selectType;
+        private final String table;
+        private final String type;
+        private final long rows;
+        private final String extra;
+
+        private PlanRow(String selectType, String table, String type, long rows, String extra) {
+            this.selectType = selectType;
+            this.table = table;
+            this.type = type;
+            this.rows = rows;
+            this.extra = extra;
+        }
+    }
+
+    /*
+     * Representative rows of the seeded data: an ordinary user, one of the
+     * users everyone follows, and neighbours of the ordinary user for the
+     * pairwise lookups.
+     */
+    private static final class Ids {
+
+        private final int user;
+        private final int popular;
+        private final int friend;
+        private final int partner;
+        private final int post;
+        private final int liker;
+        private final int question;
+        private final int scheduledPost;
+        private final int fanOutPost;
+        private final int pendingRequest;
+        private final int pendingReceiver;
+        private final int[] connected;
+        private final int[] blocked;
+        private final int[] comment;
+        private final int[] notifications;
+        private final String tag = "tag5";
+
+        private Ids(Connection conn) throws SQLException {
+            popular = QueryPlanDataset.queryInt(conn, "SELECT user_id FROM qp_seed_users WHERE n = 1");
+            user = QueryPlanDataset.queryInt(conn, "SELECT user_id FROM qp_seed_users WHERE n = 10");
+            friend = QueryPlanDataset.queryInt(conn,
+                    "SELECT following_id FROM follows WHERE follower_id = ? AND following_id <> ? " +
+                    "ORDER BY following_id DESC LIMIT 1", user, popular);
+            partner = QueryPlanDataset.queryInt(conn,
+                    "SELECT receiver_id FROM messages WHERE sender_id = ? LIMIT 1", user);
+            post = QueryPlanDataset.queryInt(conn,
+                    "SELECT post_id FROM qp_seed_posts WHERE user_id = ? ORDER BY n LIMIT 1", user);
+            liker = QueryPlanDataset.queryInt(conn,
+                    "SELECT user_id FROM likes WHERE post_id = ? LIMIT 1", post);
+            question = QueryPlanDataset.queryInt(conn, "SELECT MIN(question_id) FROM security_questions");
+            scheduledPost = QueryPlanDataset.queryInt(conn,
+                    "SELECT sp.post_id FROM scheduled_posts sp " +
+                    "JOIN qp_seed_posts p ON p.post_id = sp.post_id WHERE sp.is_published = false LIMIT 1");
+            fanOutPost = QueryPlanDataset.queryInt(conn,
+                    "SELECT j.post_id FROM notification_fanout_jobs j " +
+                    "JOIN qp_seed_posts p ON p.post_id = j.post_id LIMIT 1");
+            pendingRequest = QueryPlanDataset.queryInt(conn,
+                    "SELECT cr.request_id FROM connection_requests cr " +
+                    "JOIN qp_seed_users u ON u.user_id = cr.receiver_id " +
+                    "WHERE cr.status = 'PENDING' LIMIT 1");
+            pendingReceiver = QueryPlanDataset.queryInt(conn,
+                    "SELECT receiver_id FROM connection_requests WHERE request_id = ?", pendingRequest);
+            connected = pair(conn,
+                    "SELECT cr.sender_id, cr.receiver_id FROM connection_requests cr " +
+                    "JOIN qp_seed_users u ON u.user_id = cr.sender_id " +
+                    "WHERE cr.status = 'ACCEPTED' LIMIT 1");
+            blocked = pair(conn,
+                    "SELECT b.blocker_id, b.blocked_id FROM blocked_users b " +
+                    "JOIN qp_seed_users u ON u.user_id = b.blocker_id LIMIT 1");
+            comment = pair(conn,
+                    "SELECT comment_id, user_id FROM comments WHERE post_id = " + post + " LIMIT 1");
+            notifications = pair(conn,
+                    "SELECT MIN(notification_id), MAX(notification_id) FROM notifications " +
+                    "WHERE user_id = " + user);
+        }
+
+        private static int[] pair(Connection conn, String sql) throws SQLException {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                ResultSet rs = pstmt.executeQuery();
+                return rs.next() ? new int[] { rs.getInt(1), rs.getInt(2) } : new int[2];
+            }
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.revconnect.tools;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Seeds a realistically shaped dataset for QueryPlanCheck and removes it
+ * again. Everything is generated server-side with INSERT ... SELECT over a
+ * numbers table, so even large sizes take seconds.
+ *
+ * Seeded users are named qp_seed_<n>. Their ids are kept in
+ * qp_seed_users and their posts in qp_seed_posts, so the cleanup can find
+ * every row they own, including rows left by an earlier run that crashed.
+ *
+ * Per user: 10 posts, 25 follows (the first three users are followed by
+ * everyone and marked as high fan-out authors), 8 connection requests,
+ * 20 messages over 4 conversations and 30 notifications. Per post: 3 likes,
+ * 2 comments, a share on every second post and 3 hourly engagement buckets.
+ */
+class QueryPlanDataset {
+
+    private static final int POSTS_PER_USER = 10;
+    private static final int FOLLOWS_PER_USER = 25;
+    private static final int POPULAR_USERS = 3;
+    private static final int REQUESTS_PER_USER = 8;
+    private static final int MESSAGES_PER_USER = 20;
+    private static final int NOTIFICATIONS_PER_USER = 30;
+    private static final int LIKES_PER_POST = 3;
+    private static final int TAGS = 200;
+
+    private static final String DIGITS =
+            "(SELECT 0 as d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 " +
+            "UNION ALL SELECT 4 UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 " +
+            "UNION ALL SELECT 8 UNION ALL SELECT 9)";
+
+    private static final String SEEDED_USERS = "SELECT user_id FROM qp_seed_users";
+    private static final String SEEDED_POSTS =
+            "SELECT p.post_id FROM posts p JOIN qp_seed_users u ON u.user_id = p.user_id";
+
+    // Tables keyed by post, cleared for every post written by a seeded user
+    private static final String[] POST_TABLES = {
+            "post_hashtags", "home_timeline", "scheduled_posts", "likes", "comments", "shares",
+            "post_analytics", "post_view_sketches", "post_engagement_buckets",
+            "account_top_posts", "notification_fanout_jobs"
+    };
+
+    // table.column pairs referencing a user, children before parents
+    private static final String[] USER_COLUMNS = {
+            "home_timeline.user_id", "likes.user_id", "comments.user_id", "shares.user_id",
+            "follows.follower_id", "follows.following_id",
+            "connection_requests.sender_id", "connection_requests.receiver_id",
+            "blocked_users.blocker_id", "blocked_users.blocked_id",
+            "messages.sender_id", "messages.receiver_id",
+            "conversations.user_id", "conversations.other_user_id",
+            "notifications.user_id", "notification_read_state.user_id",
+            "notification_preferences.user_id", "high_fanout_authors.user_id",
+            "home_timeline_state.user_id",
+            "account_analytics.user_id", "account_follower_daily.user_id",
+            "account_top_posts.user_id", "user_security_answers.user_id",
+            "profiles.user_id", "posts.user_id", "users.user_id"
+    };
+
+    private static final String[] ANALYZED_TABLES = {
+            "users", "profiles", "user_security_answers", "posts", "scheduled_posts",
+            "post_hashtags", "likes", "comments", "shares", "post_analytics",
+            "post_engagement_buckets", "follows", "connection_requests", "blocked_users",
+            "messages", "conversations", "notifications", "notification_read_state",
+            "notification_preferences", "notification_fanout_jobs", "home_timeline",
+            "high_fanout_authors", "account_analytics", "account_follower_daily",
+            "account_top_posts"
+    };
+
+    private final int users;
+
+    QueryPlanDataset(int users) {
+        if (users < 100 || users > 100000) {
+            throw new IllegalArgumentException("User count must be between 100 and 100000");
+        }
+        this.users = users;
+    }
+
+    void seed(Connection conn) throws SQLException {
+        int posts = users * POSTS_PER_USER;
+
+        execute(conn, "CREATE TABLE qp_seed_seq (n INT NOT NULL, PRIMARY KEY (n))");
+        update(conn, "numbers",
+                "INSERT INTO qp_seed_seq (n) " +
+                "SELECT 1 + a.d + 10 * b.d + 100 * c.d + 1000 * e.d + 10000 * f.d + 100000 * g.d " +
+                "FROM " + DIGITS + " a, " + DIGITS + " b, " + DIGITS + " c, " +
+                DIGITS + " e, " + DIGITS + " f, " + DIGITS + " g " +
+                "WHERE a.d + 10 * b.d + 100 * c.d + 1000 * e.d + 10000 * f.d + 100000 * g.d < ?",
+                Math.max(posts, NOTIFICATIONS_PER_USER));
+
+        update(conn, "users",
+                "INSERT INTO users (email, username, password, user_type, is_private, created_at) " +
+                "SELECT CONCAT('qp_seed_', n, '@example.com'), CONCAT('qp_seed_', n), 'seed', " +
+                "ELT(1 + n % 3, 'PERSONAL', 'CREATOR', 'BUSINESS'), n % 10 = 0, " +
+                "NOW() - INTERVAL n MINUTE FROM qp_seed_seq WHERE n <= ?",
+                users);
+        createUserMap(conn);
+
+        update(conn, "profiles",
+                "INSERT INTO profiles (user_id, name, bio, created_at) " +
+                "SELECT user_id, CONCAT('Seed User ', n), 'qp_seed', NOW() FROM qp_seed_users");
+
+        update(conn, "security answers",
+                "INSERT IGNORE INTO user_security_answers (user_id, question_id, answer_hash, created_at) " +
+                "SELECT u.user_id, q.question_id, 'seed', NOW() FROM qp_seed_users u " +
+                "JOIN security_questions q " +
+                "ON q.question_id = (SELECT MIN(question_id) FROM security_questions)");
+
+        update(conn, "posts",
+                "INSERT INTO posts (user_id, content, hashtags, is_promotional, created_at) " +
+                "SELECT u.user_id, CONCAT('qp_seed post ', s.n), CONCAT('#tag', s.n % " + TAGS + "), " +
+                "s.n % 7 = 0, NOW() - INTERVAL s.n * 3 MINUTE " +
+                "FROM qp_seed_seq s JOIN qp_seed_users u ON u.n = 1 + (s.n - 1) % ? " +
+                "WHERE s.n <= ?",
+                users, posts);
+
+        execute(conn, "CREATE TABLE qp_seed_posts (n INT NOT NULL, post_id INT NOT NULL, " +
+                "user_id INT NOT NULL, created_at DATETIME NOT NULL, " +
+                "PRIMARY KEY (n), UNIQUE KEY (post_id), KEY (user_id))");
+        update(conn, "post map",
+                "INSERT INTO qp_seed_posts (n, post_id, user_id, created_at) " +
+                "SELECT CAST(SUBSTRING(p.content, 14) AS UNSIGNED), p.post_id, p.user_id, p.created_at " +
+                "FROM posts p JOIN qp_seed_users u ON u.user_id = p.user_id");
+
+        update(conn, "post analytics",
+                "INSERT INTO post_analytics (post_id, total_likes, total_comments, total_shares, " +
+                "unique_viewers, last_updated) " +
+                "SELECT post_id, n % 50, n % 20, n % 10, n % 100, NOW() FROM qp_seed_posts");
+
+        update(conn, "hashtags",
+                "INSERT IGNORE INTO post_hashtags (tag, post_id, created_at) " +
+                "SELECT CONCAT('tag', n % " + TAGS + "), post_id, created_at FROM qp_seed_posts");
+
+        update(conn, "scheduled posts",
+                "INSERT INTO scheduled_posts (post_id, scheduled_for, is_published) " +
+                "SELECT post_id, NOW() + INTERVAL n MINUTE, n % 100 <> 0 " +
+                "FROM qp_seed_posts WHERE n % 50 = 0");
+
+        update(conn, "engagement buckets",
+                "INSERT IGNORE INTO post_engagement_buckets " +
+                "(post_id, granularity, bucket_start, likes, comments, shares, views) " +
+                "SELECT p.post_id, 'HOUR', " +
+                "TIMESTAMP(DATE_FORMAT(p.created_at, '%Y-%m-%d %H:00:00')) + INTERVAL k.n HOUR, " +
+                "k.n % 3, k.n % 2, 0, k.n * 2 " +
+                "FROM qp_seed_posts p JOIN qp_seed_seq k ON k.n <= 3");
+
+        update(conn, "follows",
+                "INSERT IGNORE INTO follows (follower_id, following_id, created_at) " +
+                "SELECT a.user_id, b.user_id, NOW() - INTERVAL (a.n + k.n) HOUR " +
+                "FROM qp_seed_users a JOIN qp_seed_seq k ON k.n <= ? " +
+                "JOIN qp_seed_users b ON b.n = CASE WHEN k.n <= ? THEN k.n " +
+                "ELSE 1 + (a.n * 7 + k.n * 131) % ? END " +
+                "WHERE b.user_id <> a.user_id",
+                FOLLOWS_PER_USER, POPULAR_USERS, users);
+
+        update(conn, "high fan-out authors",
+                "INSERT IGNORE INTO high_fanout_authors (user_id, marked_at) " +
+                "SELECT user_id, NOW() FROM qp_seed_users WHERE n <= ?",
+                POPULAR_USERS);
+
+        update(conn, "connection requests",
+                "INSERT IGNORE INTO connection_requests (sender_id, receiver_id, status, created_at) " +
+                "SELECT a.user_id, b.user_id, " +
+                "ELT(1 + (a.n + k.n) % 3, 'ACCEPTED', 'PENDING', 'REJECTED'), " +
+                "NOW() - INTERVAL k.n DAY " +
+                "FROM qp_seed_users a JOIN qp_seed_seq k ON k.n <= ? " +
+                "JOIN qp_seed_users b ON b.n = 1 + (a.n * 17 + k.n * 37) % ? " +
+                "WHERE b.user_id <> a.user_id",
+                REQUESTS_PER_USER, users);
+
+        update(conn, "blocks",
+                "INSERT IGNORE INTO blocked_users (blocker_id, blocked_id, created_at) " +
+                "SELECT a.user_id, b.user_id, NOW() FROM qp_seed_users a " +
+                "JOIN qp_seed_users b ON b.n = 1 + (a.n * 29) % ? " +
+                "WHERE a.n % 5 = 0 AND b.user_id <> a.user_id",
+                users);
+
+        update(conn, "likes",
+                "INSERT IGNORE INTO likes (post_id, user_id, created_at) " +
+                "SELECT p.post_id, u.user_id, p.created_at + INTERVAL k.n MINUTE " +
+                "FROM qp_seed_posts p JOIN qp_seed_seq k ON k.n <= ? " +
+                "JOIN qp_seed_users u ON u.n = 1 + (p.n * 11 + k.n * 101) % ?",
+                LIKES_PER_POST, users);
+
+        update(conn, "comments",
+                "INSERT INTO comments (post_id, user_id, comment_text, created_at) " +
+                "SELECT p.post_id, u.user_id, 'qp_seed comment', p.created_at + INTERVAL k.n HOUR " +
+                "FROM qp_seed_posts p JOIN qp_seed_seq k ON k.n <= 2 " +
+                "JOIN qp_seed_users u ON u.n = 1 + (p.n * 13 + k.n) % ?",
+                users);
+
+        update(conn, "shares",
+                "INSERT INTO shares (post_id, user_id, created_at) " +
+                "SELECT p.post_id, u.user_id, p.created_at + INTERVAL 10 MINUTE " +
+                "FROM qp_seed_posts p JOIN qp_seed_users u ON u.n = 1 + (p.n * 19) % ? " +
+                "WHERE p.n % 2 = 0",
+                users);
+
+        update(conn, "messages",
+                "INSERT INTO messages (sender_id, receiver_id, message_text, is_read, created_at) " +
+                "SELECT a.user_id, b.user_id, CONCAT('qp_seed message ', k.n), k.n % 3 <> 0, " +
+                "NOW() - INTERVAL (a.n * ? + k.n) MINUTE " +
+                "FROM qp_seed_users a JOIN qp_seed_seq k ON k.n <= ? " +
+                "JOIN qp_seed_users b ON b.n = 1 + (a.n + k.n % 4) % ? " +
+                "WHERE b.user_id <> a.user_id",
+                MESSAGES_PER_USER, MESSAGES_PER_USER, users);
+
+        // Approximate summaries: only their shape matters to the planner
+        update(conn, "conversations",
+                "INSERT IGNORE INTO conversations (user_id, other_user_id, last_message_id, " +
+                "last_sender_id, last_message_text, last_activity_at, message_count, " +
+                "unread_count, last_read_message_id) " +
+                "SELECT pair.user_id, pair.other_user_id, MAX(pair.message_id), pair.user_id, " +
+                "'qp_seed', MAX(pair.created_at), COUNT(*), SUM(pair.unread), 0 FROM (" +
+                "SELECT m.sender_id as user_id, m.receiver_id as other_user_id, m.message_id, " +
+                "m.created_at, 0 as unread FROM messages m " +
+                "JOIN qp_seed_users u ON u.user_id = m.sender_id " +
+                "UNION ALL SELECT m.receiver_id, m.sender_id, m.message_id, m.created_at, " +
+                "IF(m.is_read, 0, 1) FROM messages m " +
+                "JOIN qp_seed_users u ON u.user_id = m.sender_id" +
+                ") pair GROUP BY pair.user_id, pair.other_user_id");
+
+        update(conn, "notifications",
+                "INSERT INTO notifications (user_id, type, message, is_read, created_at, actor_count) " +
+                "SELECT u.user_id, ELT(1 + k.n % 5, 'LIKE', 'COMMENT', 'SHARE', 'NEW_FOLLOWER', 'NEW_POST'), " +
+                "'qp_seed notification', k.n > 10, NOW() - INTERVAL k.n HOUR, 1 " +
+                "FROM qp_seed_users u JOIN qp_seed_seq k ON k.n <= ?",
+                NOTIFICATIONS_PER_USER);
+
+        update(conn, "notification read state",
+                "INSERT IGNORE INTO notification_read_state (user_id, last_read_notification_id) " +
+                "SELECT n.user_id, MIN(n.notification_id) + 5 FROM notifications n " +
+                "JOIN qp_seed_users u ON u.user_id = n.user_id WHERE u.n % 2 = 0 " +
+                "GROUP BY n.user_id");
+
+        update(conn, "notification preferences",
+                "INSERT IGNORE INTO notification_preferences (user_id, connection_requests, " +
+                "new_followers, likes, comments, shares, new_posts) " +
+                "SELECT user_id, true, true, n % 2 = 0, true, true, n % 9 <> 0 " +
+                "FROM qp_seed_users WHERE n % 3 = 0");
+
+        update(conn, "fan-out jobs",
+                "INSERT IGNORE INTO notification_fanout_jobs (post_id, author_id, last_recipient_id, created_at) " +
+                "SELECT post_id, user_id, 0, created_at FROM qp_seed_posts WHERE n % 500 = 0");
+
+        // High fan-out authors are merged at read time, as in production
+        update(conn, "home timelines",
+                "INSERT IGNORE INTO home_timeline (user_id, post_id, author_id, created_at) " +
+                "SELECT f.follower_id, p.post_id, p.user_id, p.created_at FROM qp_seed_users u " +
+                "JOIN follows f ON f.follower_id = u.user_id " +
+                "JOIN qp_seed_posts p ON p.user_id = f.following_id " +
+                "LEFT JOIN high_fanout_authors h ON h.user_id = f.following_id " +
+                "WHERE h.user_id IS NULL");
+
+        update(conn, "account analytics",
+                "INSERT IGNORE INTO account_analytics (user_id, total_posts, total_likes, " +
+                "total_comments, total_shares, total_views, follower_count, last_updated) " +
+                "SELECT p.user_id, COUNT(*), SUM(pa.total_likes), SUM(pa.total_comments), " +
+                "SUM(pa.total_shares), SUM(pa.unique_viewers), 0, NOW() " +
+                "FROM qp_seed_posts p JOIN post_analytics pa ON pa.post_id = p.post_id " +
+                "GROUP BY p.user_id");
+
+        update(conn, "account top posts",
+                "INSERT IGNORE INTO account_top_posts (user_id, post_id, engagement) " +
+                "SELECT p.user_id, p.post_id, pa.total_likes + pa.total_comments + pa.total_shares " +
+                "FROM qp_seed_posts p JOIN post_analytics pa ON pa.post_id = p.post_id");
+
+        update(conn, "account follower history",
+                "INSERT IGNORE INTO account_follower_daily (user_id, day, followers_gained, followers_lost) " +
+                "SELECT f.following_id, DATE(f.created_at), COUNT(*), 0 FROM follows f " +
+                "JOIN qp_seed_users u ON u.user_id = f.following_id " +
+                "GROUP BY f.following_id, DATE(f.created_at)");
+
+        // Plans depend on index statistics, which lag behind a bulk load
+        execute(conn, "ANALYZE TABLE " + String.join(", ", ANALYZED_TABLES));
+    }
+
+    /*
+     * Removes every seeded row. Also run before seeding, so leftovers from
+     * a run that was killed halfway never skew the next one.
+     */
+    void cleanup(Connection conn) throws SQLException {
+        execute(conn, "DROP TABLE IF EXISTS qp_seed_seq");
+        execute(conn, "DROP TABLE IF EXISTS qp_seed_posts");
+        createUserMap(conn);
+
+        try {
+            for (String table : POST_TABLES) {
+                execute(conn, "DELETE FROM " + table + " WHERE post_id IN (" + SEEDED_POSTS + ")");
+            }
+
+            for (String column : USER_COLUMNS) {
+                String[] parts = column.split("\\.");
+                execute(conn, "DELETE FROM " + parts[0] + " WHERE " + parts[1] +
+                        " IN (" + SEEDED_USERS + ")");
+            }
+        } finally {
+            execute(conn, "DROP TABLE IF EXISTS qp_seed_users");
+        }
+    }
+
+    static int queryInt(Connection conn, String sql, Object... params) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            bind(pstmt, params);
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private void createUserMap(Connection conn) throws SQLException {
+        execute(conn, "CREATE TABLE IF NOT EXISTS qp_seed_users (n INT NOT NULL, " +
+                "user_id INT NOT NULL, PRIMARY KEY (n), UNIQUE KEY (user_id))");
+        execute(conn, "INSERT IGNORE INTO qp_seed_users (n, user_id) " +
+                "SELECT CAST(SUBSTRING(username, 9) AS UNSIGNED), user_id FROM users " +
+                "WHERE username LIKE 'qp\\_seed\\_%'");
+    }
+
+    private static void update(Connection conn, String label, String sql, Object... params)
+            throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            bind(pstmt, params);
+            System.out.println("Seeded " + label + " (" + pstmt.executeUpdate() + " rows)");
+        }
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static void bind(PreparedStatement pstmt, Object... params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            pstmt.setObject(i + 1, params[i]);
+        }
+    }
+}